@@ -1,7 +1,6 @@
 package org.leocoder.picture.aspect;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,14 +12,17 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.leocoder.picture.annotation.Log;
 import org.leocoder.picture.domain.pojo.OperationLog;
-import org.leocoder.picture.mapper.OperationLogMapper;
-import org.leocoder.picture.utils.*;
+import org.leocoder.picture.manager.log.OperationLogBatchWriter;
+import org.leocoder.picture.utils.IpUtils;
+import org.leocoder.picture.utils.UserContext;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
@@ -38,9 +40,7 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class LogAspect {
 
-    private final OperationLogMapper operationLogMapper;
-
-    private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final OperationLogBatchWriter operationLogBatchWriter;
 
     /**
      * 配置切入点
@@ -80,8 +80,7 @@ public class LogAspect {
      * @param e         异常
      * @param time      耗时(毫秒)
      */
-    @Async
-    protected void handleLog(JoinPoint joinPoint, Object result, Exception e, long time) {
+    private void handleLog(JoinPoint joinPoint, Object result, Exception e, long time) {
         try {
             // 获取当前用户ID
             Long userId = UserContext.getUserId();
@@ -111,7 +110,6 @@ public class LogAspect {
             
             // 构建操作日志对象
             OperationLog operationLog = new OperationLog();
-            operationLog.setId(snowflakeIdGenerator.nextId());
             operationLog.setCreateBy(userId);
             operationLog.setModule(logAnnotation.module());
             operationLog.setAction(actionName);
@@ -126,26 +124,6 @@ public class LogAspect {
                 operationLog.setIp(IpUtils.getIpAddress(request));
             }
             
-            // 处理请求参数
-            if (logAnnotation.saveParams()) {
-                // 过滤敏感字段
-                String params = SensitiveInfoUtils.filterSensitiveInfo(
-                        JSONUtil.toJsonStr(joinPoint.getArgs()), 
-                        logAnnotation.excludeFields()
-                );
-                operationLog.setParams(params);
-            }
-            
-            // 处理响应结果
-            if (logAnnotation.saveResult() && result != null) {
-                // 由于响应结果可能很大，限制长度
-                String resultStr = JSONUtil.toJsonStr(result);
-                if (resultStr.length() > 2000) {
-                    resultStr = resultStr.substring(0, 2000) + "...";
-                }
-                operationLog.setParams(operationLog.getParams() + "\nResponse: " + resultStr);
-            }
-            
             // 处理异常信息
             if (e != null) {
                 operationLog.setStatus(0);
@@ -159,11 +137,33 @@ public class LogAspect {
             operationLog.setCreateBy(userId);
             operationLog.setIsDeleted(0);
             
-            // 保存日志
-            operationLogMapper.insertWithId(operationLog);
+            // 放入缓冲区，参数与结果的序列化和入库由写入线程批量完成
+            Object[] args = logAnnotation.saveParams() ? snapshotArgs(joinPoint.getArgs()) : null;
+            Object savedResult = logAnnotation.saveResult() ? result : null;
+            operationLogBatchWriter.submit(operationLog, args, savedResult, logAnnotation.excludeFields());
         } catch (Exception ex) {
             // 记录日志过程中的异常不应影响业务
             log.error("记录操作日志异常", ex);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 复制方法参数，请求结束后失效的对象（请求、响应、上传文件）替换为简要描述，
+     * 其余参数在写入线程序列化
+     */
+    private Object[] snapshotArgs(Object[] args) {
+        Object[] snapshot = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg instanceof ServletRequest || arg instanceof ServletResponse) {
+                snapshot[i] = null;
+            } else if (arg instanceof MultipartFile) {
+                MultipartFile file = (MultipartFile) arg;
+                snapshot[i] = "MultipartFile(" + file.getOriginalFilename() + ", " + file.getSize() + " bytes)";
+            } else {
+                snapshot[i] = arg;
+            }
+        }
+        return snapshot;
+    }
+}
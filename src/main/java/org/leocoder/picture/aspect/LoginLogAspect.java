@@ -15,9 +15,9 @@ import org.leocoder.picture.domain.dto.user.UserLoginRequest;
 import org.leocoder.picture.domain.pojo.LoginLog;
 import org.leocoder.picture.domain.pojo.User;
 import org.leocoder.picture.domain.vo.user.LoginUserVO;
+import org.leocoder.picture.manager.ip.IpLocationManager;
 import org.leocoder.picture.mapper.LoginLogMapper;
 import org.leocoder.picture.mapper.UserMapper;
-import org.leocoder.picture.utils.AddressUtils;
 import org.leocoder.picture.utils.IpUtils;
 import org.leocoder.picture.utils.SnowflakeIdGenerator;
 import org.leocoder.picture.utils.UserAgentUtils;
@@ -50,6 +50,8 @@ public class LoginLogAspect {
 
     private final UserMapper userMapper;
 
+    private final IpLocationManager ipLocationManager;
+
     /**
      * 配置切入点
      */
@@ -159,10 +161,11 @@ public class LoginLogAspect {
             loginLog.setId(snowflakeIdGenerator.nextId());
             loginLog.setLoginTime(LocalDateTime.now());
             loginLog.setIp(ip);
-            loginLog.setLocation(AddressUtils.getRealAddressByIP(ip));
-            loginLog.setDevice(UserAgentUtils.getDeviceInfo(request));
-            loginLog.setBrowser(UserAgentUtils.getBrowserInfo(request));
-            loginLog.setOs(UserAgentUtils.getOsInfo(request));
+            loginLog.setLocation(ipLocationManager.getLocation(ip));
+            UserAgentUtils.UserAgentInfo userAgentInfo = UserAgentUtils.parse(request);
+            loginLog.setDevice(userAgentInfo.getDevice());
+            loginLog.setBrowser(userAgentInfo.getBrowser());
+            loginLog.setOs(userAgentInfo.getOs());
             loginLog.setStatus(status);
             loginLog.setCreateTime(LocalDateTime.now());
             loginLog.setIsDeleted(0);
@@ -307,10 +310,11 @@ public class LoginLogAspect {
             }
             logoutLog.setLogoutTime(LocalDateTime.now());
             logoutLog.setIp(ip);
-            logoutLog.setLocation(AddressUtils.getRealAddressByIP(ip));
-            logoutLog.setDevice(UserAgentUtils.getDeviceInfo(request));
-            logoutLog.setBrowser(UserAgentUtils.getBrowserInfo(request));
-            logoutLog.setOs(UserAgentUtils.getOsInfo(request));
+            logoutLog.setLocation(ipLocationManager.getLocation(ip));
+            UserAgentUtils.UserAgentInfo userAgentInfo = UserAgentUtils.parse(request);
+            logoutLog.setDevice(userAgentInfo.getDevice());
+            logoutLog.setBrowser(userAgentInfo.getBrowser());
+            logoutLog.setOs(userAgentInfo.getOs());
             logoutLog.setStatus(status);
             logoutLog.setMessage(status == 0 ? "注销成功" : (StrUtil.isBlank(errorMsg) ? "注销失败" : errorMsg));
 
@@ -0,0 +1,197 @@
+package org.leocoder.picture.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.domain.vo.comment.CommentVO;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-08 10:00
+ * @description : 评论树本地缓存（contentType:contentId -> 评论树）
+ * 热门图片的评论树只在首次访问或评论变更后重建一次，读取时返回副本；
+ * 评论新增、删除、审核、置顶和热门变更后在本节点清除并广播给其他节点，过期时间兜底评论者资料变更
+ */
+@Slf4j
+@Component
+public class CommentTreeCache implements MessageListener {
+
+    // 失效消息中表示清空全部评论树的标记
+    public static final String INVALIDATE_ALL = "*";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Cache<String, List<CommentVO>> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CommentTreeCache(RedisTemplate<String, Object> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${picture.cache.comment-tree.maximum-size:1000}") long maximumSize,
+                            @Value("${picture.cache.comment-tree.expire-seconds:120}") long expireSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(RedisConstants.COMMENT_TREE_INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 获取评论树，未命中时调用loader构建并缓存
+     *
+     * @param contentType 内容类型
+     * @param contentId   内容ID
+     * @param loader      评论树构建逻辑
+     * @return 评论树副本
+     */
+    public List<CommentVO> get(String contentType, Long contentId, Supplier<List<CommentVO>> loader) {
+        String key = cacheKey(contentType, contentId);
+        List<CommentVO> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return copyOf(cached);
+        }
+        misses.increment();
+        // 同一内容的并发未命中只构建一次
+        return copyOf(cache.get(key, k -> loader.get()));
+    }
+
+    /**
+     * 评论变更后清除对应内容的评论树
+     * 在事务中调用时，提交后会再清除一次，避免提交前被并发请求以旧数据回填
+     *
+     * @param contentType 内容类型
+     * @param contentId   内容ID
+     */
+    public void invalidate(String contentType, Long contentId) {
+        if (contentType == null || contentId == null) {
+            return;
+        }
+        invalidateKeys(Collections.singletonList(cacheKey(contentType, contentId)));
+    }
+
+    /**
+     * 清除全部评论树（批量操作涉及的内容较多时使用）
+     */
+    public void invalidateAll() {
+        invalidateKeys(Collections.singletonList(INVALIDATE_ALL));
+    }
+
+    /**
+     * 接收其他节点（包括本节点）发布的失效消息
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload instanceof Collection) {
+                evictLocal(((Collection<?>) payload).stream().map(String::valueOf).collect(Collectors.toList()));
+            }
+        } catch (Exception e) {
+            log.warn("解析评论树缓存失效消息失败，清空评论树缓存: {}", e.getMessage());
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 获取缓存命中统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("size", cache.estimatedSize());
+        stats.put("evictions", cache.stats().evictionCount());
+        return stats;
+    }
+
+    private void invalidateKeys(List<String> keys) {
+        invalidations.increment();
+        evictAndBroadcast(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndBroadcast(keys);
+                }
+            });
+        }
+    }
+
+    private void evictAndBroadcast(List<String> keys) {
+        evictLocal(keys);
+        try {
+            redisTemplate.convertAndSend(RedisConstants.COMMENT_TREE_INVALIDATION_CHANNEL, new ArrayList<>(keys));
+        } catch (Exception e) {
+            log.warn("广播评论树缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+
+    private void evictLocal(Collection<String> keys) {
+        if (keys.contains(INVALIDATE_ALL)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private String cacheKey(String contentType, Long contentId) {
+        return contentType + ":" + contentId;
+    }
+
+    /**
+     * 逐层复制评论节点，用户信息对象只读共享
+     */
+    private List<CommentVO> copyOf(List<CommentVO> source) {
+        List<CommentVO> result = new ArrayList<>(source.size());
+        Deque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{source, result});
+        while (!stack.isEmpty()) {
+            Object[] frame = stack.pop();
+            @SuppressWarnings("unchecked")
+            List<CommentVO> from = (List<CommentVO>) frame[0];
+            @SuppressWarnings("unchecked")
+            List<CommentVO> to = (List<CommentVO>) frame[1];
+            for (CommentVO node : from) {
+                CommentVO copy = new CommentVO();
+                BeanUtils.copyProperties(node, copy, "children");
+                to.add(copy);
+                if (node.getChildren() != null && !node.getChildren().isEmpty()) {
+                    stack.push(new Object[]{node.getChildren(), copy.getChildren()});
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -4,22 +4,28 @@ import cn.hutool.core.collection.CollUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.leocoder.picture.constant.RedisKeyConstants;
-import org.springframework.data.redis.core.Cursor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author : 程序员Leo
  * @version 1.0
  * @date 2025-04-24 10:00
  * @description : 图片缓存管理器 - 处理缓存一致性
+ * 瀑布流/计数缓存写入时按排序方式、分类、标签、用户等维度登记到Redis ZSET索引中（分值为缓存键的过期时间），
+ * 失效时只需读取相关索引并流水线UNLINK，不再对整个键空间执行SCAN；
+ * 每次登记时顺带移除索引中已过期的成员，自然过期的缓存键不会在索引中无限累积；
+ * 被清除的瀑布流键同时通过Redis发布订阅广播给各节点的本地缓存
  */
 @Slf4j
 @Component
@@ -27,39 +33,92 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class PictureCacheManager {
 
     private final RedisTemplate<String, Object> redisTemplate;
-    
+
+    private final PictureWaterfallNearCache waterfallNearCache;
+
     // 阈值管理 - 避免频繁清除缓存
     private final ConcurrentHashMap<Long, AtomicInteger> viewCountThresholds = new ConcurrentHashMap<>();
     // 每5次浏览增加才清除缓存
     private static final int VIEW_COUNT_THRESHOLD = 5;
-    
+
+    // 所有排序方式
+    private static final List<String> ALL_SORTS = List.of("newest", "popular", "mostViewed", "mostLiked", "mostCollected");
+
+    // 单条UNLINK/SREM命令携带的最大键数量
+    private static final int UNLINK_BATCH_SIZE = 500;
+
+    // 单条失效广播携带的最大键数量，超过时直接通知各节点清空本地缓存
+    private static final int BROADCAST_MAX_KEYS = 1000;
+
+    // 失效事件统计：事件名 -> 统计数据
+    private final ConcurrentHashMap<String, InvalidationMetrics> invalidationMetrics = new ConcurrentHashMap<>();
+
+
+    /**
+     * 缓存瀑布流结果并登记索引
+     *
+     * @param cacheKey      缓存键
+     * @param value         缓存值
+     * @param expireMinutes 过期时间（分钟）
+     * @param initialPage   是否为首屏数据
+     * @param sortBy        排序方式
+     * @param categoryId    分类ID
+     * @param tagIds        标签ID列表
+     * @param userId        上传者ID
+     */
+    public void cacheWaterfallResult(String cacheKey, Object value, int expireMinutes, boolean initialPage,
+                                     String sortBy, Long categoryId, List<Long> tagIds, Long userId) {
+        List<String> indexKeys = new ArrayList<>();
+        indexKeys.add(RedisKeyConstants.INDEX_ALL_WATERFALL);
+        indexKeys.add(RedisKeyConstants.buildSortIndexKey(sortBy));
+        if (initialPage) {
+            indexKeys.add(RedisKeyConstants.INDEX_INITIAL);
+        }
+        indexKeys.addAll(buildDimensionIndexKeys(categoryId, tagIds, userId));
+
+        cacheWithIndex(cacheKey, value, expireMinutes, indexKeys);
+    }
+
+    /**
+     * 缓存图片总数并登记索引
+     *
+     * @param cacheKey      缓存键
+     * @param total         图片总数
+     * @param expireMinutes 过期时间（分钟）
+     * @param categoryId    分类ID
+     * @param tagIds        标签ID列表
+     * @param userId        上传者ID
+     */
+    public void cacheCountResult(String cacheKey, Long total, int expireMinutes,
+                                 Long categoryId, List<Long> tagIds, Long userId) {
+        List<String> indexKeys = new ArrayList<>();
+        indexKeys.add(RedisKeyConstants.INDEX_ALL_COUNT);
+        indexKeys.addAll(buildDimensionIndexKeys(categoryId, tagIds, userId));
+
+        cacheWithIndex(cacheKey, total, expireMinutes, indexKeys);
+    }
 
     /**
      * 图片上传后清除相关缓存
      * @param userId 用户ID
      */
     public void invalidateAfterPictureUpload(Long userId) {
+        List<String> indexKeys = new ArrayList<>();
         // 清除所有初始瀑布流页面的缓存，包括各种排序方式
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "initial:*");
-
-        // 仍然特别清除"最新"排序的缓存，确保肯定被清除
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*newest*");
-
-        // 清除首页可能使用的其他排序方式
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*popular*");
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*mostViewed*");
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*mostLiked*");
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*mostCollected*");
-
-        // 如果按用户筛选，清除该用户的缓存（保持原有逻辑）
+        indexKeys.add(RedisKeyConstants.INDEX_INITIAL);
+        // 清除首页可能使用的所有排序方式
+        for (String sortBy : ALL_SORTS) {
+            indexKeys.add(RedisKeyConstants.buildSortIndexKey(sortBy));
+        }
+        // 如果按用户筛选，清除该用户的缓存
         if (userId != null) {
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:u" + userId + ":*");
+            indexKeys.add(RedisKeyConstants.buildUserIndexKey(userId));
         }
+        // 图片总数缓存也需要清除
+        indexKeys.add(RedisKeyConstants.INDEX_ALL_COUNT);
 
-        // 图片总数缓存也需要清除（保持原有逻辑）
-        invalidateByPattern(RedisKeyConstants.COUNT_PREFIX + "*");
-
-        log.info("图片上传后已清除相关缓存 - 用户ID={}, 包含所有主页缓存", userId);
+        int removed = invalidateByIndex("pictureUpload", indexKeys);
+        log.info("图片上传后已清除相关缓存 - 用户ID={}, 清除键数量={}", userId, removed);
     }
 
     /**
@@ -67,13 +126,14 @@ public class PictureCacheManager {
      */
     public void invalidateAfterPictureEdit(Long pictureId, Long oldCategoryId, Long newCategoryId,
                                            List<Long> oldTagIds, List<Long> newTagIds) {
+        List<String> indexKeys = new ArrayList<>();
+
         // 清除分类相关缓存
         if (oldCategoryId != null) {
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:c" + oldCategoryId + ":*");
+            indexKeys.add(RedisKeyConstants.buildCategoryIndexKey(oldCategoryId));
         }
-
         if (newCategoryId != null && !newCategoryId.equals(oldCategoryId)) {
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:c" + newCategoryId + ":*");
+            indexKeys.add(RedisKeyConstants.buildCategoryIndexKey(newCategoryId));
         }
 
         // 清除标签相关缓存
@@ -84,143 +144,351 @@ public class PictureCacheManager {
         if (CollUtil.isNotEmpty(newTagIds)) {
             allTagIds.addAll(newTagIds);
         }
-
         for (Long tagId : allTagIds) {
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:t*" + tagId + "*:*");
+            indexKeys.add(RedisKeyConstants.buildTagIndexKey(tagId));
         }
 
-        // 清除首页缓存（所有排序方式）
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "initial:*");
-
-        // 清除所有排序相关的缓存
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*newest*");
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*popular*");
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*mostViewed*");
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*mostLiked*");
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*mostCollected*");
+        // 清除首页缓存以及所有排序相关的缓存
+        indexKeys.add(RedisKeyConstants.INDEX_INITIAL);
+        for (String sortBy : ALL_SORTS) {
+            indexKeys.add(RedisKeyConstants.buildSortIndexKey(sortBy));
+        }
 
         // 清除图片总数相关缓存
-        invalidateByPattern(RedisKeyConstants.COUNT_PREFIX + "*");
+        indexKeys.add(RedisKeyConstants.INDEX_ALL_COUNT);
 
-        log.info("图片编辑后已清除相关缓存: pictureId={}, 包含首页和排序缓存", pictureId);
+        int removed = invalidateByIndex("pictureEdit", indexKeys);
+        log.info("图片编辑后已清除相关缓存: pictureId={}, 清除键数量={}", pictureId, removed);
     }
-    
+
     /**
      * 图片审核状态变更后清除缓存
      */
     public void invalidateAfterReviewStatusChange() {
         // 审核状态变更会影响所有瀑布流缓存
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*");
-        invalidateByPattern(RedisKeyConstants.COUNT_PREFIX + "*");
-        log.info("图片审核状态变更后已清除所有瀑布流缓存");
+        int removed = invalidateEverything("reviewStatusChange");
+        log.info("图片审核状态变更后已清除所有瀑布流缓存, 清除键数量={}", removed);
     }
-    
+
     /**
      * 图片浏览量变更后清除缓存（带阈值控制）
      */
     public void invalidateAfterViewCountIncrement(Long pictureId) {
         AtomicInteger counter = viewCountThresholds.computeIfAbsent(pictureId, k -> new AtomicInteger(0));
-        
+
         // 当计数达到阈值时才执行缓存清除
         if (counter.incrementAndGet() >= VIEW_COUNT_THRESHOLD) {
             counter.set(0);
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:popular:*");
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:mostViewed:*");
-            log.info("图片浏览量增加达到阈值，已清除排序相关缓存: pictureId={}", pictureId);
+            int removed = invalidateByIndex("viewCountChange", List.of(
+                    RedisKeyConstants.buildSortIndexKey("popular"),
+                    RedisKeyConstants.buildSortIndexKey("mostViewed")));
+            log.info("图片浏览量增加达到阈值，已清除排序相关缓存: pictureId={}, 清除键数量={}", pictureId, removed);
         }
     }
-    
+
+    /**
+     * 浏览量批量刷新后清除缓存（每个刷新周期最多执行一次）
+     *
+     * @param pictureCount 本次刷新涉及的图片数量
+     */
+    public void invalidateAfterViewCountFlush(int pictureCount) {
+        int removed = invalidateByIndex("viewCountFlush", List.of(
+                RedisKeyConstants.buildSortIndexKey("popular"),
+                RedisKeyConstants.buildSortIndexKey("mostViewed")));
+        log.debug("浏览量批量刷新后已清除排序相关缓存: 图片数={}, 清除键数量={}", pictureCount, removed);
+    }
+
+    /**
+     * 批量消费互动消息后清除缓存（一批消息只执行一次，受影响的排序方式去重后合并清除）
+     *
+     * @param sortBys      受影响的排序方式
+     * @param pictureCount 本批涉及的图片数量
+     */
+    public void invalidateAfterReactionBatch(Collection<String> sortBys, int pictureCount) {
+        if (CollUtil.isEmpty(sortBys)) {
+            return;
+        }
+        List<String> indexKeys = new ArrayList<>();
+        for (String sortBy : new LinkedHashSet<>(sortBys)) {
+            indexKeys.add(RedisKeyConstants.buildSortIndexKey(sortBy));
+        }
+        int removed = invalidateByIndex("reactionBatch", indexKeys);
+        log.debug("批量互动计数更新后已清除排序相关缓存: 排序方式={}, 图片数={}, 清除键数量={}", sortBys, pictureCount, removed);
+    }
+
     /**
      * 图片点赞数变更后清除缓存
      */
     public void invalidateAfterLikeCountChange(Long pictureId) {
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:mostLiked:*");
-        log.info("图片点赞数变更后已清除排序相关缓存: pictureId={}", pictureId);
+        int removed = invalidateByIndex("likeCountChange",
+                List.of(RedisKeyConstants.buildSortIndexKey("mostLiked")));
+        log.info("图片点赞数变更后已清除排序相关缓存: pictureId={}, 清除键数量={}", pictureId, removed);
     }
-    
+
     /**
      * 图片收藏数变更后清除缓存
      */
     public void invalidateAfterCollectionCountChange(Long pictureId) {
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:mostCollected:*");
-        log.info("图片收藏数变更后已清除排序相关缓存: pictureId={}", pictureId);
+        int removed = invalidateByIndex("collectionCountChange",
+                List.of(RedisKeyConstants.buildSortIndexKey("mostCollected")));
+        log.info("图片收藏数变更后已清除排序相关缓存: pictureId={}, 清除键数量={}", pictureId, removed);
     }
-    
+
     /**
      * 批量操作后清除所有缓存
      */
     public void invalidateAllCaches() {
-        invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*");
-        invalidateByPattern(RedisKeyConstants.COUNT_PREFIX + "*");
-        log.info("已清除所有图片相关缓存");
+        int removed = invalidateEverything("all");
+        log.info("已清除所有图片相关缓存, 清除键数量={}", removed);
     }
-    
+
     /**
-     * 使用scan命令高效清除匹配模式的缓存键
-     * 相比keys命令更适合生产环境
+     * 清除所有与计数相关的缓存（用于定时任务后的缓存刷新）
      */
-    private void invalidateByPattern(String pattern) {
+    public void invalidateCountRelatedCaches() {
         try {
-            Set<String> keys = new HashSet<>();
-            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(100).build();
-            
-            Cursor<String> cursor = redisTemplate.scan(options);
-            while (cursor.hasNext()) {
-                keys.add(cursor.next());
-                
-                // 当收集到一定数量的键时批量删除
-                if (keys.size() >= 100) {
-                    if (!keys.isEmpty()) {
-                        redisTemplate.delete(keys);
-                    }
-                    keys.clear();
+            // 清除所有基于计数排序的缓存
+            int removed = invalidateByIndex("countRelated", List.of(
+                    RedisKeyConstants.buildSortIndexKey("popular"),
+                    RedisKeyConstants.buildSortIndexKey("mostViewed"),
+                    RedisKeyConstants.buildSortIndexKey("mostLiked"),
+                    RedisKeyConstants.buildSortIndexKey("mostCollected")));
+            log.info("已清除所有与计数相关的缓存, 清除键数量={}", removed);
+        } catch (Exception e) {
+            log.error("清除计数相关缓存失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 图片删除后清除相关缓存
+     * @param pictureId 图片ID
+     */
+    public void invalidateAfterPictureDelete(Long pictureId) {
+        try {
+            // 清除瀑布流及图片计数相关缓存
+            int removed = invalidateEverything("pictureDelete");
+            log.info("图片删除后已清除相关缓存: pictureId={}, 清除键数量={}", pictureId, removed);
+        } catch (Exception e) {
+            log.error("清除图片删除相关缓存失败: pictureId={}, error={}", pictureId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取缓存失效统计数据
+     *
+     * @return 事件名 -> {事件次数, 累计清除键数, 最近一次清除键数, 单次最大清除键数}
+     */
+    public Map<String, Map<String, Long>> getInvalidationStats() {
+        Map<String, Map<String, Long>> stats = new TreeMap<>();
+        invalidationMetrics.forEach((event, metrics) -> stats.put(event, metrics.snapshot()));
+        return stats;
+    }
+
+    /**
+     * 清除全部瀑布流及计数缓存，并清理各维度索引中残留的键
+     */
+    private int invalidateEverything(String event) {
+        List<String> indexKeys = new ArrayList<>();
+        indexKeys.add(RedisKeyConstants.INDEX_ALL_WATERFALL);
+        indexKeys.add(RedisKeyConstants.INDEX_ALL_COUNT);
+
+        // 全量清除时，同时从所有已登记的维度索引中移除这些键
+        try {
+            Set<Object> registered = redisTemplate.opsForZSet().range(RedisKeyConstants.INDEX_REGISTRY, 0, -1);
+            if (CollUtil.isNotEmpty(registered)) {
+                for (Object indexKey : registered) {
+                    indexKeys.add(String.valueOf(indexKey));
                 }
             }
-            
-            // 删除剩余的键
-            if (!keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.debug("已清除{}个缓存键", keys.size());
+        } catch (Exception e) {
+            log.warn("读取缓存索引登记表失败: {}", e.getMessage());
+        }
+
+        int removed = invalidateByIndex(event, indexKeys);
+        broadcastInvalidation(List.of(PictureWaterfallNearCache.INVALIDATE_ALL));
+        return removed;
+    }
+
+    /**
+     * 根据索引清除缓存键
+     * 1. 流水线 ZRANGE 读取所有相关索引中的缓存键并合并
+     * 2. 流水线 UNLINK 这些缓存键（后台异步释放内存，不阻塞Redis）
+     * 3. 仅从索引中 ZREM 本次读到的成员，不会误删并发新登记的键；
+     *    同一缓存键在其他未涉及的索引中残留的成员，到其过期时间后由下次登记清理
+     *
+     * @param event     失效事件名称（用于统计）
+     * @param indexKeys 索引键列表
+     * @return 清除的缓存键数量
+     */
+    private int invalidateByIndex(String event, Collection<String> indexKeys) {
+        long startTime = System.nanoTime();
+        int removed = 0;
+        try {
+            List<String> distinctIndexKeys = new ArrayList<>(new LinkedHashSet<>(indexKeys));
+            Set<String> members = readIndexMembers(distinctIndexKeys);
+            if (CollUtil.isNotEmpty(members)) {
+                List<String> cacheKeys = new ArrayList<>(members);
+                removed = cacheKeys.size();
+
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                        RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                        for (List<String> batch : CollUtil.split(cacheKeys, UNLINK_BATCH_SIZE)) {
+                            ops.unlink(batch);
+                            Object[] batchMembers = batch.toArray();
+                            for (String indexKey : distinctIndexKeys) {
+                                ops.opsForZSet().remove(indexKey, batchMembers);
+                            }
+                        }
+                        return null;
+                    }
+                });
+
+                List<String> waterfallKeys = new ArrayList<>();
+                for (String cacheKey : cacheKeys) {
+                    if (cacheKey.startsWith(RedisKeyConstants.WATERFALL_PREFIX)) {
+                        waterfallKeys.add(cacheKey);
+                    }
+                }
+                if (!waterfallKeys.isEmpty()) {
+                    broadcastInvalidation(waterfallKeys.size() > BROADCAST_MAX_KEYS
+                            ? List.of(PictureWaterfallNearCache.INVALIDATE_ALL) : waterfallKeys);
+                }
             }
-            
-            cursor.close();
         } catch (Exception e) {
-            log.error("清除缓存键失败: pattern={}, error={}", pattern, e.getMessage(), e);
+            log.error("按索引清除缓存失败: event={}, indexKeys={}, error={}", event, indexKeys, e.getMessage(), e);
         }
+
+        long costMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        invalidationMetrics.computeIfAbsent(event, k -> new InvalidationMetrics()).record(removed, costMicros);
+        log.debug("缓存失效事件: event={}, 索引数={}, 清除键数量={}, 耗时={}μs",
+                event, indexKeys.size(), removed, costMicros);
+        return removed;
     }
 
     /**
-     * 清除所有与计数相关的缓存（用于定时任务后的缓存刷新）
+     * 清除本节点本地缓存，并广播失效消息通知其他节点
      */
-    public void invalidateCountRelatedCaches() {
+    private void broadcastInvalidation(List<String> cacheKeys) {
+        if (cacheKeys.contains(PictureWaterfallNearCache.INVALIDATE_ALL)) {
+            waterfallNearCache.evictAllLocal();
+        } else {
+            waterfallNearCache.evictLocal(cacheKeys);
+        }
         try {
-            // 清除所有基于计数排序的缓存
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:popular:*");
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:mostViewed:*");
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:mostLiked:*");
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*:mostCollected:*");
-            log.info("已清除所有与计数相关的缓存");
+            // 使用ArrayList发送，保证接收端按默认类型信息反序列化
+            redisTemplate.convertAndSend(RedisKeyConstants.CACHE_INVALIDATION_CHANNEL, new ArrayList<>(cacheKeys));
         } catch (Exception e) {
-            log.error("清除计数相关缓存失败: {}", e.getMessage(), e);
+            log.warn("广播缓存失效消息失败: {}", e.getMessage());
         }
     }
 
     /**
-     * 图片删除后清除相关缓存
-     * @param pictureId 图片ID
+     * 流水线读取各索引的成员并合并
      */
-    public void invalidateAfterPictureDelete(Long pictureId) {
+    private Set<String> readIndexMembers(List<String> indexKeys) {
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String indexKey : indexKeys) {
+                    ops.opsForZSet().range(indexKey, 0, -1);
+                }
+                return null;
+            }
+        });
+        Set<String> members = new LinkedHashSet<>();
+        for (Object reply : replies) {
+            if (reply instanceof Collection) {
+                for (Object member : (Collection<?>) reply) {
+                    members.add(String.valueOf(member));
+                }
+            }
+        }
+        return members;
+    }
+
+    /**
+     * 写入缓存并在同一条流水线中将缓存键登记到各索引
+     * 索引成员的分值为缓存键的过期时间，登记时移除已过期的成员；登记表同样按索引的过期时间清理
+     */
+    private void cacheWithIndex(String cacheKey, Object value, int expireMinutes, List<String> indexKeys) {
+        long now = System.currentTimeMillis();
+        double cacheExpireAt = now + TimeUnit.MINUTES.toMillis(expireMinutes);
+        double indexExpireAt = now + TimeUnit.MINUTES.toMillis(RedisKeyConstants.CACHE_INDEX_EXPIRE_MINUTES);
         try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForValue().set(cacheKey, value, expireMinutes, TimeUnit.MINUTES);
+                    for (String indexKey : indexKeys) {
+                        ops.opsForZSet().add(indexKey, cacheKey, cacheExpireAt);
+                        ops.opsForZSet().removeRangeByScore(indexKey, 0, now);
+                        ops.expire(indexKey, RedisKeyConstants.CACHE_INDEX_EXPIRE_MINUTES, TimeUnit.MINUTES);
+                        ops.opsForZSet().add(RedisKeyConstants.INDEX_REGISTRY, indexKey, indexExpireAt);
+                    }
+                    ops.opsForZSet().removeRangeByScore(RedisKeyConstants.INDEX_REGISTRY, 0, now);
+                    ops.expire(RedisKeyConstants.INDEX_REGISTRY, RedisKeyConstants.CACHE_INDEX_EXPIRE_MINUTES, TimeUnit.MINUTES);
+                    return null;
+                }
+            });
+            log.debug("缓存已写入并登记索引: {}, 索引数={}, 过期时间: {}分钟", cacheKey, indexKeys.size(), expireMinutes);
+        } catch (Exception e) {
+            log.warn("写入缓存并登记索引失败: key={}, error={}", cacheKey, e.getMessage());
+        }
+    }
 
-            // 清除瀑布流相关缓存
-            invalidateByPattern(RedisKeyConstants.WATERFALL_PREFIX + "*");
+    /**
+     * 构建分类、标签、用户维度的索引键
+     */
+    private List<String> buildDimensionIndexKeys(Long categoryId, List<Long> tagIds, Long userId) {
+        List<String> indexKeys = new ArrayList<>();
+        if (categoryId != null) {
+            indexKeys.add(RedisKeyConstants.buildCategoryIndexKey(categoryId));
+        }
+        if (CollUtil.isNotEmpty(tagIds)) {
+            for (Long tagId : tagIds) {
+                indexKeys.add(RedisKeyConstants.buildTagIndexKey(tagId));
+            }
+        }
+        if (userId != null) {
+            indexKeys.add(RedisKeyConstants.buildUserIndexKey(userId));
+        }
+        return indexKeys;
+    }
 
-            // 清除图片计数相关缓存
-            invalidateByPattern(RedisKeyConstants.COUNT_PREFIX + "*");
+    /**
+     * 单个失效事件的统计数据
+     */
+    private static class InvalidationMetrics {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder keys = new LongAdder();
+        private final LongAdder costMicros = new LongAdder();
+        private final AtomicLong maxKeys = new AtomicLong();
+        private volatile long lastKeys;
 
-            log.info("图片删除后已清除相关缓存: pictureId={}", pictureId);
-        } catch (Exception e) {
-            log.error("清除图片删除相关缓存失败: pictureId={}, error={}", pictureId, e.getMessage(), e);
+        void record(int removed, long cost) {
+            events.increment();
+            keys.add(removed);
+            costMicros.add(cost);
+            maxKeys.accumulateAndGet(removed, Math::max);
+            lastKeys = removed;
+        }
+
+        Map<String, Long> snapshot() {
+            Map<String, Long> snapshot = new LinkedHashMap<>();
+            long eventCount = events.sum();
+            snapshot.put("events", eventCount);
+            snapshot.put("keysInvalidated", keys.sum());
+            snapshot.put("lastKeys", lastKeys);
+            snapshot.put("maxKeys", maxKeys.get());
+            snapshot.put("avgCostMicros", eventCount == 0 ? 0 : costMicros.sum() / eventCount);
+            return snapshot;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package org.leocoder.picture.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constant.RedisKeyConstants;
+import org.leocoder.picture.domain.vo.picture.PictureVO;
+import org.leocoder.picture.domain.vo.picture.PictureWaterfallVO;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-04-28 10:00
+ * @description : 瀑布流两级缓存 - Caffeine本地缓存 + Redis
+ * 本地缓存只保存不含用户交互状态的原始结果，读写时均做浅拷贝，调用方可放心填充点赞/收藏状态；
+ * 各节点通过Redis发布订阅接收 {@link PictureCacheManager} 发出的失效消息，保持本地缓存一致
+ */
+@Slf4j
+@Component
+public class PictureWaterfallNearCache implements MessageListener {
+
+    // 失效消息中表示清空全部本地缓存的标记
+    public static final String INVALIDATE_ALL = "*";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Cache<String, PictureWaterfallVO> localCache;
+
+    // 各级缓存命中统计
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder invalidationMessages = new LongAdder();
+
+    public PictureWaterfallNearCache(RedisTemplate<String, Object> redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     @Value("${picture.cache.near.maximum-size:500}") long maximumSize,
+                                     @Value("${picture.cache.near.expire-seconds:60}") long expireSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        // 本地缓存过期时间远小于Redis，跨节点失效消息丢失时也只会短暂不一致
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyConstants.CACHE_INVALIDATION_CHANNEL));
+        log.info("瀑布流本地缓存已订阅失效频道: {}", RedisKeyConstants.CACHE_INVALIDATION_CHANNEL);
+    }
+
+    /**
+     * 依次查询本地缓存和Redis，Redis命中时回填本地缓存
+     *
+     * @param cacheKey 缓存键
+     * @return 结果副本，未命中返回null
+     */
+    public PictureWaterfallVO get(String cacheKey) {
+        PictureWaterfallVO local = localCache.getIfPresent(cacheKey);
+        if (local != null) {
+            localHits.increment();
+            return copyOf(local);
+        }
+        localMisses.increment();
+
+        try {
+            Object cachedObject = redisTemplate.opsForValue().get(cacheKey);
+            if (cachedObject instanceof PictureWaterfallVO) {
+                redisHits.increment();
+                PictureWaterfallVO remote = (PictureWaterfallVO) cachedObject;
+                // Redis反序列化出的对象为独立实例，直接放入本地缓存，返回副本
+                localCache.put(cacheKey, remote);
+                log.debug("从Redis获取瀑布流数据并回填本地缓存: {}", cacheKey);
+                return copyOf(remote);
+            }
+        } catch (Exception e) {
+            log.warn("从缓存获取瀑布流数据失败: {}", e.getMessage());
+        }
+        redisMisses.increment();
+        return null;
+    }
+
+    /**
+     * 写入本地缓存（保存副本，调用方后续修改不影响缓存内容）
+     */
+    public void putLocal(String cacheKey, PictureWaterfallVO value) {
+        if (value != null) {
+            localCache.put(cacheKey, copyOf(value));
+        }
+    }
+
+    /**
+     * 清除本节点的指定本地缓存
+     */
+    public void evictLocal(Collection<String> cacheKeys) {
+        if (CollUtil.isNotEmpty(cacheKeys)) {
+            localCache.invalidateAll(cacheKeys);
+        }
+    }
+
+    /**
+     * 清除本节点的全部本地缓存
+     */
+    public void evictAllLocal() {
+        localCache.invalidateAll();
+    }
+
+    /**
+     * 接收其他节点（包括本节点）发布的失效消息
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidationMessages.increment();
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(payload instanceof Collection)) {
+                return;
+            }
+            List<String> cacheKeys = new ArrayList<>();
+            for (Object key : (Collection<?>) payload) {
+                cacheKeys.add(String.valueOf(key));
+            }
+            if (cacheKeys.contains(INVALIDATE_ALL)) {
+                evictAllLocal();
+            } else {
+                evictLocal(cacheKeys);
+            }
+            log.debug("收到瀑布流缓存失效消息, 键数量={}", cacheKeys.size());
+        } catch (Exception e) {
+            // 解析失败时保守处理，清空本地缓存
+            log.warn("解析缓存失效消息失败，清空本地缓存: {}", e.getMessage());
+            evictAllLocal();
+        }
+    }
+
+    /**
+     * 获取两级缓存命中统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("localHits", localHits.sum());
+        stats.put("localMisses", localMisses.sum());
+        stats.put("redisHits", redisHits.sum());
+        stats.put("redisMisses", redisMisses.sum());
+        stats.put("localSize", localCache.estimatedSize());
+        stats.put("localEvictions", localCache.stats().evictionCount());
+        stats.put("invalidationMessages", invalidationMessages.sum());
+        return stats;
+    }
+
+    /**
+     * 浅拷贝瀑布流结果，图片对象逐个复制，用户交互状态互不影响
+     */
+    private PictureWaterfallVO copyOf(PictureWaterfallVO source) {
+        List<PictureVO> records = null;
+        if (source.getRecords() != null) {
+            records = new ArrayList<>(source.getRecords().size());
+            for (PictureVO record : source.getRecords()) {
+                PictureVO copy = new PictureVO();
+                BeanUtils.copyProperties(record, copy);
+                records.add(copy);
+            }
+        }
+        return PictureWaterfallVO.builder()
+                .records(records)
+                .hasMore(source.getHasMore())
+                .lastId(source.getLastId())
+                .lastValue(source.getLastValue())
+                .total(source.getTotal())
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package org.leocoder.picture.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.mapper.UserMapper;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-04-28 18:00
+ * @description : 用户资料本地缓存（id -> User）
+ * 供登录上下文拦截器、图片/评论列表的用户信息填充共用，缺失的ID合并为一次批量查询；
+ * 缓存中的对象不对外暴露，读取时返回副本；用户资料变更后在本节点清除并广播给其他节点
+ */
+@Slf4j
+@Component
+public class UserProfileCache implements MessageListener {
+
+    private final UserMapper userMapper;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Cache<Long, User> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserProfileCache(UserMapper userMapper,
+                            RedisTemplate<String, Object> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${picture.cache.user.maximum-size:10000}") long maximumSize,
+                            @Value("${picture.cache.user.expire-seconds:300}") long expireSeconds) {
+        this.userMapper = userMapper;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(RedisConstants.USER_PROFILE_INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 获取用户信息（未命中时查询数据库）
+     *
+     * @param userId 用户ID
+     * @return 用户信息副本，不存在返回null
+     */
+    public User get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return getAll(Collections.singletonList(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户信息，未命中的ID合并为一次IN查询
+     *
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 用户信息副本（不存在的ID不包含在结果中）
+     */
+    public Map<Long, User> getAll(Collection<Long> userIds) {
+        Map<Long, User> result = new HashMap<>();
+        if (CollUtil.isEmpty(userIds)) {
+            return result;
+        }
+
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            User cached = cache.getIfPresent(userId);
+            if (cached != null) {
+                result.put(userId, copyOf(cached));
+            } else {
+                missing.add(userId);
+            }
+        }
+        hits.add(result.size());
+
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            List<User> users = userMapper.selectByIds(missing);
+            for (User user : users) {
+                cache.put(user.getId(), user);
+                result.put(user.getId(), copyOf(user));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 用户资料变更后清除缓存
+     * 在事务中调用时，提交后会再清除一次，避免提交前被并发请求以旧数据回填
+     *
+     * @param userIds 用户ID列表
+     */
+    public void invalidate(Collection<Long> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        evictAndBroadcast(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndBroadcast(ids);
+                }
+            });
+        }
+    }
+
+    /**
+     * 清除单个用户缓存
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            invalidate(Collections.singletonList(userId));
+        }
+    }
+
+    /**
+     * 接收其他节点（包括本节点）发布的失效消息
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload instanceof Collection) {
+                for (Object userId : (Collection<?>) payload) {
+                    cache.invalidate(Long.valueOf(String.valueOf(userId)));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("解析用户缓存失效消息失败，清空用户缓存: {}", e.getMessage());
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 获取缓存命中统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("size", cache.estimatedSize());
+        return stats;
+    }
+
+    private void evictAndBroadcast(List<Long> userIds) {
+        cache.invalidateAll(userIds);
+        try {
+            redisTemplate.convertAndSend(RedisConstants.USER_PROFILE_INVALIDATION_CHANNEL, new ArrayList<>(userIds));
+        } catch (Exception e) {
+            log.warn("广播用户缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+
+    private User copyOf(User source) {
+        User copy = new User();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+}
@@ -5,6 +5,7 @@ import com.github.pagehelper.PageHelper;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -44,6 +45,24 @@ public class PageUtils {
     public static <T, R> PageResult<R> doPage(PageRequest pageRequest, 
                                              Supplier<List<T>> queryExecutor,
                                              Function<T, R> converter) {
+        return doPage(pageRequest, queryExecutor, converter, null);
+    }
+
+    /**
+     * 执行分页查询，转换前先对整页数据做一次批量预加载（避免逐条转换时的N+1查询）
+     *
+     * @param pageRequest   分页请求参数
+     * @param queryExecutor 查询执行器
+     * @param converter     结果转换器
+     * @param preloader     整页预加载器，可为null
+     * @param <T>           查询结果类型
+     * @param <R>           转换后结果类型
+     * @return 分页结果
+     */
+    public static <T, R> PageResult<R> doPage(PageRequest pageRequest,
+                                             Supplier<List<T>> queryExecutor,
+                                             Function<T, R> converter,
+                                             Consumer<List<T>> preloader) {
         // 参数校验与默认值处理
         int pageNum = getPageNum(pageRequest);
         int pageSize = getPageSize(pageRequest);
@@ -57,6 +76,11 @@ public class PageUtils {
             return PageResult.build(0L, Collections.emptyList(), pageNum, pageSize);
         }
         
+        // 整页预加载
+        if (preloader != null) {
+            preloader.accept(page.getResult());
+        }
+
         // 转换结果
         List<R> resultList = page.getResult().stream()
                 .map(converter)
@@ -1,6 +1,7 @@
 package org.leocoder.picture.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.manager.SnowflakeNodeLeaseManager;
 import org.leocoder.picture.utils.SnowflakeIdGenerator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +9,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
 import java.net.InetAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author : 程序员Leo
@@ -21,13 +24,37 @@ public class IdGeneratorConfig {
 
     /**
      * 注册短ID生成器（作为主要ID生成器）
+     * 优先使用Redis租约分配的节点ID，租约不可用时按配置或本机IP计算
      */
     @Bean
     @Primary
     public SnowflakeIdGenerator shortIdGenerator(
+            SnowflakeNodeLeaseManager nodeLeaseManager,
             @Value("${shortid.worker-id:1}") Integer configuredWorkerId,
-            @Value("${shortid.data-center-id:1}") Integer configuredDataCenterId) {
+            @Value("${shortid.data-center-id:1}") Integer configuredDataCenterId,
+            @Value("${picture.snowflake.max-borrow-ms:2000}") long maxBorrowMillis) {
 
+        AtomicReference<SnowflakeIdGenerator> generatorRef = new AtomicReference<>();
+        long leasedNodeId = nodeLeaseManager.acquire(nodeId -> {
+            SnowflakeIdGenerator generator = generatorRef.get();
+            if (generator != null) {
+                generator.setNodeId(nodeId);
+            }
+        });
+
+        long nodeId = leasedNodeId >= 0 ? leasedNodeId : configuredNodeId(configuredWorkerId, configuredDataCenterId);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(nodeId, Duration.ofMillis(maxBorrowMillis));
+        if (leasedNodeId >= 0) {
+            generator.setLeaseDeadline(nodeLeaseManager::getLeaseDeadlineNanos);
+        }
+        generatorRef.set(generator);
+        return generator;
+    }
+
+    /**
+     * 按配置或本机IP计算节点ID（数据中心ID 0-7 与 机器ID 0-15 组合）
+     */
+    private long configuredNodeId(Integer configuredWorkerId, Integer configuredDataCenterId) {
         try {
             InetAddress address = InetAddress.getLocalHost();
             String hostAddress = address.getHostAddress();
@@ -42,11 +69,11 @@ public class IdGeneratorConfig {
             log.info("Configured short ID generator with workerId={}, dataCenterId={} (IP-based: {})",
                     workerId, dataCenterId, configuredWorkerId == 1 || configuredDataCenterId == 1);
 
-            return new SnowflakeIdGenerator(workerId, dataCenterId);
+            return ((long) dataCenterId << 4) | workerId;
         } catch (Exception e) {
             log.warn("Failed to auto-configure short ID generator, using configured values: workerId={}, dataCenterId={}",
                     configuredWorkerId, configuredDataCenterId, e);
-            return new SnowflakeIdGenerator(configuredWorkerId, configuredDataCenterId);
+            return ((long) configuredDataCenterId << 4) | configuredWorkerId;
         }
     }
-}
\ No newline at end of file
+}
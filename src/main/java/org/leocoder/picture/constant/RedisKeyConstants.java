@@ -18,12 +18,65 @@ public class RedisKeyConstants {
     // 瀑布流相关键前缀
     public static final String WATERFALL_PREFIX = PICTURE_PREFIX + "waterfall:";
     public static final String COUNT_PREFIX = PICTURE_PREFIX + "count:";
-    
+
+    // 缓存依赖索引前缀（按维度记录缓存键的ZSET，分值为缓存键的过期时间，失效时无需SCAN整个键空间）
+    public static final String CACHE_INDEX_PREFIX = PICTURE_PREFIX + "cache-index:";
+    public static final String INDEX_ALL_WATERFALL = CACHE_INDEX_PREFIX + "waterfall";
+    public static final String INDEX_ALL_COUNT = CACHE_INDEX_PREFIX + "count";
+    public static final String INDEX_INITIAL = CACHE_INDEX_PREFIX + "initial";
+    public static final String INDEX_REGISTRY = CACHE_INDEX_PREFIX + "registry";
+
+    // 缓存失效广播频道（通知各节点清除本地缓存）
+    public static final String CACHE_INVALIDATION_CHANNEL = PICTURE_PREFIX + "channel:cache-invalidation";
+
+    // 计数排行榜（ZSET，成员为补零后的图片ID，分值为对应计数）
+    public static final String LEADERBOARD_PREFIX = PICTURE_PREFIX + "leaderboard:";
+
+    // 排行榜全量重建进度（已写入临时榜单的最大成员），重建期间的增量据此同步到临时榜单
+    public static final String LEADERBOARD_REBUILD_CURSOR_KEY = LEADERBOARD_PREFIX + "rebuild-cursor";
+
     // 缓存过期时间（分钟）
     public static final int WATERFALL_CACHE_EXPIRE_MINUTES = 30;
     public static final int WATERFALL_MORE_CACHE_EXPIRE_MINUTES = 5;
     public static final int COUNT_CACHE_EXPIRE_MINUTES = 5;
-    
+    // 索引集合比其最长的缓存键多保留一段时间，避免索引先于缓存键过期
+    public static final int CACHE_INDEX_EXPIRE_MINUTES = WATERFALL_CACHE_EXPIRE_MINUTES + 5;
+
+    /**
+     * 构建计数排行榜键
+     */
+    public static String buildLeaderboardKey(String metric) {
+        return LEADERBOARD_PREFIX + metric;
+    }
+
+    /**
+     * 构建排序方式维度的索引键
+     */
+    public static String buildSortIndexKey(String sortBy) {
+        return CACHE_INDEX_PREFIX + "sort:" + sortBy;
+    }
+
+    /**
+     * 构建分类维度的索引键
+     */
+    public static String buildCategoryIndexKey(Long categoryId) {
+        return CACHE_INDEX_PREFIX + "category:" + categoryId;
+    }
+
+    /**
+     * 构建标签维度的索引键
+     */
+    public static String buildTagIndexKey(Long tagId) {
+        return CACHE_INDEX_PREFIX + "tag:" + tagId;
+    }
+
+    /**
+     * 构建用户维度的索引键
+     */
+    public static String buildUserIndexKey(Long userId) {
+        return CACHE_INDEX_PREFIX + "user:" + userId;
+    }
+
     /**
      * 构建瀑布流缓存键
      */
@@ -14,15 +14,50 @@ public class RedisConstants {
     public static final String REACTION_COUNT_PREFIX = "reaction:count:";
 
     /**
-     * 用户点赞/收藏状态Redis键前缀
+     * 用户点赞/收藏集合Redis键前缀（SET，成员为目标ID）
      */
-    public static final String USER_REACTION_PREFIX = "user:reaction:";
+    public static final String USER_REACTION_SET_PREFIX = "user:reaction:set:";
+
+    /**
+     * 用户点赞/收藏集合变更代数Redis键前缀（每次点赞/取消递增，加载集合时据此判断是否有并发变更）
+     */
+    public static final String USER_REACTION_GENERATION_PREFIX = "user:reaction:gen:";
+
+    /**
+     * 用户资料本地缓存失效广播频道
+     */
+    public static final String USER_PROFILE_INVALIDATION_CHANNEL = "user:channel:profile-invalidation";
+
+    /**
+     * 评论树本地缓存失效广播频道
+     */
+    public static final String COMMENT_TREE_INVALIDATION_CHANNEL = "comment:channel:tree-invalidation";
+
+    /**
+     * 分类树全局版本号（分类变更后递增，各节点据此刷新本地分类树快照）
+     */
+    public static final String CATEGORY_TREE_VERSION_KEY = "category:tree:version";
 
     /**
      * 热门图片Redis键前缀
      */
     public static final String HOT_PICTURES_PREFIX = "hot:pictures:";
 
+    /**
+     * 热度排行Redis键前缀（ZSET，分值为时间衰减后的热度分）
+     */
+    public static final String HOT_RANKING_PREFIX = "hot:ranking:";
+
+    /**
+     * 图片计数增量校准水位线（上次增量校准覆盖到的时间，毫秒时间戳）
+     */
+    public static final String RECONCILE_WATERMARK_KEY = "reconcile:picture:watermark";
+
+    /**
+     * 雪花算法节点ID租约Redis键前缀
+     */
+    public static final String SNOWFLAKE_NODE_LEASE_PREFIX = "snowflake:node:";
+
     /**
      * 缓存过期时间（天）- 计数缓存
      */
@@ -66,10 +101,17 @@ public class RedisConstants {
     }
 
     /**
-     * 生成用户点赞/收藏状态的Redis键
+     * 生成用户点赞/收藏集合的Redis键
+     */
+    public static String getUserReactionSetKey(Long userId, String targetType, String reactionType) {
+        return USER_REACTION_SET_PREFIX + userId + ":" + targetType + ":" + reactionType;
+    }
+
+    /**
+     * 生成用户点赞/收藏集合变更代数的Redis键
      */
-    public static String getUserReactionKey(String targetType, Long targetId, Long userId) {
-        return USER_REACTION_PREFIX + userId + ":" + targetType + ":" + targetId;
+    public static String getUserReactionGenerationKey(Long userId, String targetType, String reactionType) {
+        return USER_REACTION_GENERATION_PREFIX + userId + ":" + targetType + ":" + reactionType;
     }
 
     /**
@@ -78,4 +120,18 @@ public class RedisConstants {
     public static String getHotPicturesKey(String period) {
         return HOT_PICTURES_PREFIX + period;
     }
-}
\ No newline at end of file
+
+    /**
+     * 生成热度排行的Redis键
+     */
+    public static String getHotRankingKey(String period) {
+        return HOT_RANKING_PREFIX + period;
+    }
+
+    /**
+     * 生成雪花算法节点ID租约的Redis键
+     */
+    public static String getSnowflakeNodeLeaseKey(long nodeId) {
+        return SNOWFLAKE_NODE_LEASE_PREFIX + nodeId;
+    }
+}
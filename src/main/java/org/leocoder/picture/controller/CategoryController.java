@@ -16,11 +16,14 @@ import org.leocoder.picture.domain.vo.category.CategoryStatisticsVO;
 import org.leocoder.picture.domain.vo.category.CategoryTreeVO;
 import org.leocoder.picture.domain.vo.category.CategoryVO;
 import org.leocoder.picture.domain.vo.category.RelatedItemVO;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
 import org.leocoder.picture.service.CategoryService;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.List;
 
 /**
@@ -369,6 +372,39 @@ public class CategoryController {
     @PostMapping("/admin/category/export")
     @Log(module = "分类管理", action = "导出分类数据")
     public Result<String> exportCategories(@RequestBody CategoryExportRequest categoryExportRequest) {
+        validateExportRequest(categoryExportRequest);
+        String jobId = categoryService.exportCategories(categoryExportRequest);
+        return ResultUtils.success(jobId);
+    }
+
+    @ApiOperation("提交分类异步导出任务")
+    @PostMapping("/admin/category/export/async")
+    @Log(module = "分类管理", action = "异步导出分类数据")
+    public Result<String> submitCategoryExport(@RequestBody CategoryExportRequest categoryExportRequest) {
+        validateExportRequest(categoryExportRequest);
+        String jobId = categoryService.submitCategoryExport(categoryExportRequest);
+        return ResultUtils.success(jobId);
+    }
+
+    @ApiOperation("查询分类导出任务进度")
+    @GetMapping("/admin/category/export/progress/{jobId}")
+    public Result<ExportProgressVO> getCategoryExportProgress(@PathVariable("jobId") String jobId) {
+        ExportProgressVO progressVO = categoryService.getCategoryExportProgress(jobId);
+        return ResultUtils.success(progressVO);
+    }
+
+    @ApiOperation("下载分类导出文件")
+    @GetMapping("/admin/category/export/download/{jobId}")
+    public void downloadCategoryExport(@PathVariable("jobId") String jobId, HttpServletResponse response) {
+        categoryService.downloadCategoryExport(jobId, response);
+    }
+
+    /**
+     * 校验分类导出请求
+     *
+     * @param categoryExportRequest 分类导出请求
+     */
+    private void validateExportRequest(CategoryExportRequest categoryExportRequest) {
         // 参数校验
         if (ObjectUtil.isEmpty(categoryExportRequest)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "请求参数不能为空");
@@ -378,14 +414,14 @@ public class CategoryController {
         Boolean exportAll = categoryExportRequest.getExportAll();
         List<Long> ids = categoryExportRequest.getIds();
 
-        if (Boolean.FALSE.equals(exportAll) && CollUtil.isEmpty(ids)) {
+        if (!Boolean.TRUE.equals(exportAll) && CollUtil.isEmpty(ids)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "导出全部为false时，必须指定分类ID列表");
         }
 
         // 校验ID列表（如果有）
         if (CollUtil.isNotEmpty(ids)) {
             for (Long id : ids) {
-                if (id <= 0) {
+                if (id == null || id <= 0) {
                     throw new BusinessException(ErrorCode.PARAMS_ERROR, "分类ID必须大于0");
                 }
             }
@@ -398,12 +434,9 @@ public class CategoryController {
         }
 
         // 检查导出格式是否支持
-        if (!StrUtil.equalsAnyIgnoreCase(format, "xlsx", "csv")) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "不支持的导出格式，仅支持xlsx和csv");
+        if (!StrUtil.equalsAnyIgnoreCase(format, "xlsx", "csv", "json")) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "不支持的导出格式，仅支持xlsx、csv和json");
         }
-
-        String fileUrl = categoryService.exportCategories(categoryExportRequest);
-        return ResultUtils.success(fileUrl);
     }
 
     // 前台接口
@@ -11,6 +11,7 @@ import org.leocoder.picture.common.ResultUtils;
 import org.leocoder.picture.domain.dto.comment.CommentAddRequest;
 import org.leocoder.picture.domain.dto.comment.CommentReplyAddRequest;
 import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.comment.CommentCursorPageVO;
 import org.leocoder.picture.domain.vo.comment.CommentVO;
 import org.leocoder.picture.enums.CommentStatusEnum;
 import org.leocoder.picture.exception.BusinessException;
@@ -110,58 +111,42 @@ public class CommentController {
         return ResultUtils.success(result);
     }
 
-    // @ApiOperation("获取内容评论列表")
-    // @GetMapping("/list")
-    // public Result<List<CommentVO>> getContentComments(
-    //         @RequestParam("contentType") String contentType,
-    //         @RequestParam("contentId") Long contentId,
-    //         @RequestParam(value = "page", defaultValue = "1") Integer page,
-    //         @RequestParam(value = "size", defaultValue = "10") Integer size) {
-    //
-    //     // 参数校验
-    //     if (StrUtil.isBlank(contentType)) {
-    //         throw new BusinessException(ErrorCode.PARAMS_ERROR, "内容类型不能为空");
-    //     }
-    //
-    //     if (ObjectUtil.isNull(contentId) || contentId <= 0) {
-    //         throw new BusinessException(ErrorCode.PARAMS_ERROR, "内容ID不合法");
-    //     }
-    //
-    //     if (ObjectUtil.isNull(page) || page < 1) {
-    //         page = 1;
-    //     }
-    //
-    //     if (ObjectUtil.isNull(size) || size < 1 || size > 100) {
-    //         size = 10;
-    //     }
-    //
-    //     List<CommentVO> commentList = commentService.getContentComments(contentType, contentId, page, size);
-    //     return ResultUtils.success(commentList);
-    // }
-
-    // @ApiOperation("获取评论回复列表")
-    // @GetMapping("/{commentId}/replies")
-    // public Result<List<CommentVO>> getCommentReplies(
-    //         @PathVariable("commentId") Long commentId,
-    //         @RequestParam(value = "page", defaultValue = "1") Integer page,
-    //         @RequestParam(value = "size", defaultValue = "10") Integer size) {
-    //
-    //     // 参数校验
-    //     if (ObjectUtil.isNull(commentId) || commentId <= 0) {
-    //         throw new BusinessException(ErrorCode.PARAMS_ERROR, "评论ID不合法");
-    //     }
-    //
-    //     if (ObjectUtil.isNull(page) || page < 1) {
-    //         page = 1;
-    //     }
-    //
-    //     if (ObjectUtil.isNull(size) || size < 1 || size > 100) {
-    //         size = 10;
-    //     }
-    //
-    //     List<CommentVO> replyList = commentService.getCommentReplies(commentId, page, size);
-    //     return ResultUtils.success(replyList);
-    // }
+    @ApiOperation("按游标分页获取内容评论列表")
+    @GetMapping("/list")
+    public Result<CommentCursorPageVO> getContentComments(
+            @RequestParam("contentType") String contentType,
+            @RequestParam("contentId") Long contentId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") Integer size) {
+
+        // 参数校验
+        if (StrUtil.isBlank(contentType)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "内容类型不能为空");
+        }
+
+        if (ObjectUtil.isNull(contentId) || contentId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "内容ID不合法");
+        }
+
+        CommentCursorPageVO commentPage = commentService.getContentComments(contentType, contentId, cursor, size);
+        return ResultUtils.success(commentPage);
+    }
+
+    @ApiOperation("按游标分页获取评论回复列表")
+    @GetMapping("/{commentId}/replies")
+    public Result<CommentCursorPageVO> getCommentReplies(
+            @PathVariable("commentId") Long commentId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") Integer size) {
+
+        // 参数校验
+        if (ObjectUtil.isNull(commentId) || commentId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "评论ID不合法");
+        }
+
+        CommentCursorPageVO replyPage = commentService.getCommentReplies(commentId, cursor, size);
+        return ResultUtils.success(replyPage);
+    }
 
     @ApiOperation("更新评论状态")
     @PostMapping("/status")
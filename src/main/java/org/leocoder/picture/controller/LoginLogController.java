@@ -8,11 +8,14 @@ import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.common.Result;
 import org.leocoder.picture.common.ResultUtils;
 import org.leocoder.picture.domain.dto.log.LoginLogQueryRequest;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
 import org.leocoder.picture.domain.vo.log.LoginLogVO;
 import org.leocoder.picture.domain.vo.log.LoginStatisticsVO;
 import org.leocoder.picture.service.LoginLogService;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.List;
 
 /**
@@ -71,8 +74,29 @@ public class LoginLogController {
     @GetMapping("/export")
     @Log(module = "登录日志管理", action = "导出登录日志")
     public Result<String> exportLoginLogs(LoginLogQueryRequest queryRequest) {
-        String fileUrl = loginLogService.exportLoginLogs(queryRequest);
-        return ResultUtils.success(fileUrl);
+        String jobId = loginLogService.exportLoginLogs(queryRequest);
+        return ResultUtils.success(jobId);
+    }
+
+    @ApiOperation("提交登录日志异步导出任务")
+    @PostMapping("/export/async")
+    @Log(module = "登录日志管理", action = "异步导出登录日志")
+    public Result<String> submitLoginLogExport(@RequestBody LoginLogQueryRequest queryRequest) {
+        String jobId = loginLogService.submitLoginLogExport(queryRequest);
+        return ResultUtils.success(jobId);
+    }
+
+    @ApiOperation("查询登录日志导出任务进度")
+    @GetMapping("/export/progress/{jobId}")
+    public Result<ExportProgressVO> getLoginLogExportProgress(@PathVariable("jobId") String jobId) {
+        ExportProgressVO progressVO = loginLogService.getLoginLogExportProgress(jobId);
+        return ResultUtils.success(progressVO);
+    }
+
+    @ApiOperation("下载登录日志导出文件")
+    @GetMapping("/export/download/{jobId}")
+    public void downloadLoginLogExport(@PathVariable("jobId") String jobId, HttpServletResponse response) {
+        loginLogService.downloadLoginLogExport(jobId, response);
     }
 
     @ApiOperation("获取登录统计信息")
@@ -8,11 +8,14 @@ import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.common.Result;
 import org.leocoder.picture.common.ResultUtils;
 import org.leocoder.picture.domain.dto.log.OperationLogQueryRequest;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
 import org.leocoder.picture.domain.vo.log.OperationLogStatisticsVO;
 import org.leocoder.picture.domain.vo.log.OperationLogVO;
 import org.leocoder.picture.service.OperationLogService;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.List;
 
 /**
@@ -71,8 +74,29 @@ public class OperationLogController {
     @GetMapping("/export")
     @Log(module = "操作日志管理", action = "导出操作日志")
     public Result<String> exportOperationLogs(OperationLogQueryRequest queryRequest) {
-        String fileUrl = operationLogService.exportOperationLogs(queryRequest);
-        return ResultUtils.success(fileUrl);
+        String jobId = operationLogService.exportOperationLogs(queryRequest);
+        return ResultUtils.success(jobId);
+    }
+
+    @ApiOperation("提交操作日志异步导出任务")
+    @PostMapping("/export/async")
+    @Log(module = "操作日志管理", action = "异步导出操作日志")
+    public Result<String> submitOperationLogExport(@RequestBody OperationLogQueryRequest queryRequest) {
+        String jobId = operationLogService.submitOperationLogExport(queryRequest);
+        return ResultUtils.success(jobId);
+    }
+
+    @ApiOperation("查询操作日志导出任务进度")
+    @GetMapping("/export/progress/{jobId}")
+    public Result<ExportProgressVO> getOperationLogExportProgress(@PathVariable("jobId") String jobId) {
+        ExportProgressVO progressVO = operationLogService.getOperationLogExportProgress(jobId);
+        return ResultUtils.success(progressVO);
+    }
+
+    @ApiOperation("下载操作日志导出文件")
+    @GetMapping("/export/download/{jobId}")
+    public void downloadOperationLogExport(@PathVariable("jobId") String jobId, HttpServletResponse response) {
+        operationLogService.downloadOperationLogExport(jobId, response);
     }
 
     @ApiOperation("获取操作日志统计信息")
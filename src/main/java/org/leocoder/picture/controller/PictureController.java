@@ -10,6 +10,7 @@ import org.leocoder.picture.common.Result;
 import org.leocoder.picture.common.ResultUtils;
 import org.leocoder.picture.domain.dto.picture.*;
 import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.picture.BatchUploadProgressVO;
 import org.leocoder.picture.domain.vo.picture.PictureVO;
 import org.leocoder.picture.domain.vo.picture.PictureWaterfallVO;
 import org.leocoder.picture.exception.BusinessException;
@@ -96,6 +97,24 @@ public class PictureController {
         return ResultUtils.success(uploadCount);
     }
 
+    @ApiOperation(value = "提交批量抓取图片任务")
+    @PostMapping("/upload/batch/async")
+    public Result<String> submitUploadByBatchJob(@RequestBody PictureUploadByBatchRequest requestParam) {
+        // 校验参数
+        ThrowUtils.throwIf(ObjectUtil.isNull(requestParam), ErrorCode.PARAMS_ERROR);
+        User loginUser = UserContext.getUser();
+        String jobId = pictureService.submitUploadByBatchJob(requestParam, loginUser);
+        return ResultUtils.success(jobId);
+    }
+
+    @ApiOperation(value = "查询批量抓取图片任务进度")
+    @GetMapping("/upload/batch/progress/{jobId}")
+    public Result<BatchUploadProgressVO> getUploadByBatchProgress(@PathVariable("jobId") String jobId) {
+        User loginUser = UserContext.getUser();
+        BatchUploadProgressVO progressVO = pictureService.getUploadByBatchProgress(jobId, loginUser);
+        return ResultUtils.success(progressVO);
+    }
+
     @ApiOperation(value = "获取首页瀑布流图片列表")
     @PostMapping("/waterfall")
     public Result<PictureWaterfallVO> getWaterfallPictures(@RequestBody(required = false) PictureWaterfallRequest requestParam) {
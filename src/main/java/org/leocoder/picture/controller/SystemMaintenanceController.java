@@ -3,14 +3,31 @@ package org.leocoder.picture.controller.admin;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
+import org.leocoder.picture.cache.CommentTreeCache;
+import org.leocoder.picture.cache.PictureCacheManager;
+import org.leocoder.picture.cache.PictureWaterfallNearCache;
+import org.leocoder.picture.cache.UserProfileCache;
 import org.leocoder.picture.common.Result;
 import org.leocoder.picture.common.ResultUtils;
 import org.leocoder.picture.domain.dto.picture.DataRepairServiceImpl;
+import org.leocoder.picture.manager.PictureLeaderboardManager;
+import org.leocoder.picture.manager.PictureViewCountAggregator;
+import org.leocoder.picture.manager.bloom.AccountBloomFilterManager;
+import org.leocoder.picture.manager.category.CategoryTreeManager;
+import org.leocoder.picture.manager.ip.IpLocationManager;
+import org.leocoder.picture.manager.log.LogRetentionManager;
+import org.leocoder.picture.manager.log.OperationLogBatchWriter;
+import org.leocoder.picture.service.mq.MessageProducerService;
+import org.leocoder.picture.task.PictureCountReconciliationTask;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 /**
  * @author : 程序员Leo
  * @version 1.0
@@ -25,6 +42,32 @@ public class SystemMaintenanceController {
 
     private final DataRepairServiceImpl dataRepairService;
 
+    private final PictureCacheManager pictureCacheManager;
+
+    private final PictureWaterfallNearCache waterfallNearCache;
+
+    private final UserProfileCache userProfileCache;
+
+    private final CommentTreeCache commentTreeCache;
+
+    private final CategoryTreeManager categoryTreeManager;
+
+    private final PictureViewCountAggregator viewCountAggregator;
+
+    private final MessageProducerService messageProducerService;
+
+    private final PictureLeaderboardManager leaderboardManager;
+
+    private final PictureCountReconciliationTask countReconciliationTask;
+
+    private final AccountBloomFilterManager accountBloomFilter;
+
+    private final OperationLogBatchWriter operationLogBatchWriter;
+
+    private final IpLocationManager ipLocationManager;
+
+    private final LogRetentionManager logRetentionManager;
+
     @PostMapping("/repair/tag-counts")
     @ApiOperation("修复所有标签引用计数")
     public Result<Boolean> repairAllTagCounts() {
@@ -39,4 +82,113 @@ public class SystemMaintenanceController {
         boolean result = dataRepairService.repairTagReferenceCount(tagId);
         return ResultUtils.success(result);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/cache/invalidation-stats")
+    @ApiOperation("查看图片缓存失效统计")
+    public Result<Map<String, Map<String, Long>>> getCacheInvalidationStats() {
+        return ResultUtils.success(pictureCacheManager.getInvalidationStats());
+    }
+
+    @GetMapping("/cache/waterfall-stats")
+    @ApiOperation("查看瀑布流两级缓存命中统计")
+    public Result<Map<String, Long>> getWaterfallCacheStats() {
+        return ResultUtils.success(waterfallNearCache.getStats());
+    }
+
+    @GetMapping("/cache/user-profile-stats")
+    @ApiOperation("查看用户资料缓存命中统计")
+    public Result<Map<String, Long>> getUserProfileCacheStats() {
+        return ResultUtils.success(userProfileCache.getStats());
+    }
+
+    @GetMapping("/cache/comment-tree-stats")
+    @ApiOperation("查看评论树缓存命中统计")
+    public Result<Map<String, Long>> getCommentTreeCacheStats() {
+        return ResultUtils.success(commentTreeCache.getStats());
+    }
+
+    @GetMapping("/category/tree-stats")
+    @ApiOperation("查看分类树快照统计")
+    public Result<Map<String, Long>> getCategoryTreeStats() {
+        return ResultUtils.success(categoryTreeManager.getStats());
+    }
+
+    @GetMapping("/counter/view-stats")
+    @ApiOperation("查看浏览量聚合刷新统计")
+    public Result<Map<String, Long>> getViewCountStats() {
+        return ResultUtils.success(viewCountAggregator.getStats());
+    }
+
+    @GetMapping("/mq/producer-stats")
+    @ApiOperation("查看消息发件箱发送统计")
+    public Result<Map<String, Long>> getProducerStats() {
+        return ResultUtils.success(messageProducerService.getStats());
+    }
+
+    @PostMapping("/leaderboard/rebuild")
+    @ApiOperation("从数据库重建图片计数排行榜")
+    public Result<Boolean> rebuildLeaderboard() {
+        leaderboardManager.rebuild();
+        return ResultUtils.success(true);
+    }
+
+    @PostMapping("/counter/reconcile")
+    @ApiOperation("立即执行图片计数校准（mode: full/incremental）")
+    public Result<Boolean> reconcilePictureCounts(@RequestParam(defaultValue = PictureCountReconciliationTask.MODE_INCREMENTAL) String mode) {
+        return ResultUtils.success(countReconciliationTask.reconcile(mode));
+    }
+
+    @GetMapping("/counter/reconcile-stats")
+    @ApiOperation("查看图片计数校准耗时与偏差统计")
+    public Result<Map<String, Long>> getReconcileStats() {
+        return ResultUtils.success(countReconciliationTask.getStats());
+    }
+
+    @GetMapping("/bloom/account-stats")
+    @ApiOperation("查看用户账号布隆过滤器容量、填充率与误判统计")
+    public Result<Map<String, Long>> getAccountBloomStats() {
+        return ResultUtils.success(accountBloomFilter.getStats());
+    }
+
+    @PostMapping("/bloom/account-rebuild")
+    @ApiOperation("全量重建用户账号布隆过滤器")
+    public Result<Boolean> rebuildAccountBloom() {
+        return ResultUtils.success(accountBloomFilter.rebuild());
+    }
+
+    @GetMapping("/log/operation-writer-stats")
+    @ApiOperation("查看操作日志缓冲区深度与批量写入耗时统计")
+    public Result<Map<String, Long>> getOperationLogWriterStats() {
+        return ResultUtils.success(operationLogBatchWriter.getStats());
+    }
+
+    @GetMapping("/log/retention-stats")
+    @ApiOperation("查看日志分区、归档与清理统计")
+    public Result<Map<String, Long>> getLogRetentionStats() {
+        return ResultUtils.success(logRetentionManager.getStats());
+    }
+
+    @PostMapping("/log/retention/run")
+    @ApiOperation("立即维护日志分区并归档清理过期日志")
+    public Result<Boolean> runLogRetention() {
+        return ResultUtils.success(logRetentionManager.maintain());
+    }
+
+    @PostMapping("/log/partition/init")
+    @ApiOperation("将日志表改为按月分区（table: operation/login，会重建整张表）")
+    public Result<Boolean> initializeLogPartitions(@RequestParam String table) {
+        return ResultUtils.success(logRetentionManager.initializePartitions(table));
+    }
+
+    @GetMapping("/ip/location-stats")
+    @ApiOperation("查看IP归属地查询缓存命中与地址库统计")
+    public Result<Map<String, Long>> getIpLocationStats() {
+        return ResultUtils.success(ipLocationManager.getStats());
+    }
+
+    @PostMapping("/ip/location-reload")
+    @ApiOperation("重新加载离线IP地址库")
+    public Result<Boolean> reloadIpLocationDatabase() {
+        return ResultUtils.success(ipLocationManager.reload());
+    }
+}
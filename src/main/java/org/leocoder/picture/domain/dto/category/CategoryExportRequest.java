@@ -22,6 +22,6 @@ public class CategoryExportRequest {
     @ApiModelProperty(value = "要导出的分类ID列表")
     private List<Long> ids;
     
-    @ApiModelProperty(value = "导出格式，支持xlsx, csv等")
+    @ApiModelProperty(value = "导出格式，支持xlsx, csv, json")
     private String format;
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package org.leocoder.picture.domain.dto.comment;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.leocoder.picture.domain.pojo.Comment;
+import org.leocoder.picture.exception.BusinessException;
+import org.leocoder.picture.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-08 14:00
+ * @description : 评论分页游标（上一页最后一条评论的 是否置顶、创建时间、ID）
+ * 对外编码为URL安全的Base64字符串，客户端只需原样回传
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 是否置顶
+     */
+    private Boolean isTop;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 评论ID
+     */
+    private Long id;
+
+    /**
+     * 以评论作为游标位置
+     */
+    public static CommentCursor of(Comment comment) {
+        return new CommentCursor(Boolean.TRUE.equals(comment.getIsTop()), comment.getCreateTime(), comment.getId());
+    }
+
+    /**
+     * 编码为游标字符串
+     */
+    public String encode() {
+        String raw = (Boolean.TRUE.equals(isTop) ? "1" : "0") + SEPARATOR + createTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param cursor 游标字符串
+     * @return 游标，为空时返回null（表示第一页）
+     */
+    public static CommentCursor decode(String cursor) {
+        if (StrUtil.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            return new CommentCursor("1".equals(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "分页游标不合法");
+        }
+    }
+}
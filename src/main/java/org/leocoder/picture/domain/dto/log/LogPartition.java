@@ -0,0 +1,53 @@
+package org.leocoder.picture.domain.dto.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-07 10:00
+ * @description : 日志表月分区定义（分区名 pYYYYMM，上界为下个月1日）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogPartition {
+
+    private static final DateTimeFormatter NAME_FORMATTER = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    /**
+     * 分区名称
+     */
+    private String name;
+
+    /**
+     * 分区上界（不包含）
+     */
+    private LocalDate upperBound;
+
+    /**
+     * 按月份创建分区定义
+     */
+    public static LogPartition of(YearMonth month) {
+        return new LogPartition(month.format(NAME_FORMATTER), month.plusMonths(1).atDay(1));
+    }
+
+    /**
+     * 解析分区名称对应的月份
+     *
+     * @return 月份，不是月分区（如 p_max）时返回null
+     */
+    public static YearMonth parseMonth(String partitionName) {
+        try {
+            return YearMonth.parse(partitionName, NAME_FORMATTER);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
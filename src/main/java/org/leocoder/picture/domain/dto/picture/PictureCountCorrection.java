@@ -0,0 +1,40 @@
+package org.leocoder.picture.domain.dto.picture;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-02 11:20
+ * @description : 图片计数校准项（校准时读到的计数和按互动表统计的实际计数，只在计数未被并发修改时写入）
+ */
+@Data
+@AllArgsConstructor
+public class PictureCountCorrection {
+
+    /**
+     * 图片ID
+     */
+    private Long pictureId;
+
+    /**
+     * 校准时读到的点赞数
+     */
+    private long expectedLikeCount;
+
+    /**
+     * 校准时读到的收藏数
+     */
+    private long expectedCollectionCount;
+
+    /**
+     * 实际点赞数
+     */
+    private long likeCount;
+
+    /**
+     * 实际收藏数
+     */
+    private long collectionCount;
+}
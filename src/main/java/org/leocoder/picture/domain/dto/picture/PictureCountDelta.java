@@ -0,0 +1,44 @@
+package org.leocoder.picture.domain.dto.picture;
+
+import lombok.Data;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-04-29 15:00
+ * @description : 图片计数增量（批量消费互动消息时按图片合并后的净变化量）
+ */
+@Data
+public class PictureCountDelta {
+
+    /**
+     * 图片ID
+     */
+    private Long pictureId;
+
+    /**
+     * 点赞数净变化量
+     */
+    private long likeDelta;
+
+    /**
+     * 收藏数净变化量
+     */
+    private long collectionDelta;
+
+    /**
+     * 浏览量净变化量
+     */
+    private long viewDelta;
+
+    public PictureCountDelta(Long pictureId) {
+        this.pictureId = pictureId;
+    }
+
+    /**
+     * 是否没有任何净变化
+     */
+    public boolean isEmpty() {
+        return likeDelta == 0 && collectionDelta == 0 && viewDelta == 0;
+    }
+}
@@ -0,0 +1,33 @@
+package org.leocoder.picture.domain.dto.picture;
+
+import lombok.Data;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-01 10:00
+ * @description : 按时间桶聚合的互动数量（计算热度分时使用）
+ */
+@Data
+public class ReactionBucketCount {
+
+    /**
+     * 目标ID
+     */
+    private Long targetId;
+
+    /**
+     * 互动类型（like、favorite、view）
+     */
+    private String reactionType;
+
+    /**
+     * 时间桶序号，从当前时间往前数，0表示最近一个桶
+     */
+    private Long bucketAge;
+
+    /**
+     * 桶内互动数量
+     */
+    private Long reactionCount;
+}
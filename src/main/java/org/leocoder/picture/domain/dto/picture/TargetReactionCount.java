@@ -0,0 +1,28 @@
+package org.leocoder.picture.domain.dto.picture;
+
+import lombok.Data;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-02 14:00
+ * @description : 按目标和互动类型分组的互动数量（批量回填计数缓存时使用）
+ */
+@Data
+public class TargetReactionCount {
+
+    /**
+     * 目标ID
+     */
+    private Long targetId;
+
+    /**
+     * 互动类型（like、favorite、view）
+     */
+    private String reactionType;
+
+    /**
+     * 互动数量
+     */
+    private Long reactionCount;
+}
@@ -1,8 +1,10 @@
 package org.leocoder.picture.domain.mapstruct;
 
 import org.leocoder.picture.domain.pojo.Category;
+import org.leocoder.picture.domain.vo.category.CategoryExcelVO;
 import org.leocoder.picture.domain.vo.category.CategoryVO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 import java.util.List;
@@ -31,4 +33,15 @@ public interface CategoryConvert {
      * @return 分类VO列表
      */
     List<CategoryVO> toCategoryVOList(List<Category> categoryList);
-}
\ No newline at end of file
+
+    /**
+     * 将 Category 实体转换为导出行
+     * 注意：parentName, createUsername, updateUsername 需要在服务层单独设置
+     * @param category 分类实体
+     * @return 分类导出行
+     */
+    @Mapping(target = "parentName", ignore = true)
+    @Mapping(target = "createUsername", ignore = true)
+    @Mapping(target = "updateUsername", ignore = true)
+    CategoryExcelVO toCategoryExcelVO(Category category);
+}
@@ -1,8 +1,10 @@
 package org.leocoder.picture.domain.mapstruct;
 
 import org.leocoder.picture.domain.pojo.LoginLog;
+import org.leocoder.picture.domain.vo.log.LoginLogExcelVO;
 import org.leocoder.picture.domain.vo.log.LoginLogVO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 import java.util.List;
@@ -31,4 +33,14 @@ public interface LoginLogConvert {
      * @return 登录日志VO列表
      */
     List<LoginLogVO> toLoginLogVOList(List<LoginLog> loginLogList);
-}
\ No newline at end of file
+
+    /**
+     * 将 LoginLog 实体转换为导出行
+     * 注意：用户名需要在服务层单独设置
+     * @param loginLog 登录日志实体
+     * @return 登录日志导出行
+     */
+    @Mapping(target = "userId", source = "createBy")
+    @Mapping(target = "username", ignore = true)
+    LoginLogExcelVO toLoginLogExcelVO(LoginLog loginLog);
+}
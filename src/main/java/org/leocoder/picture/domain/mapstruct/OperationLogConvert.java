@@ -1,8 +1,10 @@
 package org.leocoder.picture.domain.mapstruct;
 
 import org.leocoder.picture.domain.pojo.OperationLog;
+import org.leocoder.picture.domain.vo.log.OperationLogExcelVO;
 import org.leocoder.picture.domain.vo.log.OperationLogVO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 import java.util.List;
@@ -31,4 +33,14 @@ public interface OperationLogConvert {
      * @return 操作日志VO列表
      */
     List<OperationLogVO> toOperationLogVOList(List<OperationLog> operationLogList);
-}
\ No newline at end of file
+
+    /**
+     * 将 OperationLog 实体转换为导出行
+     * 注意：用户名需要在服务层单独设置
+     * @param operationLog 操作日志实体
+     * @return 操作日志导出行
+     */
+    @Mapping(target = "userId", source = "createBy")
+    @Mapping(target = "username", ignore = true)
+    OperationLogExcelVO toOperationLogExcelVO(OperationLog operationLog);
+}
@@ -0,0 +1,84 @@
+package org.leocoder.picture.domain.vo.category;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-09 15:00
+ * @description : 分类导出行（xlsx/csv/json共用，ID以文本导出，避免Excel和前端截断长整型精度）
+ */
+@Data
+public class CategoryExcelVO {
+
+    @ExcelProperty("分类ID")
+    @ColumnWidth(22)
+    private String id;
+
+    @ExcelProperty("分类名称")
+    @ColumnWidth(20)
+    private String name;
+
+    @ExcelProperty("父分类ID")
+    @ColumnWidth(22)
+    private String parentId;
+
+    @ExcelProperty("父分类名称")
+    @ColumnWidth(20)
+    private String parentName;
+
+    @ExcelProperty("分类类型")
+    @ColumnWidth(12)
+    private String type;
+
+    @ExcelProperty("层级")
+    @ColumnWidth(8)
+    private Integer level;
+
+    @ExcelProperty("路径")
+    @ColumnWidth(30)
+    private String path;
+
+    @ExcelProperty("分类别名")
+    @ColumnWidth(25)
+    private String urlName;
+
+    @ExcelProperty("分类描述")
+    @ColumnWidth(40)
+    private String description;
+
+    @ExcelProperty("排序")
+    @ColumnWidth(8)
+    private Integer sortOrder;
+
+    @ExcelProperty("内容数量")
+    @ColumnWidth(10)
+    private Integer contentCount;
+
+    @ExcelProperty("状态")
+    @ColumnWidth(10)
+    private String status;
+
+    @ExcelProperty("创建者")
+    @ColumnWidth(15)
+    private String createUsername;
+
+    @ExcelProperty("创建时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private LocalDateTime createTime;
+
+    @ExcelProperty("更新者")
+    @ColumnWidth(15)
+    private String updateUsername;
+
+    @ExcelProperty("更新时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,35 @@
+package org.leocoder.picture.domain.vo.comment;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-08 14:00
+ * @description : 评论游标分页响应对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "CommentCursorPageVO", description = "评论游标分页响应对象")
+public class CommentCursorPageVO implements Serializable {
+    private static final long serialVersionUID = 2871530964127386541L;
+
+    @ApiModelProperty(value = "评论列表")
+    private List<CommentVO> records;
+
+    @ApiModelProperty(value = "是否有更多评论")
+    private Boolean hasMore;
+
+    @ApiModelProperty(value = "下一页游标，加载更多时原样传回")
+    private String nextCursor;
+}
@@ -0,0 +1,53 @@
+package org.leocoder.picture.domain.vo.export;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-06 10:00
+ * @description : 导出任务进度VO
+ */
+@Data
+@Builder
+@ApiModel(value = "ExportProgressVO", description = "导出任务进度")
+public class ExportProgressVO implements Serializable {
+
+    private static final long serialVersionUID = 4518390527311620381L;
+
+    @ApiModelProperty(value = "任务ID")
+    private String jobId;
+
+    @ApiModelProperty(value = "导出类型")
+    private String type;
+
+    @ApiModelProperty(value = "任务状态（PENDING、EXPORTING、COMPLETED、FAILED）")
+    private String status;
+
+    @ApiModelProperty(value = "预计导出行数（开始导出时统计）")
+    private Long total;
+
+    @ApiModelProperty(value = "已写入行数")
+    private Long exported;
+
+    @ApiModelProperty(value = "导出文件名（完成后返回，按任务ID调用下载接口获取文件）")
+    private String fileName;
+
+    @ApiModelProperty(value = "失败原因")
+    private String errorMessage;
+
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+
+    @ApiModelProperty(value = "完成时间")
+    private LocalDateTime finishTime;
+
+    @ApiModelProperty(value = "已耗时（毫秒）")
+    private Long elapsedMillis;
+}
@@ -0,0 +1,68 @@
+package org.leocoder.picture.domain.vo.log;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-06 10:20
+ * @description : 登录日志导出行（ID以文本导出，避免Excel截断长整型精度）
+ */
+@Data
+public class LoginLogExcelVO {
+
+    @ExcelProperty("日志ID")
+    @ColumnWidth(22)
+    private String id;
+
+    @ExcelProperty("用户ID")
+    @ColumnWidth(22)
+    private String userId;
+
+    @ExcelProperty("用户名")
+    @ColumnWidth(15)
+    private String username;
+
+    @ExcelProperty("登录时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private LocalDateTime loginTime;
+
+    @ExcelProperty("登出时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private LocalDateTime logoutTime;
+
+    @ExcelProperty("登录IP")
+    @ColumnWidth(16)
+    private String ip;
+
+    @ExcelProperty("登录地点")
+    @ColumnWidth(20)
+    private String location;
+
+    @ExcelProperty("登录设备")
+    @ColumnWidth(12)
+    private String device;
+
+    @ExcelProperty("浏览器")
+    @ColumnWidth(20)
+    private String browser;
+
+    @ExcelProperty("操作系统")
+    @ColumnWidth(15)
+    private String os;
+
+    @ExcelProperty("登录状态")
+    @ColumnWidth(10)
+    private Integer status;
+
+    @ExcelProperty("登录消息")
+    @ColumnWidth(30)
+    private String message;
+}
@@ -0,0 +1,67 @@
+package org.leocoder.picture.domain.vo.log;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-06 10:20
+ * @description : 操作日志导出行（ID以文本导出，避免Excel截断长整型精度）
+ */
+@Data
+public class OperationLogExcelVO {
+
+    @ExcelProperty("日志ID")
+    @ColumnWidth(22)
+    private String id;
+
+    @ExcelProperty("用户ID")
+    @ColumnWidth(22)
+    private String userId;
+
+    @ExcelProperty("用户名")
+    @ColumnWidth(15)
+    private String username;
+
+    @ExcelProperty("操作模块")
+    @ColumnWidth(15)
+    private String module;
+
+    @ExcelProperty("操作类型")
+    @ColumnWidth(20)
+    private String action;
+
+    @ExcelProperty("请求方法")
+    @ColumnWidth(30)
+    private String method;
+
+    @ExcelProperty("请求参数")
+    @ColumnWidth(40)
+    private String params;
+
+    @ExcelProperty("执行时长(ms)")
+    @ColumnWidth(15)
+    private Long time;
+
+    @ExcelProperty("操作IP")
+    @ColumnWidth(16)
+    private String ip;
+
+    @ExcelProperty("操作时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private LocalDateTime operationTime;
+
+    @ExcelProperty("操作状态")
+    @ColumnWidth(10)
+    private Integer status;
+
+    @ExcelProperty("错误消息")
+    @ColumnWidth(40)
+    private String errorMsg;
+}
@@ -0,0 +1,56 @@
+package org.leocoder.picture.domain.vo.picture;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-01 15:00
+ * @description : 批量抓取图片任务进度VO
+ */
+@Data
+@Builder
+@ApiModel(value = "BatchUploadProgressVO", description = "批量抓取图片任务进度")
+public class BatchUploadProgressVO implements Serializable {
+
+    private static final long serialVersionUID = 6204188356512384716L;
+
+    @ApiModelProperty(value = "任务ID")
+    private String jobId;
+
+    @ApiModelProperty(value = "任务状态（PENDING、CRAWLING、UPLOADING、COMPLETED、FAILED）")
+    private String status;
+
+    @ApiModelProperty(value = "去重后待上传的图片数量")
+    private Integer total;
+
+    @ApiModelProperty(value = "因重复被过滤的图片数量")
+    private Integer duplicated;
+
+    @ApiModelProperty(value = "已下载并上传到对象存储的数量")
+    private Integer uploaded;
+
+    @ApiModelProperty(value = "已保存到数据库的数量")
+    private Integer saved;
+
+    @ApiModelProperty(value = "失败数量")
+    private Integer failed;
+
+    @ApiModelProperty(value = "失败原因（任务整体失败时）")
+    private String errorMessage;
+
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+
+    @ApiModelProperty(value = "完成时间")
+    private LocalDateTime finishTime;
+
+    @ApiModelProperty(value = "已耗时（毫秒）")
+    private Long elapsedMillis;
+}
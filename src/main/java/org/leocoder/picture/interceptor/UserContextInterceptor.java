@@ -2,8 +2,8 @@ package org.leocoder.picture.interceptor;
 
 import cn.dev33.satoken.stp.StpUtil;
 import lombok.RequiredArgsConstructor;
+import org.leocoder.picture.cache.UserProfileCache;
 import org.leocoder.picture.domain.pojo.User;
-import org.leocoder.picture.mapper.UserMapper;
 import org.leocoder.picture.utils.UserContext;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -21,7 +21,7 @@ import javax.servlet.http.HttpServletResponse;
 @RequiredArgsConstructor
 public class UserContextInterceptor implements HandlerInterceptor {
 
-    private final UserMapper userMapper;
+    private final UserProfileCache userProfileCache;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
@@ -29,8 +29,8 @@ public class UserContextInterceptor implements HandlerInterceptor {
         if (StpUtil.isLogin()) {
             // 获取当前登录用户ID
             Long userId = StpUtil.getLoginIdAsLong();
-            // 查询用户完整信息
-            User user = userMapper.selectById(userId);
+            // 查询用户完整信息（优先读取本地用户缓存）
+            User user = userProfileCache.get(userId);
             // 设置到当前线程上下文
             if (user != null) {
                 UserContext.setUser(user);
@@ -0,0 +1,154 @@
+package org.leocoder.picture.manager;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.domain.pojo.CategoryRelation;
+import org.leocoder.picture.domain.pojo.TagRelation;
+import org.leocoder.picture.mapper.CategoryRelationMapper;
+import org.leocoder.picture.mapper.TagRelationMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-04-28 15:00
+ * @description : 内容关系批量加载器（按请求合并查询）
+ * 同一次请求内对内容的标签、分类关系查询会合并为一条IN查询，结果在请求范围内复用；
+ * 没有请求上下文时（定时任务、异步线程）仅做批量查询，不做复用
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContentRelationLoader {
+
+    private static final String ATTRIBUTE_PREFIX = ContentRelationLoader.class.getName() + ".";
+
+    private static final String KIND_TAG = "tag:";
+
+    private static final String KIND_CATEGORY = "category:";
+
+    private final TagRelationMapper tagRelationMapper;
+
+    private final CategoryRelationMapper categoryRelationMapper;
+
+    /**
+     * 预加载一批内容的标签和分类关系，后续单条查询直接命中请求内缓存
+     *
+     * @param contentType 内容类型
+     * @param contentIds  内容ID列表
+     */
+    public void prime(String contentType, Collection<Long> contentIds) {
+        loadTagIds(contentType, contentIds);
+        loadCategoryIds(contentType, contentIds);
+    }
+
+    /**
+     * 批量获取内容关联的标签ID
+     *
+     * @param contentType 内容类型
+     * @param contentIds  内容ID列表
+     * @return 内容ID -> 标签ID列表（无关联时为空列表）
+     */
+    public Map<Long, List<Long>> loadTagIds(String contentType, Collection<Long> contentIds) {
+        return load(KIND_TAG + contentType, contentIds, missing -> {
+            Map<Long, List<Long>> grouped = new HashMap<>();
+            for (TagRelation relation : tagRelationMapper.selectTagIdsByContents(contentType, missing)) {
+                grouped.computeIfAbsent(relation.getContentId(), k -> new ArrayList<>()).add(relation.getTagId());
+            }
+            return grouped;
+        });
+    }
+
+    /**
+     * 获取单个内容关联的标签ID
+     */
+    public List<Long> loadTagIds(String contentType, Long contentId) {
+        return loadTagIds(contentType, Collections.singletonList(contentId)).get(contentId);
+    }
+
+    /**
+     * 批量获取内容关联的分类ID
+     *
+     * @param contentType 内容类型
+     * @param contentIds  内容ID列表
+     * @return 内容ID -> 分类ID列表（无关联时为空列表）
+     */
+    public Map<Long, List<Long>> loadCategoryIds(String contentType, Collection<Long> contentIds) {
+        return load(KIND_CATEGORY + contentType, contentIds, missing -> {
+            Map<Long, List<Long>> grouped = new HashMap<>();
+            for (CategoryRelation relation : categoryRelationMapper.selectCategoryIdsByContents(contentType, missing)) {
+                grouped.computeIfAbsent(relation.getContentId(), k -> new ArrayList<>()).add(relation.getCategoryId());
+            }
+            return grouped;
+        });
+    }
+
+    /**
+     * 获取单个内容关联的分类ID
+     */
+    public List<Long> loadCategoryIds(String contentType, Long contentId) {
+        return loadCategoryIds(contentType, Collections.singletonList(contentId)).get(contentId);
+    }
+
+    /**
+     * 先从请求内缓存取值，缺失的ID合并为一次批量查询
+     */
+    private Map<Long, List<Long>> load(String cacheName, Collection<Long> contentIds,
+                                       Function<Set<Long>, Map<Long, List<Long>>> batchQuery) {
+        Map<Long, List<Long>> result = new LinkedHashMap<>();
+        if (CollUtil.isEmpty(contentIds)) {
+            return result;
+        }
+
+        Map<Long, List<Long>> requestCache = getRequestCache(cacheName);
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long contentId : contentIds) {
+            if (contentId == null) {
+                continue;
+            }
+            List<Long> cached = requestCache != null ? requestCache.get(contentId) : null;
+            if (cached != null) {
+                result.put(contentId, cached);
+            } else {
+                missing.add(contentId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, List<Long>> loaded = batchQuery.apply(missing);
+            for (Long contentId : missing) {
+                List<Long> ids = Collections.unmodifiableList(loaded.getOrDefault(contentId, Collections.emptyList()));
+                result.put(contentId, ids);
+                if (requestCache != null) {
+                    requestCache.put(contentId, ids);
+                }
+            }
+            log.debug("批量加载内容关系: {}, 请求数量={}, 实际查询数量={}", cacheName, contentIds.size(), missing.size());
+        }
+        return result;
+    }
+
+    /**
+     * 获取当前请求范围内的缓存，不在请求线程中时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, List<Long>> getRequestCache(String cacheName) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        String attributeName = ATTRIBUTE_PREFIX + cacheName;
+        Object cache = attributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<Long, List<Long>>();
+            attributes.setAttribute(attributeName, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Long, List<Long>>) cache;
+    }
+}
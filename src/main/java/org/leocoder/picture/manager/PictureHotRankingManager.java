@@ -0,0 +1,196 @@
+package org.leocoder.picture.manager;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.domain.dto.picture.ReactionBucketCount;
+import org.leocoder.picture.enums.PictureReviewStatusEnum;
+import org.leocoder.picture.mapper.UserReactionMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-01 10:30
+ * @description : 图片热度排行计算
+ * 按统计周期（hour/day/week）在各自的时间窗口内聚合互动数量，按时间桶做指数衰减：
+ * 热度分 = Σ 互动权重 × 数量 × 0.5^(距今时长 / 半衰期)。
+ * 定时任务计算各周期前若干名写入Redis ZSET，读取热门图片时只需按排名取ID再批量回填
+ */
+@Slf4j
+@Component
+public class PictureHotRankingManager {
+
+    // 每个周期保留的热门图片数量（也是热门接口的最大返回数量）
+    public static final int RANKING_SIZE = 100;
+
+    public static final String DEFAULT_PERIOD = "day";
+
+    // 收藏比点赞代表更强的兴趣；浏览量不写入互动表，不参与热度计算
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double FAVORITE_WEIGHT = 2.0;
+
+    private static final String REBUILD_SUFFIX = ":rebuilding";
+
+    private final UserReactionMapper userReactionMapper;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final long refreshIntervalMillis;
+
+    // 各周期最近一次计算时间，避免榜单为空时每个请求都触发计算
+    private final Map<String, Long> lastRefreshAt = new ConcurrentHashMap<>();
+
+    public PictureHotRankingManager(UserReactionMapper userReactionMapper,
+                                    RedisTemplate<String, Object> redisTemplate,
+                                    @Value("${picture.hot.refresh-interval-ms:300000}") long refreshIntervalMillis) {
+        this.userReactionMapper = userReactionMapper;
+        this.redisTemplate = redisTemplate;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    /**
+     * 规范化统计周期，未知周期按天处理
+     */
+    public static String normalizePeriod(String period) {
+        return HotPeriod.of(period) == null ? DEFAULT_PERIOD : period;
+    }
+
+    /**
+     * 获取热门图片ID（按热度分从高到低）
+     *
+     * @param period 统计周期
+     * @param limit  数量
+     * @return 图片ID列表
+     */
+    public List<Long> getTopPictureIds(String period, int limit) {
+        HotPeriod hotPeriod = HotPeriod.of(normalizePeriod(period));
+        String key = RedisConstants.getHotRankingKey(hotPeriod.getName());
+        Set<Object> members = redisTemplate.opsForZSet().reverseRange(key, 0, limit - 1);
+        if ((members == null || members.isEmpty()) && refreshDue(hotPeriod)) {
+            // 榜单尚未生成（如首次启动），同步计算一次
+            refresh(hotPeriod);
+            members = redisTemplate.opsForZSet().reverseRange(key, 0, limit - 1);
+        }
+
+        List<Long> pictureIds = new ArrayList<>();
+        if (members != null) {
+            for (Object member : members) {
+                pictureIds.add(Long.valueOf(String.valueOf(member)));
+            }
+        }
+        return pictureIds;
+    }
+
+    /**
+     * 定时刷新所有周期的热度排行
+     */
+    @Scheduled(fixedDelayString = "${picture.hot.refresh-interval-ms:300000}", initialDelay = 60000)
+    public void refreshAll() {
+        for (HotPeriod hotPeriod : HotPeriod.values()) {
+            try {
+                refresh(hotPeriod);
+            } catch (Exception e) {
+                log.error("刷新热度排行失败: period={}, error={}", hotPeriod.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 计算指定周期的热度排行并原子替换，同时清除该周期的热门图片列表缓存
+     */
+    private synchronized void refresh(HotPeriod hotPeriod) {
+        long startTime = System.currentTimeMillis();
+        lastRefreshAt.put(hotPeriod.getName(), startTime);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ReactionBucketCount> buckets = userReactionMapper.selectReactionBucketCounts(
+                RedisConstants.TARGET_PICTURE,
+                String.valueOf(PictureReviewStatusEnum.PASS.getValue()),
+                now.minusHours(hotPeriod.getWindowHours()),
+                now,
+                hotPeriod.getBucketSeconds());
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (ReactionBucketCount bucket : buckets) {
+            double weight = weightOf(bucket.getReactionType());
+            if (weight <= 0 || bucket.getReactionCount() == null) {
+                continue;
+            }
+            // 按桶中点计算距今时长
+            double ageHours = (bucket.getBucketAge() + 0.5) * hotPeriod.getBucketSeconds() / 3600.0;
+            double decay = Math.pow(0.5, ageHours / hotPeriod.getHalfLifeHours());
+            scores.merge(bucket.getTargetId(), weight * bucket.getReactionCount() * decay, Double::sum);
+        }
+
+        Set<ZSetOperations.TypedTuple<Object>> top = new HashSet<>();
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(RANKING_SIZE)
+                .forEach(entry -> top.add(new DefaultTypedTuple<>(entry.getKey(), entry.getValue())));
+
+        String key = RedisConstants.getHotRankingKey(hotPeriod.getName());
+        if (top.isEmpty()) {
+            redisTemplate.delete(key);
+        } else {
+            String tempKey = key + REBUILD_SUFFIX;
+            redisTemplate.delete(tempKey);
+            redisTemplate.opsForZSet().add(tempKey, top);
+            redisTemplate.rename(tempKey, key);
+        }
+        redisTemplate.delete(RedisConstants.getHotPicturesKey(hotPeriod.getName()));
+
+        log.info("热度排行计算完成: period={}, 聚合行数={}, 候选图片数={}, 入榜数={}, 耗时={}ms",
+                hotPeriod.getName(), buckets.size(), scores.size(), top.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private boolean refreshDue(HotPeriod hotPeriod) {
+        Long last = lastRefreshAt.get(hotPeriod.getName());
+        return last == null || System.currentTimeMillis() - last >= refreshIntervalMillis;
+    }
+
+    private double weightOf(String reactionType) {
+        if (RedisConstants.REACTION_LIKE.equals(reactionType)) {
+            return LIKE_WEIGHT;
+        }
+        if (RedisConstants.REACTION_FAVORITE.equals(reactionType)) {
+            return FAVORITE_WEIGHT;
+        }
+        return 0;
+    }
+
+    /**
+     * 统计周期：时间窗口、半衰期和聚合时间桶大小
+     */
+    @Getter
+    @AllArgsConstructor
+    private enum HotPeriod {
+        HOUR("hour", 6, 1, 300),
+        DAY("day", 48, 8, 1800),
+        WEEK("week", 336, 72, 10800);
+
+        private final String name;
+        private final int windowHours;
+        private final double halfLifeHours;
+        private final int bucketSeconds;
+
+        static HotPeriod of(String name) {
+            for (HotPeriod period : values()) {
+                if (period.name.equals(name)) {
+                    return period;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package org.leocoder.picture.manager;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constant.RedisKeyConstants;
+import org.leocoder.picture.domain.dto.picture.PictureCountDelta;
+import org.leocoder.picture.domain.pojo.Picture;
+import org.leocoder.picture.enums.PictureReviewStatusEnum;
+import org.leocoder.picture.mapper.PictureMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-04-30 16:00
+ * @description : 图片计数排行榜（Redis ZSET）
+ * 浏览量、点赞数、收藏数各维护一个有序集合，计数写入数据库后同步增量更新，
+ * 无筛选条件的"热门/浏览最多/点赞最多/收藏最多"瀑布流直接按排名游标分页，MySQL只负责按ID回填详情。
+ * 成员为补零到19位的图片ID，同分值时按成员逆字典序即ID倒序，与SQL的 "计数 DESC, id DESC" 一致
+ */
+@Slf4j
+@Component
+public class PictureLeaderboardManager {
+
+    public static final String METRIC_VIEW = "view";
+    public static final String METRIC_LIKE = "like";
+    public static final String METRIC_COLLECTION = "collection";
+
+    private static final List<String> METRICS = Arrays.asList(METRIC_VIEW, METRIC_LIKE, METRIC_COLLECTION);
+
+    // 全量重建时每批读取的图片数量
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // 游标图片分值已变化时，按分值定位最多扫描的成员数，超过后回退到数据库查询
+    private static final int MAX_TIE_SCAN = 1000;
+
+    private static final String REBUILD_SUFFIX = ":rebuilding";
+
+    /**
+     * 仅对已在榜单中的成员累加分值，避免未过审或已删除的图片被计数更新带入榜单；
+     * 分值与数据库一致，不小于0。
+     * 全量重建期间（KEYS[3]重建进度存在），成员不大于重建进度的说明已从数据库读出并写入临时榜单（KEYS[2]），
+     * 增量同时累加到临时榜单，避免RENAME后丢失；大于进度的成员稍后读库时已包含该增量
+     */
+    private static final DefaultRedisScript<Long> INCREMENT_IF_PRESENT_SCRIPT = new DefaultRedisScript<>(
+            "local cursor = redis.call('GET', KEYS[3]) "
+                    + "local n = 0 "
+                    + "for i = 1, #ARGV, 2 do "
+                    + "  for k = 1, 2 do "
+                    + "    if (k == 1 or (cursor and ARGV[i] <= cursor)) and redis.call('ZSCORE', KEYS[k], ARGV[i]) then "
+                    + "      local score = tonumber(redis.call('ZINCRBY', KEYS[k], ARGV[i + 1], ARGV[i])) "
+                    + "      if score < 0 then redis.call('ZADD', KEYS[k], 0, ARGV[i]) end "
+                    + "      if k == 1 then n = n + 1 end "
+                    + "    end "
+                    + "  end "
+                    + "end "
+                    + "return n", Long.class);
+
+    /**
+     * 仅在榜单已建立时写入成员，避免在全量重建前生成只有部分成员的榜单；
+     * 全量重建期间，不大于重建进度的成员同时写入临时榜单（KEYS[2]）
+     */
+    private static final DefaultRedisScript<Long> ADD_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "local cursor = redis.call('GET', KEYS[3]) "
+                    + "local live = redis.call('EXISTS', KEYS[1]) == 1 "
+                    + "for i = 1, #ARGV, 2 do "
+                    + "  if live then redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i]) end "
+                    + "  if cursor and ARGV[i] <= cursor then redis.call('ZADD', KEYS[2], ARGV[i + 1], ARGV[i]) end "
+                    + "end "
+                    + "return live and 1 or 0", Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final PictureMapper pictureMapper;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "leaderboard-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PictureLeaderboardManager(RedisTemplate<String, Object> redisTemplate, PictureMapper pictureMapper) {
+        this.redisTemplate = redisTemplate;
+        this.pictureMapper = pictureMapper;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取排序方式对应的榜单维度
+     *
+     * @param sortBy 排序方式
+     * @return 榜单维度，不是计数排序时返回null
+     */
+    public static String metricOf(String sortBy) {
+        if (sortBy == null) {
+            return null;
+        }
+        switch (sortBy) {
+            case "popular":
+            case "mostViewed":
+                return METRIC_VIEW;
+            case "mostLiked":
+                return METRIC_LIKE;
+            case "mostCollected":
+                return METRIC_COLLECTION;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 按排名游标读取一页
+     *
+     * @param metric    榜单维度
+     * @param lastId    上一页最后一张图片ID，首页为null
+     * @param lastValue 上一页最后一张图片的分值，首页为null
+     * @param pageSize  每页数量
+     * @return 分页结果，榜单尚未建立或无法定位游标时返回null，由调用方回退到数据库查询
+     */
+    public LeaderboardPage getPage(String metric, Long lastId, Long lastValue, int pageSize) {
+        String key = RedisKeyConstants.buildLeaderboardKey(metric);
+        try {
+            ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
+            Long total = zSetOps.zCard(key);
+            if (total == null || total == 0) {
+                rebuildAsync();
+                return null;
+            }
+
+            Set<ZSetOperations.TypedTuple<Object>> tuples;
+            if (lastId == null) {
+                tuples = zSetOps.reverseRangeWithScores(key, 0, pageSize - 1);
+            } else {
+                String cursorMember = toMember(lastId);
+                Double cursorScore = zSetOps.score(key, cursorMember);
+                if (cursorScore != null && lastValue != null && cursorScore.longValue() == lastValue) {
+                    // 游标图片分值未变，直接按其排名向后取
+                    Long rank = zSetOps.reverseRank(key, cursorMember);
+                    if (rank == null) {
+                        return null;
+                    }
+                    tuples = zSetOps.reverseRangeWithScores(key, rank + 1, rank + pageSize);
+                } else if (lastValue != null) {
+                    tuples = rangeAfterCursor(key, lastId, lastValue, pageSize);
+                    if (tuples == null) {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+            }
+
+            List<Long> pictureIds = new ArrayList<>(pageSize);
+            Map<Long, Long> scores = new HashMap<>(pageSize * 2);
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                    Long pictureId = parseMember(tuple.getValue());
+                    pictureIds.add(pictureId);
+                    scores.put(pictureId, tuple.getScore() == null ? 0L : tuple.getScore().longValue());
+                }
+            }
+            return new LeaderboardPage(pictureIds, scores, total, pictureIds.size() >= pageSize);
+        } catch (Exception e) {
+            log.warn("读取图片排行榜失败，回退到数据库查询: metric={}, error={}", metric, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 计数批量写入数据库后同步更新榜单分值
+     *
+     * @param deltas 按图片合并后的计数增量
+     */
+    public void applyCountDeltas(Collection<PictureCountDelta> deltas) {
+        if (CollUtil.isEmpty(deltas)) {
+            return;
+        }
+        incrementScores(METRIC_VIEW, deltas, PictureCountDelta::getViewDelta);
+        incrementScores(METRIC_LIKE, deltas, PictureCountDelta::getLikeDelta);
+        incrementScores(METRIC_COLLECTION, deltas, PictureCountDelta::getCollectionDelta);
+    }
+
+    /**
+     * 浏览量批量写入数据库后同步更新浏览榜分值
+     *
+     * @param viewDeltas 图片ID -> 浏览量增量
+     */
+    public void applyViewDeltas(Map<Long, Long> viewDeltas) {
+        if (CollUtil.isEmpty(viewDeltas)) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(viewDeltas.size() * 2);
+        viewDeltas.forEach((pictureId, delta) -> {
+            if (delta != null && delta != 0) {
+                args.add(toMember(pictureId));
+                args.add(delta);
+            }
+        });
+        executeIncrement(METRIC_VIEW, args);
+    }
+
+    /**
+     * 图片上传、审核、删除或计数校准后，按数据库当前状态刷新其在各榜单中的成员和分值
+     * 在事务中调用时于提交后执行
+     *
+     * @param pictureIds 图片ID列表
+     */
+    public void refreshPictures(Collection<Long> pictureIds) {
+        if (CollUtil.isEmpty(pictureIds)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(pictureIds));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRefreshPictures(ids);
+                }
+            });
+        } else {
+            doRefreshPictures(ids);
+        }
+    }
+
+    /**
+     * 定时全量重建，修正增量更新过程中可能产生的偏差
+     */
+    @Scheduled(cron = "${picture.leaderboard.rebuild-cron:0 30 3 * * ?}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 从数据库全量重建所有榜单
+     * 先按ID顺序分批写入临时键，完成后用RENAME原子替换，重建期间读请求仍使用旧榜单；
+     * 每批写入后推进重建进度，重建期间到达的增量和成员变更按进度同步到临时键，替换时不会丢失
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            String reviewStatus = String.valueOf(PictureReviewStatusEnum.PASS.getValue());
+            List<String> tempKeys = new ArrayList<>();
+            for (String metric : METRICS) {
+                tempKeys.add(RedisKeyConstants.buildLeaderboardKey(metric) + REBUILD_SUFFIX);
+            }
+            redisTemplate.delete(tempKeys);
+            redisTemplate.delete(RedisKeyConstants.LEADERBOARD_REBUILD_CURSOR_KEY);
+
+            long lastId = 0;
+            long total = 0;
+            while (true) {
+                List<Picture> batch = pictureMapper.selectLeaderboardEntries(reviewStatus, lastId, REBUILD_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                writeBatch(batch, tempKeys);
+                lastId = batch.get(batch.size() - 1).getId();
+                total += batch.size();
+                if (batch.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            for (int i = 0; i < METRICS.size(); i++) {
+                String liveKey = RedisKeyConstants.buildLeaderboardKey(METRICS.get(i));
+                if (total > 0) {
+                    redisTemplate.rename(tempKeys.get(i), liveKey);
+                } else {
+                    redisTemplate.delete(liveKey);
+                }
+            }
+            log.info("图片排行榜重建完成: 图片数={}, 耗时={}ms", total, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("图片排行榜重建失败: {}", e.getMessage(), e);
+        } finally {
+            try {
+                redisTemplate.delete(RedisKeyConstants.LEADERBOARD_REBUILD_CURSOR_KEY);
+            } catch (Exception e) {
+                log.warn("清理图片排行榜重建进度失败: {}", e.getMessage());
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 异步触发重建（榜单缺失时由读请求触发，不阻塞请求线程）
+     */
+    private void rebuildAsync() {
+        if (!rebuilding.get()) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * 游标图片分值已变化（或已移出榜单）时，按上一页末尾分值定位：
+     * 取分值不高于lastValue的成员，并跳过与lastValue同分且ID不小于lastId的成员
+     */
+    private Set<ZSetOperations.TypedTuple<Object>> rangeAfterCursor(String key, Long lastId, Long lastValue, int pageSize) {
+        ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
+        Set<ZSetOperations.TypedTuple<Object>> result = new LinkedHashSet<>();
+        int chunkSize = Math.max(pageSize * 2, 50);
+        long offset = 0;
+        while (offset < MAX_TIE_SCAN) {
+            Set<ZSetOperations.TypedTuple<Object>> chunk = zSetOps.reverseRangeByScoreWithScores(
+                    key, Double.NEGATIVE_INFINITY, lastValue, offset, chunkSize);
+            if (chunk == null || chunk.isEmpty()) {
+                return result;
+            }
+            for (ZSetOperations.TypedTuple<Object> tuple : chunk) {
+                long score = tuple.getScore() == null ? 0L : tuple.getScore().longValue();
+                if (score == lastValue && parseMember(tuple.getValue()) >= lastId) {
+                    continue;
+                }
+                result.add(tuple);
+                if (result.size() >= pageSize) {
+                    return result;
+                }
+            }
+            if (chunk.size() < chunkSize) {
+                return result;
+            }
+            offset += chunkSize;
+        }
+        return null;
+    }
+
+    private void incrementScores(String metric, Collection<PictureCountDelta> deltas,
+                                 Function<PictureCountDelta, Long> deltaGetter) {
+        List<Object> args = new ArrayList<>();
+        for (PictureCountDelta delta : deltas) {
+            Long value = deltaGetter.apply(delta);
+            if (value != null && value != 0) {
+                args.add(toMember(delta.getPictureId()));
+                args.add(value);
+            }
+        }
+        executeIncrement(metric, args);
+    }
+
+    private void executeIncrement(String metric, List<Object> args) {
+        if (args.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.execute(INCREMENT_IF_PRESENT_SCRIPT, scriptKeys(metric), args.toArray());
+        } catch (Exception e) {
+            // 榜单偏差会在下次全量重建时修正
+            log.warn("更新图片排行榜分值失败: metric={}, 图片数={}, error={}", metric, args.size() / 2, e.getMessage());
+        }
+    }
+
+    private void doRefreshPictures(List<Long> pictureIds) {
+        try {
+            Map<Long, Picture> pictureMap = new HashMap<>();
+            for (Picture picture : pictureMapper.selectByIds(pictureIds)) {
+                pictureMap.put(picture.getId(), picture);
+            }
+
+            int passStatus = PictureReviewStatusEnum.PASS.getValue();
+            List<Picture> ranked = new ArrayList<>();
+            List<Object> removed = new ArrayList<>();
+            for (Long pictureId : pictureIds) {
+                Picture picture = pictureMap.get(pictureId);
+                boolean visible = picture != null
+                        && Objects.equals(picture.getReviewStatus(), passStatus)
+                        && !Objects.equals(picture.getIsDeleted(), 1);
+                if (visible) {
+                    ranked.add(picture);
+                } else {
+                    removed.add(toMember(pictureId));
+                }
+            }
+
+            for (String metric : METRICS) {
+                String key = RedisKeyConstants.buildLeaderboardKey(metric);
+                if (!removed.isEmpty()) {
+                    redisTemplate.opsForZSet().remove(key, removed.toArray());
+                    redisTemplate.opsForZSet().remove(key + REBUILD_SUFFIX, removed.toArray());
+                }
+                if (!ranked.isEmpty()) {
+                    List<Object> args = new ArrayList<>(ranked.size() * 2);
+                    for (Picture picture : ranked) {
+                        args.add(toMember(picture.getId()));
+                        args.add(scoreOf(picture, metric));
+                    }
+                    redisTemplate.execute(ADD_IF_EXISTS_SCRIPT, scriptKeys(metric), args.toArray());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("刷新图片排行榜成员失败: 图片数={}, error={}", pictureIds.size(), e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<Picture> batch, List<String> tempKeys) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (int i = 0; i < METRICS.size(); i++) {
+                    Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>(batch.size() * 2);
+                    for (Picture picture : batch) {
+                        tuples.add(new DefaultTypedTuple<>(toMember(picture.getId()),
+                                (double) scoreOf(picture, METRICS.get(i))));
+                    }
+                    ops.opsForZSet().add(tempKeys.get(i), tuples);
+                }
+                // 同一连接上按顺序执行，进度推进时本批成员已写入临时榜单
+                ops.opsForValue().set(RedisKeyConstants.LEADERBOARD_REBUILD_CURSOR_KEY,
+                        toMember(batch.get(batch.size() - 1).getId()));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 增量脚本的键：正式榜单、临时榜单、重建进度
+     */
+    private static List<String> scriptKeys(String metric) {
+        String key = RedisKeyConstants.buildLeaderboardKey(metric);
+        return Arrays.asList(key, key + REBUILD_SUFFIX, RedisKeyConstants.LEADERBOARD_REBUILD_CURSOR_KEY);
+    }
+
+    private long scoreOf(Picture picture, String metric) {
+        switch (metric) {
+            case METRIC_VIEW:
+                return picture.getViewCount() == null ? 0L : picture.getViewCount();
+            case METRIC_LIKE:
+                return picture.getLikeCount() == null ? 0L : picture.getLikeCount();
+            default:
+                return picture.getCollectionCount() == null ? 0L : picture.getCollectionCount();
+        }
+    }
+
+    private static String toMember(Long pictureId) {
+        return String.format("%019d", pictureId);
+    }
+
+    private static Long parseMember(Object member) {
+        return Long.parseLong(String.valueOf(member));
+    }
+
+    /**
+     * 榜单分页结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class LeaderboardPage {
+        /**
+         * 按排名排列的图片ID
+         */
+        private final List<Long> pictureIds;
+        /**
+         * 图片ID -> 榜单分值
+         */
+        private final Map<Long, Long> scores;
+        /**
+         * 榜单成员总数
+         */
+        private final long total;
+        /**
+         * 是否可能还有下一页
+         */
+        private final boolean hasMore;
+    }
+}
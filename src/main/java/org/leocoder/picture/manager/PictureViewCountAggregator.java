@@ -0,0 +1,291 @@
+package org.leocoder.picture.manager;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.cache.PictureCacheManager;
+import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.mapper.PictureMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-04-29 10:00
+ * @description : 图片浏览量写回聚合器
+ * 浏览量先在JVM内按图片累加（LongAdder），定时或累计到阈值时统一刷出：
+ * 一条批量 UPDATE ... CASE 写入MySQL，一次流水线 INCRBY 写入Redis计数键。
+ * 进程异常退出时最多丢失一个刷新周期内的浏览量，正常停机会在销毁前再刷新一次；
+ * 刷新在自己的调度线程中执行，刷新周期不受其他定时任务影响
+ */
+@Slf4j
+@Component
+public class PictureViewCountAggregator {
+
+    // 单条UPDATE语句携带的最大图片数量
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final PictureMapper pictureMapper;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final PictureCacheManager pictureCacheManager;
+
+    private final PictureLeaderboardManager leaderboardManager;
+
+    // 按累计浏览量触发刷新的阈值
+    private final long flushThreshold;
+
+    // 定时刷新间隔（毫秒）
+    private final long flushIntervalMillis;
+
+    private final ConcurrentHashMap<Long, LongAdder> pendingCounts = new ConcurrentHashMap<>();
+
+    // 待刷新的浏览量总数
+    private final LongAdder pendingViews = new LongAdder();
+
+    // 最早一条未刷新浏览记录的时间，0表示当前没有待刷新数据
+    private final AtomicLong oldestPendingAt = new AtomicLong();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicBoolean thresholdFlushScheduled = new AtomicBoolean(false);
+
+    // 定时刷新和阈值刷新都在独立线程中执行，不与其他@Scheduled任务共用调度线程，
+    // 长时间运行的对账、分区等任务不会推迟刷新
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "view-count-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 刷新统计
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushedViews = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final AtomicLong maxFlushSize = new AtomicLong();
+    private volatile long lastFlushSize;
+    private volatile long lastFlushViews;
+    private volatile long lastFlushLagMillis;
+    private volatile long lastFlushCostMillis;
+
+    public PictureViewCountAggregator(PictureMapper pictureMapper,
+                                      RedisTemplate<String, Object> redisTemplate,
+                                      PictureCacheManager pictureCacheManager,
+                                      PictureLeaderboardManager leaderboardManager,
+                                      @Value("${picture.view-count.flush-threshold:5000}") long flushThreshold,
+                                      @Value("${picture.view-count.flush-interval-ms:5000}") long flushIntervalMillis) {
+        this.pictureMapper = pictureMapper;
+        this.redisTemplate = redisTemplate;
+        this.pictureCacheManager = pictureCacheManager;
+        this.leaderboardManager = leaderboardManager;
+        this.flushThreshold = flushThreshold;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * 启动定时刷新
+     */
+    @PostConstruct
+    public void start() {
+        flushExecutor.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次浏览
+     *
+     * @param pictureId 图片ID
+     */
+    public void record(Long pictureId) {
+        if (pictureId == null) {
+            return;
+        }
+        pendingCounts.computeIfAbsent(pictureId, k -> new LongAdder()).increment();
+        pendingViews.increment();
+        oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+
+        // 累计量达到阈值时提前异步刷新，不阻塞请求线程
+        if (pendingViews.sum() >= flushThreshold && thresholdFlushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    thresholdFlushScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * 定时刷新，异常不会中断后续调度
+     */
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("定时刷新浏览量失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 停机前刷新剩余浏览量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    /**
+     * 将累计的浏览量增量写入MySQL和Redis
+     */
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            long oldest = oldestPendingAt.getAndSet(0);
+            Map<Long, Long> deltas = drain();
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            long views = deltas.values().stream().mapToLong(Long::longValue).sum();
+            pendingViews.add(-views);
+
+            // 逐批写入数据库，失败时仅将未写入的增量放回，下个周期重试
+            Map<Long, Long> written = new HashMap<>();
+            List<List<Long>> batches = CollUtil.split(new ArrayList<>(deltas.keySet()), FLUSH_BATCH_SIZE);
+            for (int i = 0; i < batches.size(); i++) {
+                Map<Long, Long> batchDeltas = new LinkedHashMap<>();
+                for (Long pictureId : batches.get(i)) {
+                    batchDeltas.put(pictureId, deltas.get(pictureId));
+                }
+                try {
+                    pictureMapper.batchIncrementViewCount(batchDeltas);
+                    written.putAll(batchDeltas);
+                } catch (Exception e) {
+                    failedFlushes.increment();
+                    long requeued = 0;
+                    for (List<Long> remaining : batches.subList(i, batches.size())) {
+                        for (Long pictureId : remaining) {
+                            long delta = deltas.get(pictureId);
+                            pendingCounts.computeIfAbsent(pictureId, k -> new LongAdder()).add(delta);
+                            requeued += delta;
+                        }
+                    }
+                    pendingViews.add(requeued);
+                    oldestPendingAt.compareAndSet(0, oldest == 0 ? startTime : oldest);
+                    log.error("浏览量批量写入数据库失败，将在下个周期重试: 待重试浏览量={}, error={}",
+                            requeued, e.getMessage(), e);
+                    break;
+                }
+            }
+            if (written.isEmpty()) {
+                return;
+            }
+
+            // Redis只累加已写入数据库的部分，避免重试时重复计数
+            incrementRedisCounters(written);
+            leaderboardManager.applyViewDeltas(written);
+            pictureCacheManager.invalidateAfterViewCountFlush(written.size());
+
+            long writtenViews = written.values().stream().mapToLong(Long::longValue).sum();
+            long costMillis = System.currentTimeMillis() - startTime;
+            flushCount.increment();
+            flushedViews.add(writtenViews);
+            maxFlushSize.accumulateAndGet(written.size(), Math::max);
+            lastFlushSize = written.size();
+            lastFlushViews = writtenViews;
+            lastFlushLagMillis = oldest == 0 ? 0 : startTime - oldest;
+            lastFlushCostMillis = costMillis;
+            log.debug("浏览量刷新完成: 图片数={}, 浏览量={}, 延迟={}ms, 耗时={}ms",
+                    written.size(), writtenViews, lastFlushLagMillis, costMillis);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 获取刷新统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        long oldest = oldestPendingAt.get();
+        stats.put("pendingPictures", (long) pendingCounts.size());
+        stats.put("pendingViews", pendingViews.sum());
+        stats.put("pendingLagMillis", oldest == 0 ? 0 : System.currentTimeMillis() - oldest);
+        stats.put("flushes", flushCount.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("flushedViews", flushedViews.sum());
+        stats.put("lastFlushSize", lastFlushSize);
+        stats.put("lastFlushViews", lastFlushViews);
+        stats.put("maxFlushSize", maxFlushSize.get());
+        stats.put("lastFlushLagMillis", lastFlushLagMillis);
+        stats.put("lastFlushCostMillis", lastFlushCostMillis);
+        return stats;
+    }
+
+    /**
+     * 取出所有待刷新的增量
+     * 计数器保留在表中复用（sumThenReset对每个单元原子清零，不会丢失并发累加）；
+     * 本轮没有增量的计数器才移除，避免表无限增长，移除后残留的累加并入下一轮
+     */
+    private Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingCounts.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.put(entry.getKey(), delta);
+            } else if (pendingCounts.remove(entry.getKey(), entry.getValue())) {
+                long late = entry.getValue().sumThenReset();
+                if (late > 0) {
+                    pendingCounts.computeIfAbsent(entry.getKey(), k -> new LongAdder()).add(late);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * 流水线批量累加Redis中的浏览量计数键
+     */
+    private void incrementRedisCounters(Map<Long, Long> deltas) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    deltas.forEach((pictureId, delta) -> {
+                        String viewCountKey = RedisConstants.getReactionCountKey(
+                                RedisConstants.TARGET_PICTURE, pictureId, RedisConstants.REACTION_VIEW);
+                        ops.opsForValue().increment(viewCountKey, delta);
+                        ops.expire(viewCountKey, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
+                    });
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // Redis计数仅为缓存，过期后会从数据库回填
+            log.warn("浏览量批量写入Redis失败: 图片数={}, error={}", deltas.size(), e.getMessage());
+        }
+    }
+}
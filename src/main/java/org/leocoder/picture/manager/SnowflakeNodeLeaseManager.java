@@ -0,0 +1,190 @@
+package org.leocoder.picture.manager;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.utils.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-03 10:00
+ * @description : 雪花算法节点ID租约（Redis）
+ * 启动时从0~127中抢占一个未被占用的节点ID（SET NX + 过期时间），后台定期续期；
+ * 续期发现租约已被其他实例占用时重新抢占并通知ID生成器切换节点ID。
+ * 停机时不直接删除租约，而是缩短为冷却时间，避免新实例在旧实例借用的未来时间戳内复用同一节点ID。
+ * 本地按最近一次成功续期的时间记录租约有效期（续期开始时间 + 租约时长 - 安全余量），
+ * 续期失败或租约丢失且无法重新抢占时不再延长，超过有效期后ID生成器拒绝生成ID
+ */
+@Slf4j
+@Component
+public class SnowflakeNodeLeaseManager {
+
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "end "
+                    + "return 0", Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final boolean enabled;
+
+    private final long leaseSeconds;
+
+    private final long releaseCooldownSeconds;
+
+    private final long leaseSafetySeconds;
+
+    // 当前实例标识，作为租约的值
+    private final String instanceId = IdUtil.fastSimpleUUID();
+
+    private volatile long nodeId = -1;
+
+    // 本地租约有效期截止时间（System.nanoTime）
+    private volatile long leaseDeadlineNanos;
+
+    private volatile LongConsumer nodeIdListener;
+
+    private ScheduledExecutorService renewExecutor;
+
+    public SnowflakeNodeLeaseManager(RedisTemplate<String, Object> redisTemplate,
+                                     @Value("${picture.snowflake.lease-enabled:true}") boolean enabled,
+                                     @Value("${picture.snowflake.lease-seconds:60}") long leaseSeconds,
+                                     @Value("${picture.snowflake.release-cooldown-seconds:5}") long releaseCooldownSeconds,
+                                     @Value("${picture.snowflake.lease-safety-seconds:5}") long leaseSafetySeconds) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.leaseSeconds = leaseSeconds;
+        this.releaseCooldownSeconds = releaseCooldownSeconds;
+        this.leaseSafetySeconds = leaseSafetySeconds;
+    }
+
+    /**
+     * 抢占节点ID并开始定期续期
+     *
+     * @param listener 续期过程中节点ID变更时的回调
+     * @return 节点ID，未启用或Redis不可用时返回-1，由调用方使用配置的节点ID
+     */
+    public synchronized long acquire(LongConsumer listener) {
+        if (!enabled) {
+            return -1;
+        }
+        this.nodeIdListener = listener;
+        long startNanos = System.nanoTime();
+        try {
+            nodeId = tryAcquire();
+        } catch (Exception e) {
+            log.warn("抢占雪花算法节点ID失败，使用配置的节点ID: {}", e.getMessage());
+            return -1;
+        }
+        if (nodeId < 0) {
+            log.warn("雪花算法节点ID已全部被占用，使用配置的节点ID");
+            return -1;
+        }
+        extendLease(startNanos);
+
+        renewExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snowflake-lease-renew");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewInterval = Math.max(leaseSeconds / 3, 1);
+        renewExecutor.scheduleWithFixedDelay(this::renew, renewInterval, renewInterval, TimeUnit.SECONDS);
+        log.info("已获取雪花算法节点ID租约: nodeId={}, instanceId={}", nodeId, instanceId);
+        return nodeId;
+    }
+
+    /**
+     * 本地租约有效期截止时间（System.nanoTime），超过后不应再使用当前节点ID生成ID
+     */
+    public long getLeaseDeadlineNanos() {
+        return leaseDeadlineNanos;
+    }
+
+    /**
+     * 停机时将租约缩短为冷却时间
+     */
+    @PreDestroy
+    public void release() {
+        if (renewExecutor != null) {
+            renewExecutor.shutdownNow();
+        }
+        if (nodeId < 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(RedisConstants.getSnowflakeNodeLeaseKey(nodeId)),
+                    instanceId, releaseCooldownSeconds);
+        } catch (Exception e) {
+            log.warn("释放雪花算法节点ID租约失败: nodeId={}, error={}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * 从随机位置开始依次尝试抢占节点ID
+     *
+     * @return 节点ID，全部被占用时返回-1
+     */
+    private long tryAcquire() {
+        long nodeCount = SnowflakeIdGenerator.MAX_NODE_ID + 1;
+        long start = ThreadLocalRandom.current().nextLong(nodeCount);
+        for (long i = 0; i < nodeCount; i++) {
+            long candidate = (start + i) % nodeCount;
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(
+                    RedisConstants.getSnowflakeNodeLeaseKey(candidate), instanceId, leaseSeconds, TimeUnit.SECONDS);
+            if (Boolean.TRUE.equals(acquired)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private void renew() {
+        long startNanos = System.nanoTime();
+        try {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT,
+                    Collections.singletonList(RedisConstants.getSnowflakeNodeLeaseKey(nodeId)), instanceId, leaseSeconds);
+            if (renewed != null && renewed == 1) {
+                extendLease(startNanos);
+                return;
+            }
+            // 租约已过期并被其他实例占用（如长时间GC或网络中断），立即停止使用当前节点ID并重新抢占
+            leaseDeadlineNanos = startNanos;
+            long newNodeId = tryAcquire();
+            if (newNodeId < 0) {
+                log.error("雪花算法节点ID租约丢失且无可用节点ID，暂停生成ID直到重新获得租约: nodeId={}", nodeId);
+                return;
+            }
+            log.warn("雪花算法节点ID租约丢失，切换节点ID: {} -> {}", nodeId, newNodeId);
+            nodeId = newNodeId;
+            LongConsumer listener = nodeIdListener;
+            if (listener != null) {
+                listener.accept(newNodeId);
+            }
+            extendLease(startNanos);
+        } catch (Exception e) {
+            // Redis暂时不可用时保持当前节点ID，下次续期重试；有效期内仍可生成ID
+            log.warn("续期雪花算法节点ID租约失败: nodeId={}, error={}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * 租约在续期开始时已延长，按开始时间计算本地有效期，并预留安全余量（需大于允许借用的未来时长）
+     */
+    private void extendLease(long startNanos) {
+        leaseDeadlineNanos = startNanos + TimeUnit.SECONDS.toNanos(leaseSeconds - leaseSafetySeconds);
+    }
+}
@@ -0,0 +1,236 @@
+package org.leocoder.picture.manager;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.mapper.UserReactionMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-02 10:00
+ * @description : 用户点赞/收藏集合（Redis SET）
+ * 每个用户按目标类型和反应类型各维护一个集合，成员为目标ID，取代按（用户, 目标）逐个存放的状态键。
+ * 集合首次访问时只查询目标ID整体加载，之后由点赞/收藏操作增量维护，每次变更同时递增集合的变更代数；
+ * 批量查询状态时在一次管道调用中判断所有目标ID是否在集合中
+ */
+@Slf4j
+@Component
+public class UserReactionSetManager {
+
+    /**
+     * 占位成员：集合已加载但用户没有任何点赞/收藏时，保证集合键存在（目标ID不会为0）
+     */
+    private static final Long PLACEHOLDER_MEMBER = 0L;
+
+    // 加载集合时每批写入的成员数
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    // 加载中的临时集合过期时间（秒），加载中断时自动清理
+    private static final long LOADING_KEY_EXPIRE_SECONDS = 60;
+
+    /**
+     * 先递增集合的变更代数，再仅在集合已加载时增量写入，避免生成只有部分成员的集合
+     * 集合不存在时代数同样递增，使正在进行的加载放弃写入
+     */
+    private static final DefaultRedisScript<Long> ADD_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) "
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[2]) "
+                    + "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('SADD', KEYS[1], ARGV[1]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    private static final DefaultRedisScript<Long> REMOVE_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) "
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[2]) "
+                    + "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('SREM', KEYS[1], ARGV[1]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    /**
+     * 加载完成后发布集合：变更代数与查询数据库前读取的一致时，才用临时集合替换正式集合；
+     * 否则说明加载期间有点赞/取消提交，丢弃临时集合，下次访问重新加载
+     */
+    private static final DefaultRedisScript<Long> PUBLISH_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>(
+            "local generation = redis.call('GET', KEYS[2]) or '0' "
+                    + "if generation ~= ARGV[1] then redis.call('DEL', KEYS[3]) return 0 end "
+                    + "redis.call('RENAME', KEYS[3], KEYS[1]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final UserReactionMapper userReactionMapper;
+
+    public UserReactionSetManager(RedisTemplate<String, Object> redisTemplate, UserReactionMapper userReactionMapper) {
+        this.redisTemplate = redisTemplate;
+        this.userReactionMapper = userReactionMapper;
+    }
+
+    /**
+     * 批量判断用户对各目标是否有指定类型的反应
+     *
+     * @param userId        用户ID
+     * @param targetType    目标类型
+     * @param reactionTypes 反应类型列表
+     * @param targetIds     目标ID列表
+     * @return 反应类型 -> 用户有该反应的目标ID集合
+     */
+    public Map<String, Set<Long>> findReacted(Long userId, String targetType, List<String> reactionTypes, List<Long> targetIds) {
+        Map<String, Set<Long>> result = new HashMap<>(reactionTypes.size());
+        if (CollUtil.isEmpty(targetIds)) {
+            for (String reactionType : reactionTypes) {
+                result.put(reactionType, new HashSet<>());
+            }
+            return result;
+        }
+
+        List<Object> replies = pipelinedIsMember(userId, targetType, reactionTypes, targetIds);
+
+        // 每种反应类型的应答依次为：集合是否存在 + 各目标ID是否为成员
+        int stride = targetIds.size() + 1;
+        for (int i = 0; i < reactionTypes.size(); i++) {
+            String reactionType = reactionTypes.get(i);
+            int offset = i * stride;
+            if (!Boolean.TRUE.equals(replies.get(offset))) {
+                // 集合未加载（首次访问或已过期），从数据库加载后再判断
+                Set<Long> reactedIds = load(userId, targetType, reactionType);
+                Set<Long> hits = new HashSet<>();
+                for (Long targetId : targetIds) {
+                    if (reactedIds.contains(targetId)) {
+                        hits.add(targetId);
+                    }
+                }
+                result.put(reactionType, hits);
+                continue;
+            }
+            Set<Long> hits = new HashSet<>();
+            for (int j = 0; j < targetIds.size(); j++) {
+                if (Boolean.TRUE.equals(replies.get(offset + 1 + j))) {
+                    hits.add(targetIds.get(j));
+                }
+            }
+            result.put(reactionType, hits);
+        }
+        return result;
+    }
+
+    /**
+     * 记录用户反应变化，存在事务时在提交后写入
+     *
+     * @param userId       用户ID
+     * @param targetType   目标类型
+     * @param targetId     目标ID
+     * @param reactionType 反应类型
+     * @param isAdd        是否为添加
+     */
+    public void applyReaction(Long userId, String targetType, Long targetId, String reactionType, boolean isAdd) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doApplyReaction(userId, targetType, targetId, reactionType, isAdd);
+                }
+            });
+        } else {
+            doApplyReaction(userId, targetType, targetId, reactionType, isAdd);
+        }
+    }
+
+    private void doApplyReaction(Long userId, String targetType, Long targetId, String reactionType, boolean isAdd) {
+        String key = RedisConstants.getUserReactionSetKey(userId, targetType, reactionType);
+        String generationKey = RedisConstants.getUserReactionGenerationKey(userId, targetType, reactionType);
+        try {
+            redisTemplate.execute(isAdd ? ADD_IF_EXISTS_SCRIPT : REMOVE_IF_EXISTS_SCRIPT, Arrays.asList(key, generationKey),
+                    targetId, TimeUnit.DAYS.toSeconds(RedisConstants.USER_CACHE_EXPIRE_DAYS));
+        } catch (Exception e) {
+            // 写入失败时删除集合，下次访问重新加载
+            log.error("更新用户反应集合失败: key={}, targetId={}, error={}", key, targetId, e.getMessage());
+            redisTemplate.delete(key);
+        }
+    }
+
+    /**
+     * 从数据库加载用户的反应集合并写入Redis
+     * 查询前记下集合的变更代数，成员先写入临时集合，代数未变化时才替换为正式集合，
+     * 避免加载期间提交的点赞/取消因集合尚不存在而丢失
+     */
+    private Set<Long> load(Long userId, String targetType, String reactionType) {
+        String key = RedisConstants.getUserReactionSetKey(userId, targetType, reactionType);
+        String generationKey = RedisConstants.getUserReactionGenerationKey(userId, targetType, reactionType);
+        Long generation;
+        try {
+            Object value = redisTemplate.opsForValue().get(generationKey);
+            generation = value == null ? 0L : Long.parseLong(String.valueOf(value));
+        } catch (Exception e) {
+            log.error("读取用户反应集合代数失败: key={}, error={}", generationKey, e.getMessage());
+            generation = null;
+        }
+
+        List<Long> targetIds = userReactionMapper.selectUserReactionTargetIds(userId, targetType, reactionType);
+        Set<Long> reactedIds = new HashSet<>(targetIds);
+        if (generation == null) {
+            return reactedIds;
+        }
+
+        String loadingKey = key + ":loading:" + UUID.randomUUID();
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForSet().add(loadingKey, PLACEHOLDER_MEMBER);
+                    for (int from = 0; from < targetIds.size(); from += LOAD_BATCH_SIZE) {
+                        List<Long> batch = targetIds.subList(from, Math.min(from + LOAD_BATCH_SIZE, targetIds.size()));
+                        ops.opsForSet().add(loadingKey, batch.toArray());
+                    }
+                    ops.expire(loadingKey, LOADING_KEY_EXPIRE_SECONDS, TimeUnit.SECONDS);
+                    return null;
+                }
+            });
+            Long published = redisTemplate.execute(PUBLISH_IF_UNCHANGED_SCRIPT, Arrays.asList(key, generationKey, loadingKey),
+                    generation, TimeUnit.DAYS.toSeconds(RedisConstants.USER_CACHE_EXPIRE_DAYS));
+            if (Long.valueOf(1L).equals(published)) {
+                log.debug("已加载用户反应集合: key={}, size={}", key, targetIds.size());
+            } else {
+                log.debug("加载期间用户反应有变化，放弃写入集合: key={}", key);
+            }
+        } catch (Exception e) {
+            log.error("写入用户反应集合失败: key={}, error={}", key, e.getMessage());
+            redisTemplate.delete(loadingKey);
+        }
+        return reactedIds;
+    }
+
+    private List<Object> pipelinedIsMember(Long userId, String targetType, List<String> reactionTypes, List<Long> targetIds) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String reactionType : reactionTypes) {
+                    String key = RedisConstants.getUserReactionSetKey(userId, targetType, reactionType);
+                    ops.hasKey(key);
+                    for (Long targetId : targetIds) {
+                        ops.opsForSet().isMember(key, targetId);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,328 @@
+package org.leocoder.picture.manager.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-02 16:30
+ * @description : 用户账号布隆过滤器
+ * 启动时优先加载本地快照，再按ID游标补齐快照之后新增的账号；没有快照时按ID游标分批全量构建。
+ * 定时补齐其他实例注册的账号并写出快照，每晚全量重建后原子替换当前过滤器，
+ * 重建期间新注册的账号同时写入新旧两个过滤器
+ */
+@Slf4j
+@Component
+public class AccountBloomFilterManager {
+
+    private final UserMapper userMapper;
+
+    private final Path snapshotPath;
+
+    private final long initialCapacity;
+
+    private final double fpp;
+
+    private final int scanBatchSize;
+
+    private volatile ScalableBloomFilter currentFilter;
+
+    // 正在重建的过滤器，重建期间新增账号需要同时写入
+    private volatile ScalableBloomFilter rebuildingFilter;
+
+    // 已加载到过滤器中的最大用户ID，补齐时从这里继续
+    private volatile long loadedMaxId;
+
+    private final Object writeLock = new Object();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    // 统计
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder snapshotWrites = new LongAdder();
+    private volatile long lastRebuildCostMillis;
+    private volatile long lastStartupCostMillis;
+
+    public AccountBloomFilterManager(UserMapper userMapper,
+                                     @Value("${picture.bloom.snapshot-path:./data/bloom/account.bf}") String snapshotPath,
+                                     @Value("${picture.bloom.initial-capacity:100000}") long initialCapacity,
+                                     @Value("${picture.bloom.fpp:0.001}") double fpp,
+                                     @Value("${picture.bloom.scan-batch-size:5000}") int scanBatchSize) {
+        this.userMapper = userMapper;
+        this.snapshotPath = Paths.get(snapshotPath).toAbsolutePath();
+        this.initialCapacity = initialCapacity;
+        this.fpp = fpp;
+        this.scanBatchSize = scanBatchSize;
+    }
+
+    /**
+     * 初始化布隆过滤器
+     */
+    @PostConstruct
+    public void init() {
+        long startTime = System.currentTimeMillis();
+        if (loadSnapshot()) {
+            int added = catchUp();
+            log.info("用户账号布隆过滤器已从快照加载, 补齐账号数: {}", added);
+        } else {
+            rebuild();
+        }
+        lastStartupCostMillis = System.currentTimeMillis() - startTime;
+        log.info("用户账号布隆过滤器初始化完成, 耗时: {}ms", lastStartupCostMillis);
+    }
+
+    /**
+     * 停机前写出快照
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (dirty.get()) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * 每天凌晨2点全量重建布隆过滤器
+     */
+    @Scheduled(cron = "${picture.bloom.rebuild-cron:0 0 2 * * ?}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 定时补齐新账号（包括其他实例注册的账号）并写出快照
+     */
+    @Scheduled(fixedDelayString = "${picture.bloom.sync-interval-ms:60000}", initialDelay = 60000)
+    public void syncAndSnapshot() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            if (catchUp() > 0) {
+                dirty.set(true);
+            }
+            if (dirty.get()) {
+                writeSnapshot();
+            }
+        } catch (Exception e) {
+            log.error("同步用户账号布隆过滤器失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 全量重建：按ID游标分批读取账号，完成后原子替换当前过滤器并写出快照
+     *
+     * @return 是否执行，已有重建任务时返回false
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("用户账号布隆过滤器正在重建，跳过本次重建");
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            log.info("开始重建用户账号布隆过滤器...");
+            // 首级容量预留两倍，之后账号继续增长时自动扩容
+            long accountCount = userMapper.countActiveAccounts();
+            ScalableBloomFilter filter = ScalableBloomFilter.create(Math.max(initialCapacity, accountCount * 2), fpp);
+            synchronized (writeLock) {
+                rebuildingFilter = filter;
+            }
+
+            long maxId = scanAccounts(filter, 0);
+
+            synchronized (writeLock) {
+                currentFilter = filter;
+                rebuildingFilter = null;
+                loadedMaxId = maxId;
+            }
+            rebuilds.increment();
+            lastRebuildCostMillis = System.currentTimeMillis() - startTime;
+            log.info("用户账号布隆过滤器重建完成, 账号数: {}, 耗时: {}ms", filter.getApproximateElementCount(), lastRebuildCostMillis);
+            writeSnapshot();
+            return true;
+        } catch (Exception e) {
+            synchronized (writeLock) {
+                rebuildingFilter = null;
+            }
+            log.error("重建用户账号布隆过滤器失败: {}", e.getMessage(), e);
+            if (currentFilter == null) {
+                throw e;
+            }
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 添加新账号到布隆过滤器
+     */
+    public void addAccount(String account) {
+        synchronized (writeLock) {
+            currentFilter.put(account);
+            ScalableBloomFilter rebuildTarget = rebuildingFilter;
+            if (rebuildTarget != null) {
+                rebuildTarget.put(account);
+            }
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * 检查账号是否可能存在
+     */
+    public boolean mightContain(String account) {
+        checks.increment();
+        boolean result = currentFilter.mightContain(account);
+        if (result) {
+            positives.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 记录一次误判（过滤器判断可能存在，数据库中实际不存在）
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * 获取布隆过滤器统计数据
+     */
+    public Map<String, Long> getStats() {
+        ScalableBloomFilter filter = currentFilter;
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("stages", (long) filter.getStageCount());
+        stats.put("capacity", filter.getCapacity());
+        stats.put("approximateElements", filter.getApproximateElementCount());
+        stats.put("currentStageFillPercent", Math.round(filter.getCurrentStageFillRatio() * 100));
+        stats.put("expectedFppPpm", Math.round(filter.getExpectedFpp() * 1_000_000));
+        long checkCount = checks.sum();
+        long falsePositiveCount = falsePositives.sum();
+        stats.put("checks", checkCount);
+        stats.put("positives", positives.sum());
+        stats.put("falsePositives", falsePositiveCount);
+        stats.put("observedFppPpm", checkCount == 0 ? 0 : falsePositiveCount * 1_000_000 / checkCount);
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("lastRebuildCostMillis", lastRebuildCostMillis);
+        stats.put("lastStartupCostMillis", lastStartupCostMillis);
+        stats.put("snapshotWrites", snapshotWrites.sum());
+        stats.put("loadedMaxId", loadedMaxId);
+        return stats;
+    }
+
+    /**
+     * 补齐已加载最大ID之后的账号
+     *
+     * @return 补齐的账号数
+     */
+    private int catchUp() {
+        ScalableBloomFilter filter = currentFilter;
+        long fromId = loadedMaxId;
+        int added = 0;
+        long lastId = fromId;
+        while (true) {
+            List<User> users = userMapper.selectAccountsAfter(lastId, scanBatchSize);
+            if (users.isEmpty()) {
+                break;
+            }
+            synchronized (writeLock) {
+                for (User user : users) {
+                    filter.put(user.getAccount());
+                }
+            }
+            added += users.size();
+            lastId = users.get(users.size() - 1).getId();
+        }
+        synchronized (writeLock) {
+            if (currentFilter == filter && lastId > loadedMaxId) {
+                loadedMaxId = lastId;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 按ID游标分批将账号写入过滤器
+     *
+     * @return 最大用户ID
+     */
+    private long scanAccounts(ScalableBloomFilter filter, long fromId) {
+        long lastId = fromId;
+        while (true) {
+            List<User> users = userMapper.selectAccountsAfter(lastId, scanBatchSize);
+            if (users.isEmpty()) {
+                return lastId;
+            }
+            for (User user : users) {
+                filter.put(user.getAccount());
+            }
+            lastId = users.get(users.size() - 1).getId();
+        }
+    }
+
+    private boolean loadSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            long maxId = in.readLong();
+            ScalableBloomFilter filter = ScalableBloomFilter.readFrom(in);
+            synchronized (writeLock) {
+                currentFilter = filter;
+                loadedMaxId = maxId;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("加载用户账号布隆过滤器快照失败，改为全量构建: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 写出快照：先写临时文件再原子替换
+     */
+    private synchronized void writeSnapshot() {
+        ScalableBloomFilter filter = currentFilter;
+        long maxId = loadedMaxId;
+        dirty.set(false);
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeLong(maxId);
+                filter.writeTo(out);
+            }
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotWrites.increment();
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("写出用户账号布隆过滤器快照失败: {}", e.getMessage(), e);
+        }
+    }
+}
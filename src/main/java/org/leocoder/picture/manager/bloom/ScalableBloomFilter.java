@@ -0,0 +1,185 @@
+package org.leocoder.picture.manager.bloom;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-02 16:00
+ * @description : 可扩容布隆过滤器
+ * 由多级Guava布隆过滤器叠加而成：当前级写满设计容量后追加一级，容量翻倍、误判率减半，
+ * 总误判率不超过首级误判率的两倍，不会因为元素持续增长而饱和。
+ * 查询时任意一级命中即认为可能存在
+ */
+public class ScalableBloomFilter {
+
+    private static final int SNAPSHOT_MAGIC = 0x53424631;
+
+    // 每追加一级的容量倍数
+    private static final int GROWTH_FACTOR = 2;
+
+    // 每追加一级的误判率收紧比例
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    private final double initialFpp;
+
+    private ScalableBloomFilter(double initialFpp) {
+        this.initialFpp = initialFpp;
+    }
+
+    /**
+     * 创建布隆过滤器
+     *
+     * @param initialCapacity 首级设计容量
+     * @param initialFpp      首级误判率
+     * @return 布隆过滤器
+     */
+    public static ScalableBloomFilter create(long initialCapacity, double initialFpp) {
+        ScalableBloomFilter filter = new ScalableBloomFilter(initialFpp);
+        filter.stages.add(new Stage(Math.max(initialCapacity, 1), initialFpp));
+        return filter;
+    }
+
+    /**
+     * 判断元素是否可能存在
+     */
+    public boolean mightContain(String value) {
+        for (Stage stage : stages) {
+            if (stage.filter.mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 添加元素，当前级写满时追加一级
+     */
+    public void put(String value) {
+        Stage current = stages.get(stages.size() - 1);
+        if (current.filter.approximateElementCount() >= current.capacity) {
+            synchronized (this) {
+                current = stages.get(stages.size() - 1);
+                if (current.filter.approximateElementCount() >= current.capacity) {
+                    current = new Stage(current.capacity * GROWTH_FACTOR, current.fpp * TIGHTENING_RATIO);
+                    stages.add(current);
+                }
+            }
+        }
+        current.filter.put(value);
+    }
+
+    /**
+     * 级数
+     */
+    public int getStageCount() {
+        return stages.size();
+    }
+
+    /**
+     * 各级设计容量之和
+     */
+    public long getCapacity() {
+        long capacity = 0;
+        for (Stage stage : stages) {
+            capacity += stage.capacity;
+        }
+        return capacity;
+    }
+
+    /**
+     * 已写入元素数量（估算值）
+     */
+    public long getApproximateElementCount() {
+        long count = 0;
+        for (Stage stage : stages) {
+            count += stage.filter.approximateElementCount();
+        }
+        return count;
+    }
+
+    /**
+     * 最后一级的填充比例（已写入数量 / 设计容量）
+     */
+    public double getCurrentStageFillRatio() {
+        Stage current = stages.get(stages.size() - 1);
+        return (double) current.filter.approximateElementCount() / current.capacity;
+    }
+
+    /**
+     * 按当前各级实际填充程度估算的整体误判率
+     */
+    public double getExpectedFpp() {
+        double notFalsePositive = 1.0;
+        for (Stage stage : stages) {
+            notFalsePositive *= 1.0 - stage.filter.expectedFpp();
+        }
+        return 1.0 - notFalsePositive;
+    }
+
+    /**
+     * 写出快照
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        List<Stage> snapshot = new ArrayList<>(stages);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeDouble(initialFpp);
+        out.writeInt(snapshot.size());
+        for (Stage stage : snapshot) {
+            out.writeLong(stage.capacity);
+            out.writeDouble(stage.fpp);
+            stage.filter.writeTo(out);
+        }
+    }
+
+    /**
+     * 从快照读取
+     */
+    public static ScalableBloomFilter readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("布隆过滤器快照格式不正确");
+        }
+        ScalableBloomFilter filter = new ScalableBloomFilter(in.readDouble());
+        int stageCount = in.readInt();
+        for (int i = 0; i < stageCount; i++) {
+            long capacity = in.readLong();
+            double fpp = in.readDouble();
+            BloomFilter<String> bloomFilter = BloomFilter.readFrom(in, Funnels.stringFunnel(StandardCharsets.UTF_8));
+            filter.stages.add(new Stage(capacity, fpp, bloomFilter));
+        }
+        if (filter.stages.isEmpty()) {
+            throw new IOException("布隆过滤器快照为空");
+        }
+        return filter;
+    }
+
+    /**
+     * 单级过滤器
+     */
+    private static class Stage {
+        private final long capacity;
+        private final double fpp;
+        private final BloomFilter<String> filter;
+
+        Stage(long capacity, double fpp) {
+            this(capacity, fpp, BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, fpp));
+        }
+
+        Stage(long capacity, double fpp, BloomFilter<String> filter) {
+            this.capacity = capacity;
+            this.fpp = fpp;
+            this.filter = filter;
+        }
+    }
+}
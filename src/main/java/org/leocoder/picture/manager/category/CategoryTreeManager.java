@@ -0,0 +1,199 @@
+package org.leocoder.picture.manager.category;
+
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.domain.pojo.Category;
+import org.leocoder.picture.mapper.CategoryMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-09 10:30
+ * @description : 分类树快照管理
+ * 各节点在内存中持有一份不可变的分类森林快照，分类变更提交后递增Redis中的全局版本号并标记本地快照过期；
+ * 读取时按间隔比对全局版本号，版本变化（其他节点修改了分类）或超过最大存活时间时，
+ * 由一个线程重新加载全表并整体替换快照，其他线程在重建期间继续读取旧快照
+ */
+@Slf4j
+@Component
+public class CategoryTreeManager {
+
+    private final CategoryMapper categoryMapper;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final long versionCheckIntervalMillis;
+
+    private final long maxAgeMillis;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // 本节点修改过分类、尚未重建
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    private volatile CategoryTreeSnapshot snapshot;
+
+    // 已知的最新全局版本号
+    private volatile long knownVersion;
+
+    private volatile long lastVersionCheckAt;
+
+    // 统计
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder versionChecks = new LongAdder();
+    private final LongAdder remoteChanges = new LongAdder();
+    private final LongAdder localChanges = new LongAdder();
+    private volatile long lastRebuildCostMillis;
+
+    public CategoryTreeManager(CategoryMapper categoryMapper,
+                               RedisTemplate<String, Object> redisTemplate,
+                               @Value("${picture.category-tree.version-check-interval-ms:1000}") long versionCheckIntervalMillis,
+                               @Value("${picture.category-tree.max-age-seconds:600}") long maxAgeSeconds) {
+        this.categoryMapper = categoryMapper;
+        this.redisTemplate = redisTemplate;
+        this.versionCheckIntervalMillis = versionCheckIntervalMillis;
+        this.maxAgeMillis = TimeUnit.SECONDS.toMillis(maxAgeSeconds);
+    }
+
+    /**
+     * 获取当前分类树快照，需要时重建
+     * 在事务中读取时不重建已有快照，避免把未提交的修改发布给其他请求
+     *
+     * @return 分类树快照
+     */
+    public CategoryTreeSnapshot current() {
+        long now = System.currentTimeMillis();
+        if (now - lastVersionCheckAt >= versionCheckIntervalMillis) {
+            checkVersion(now);
+        }
+        CategoryTreeSnapshot current = snapshot;
+        if (current != null && (isFresh(current, now) || TransactionSynchronizationManager.isActualTransactionActive())) {
+            return current;
+        }
+        return rebuild(current);
+    }
+
+    /**
+     * 分类新增、修改、移动、删除后调用，事务提交后递增全局版本号并标记本地快照过期
+     */
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 同一事务内多次修改只在提交后递增一次版本号
+            if (TransactionSynchronizationManager.hasResource(this)) {
+                return;
+            }
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishChange();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CategoryTreeManager.this);
+                }
+            });
+        } else {
+            publishChange();
+        }
+    }
+
+    /**
+     * 获取统计数据
+     */
+    public Map<String, Long> getStats() {
+        CategoryTreeSnapshot current = snapshot;
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("categories", current == null ? 0 : (long) current.size());
+        stats.put("snapshotVersion", current == null ? -1 : current.getVersion());
+        stats.put("knownVersion", knownVersion);
+        stats.put("snapshotAgeMillis", current == null ? 0 : System.currentTimeMillis() - current.getBuiltAt());
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("lastRebuildCostMillis", lastRebuildCostMillis);
+        stats.put("versionChecks", versionChecks.sum());
+        stats.put("localChanges", localChanges.sum());
+        stats.put("remoteChanges", remoteChanges.sum());
+        return stats;
+    }
+
+    private boolean isFresh(CategoryTreeSnapshot current, long now) {
+        return !dirty.get() && current.getVersion() == knownVersion && now - current.getBuiltAt() < maxAgeMillis;
+    }
+
+    private CategoryTreeSnapshot rebuild(CategoryTreeSnapshot stale) {
+        // 已有快照时只由一个线程重建，其他线程直接使用旧快照
+        if (stale != null) {
+            if (!rebuildLock.tryLock()) {
+                return stale;
+            }
+        } else {
+            rebuildLock.lock();
+        }
+        try {
+            CategoryTreeSnapshot current = snapshot;
+            if (current != null && current != stale && isFresh(current, System.currentTimeMillis())) {
+                return current;
+            }
+            // 先取版本号再查询，查询期间发生的修改会使版本号再次变化，下次读取时重建
+            dirty.set(false);
+            long version = knownVersion;
+            long startTime = System.currentTimeMillis();
+            List<Category> categories = categoryMapper.selectByType(null);
+            CategoryTreeSnapshot rebuilt = CategoryTreeSnapshot.build(version, categories);
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // 事务中首次加载的数据可能包含未提交的修改，只给本次调用使用
+                dirty.set(true);
+                return rebuilt;
+            }
+            snapshot = rebuilt;
+            rebuilds.increment();
+            lastRebuildCostMillis = System.currentTimeMillis() - startTime;
+            log.debug("分类树快照已重建: 版本={}, 分类数={}, 耗时={}ms", version, rebuilt.size(), lastRebuildCostMillis);
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void checkVersion(long now) {
+        lastVersionCheckAt = now;
+        versionChecks.increment();
+        try {
+            Object value = redisTemplate.opsForValue().get(RedisConstants.CATEGORY_TREE_VERSION_KEY);
+            long version = value == null ? 0L : Long.parseLong(String.valueOf(value));
+            if (version != knownVersion) {
+                knownVersion = version;
+                remoteChanges.increment();
+            }
+        } catch (Exception e) {
+            log.warn("读取分类树版本号失败，继续使用本地快照: {}", e.getMessage());
+        }
+    }
+
+    private void publishChange() {
+        localChanges.increment();
+        try {
+            Long version = redisTemplate.opsForValue().increment(RedisConstants.CATEGORY_TREE_VERSION_KEY);
+            if (version != null) {
+                knownVersion = version;
+            }
+        } catch (Exception e) {
+            log.warn("递增分类树版本号失败，其他节点将在快照过期后刷新: {}", e.getMessage());
+        }
+        dirty.set(true);
+    }
+}
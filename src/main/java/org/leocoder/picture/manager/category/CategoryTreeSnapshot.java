@@ -0,0 +1,222 @@
+package org.leocoder.picture.manager.category;
+
+import lombok.Getter;
+import org.leocoder.picture.domain.pojo.Category;
+import org.springframework.beans.BeanUtils;
+
+import java.util.*;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-09 10:00
+ * @description : 分类森林的不可变快照
+ * 构建时一次性建立 id -> 分类、父分类 -> 子分类列表，以及每个分类的祖先列表和后代集合，
+ * 之后子树、祖先、同级查询都只是Map读取；快照构建完成后不再修改，可被任意线程共享读取。
+ * 快照只包含树结构和分类属性，不含随图片增删频繁变化的内容数量，需要时单独查询
+ */
+public final class CategoryTreeSnapshot {
+
+    // 顶级分类的父分类ID
+    public static final long ROOT_PARENT_ID = 0L;
+
+    /**
+     * 构建时对应的全局版本号
+     */
+    @Getter
+    private final long version;
+
+    /**
+     * 构建时间（毫秒时间戳）
+     */
+    @Getter
+    private final long builtAt;
+
+    // 分类ID -> 分类，按查询顺序（sort_order, create_time）排列
+    private final Map<Long, Category> nodes;
+
+    // 父分类ID -> 直接子分类ID列表，顶级分类的父分类ID为0
+    private final Map<Long, List<Long>> children;
+
+    // 分类ID -> 祖先ID列表（从顶级分类到直接父分类）
+    private final Map<Long, List<Long>> ancestors;
+
+    // 分类ID -> 全部后代ID（不含自身）
+    private final Map<Long, Set<Long>> descendants;
+
+    private CategoryTreeSnapshot(long version, long builtAt, Map<Long, Category> nodes, Map<Long, List<Long>> children,
+                                 Map<Long, List<Long>> ancestors, Map<Long, Set<Long>> descendants) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.nodes = nodes;
+        this.children = children;
+        this.ancestors = ancestors;
+        this.descendants = descendants;
+    }
+
+    /**
+     * 由全部未删除的分类构建快照
+     *
+     * @param version    全局版本号
+     * @param categories 分类列表（已按 sort_order, create_time 排序）
+     * @return 快照
+     */
+    public static CategoryTreeSnapshot build(long version, List<Category> categories) {
+        Map<Long, Category> nodes = new LinkedHashMap<>(categories.size() * 2);
+        for (Category category : categories) {
+            Category copy = new Category();
+            BeanUtils.copyProperties(category, copy);
+            copy.setContentCount(null);
+            nodes.put(copy.getId(), copy);
+        }
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        for (Category category : nodes.values()) {
+            children.computeIfAbsent(parentIdOf(category), k -> new ArrayList<>()).add(category.getId());
+        }
+
+        // 从顶级分类（及父分类已不存在的分类）开始逐层展开，每个分类的祖先 = 父分类的祖先 + 父分类
+        Map<Long, List<Long>> ancestors = new HashMap<>(nodes.size() * 2);
+        Map<Long, Set<Long>> descendants = new HashMap<>(nodes.size() * 2);
+        Deque<Long> queue = new ArrayDeque<>();
+        for (Category category : nodes.values()) {
+            if (!nodes.containsKey(parentIdOf(category))) {
+                ancestors.put(category.getId(), Collections.emptyList());
+                queue.add(category.getId());
+            }
+        }
+        while (!queue.isEmpty()) {
+            Long id = queue.poll();
+            List<Long> path = ancestors.get(id);
+            for (Long ancestorId : path) {
+                descendants.computeIfAbsent(ancestorId, k -> new LinkedHashSet<>()).add(id);
+            }
+            List<Long> childIds = children.getOrDefault(id, Collections.emptyList());
+            if (childIds.isEmpty()) {
+                continue;
+            }
+            List<Long> childPath = new ArrayList<>(path.size() + 1);
+            childPath.addAll(path);
+            childPath.add(id);
+            List<Long> sharedPath = Collections.unmodifiableList(childPath);
+            for (Long childId : childIds) {
+                // 父子关系成环的数据不会被重复展开
+                if (ancestors.putIfAbsent(childId, sharedPath) == null) {
+                    queue.add(childId);
+                }
+            }
+        }
+
+        children.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        descendants.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+        return new CategoryTreeSnapshot(version, System.currentTimeMillis(), Collections.unmodifiableMap(nodes),
+                Collections.unmodifiableMap(children), Collections.unmodifiableMap(ancestors),
+                Collections.unmodifiableMap(descendants));
+    }
+
+    /**
+     * 分类数量
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 分类是否存在（未删除）
+     */
+    public boolean contains(Long categoryId) {
+        return categoryId != null && nodes.containsKey(categoryId);
+    }
+
+    /**
+     * 获取分类
+     *
+     * @return 分类副本，不存在时返回null
+     */
+    public Category getCategory(Long categoryId) {
+        Category category = categoryId == null ? null : nodes.get(categoryId);
+        return category == null ? null : copyOf(category);
+    }
+
+    /**
+     * 获取分类名称
+     *
+     * @return 分类名称，不存在时返回null
+     */
+    public String getName(Long categoryId) {
+        Category category = categoryId == null ? null : nodes.get(categoryId);
+        return category == null ? null : category.getName();
+    }
+
+    /**
+     * 按类型列出分类
+     *
+     * @param type 分类类型，为空时返回全部
+     * @return 分类副本列表，按 sort_order, create_time 排序
+     */
+    public List<Category> listCategories(String type) {
+        List<Category> result = new ArrayList<>();
+        for (Category category : nodes.values()) {
+            if (type == null || type.isEmpty() || type.equals(category.getType())) {
+                result.add(copyOf(category));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取直接子分类ID
+     *
+     * @param parentId 父分类ID，0表示顶级
+     */
+    public List<Long> getChildIds(Long parentId) {
+        return children.getOrDefault(parentId == null ? ROOT_PARENT_ID : parentId, Collections.emptyList());
+    }
+
+    /**
+     * 获取同级分类ID（不含自身）
+     */
+    public List<Long> getSiblingIds(Long categoryId) {
+        Category category = categoryId == null ? null : nodes.get(categoryId);
+        if (category == null) {
+            return Collections.emptyList();
+        }
+        List<Long> siblings = new ArrayList<>(getChildIds(parentIdOf(category)));
+        siblings.remove(categoryId);
+        return siblings;
+    }
+
+    /**
+     * 获取祖先分类ID，从顶级分类到直接父分类
+     */
+    public List<Long> getAncestorIds(Long categoryId) {
+        return categoryId == null ? Collections.emptyList() : ancestors.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    /**
+     * 获取全部后代分类ID（不含自身），按层级由浅到深排列
+     */
+    public Set<Long> getDescendantIds(Long categoryId) {
+        return categoryId == null ? Collections.emptySet() : descendants.getOrDefault(categoryId, Collections.emptySet());
+    }
+
+    /**
+     * 判断分类是否为另一分类的后代
+     *
+     * @param categoryId 分类ID
+     * @param ancestorId 可能的祖先分类ID
+     */
+    public boolean isDescendant(Long categoryId, Long ancestorId) {
+        return getDescendantIds(ancestorId).contains(categoryId);
+    }
+
+    private static Long parentIdOf(Category category) {
+        return category.getParentId() == null ? ROOT_PARENT_ID : category.getParentId();
+    }
+
+    private static Category copyOf(Category source) {
+        Category copy = new Category();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,117 @@
+package org.leocoder.picture.manager.export;
+
+import lombok.Getter;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-06 10:00
+ * @description : 导出任务（记录导出进度，供进度接口查询）
+ */
+public class ExportJob {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_EXPORTING = "EXPORTING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Getter
+    private final String jobId;
+
+    @Getter
+    private final String type;
+
+    @Getter
+    private final Long userId;
+
+    private final LocalDateTime createTime = LocalDateTime.now();
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile String status = STATUS_PENDING;
+
+    private volatile long total;
+
+    private final AtomicLong exported = new AtomicLong();
+
+    @Getter
+    private volatile String filePath;
+
+    private volatile String errorMessage;
+
+    private volatile LocalDateTime finishTime;
+
+    private volatile long elapsedMillis = -1;
+
+    public ExportJob(String jobId, String type, Long userId) {
+        this.jobId = jobId;
+        this.type = type;
+        this.userId = userId;
+    }
+
+    public void start(long total) {
+        this.total = total;
+        status = STATUS_EXPORTING;
+    }
+
+    public void setExported(long rows) {
+        exported.set(rows);
+    }
+
+    public void complete(String filePath) {
+        this.filePath = filePath;
+        finish(STATUS_COMPLETED, null);
+    }
+
+    public void fail(String errorMessage) {
+        finish(STATUS_FAILED, errorMessage);
+    }
+
+    /**
+     * 任务是否已结束
+     */
+    public boolean isFinished() {
+        return finishTime != null;
+    }
+
+    /**
+     * 任务是否已成功完成
+     */
+    public boolean isCompleted() {
+        return STATUS_COMPLETED.equals(status);
+    }
+
+    /**
+     * 任务结束后经过的毫秒数，未结束返回0
+     */
+    public long millisSinceFinished() {
+        return isFinished() ? System.nanoTime() / 1_000_000 - (startNanos / 1_000_000 + elapsedMillis) : 0;
+    }
+
+    public ExportProgressVO toProgressVO() {
+        return ExportProgressVO.builder()
+                .jobId(jobId)
+                .type(type)
+                .status(status)
+                .total(total)
+                .exported(exported.get())
+                .fileName(filePath == null ? null : new File(filePath).getName())
+                .errorMessage(errorMessage)
+                .createTime(createTime)
+                .finishTime(finishTime)
+                .elapsedMillis(isFinished() ? elapsedMillis : (System.nanoTime() - startNanos) / 1_000_000)
+                .build();
+    }
+
+    private void finish(String finalStatus, String message) {
+        elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        errorMessage = message;
+        status = finalStatus;
+        finishTime = LocalDateTime.now();
+    }
+}
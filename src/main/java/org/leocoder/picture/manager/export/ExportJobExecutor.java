@@ -0,0 +1,198 @@
+package org.leocoder.picture.manager.export;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.exception.BusinessException;
+import org.leocoder.picture.exception.ErrorCode;
+import org.leocoder.picture.exception.ThrowUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-06 10:10
+ * @description : 导出任务执行器
+ * 大批量导出在独立线程池中执行，排队数量有限；任务进度在内存中保留一段时间供进度接口查询。
+ * 导出文件写入专用目录，接口只返回任务ID，由下载接口校验任务归属后读取文件；
+ * 任务过期时删除其文件，并定期清理目录中超过保留时长的文件（包括进程重启前遗留的文件）
+ */
+@Slf4j
+@Component
+public class ExportJobExecutor {
+
+    // 已结束任务的进度及导出文件保留时长
+    private static final long FINISHED_JOB_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final ThreadPoolExecutor executor;
+
+    private final File exportDir;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobExecutor(@Value("${picture.export.threads:2}") int threads,
+                             @Value("${picture.export.queue-capacity:10}") int queueCapacity,
+                             @Value("${picture.export.dir:}") String exportDir) {
+        this.exportDir = FileUtil.mkdir(StrUtil.isBlank(exportDir)
+                ? new File(System.getProperty("java.io.tmpdir"), "picture-export")
+                : new File(exportDir));
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "export-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 提交导出任务
+     *
+     * @param type   导出类型
+     * @param userId 提交任务的用户ID
+     * @param task   导出内容，返回导出文件路径
+     * @return 任务ID
+     */
+    public String submit(String type, Long userId, Function<ExportJob, String> task) {
+        purgeFinishedJobs();
+        ExportJob job = new ExportJob(IdUtil.fastSimpleUUID(), type, userId);
+        jobs.put(job.getJobId(), job);
+        try {
+            executor.execute(() -> {
+                try {
+                    job.complete(task.apply(job));
+                } catch (BusinessException e) {
+                    job.fail(e.getMessage());
+                } catch (Exception e) {
+                    log.error("导出任务失败: jobId={}, type={}", job.getJobId(), type, e);
+                    job.fail("导出失败: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "导出任务过多，请稍后再试");
+        }
+        return job.getJobId();
+    }
+
+    /**
+     * 登记同步导出生成的文件，返回可用于下载的任务ID
+     *
+     * @param type     导出类型
+     * @param userId   导出用户ID
+     * @param filePath 导出文件路径
+     * @return 任务ID
+     */
+    public String register(String type, Long userId, String filePath) {
+        purgeFinishedJobs();
+        ExportJob job = new ExportJob(IdUtil.fastSimpleUUID(), type, userId);
+        job.complete(filePath);
+        jobs.put(job.getJobId(), job);
+        return job.getJobId();
+    }
+
+    /**
+     * 下载导出文件：校验任务类型和归属，将文件写入响应
+     *
+     * @param jobId    任务ID
+     * @param type     导出类型
+     * @param userId   当前用户ID
+     * @param response 响应
+     */
+    public void download(String jobId, String type, Long userId, HttpServletResponse response) {
+        ExportJob job = getJob(jobId);
+        ThrowUtils.throwIf(job == null || !type.equals(job.getType()), ErrorCode.NOT_FOUND_ERROR, "导出任务不存在或已过期");
+        ThrowUtils.throwIf(!Objects.equals(job.getUserId(), userId), ErrorCode.NO_AUTH_ERROR, "无权下载该导出文件");
+        ThrowUtils.throwIf(!job.isCompleted(), ErrorCode.OPERATION_ERROR, "导出任务尚未完成");
+        File file = new File(job.getFilePath());
+        ThrowUtils.throwIf(!file.isFile(), ErrorCode.NOT_FOUND_ERROR, "导出文件不存在或已过期");
+
+        try {
+            String fileName = URLEncoder.encode(file.getName(), StandardCharsets.UTF_8.name()).replace("+", "%20");
+            response.setContentType("application/octet-stream");
+            response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + fileName);
+            response.setContentLengthLong(file.length());
+            Files.copy(file.toPath(), response.getOutputStream());
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "下载导出文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 定期清理过期的导出任务和导出文件
+     */
+    @Scheduled(fixedDelayString = "${picture.export.cleanup-interval-ms:600000}")
+    public void cleanupExpiredFiles() {
+        purgeFinishedJobs();
+        File[] files = exportDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long expireBefore = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MILLIS;
+        for (File file : files) {
+            // 写入中的文件修改时间会持续更新，不会被误删
+            if (file.isFile() && file.lastModified() < expireBefore && FileUtil.del(file)) {
+                log.info("已删除过期导出文件: {}", file.getName());
+            }
+        }
+    }
+
+    /**
+     * 获取任务
+     *
+     * @param jobId 任务ID
+     * @return 任务，不存在或已过期返回null
+     */
+    public ExportJob getJob(String jobId) {
+        return StrUtil.isBlank(jobId) ? null : jobs.get(jobId);
+    }
+
+    /**
+     * 生成导出文件路径，文件名带随机后缀，同一秒内并发的同步和异步导出不会写入同一个文件
+     *
+     * @param baseName  文件名前缀
+     * @param extension 文件扩展名
+     * @return 导出目录下的文件路径
+     */
+    public String newExportFilePath(String baseName, String extension) {
+        String fileName = baseName + "_" + DateUtil.format(new Date(), "yyyyMMddHHmmss")
+                + "_" + IdUtil.fastSimpleUUID() + "." + extension;
+        return new File(exportDir, fileName).getAbsolutePath();
+    }
+
+    private void purgeFinishedJobs() {
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.millisSinceFinished() <= FINISHED_JOB_RETENTION_MILLIS) {
+                return false;
+            }
+            if (job.getFilePath() != null) {
+                FileUtil.del(job.getFilePath());
+            }
+            return true;
+        });
+    }
+}
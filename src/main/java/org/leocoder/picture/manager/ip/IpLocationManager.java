@@ -0,0 +1,158 @@
+package org.leocoder.picture.manager.ip;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.utils.AddressUtils;
+import org.leocoder.picture.utils.IpUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-05 10:30
+ * @description : IP归属地查询
+ * 优先查本地缓存，未命中时在离线地址库中二分查找，不访问网络；
+ * 地址库未部署时按配置决定是否退回在线查询接口
+ */
+@Slf4j
+@Component
+public class IpLocationManager {
+
+    private static final String UNKNOWN = "未知";
+
+    private static final String INTERNAL = "内网IP";
+
+    private final Path sourcePath;
+
+    private final Path compiledPath;
+
+    private final boolean remoteFallback;
+
+    private final Cache<String, String> locationCache;
+
+    private volatile IpRegionDatabase database;
+
+    // 统计
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder databaseMisses = new LongAdder();
+    private final LongAdder remoteLookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private volatile long lastLoadCostMillis;
+
+    public IpLocationManager(@Value("${picture.ip-location.source-path:./data/ip/ip2region.txt}") String sourcePath,
+                             @Value("${picture.ip-location.compiled-path:./data/ip/ip2region.dat}") String compiledPath,
+                             @Value("${picture.ip-location.cache-size:10000}") long cacheSize,
+                             @Value("${picture.ip-location.remote-fallback:false}") boolean remoteFallback) {
+        this.sourcePath = Paths.get(sourcePath).toAbsolutePath();
+        this.compiledPath = Paths.get(compiledPath).toAbsolutePath();
+        this.remoteFallback = remoteFallback;
+        this.locationCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 重新加载地址库并清空缓存
+     *
+     * @return 是否加载成功
+     */
+    public boolean reload() {
+        long startTime = System.currentTimeMillis();
+        try {
+            IpRegionDatabase loaded = IpRegionDatabase.load(sourcePath, compiledPath);
+            database = loaded;
+            locationCache.invalidateAll();
+            lastLoadCostMillis = System.currentTimeMillis() - startTime;
+            log.info("IP地址库加载完成: 地址段数={}, 地址数={}, 耗时={}ms",
+                    loaded.getRangeCount(), loaded.getRegionCount(), lastLoadCostMillis);
+            return true;
+        } catch (Exception e) {
+            log.warn("IP地址库加载失败，{}: {}", remoteFallback ? "将使用在线查询" : "归属地将记录为未知", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 查询IP归属地
+     *
+     * @param ip IP地址
+     * @return 归属地
+     */
+    public String getLocation(String ip) {
+        if (StrUtil.isBlank(ip)) {
+            return UNKNOWN;
+        }
+        lookups.increment();
+        String cached = locationCache.getIfPresent(ip);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        long startTime = System.nanoTime();
+        String location = resolve(ip);
+        lookupNanos.add(System.nanoTime() - startTime);
+        locationCache.put(ip, location);
+        return location;
+    }
+
+    /**
+     * 获取查询统计
+     */
+    public Map<String, Long> getStats() {
+        IpRegionDatabase current = database;
+        long lookupCount = lookups.sum();
+        long hitCount = cacheHits.sum();
+        long missCount = lookupCount - hitCount;
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("databaseRanges", current == null ? 0 : (long) current.getRangeCount());
+        stats.put("databaseRegions", current == null ? 0 : (long) current.getRegionCount());
+        stats.put("lastLoadCostMillis", lastLoadCostMillis);
+        stats.put("lookups", lookupCount);
+        stats.put("cacheHits", hitCount);
+        stats.put("cacheSize", locationCache.estimatedSize());
+        stats.put("cacheEvictions", locationCache.stats().evictionCount());
+        stats.put("databaseMisses", databaseMisses.sum());
+        stats.put("remoteLookups", remoteLookups.sum());
+        stats.put("avgResolveNanos", missCount == 0 ? 0 : lookupNanos.sum() / missCount);
+        return stats;
+    }
+
+    private String resolve(String ip) {
+        if (IpUtils.internalIp(ip)) {
+            return INTERNAL;
+        }
+        IpRegionDatabase current = database;
+        if (current != null) {
+            Integer value = IpRegionDatabase.parseIpv4(ip);
+            String location = value == null ? null : current.lookup(value);
+            if (StrUtil.isNotBlank(location)) {
+                return location;
+            }
+            databaseMisses.increment();
+            return UNKNOWN;
+        }
+        if (remoteFallback) {
+            remoteLookups.increment();
+            return AddressUtils.getRealAddressByIP(ip);
+        }
+        return UNKNOWN;
+    }
+}
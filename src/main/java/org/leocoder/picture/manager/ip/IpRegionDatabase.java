@@ -0,0 +1,272 @@
+package org.leocoder.picture.manager.ip;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-05 10:00
+ * @description : 离线IPv4地址库
+ * 文本库每行一个地址段：起始IP|结束IP|国家|区域|省份|城市|运营商（ip2region格式，"0"表示空），
+ * 或 起始IP|结束IP|地址。首次加载时按起始IP排序编译为二进制文件，之后直接内存映射该文件：
+ * 起始IP、结束IP、地址下标各占一段连续int数组，查询时在起始IP数组上二分查找，地址字符串表去重后常驻内存
+ */
+public class IpRegionDatabase {
+
+    private static final int MAGIC = 0x49505231;
+
+    // 文件头：魔数、地址段数量、地址数量
+    private static final int HEADER_BYTES = 12;
+
+    private final IntBuffer starts;
+
+    private final IntBuffer ends;
+
+    private final IntBuffer regionIndexes;
+
+    private final String[] regions;
+
+    private IpRegionDatabase(IntBuffer starts, IntBuffer ends, IntBuffer regionIndexes, String[] regions) {
+        this.starts = starts;
+        this.ends = ends;
+        this.regionIndexes = regionIndexes;
+        this.regions = regions;
+    }
+
+    /**
+     * 加载地址库，二进制文件不存在或比文本库旧时重新编译
+     *
+     * @param sourcePath   文本库路径
+     * @param compiledPath 二进制文件路径
+     * @return 地址库
+     */
+    public static IpRegionDatabase load(Path sourcePath, Path compiledPath) throws IOException {
+        boolean sourceExists = Files.exists(sourcePath);
+        if (!Files.exists(compiledPath)
+                || (sourceExists && Files.getLastModifiedTime(sourcePath).compareTo(Files.getLastModifiedTime(compiledPath)) > 0)) {
+            if (!sourceExists) {
+                throw new FileNotFoundException("IP地址库不存在: " + sourcePath);
+            }
+            compile(sourcePath, compiledPath);
+        }
+        return map(compiledPath);
+    }
+
+    /**
+     * 查询IP所在地
+     *
+     * @param ip IPv4地址的int表示
+     * @return 所在地，不在任何地址段内时返回null
+     */
+    public String lookup(int ip) {
+        int low = 0;
+        int high = starts.limit() - 1;
+        int candidate = -1;
+        // 查找最后一个起始IP不大于目标IP的地址段（按无符号比较）
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(starts.get(mid), ip) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0 || Integer.compareUnsigned(ends.get(candidate), ip) < 0) {
+            return null;
+        }
+        return regions[regionIndexes.get(candidate)];
+    }
+
+    /**
+     * 地址段数量
+     */
+    public int getRangeCount() {
+        return starts.limit();
+    }
+
+    /**
+     * 去重后的地址数量
+     */
+    public int getRegionCount() {
+        return regions.length;
+    }
+
+    /**
+     * 解析点分十进制IPv4地址
+     *
+     * @return int表示，格式不正确时返回null
+     */
+    public static Integer parseIpv4(String ip) {
+        if (ip == null) {
+            return null;
+        }
+        int result = 0;
+        int part = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                part = part * 10 + (c - '0');
+                if (++digits > 3 || part > 255) {
+                    return null;
+                }
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                result = (result << 8) | part;
+                part = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return null;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return null;
+        }
+        return (result << 8) | part;
+    }
+
+    /**
+     * 将文本库编译为二进制文件：先写临时文件再原子替换
+     */
+    private static void compile(Path sourcePath, Path compiledPath) throws IOException {
+        List<int[]> ranges = new ArrayList<>();
+        Map<String, Integer> regionIndex = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(sourcePath, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (StrUtil.isBlank(line) || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\|");
+                Integer start = fields.length >= 3 ? parseIpv4(fields[0].trim()) : null;
+                Integer end = fields.length >= 3 ? parseIpv4(fields[1].trim()) : null;
+                if (start == null || end == null || Integer.compareUnsigned(start, end) > 0) {
+                    throw new IOException("IP地址库第" + lineNo + "行格式不正确: " + line);
+                }
+                String region = toRegion(fields);
+                int index = regionIndex.computeIfAbsent(region, k -> regionIndex.size());
+                ranges.add(new int[]{start, end, index});
+            }
+        }
+        ranges.sort((a, b) -> Integer.compareUnsigned(a[0], b[0]));
+
+        Files.createDirectories(compiledPath.toAbsolutePath().getParent());
+        Path tempPath = compiledPath.resolveSibling(compiledPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(ranges.size());
+            out.writeInt(regionIndex.size());
+            for (int column = 0; column < 3; column++) {
+                for (int[] range : ranges) {
+                    out.writeInt(range[column]);
+                }
+            }
+            for (String region : regionIndex.keySet()) {
+                out.writeUTF(region);
+            }
+        }
+        Files.move(tempPath, compiledPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 内存映射二进制文件
+     */
+    private static IpRegionDatabase map(Path compiledPath) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(compiledPath, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("IP地址库文件格式不正确: " + compiledPath);
+        }
+        int rangeCount = buffer.getInt(4);
+        int regionCount = buffer.getInt(8);
+        int columnBytes = rangeCount * Integer.BYTES;
+
+        IntBuffer starts = slice(buffer, HEADER_BYTES, columnBytes);
+        IntBuffer ends = slice(buffer, HEADER_BYTES + columnBytes, columnBytes);
+        IntBuffer regionIndexes = slice(buffer, HEADER_BYTES + 2 * columnBytes, columnBytes);
+
+        ByteBuffer regionBuffer = buffer.duplicate();
+        regionBuffer.position(HEADER_BYTES + 3 * columnBytes);
+        String[] regions = new String[regionCount];
+        try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(regionBuffer))) {
+            for (int i = 0; i < regionCount; i++) {
+                regions[i] = in.readUTF();
+            }
+        }
+        return new IpRegionDatabase(starts, ends, regionIndexes, regions);
+    }
+
+    private static IntBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice().asIntBuffer();
+    }
+
+    /**
+     * 拼接地址：ip2region格式取省份和城市（都为空时取国家），其他格式取第三列
+     */
+    private static String toRegion(String[] fields) {
+        if (fields.length < 6) {
+            return fields[2].trim();
+        }
+        String province = emptyIfZero(fields[4]);
+        String city = emptyIfZero(fields[5]);
+        if (province.isEmpty() && city.isEmpty()) {
+            return emptyIfZero(fields[2]);
+        }
+        if (city.isEmpty() || city.equals(province)) {
+            return province;
+        }
+        return province.isEmpty() ? city : province + " " + city;
+    }
+
+    private static String emptyIfZero(String field) {
+        String value = field.trim();
+        return "0".equals(value) ? "" : value;
+    }
+
+    /**
+     * 读取ByteBuffer剩余内容的输入流
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, count);
+            return count;
+        }
+    }
+}
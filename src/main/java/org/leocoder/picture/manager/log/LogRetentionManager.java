@@ -0,0 +1,321 @@
+package org.leocoder.picture.manager.log;
+
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.domain.dto.log.LogPartition;
+import org.leocoder.picture.exception.BusinessException;
+import org.leocoder.picture.exception.ErrorCode;
+import org.leocoder.picture.mapper.LogPartitionMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-07 10:30
+ * @description : 日志表分区与保留期管理
+ * 操作日志和登录日志按月范围分区（分区表由管理接口一次性初始化），每天维护：
+ * 提前创建未来几个月的分区；超过保留期的月份先按ID游标导出为 gzip 压缩的 JSON Lines 归档文件，
+ * 再整体删除该月分区。未分区的表在归档后按时间分批物理删除。
+ * 统计查询使用时间列上的半开区间条件，分区表只会扫描相关月份的分区
+ */
+@Slf4j
+@Component
+public class LogRetentionManager {
+
+    private static final String MAX_PARTITION = "p_max";
+
+    // 归档文件名中的归档时间，同一月份多次归档（如分区删除失败后重试）各自生成新文件
+    private static final DateTimeFormatter ARCHIVE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final JSONConfig ARCHIVE_JSON_CONFIG = JSONConfig.create()
+            .setDateFormat("yyyy-MM-dd HH:mm:ss")
+            .setIgnoreNullValue(false);
+
+    private final LogPartitionMapper logPartitionMapper;
+
+    private final boolean enabled;
+
+    private final int retentionMonths;
+
+    private final int futurePartitions;
+
+    private final Path archiveDir;
+
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 统计
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder createdPartitions = new LongAdder();
+    private final LongAdder droppedPartitions = new LongAdder();
+    private final LongAdder archivedFiles = new LongAdder();
+    private final LongAdder archivedRows = new LongAdder();
+    private final LongAdder deletedRows = new LongAdder();
+    private volatile long lastRunCostMillis;
+
+    public LogRetentionManager(LogPartitionMapper logPartitionMapper,
+                               @Value("${picture.log-retention.enabled:true}") boolean enabled,
+                               @Value("${picture.log-retention.retention-months:12}") int retentionMonths,
+                               @Value("${picture.log-retention.future-partitions:3}") int futurePartitions,
+                               @Value("${picture.log-retention.archive-dir:./data/log-archive}") String archiveDir,
+                               @Value("${picture.log-retention.batch-size:5000}") int batchSize) {
+        this.logPartitionMapper = logPartitionMapper;
+        this.enabled = enabled;
+        this.retentionMonths = Math.max(retentionMonths, 1);
+        this.futurePartitions = Math.max(futurePartitions, 1);
+        this.archiveDir = Paths.get(archiveDir).toAbsolutePath();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 每天维护分区并清理过期日志
+     */
+    @Scheduled(cron = "${picture.log-retention.cron:0 30 4 * * ?}")
+    public void scheduledMaintain() {
+        if (enabled) {
+            maintain();
+        }
+    }
+
+    /**
+     * 立即执行一次分区维护与过期日志清理
+     *
+     * @return 是否执行，已有任务在执行时返回false
+     */
+    public boolean maintain() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("日志保留期任务正在执行，跳过本次执行");
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths - 1L);
+            for (LogTable table : LogTable.values()) {
+                try {
+                    maintainTable(table, cutoff);
+                } catch (Exception e) {
+                    failures.increment();
+                    log.error("日志表保留期维护失败: table={}, error={}", table.getTableName(), e.getMessage(), e);
+                }
+            }
+            runs.increment();
+            lastRunCostMillis = System.currentTimeMillis() - startTime;
+            log.info("日志保留期任务完成: 保留起始月份={}, 耗时={}ms", cutoff, lastRunCostMillis);
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 将日志表改为按月分区：主键加入时间列，并按现有数据的最早月份到未来几个月建立分区。
+     * 会重建整张表，需在低峰期由管理员手动执行
+     *
+     * @param tableKey 日志表（operation/login）
+     * @return 是否执行，表已分区时返回false
+     */
+    public boolean initializePartitions(String tableKey) {
+        LogTable table = LogTable.of(tableKey);
+        if (!logPartitionMapper.selectPartitionNames(table.getTableName()).isEmpty()) {
+            return false;
+        }
+        YearMonth current = YearMonth.now();
+        LocalDateTime minTime = logPartitionMapper.selectMinTime(table.getTableName(), table.getTimeColumn());
+        YearMonth first = minTime == null ? current : YearMonth.from(minTime);
+        List<LogPartition> partitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(current.plusMonths(futurePartitions)); month = month.plusMonths(1)) {
+            partitions.add(LogPartition.of(month));
+        }
+
+        long startTime = System.currentTimeMillis();
+        logPartitionMapper.rebuildPrimaryKeyWithTime(table.getTableName(), table.getTimeColumn());
+        logPartitionMapper.partitionByMonth(table.getTableName(), table.getTimeColumn(), partitions);
+        createdPartitions.add(partitions.size());
+        log.info("日志表已按月分区: table={}, 分区数={}, 耗时={}ms",
+                table.getTableName(), partitions.size(), System.currentTimeMillis() - startTime);
+        return true;
+    }
+
+    /**
+     * 获取统计数据
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (LogTable table : LogTable.values()) {
+            long partitions = 0;
+            try {
+                partitions = logPartitionMapper.selectPartitionNames(table.getTableName()).size();
+            } catch (Exception e) {
+                log.warn("查询日志表分区失败: table={}, error={}", table.getTableName(), e.getMessage());
+            }
+            stats.put(table.getKey() + "Partitions", partitions);
+        }
+        stats.put("retentionMonths", (long) retentionMonths);
+        stats.put("runs", runs.sum());
+        stats.put("failures", failures.sum());
+        stats.put("createdPartitions", createdPartitions.sum());
+        stats.put("droppedPartitions", droppedPartitions.sum());
+        stats.put("archivedFiles", archivedFiles.sum());
+        stats.put("archivedRows", archivedRows.sum());
+        stats.put("deletedRows", deletedRows.sum());
+        stats.put("lastRunCostMillis", lastRunCostMillis);
+        return stats;
+    }
+
+    /**
+     * 维护单张日志表
+     *
+     * @param cutoff 保留的最早月份，更早的月份归档后删除
+     */
+    private void maintainTable(LogTable table, YearMonth cutoff) throws IOException {
+        List<String> partitionNames = logPartitionMapper.selectPartitionNames(table.getTableName());
+        if (partitionNames.isEmpty()) {
+            purgeUnpartitioned(table, cutoff);
+            return;
+        }
+
+        // 提前创建未来几个月的分区，避免新数据落入 p_max
+        YearMonth lastMonth = null;
+        for (String name : partitionNames) {
+            YearMonth month = LogPartition.parseMonth(name);
+            if (month != null && (lastMonth == null || month.isAfter(lastMonth))) {
+                lastMonth = month;
+            }
+        }
+        YearMonth target = YearMonth.now().plusMonths(futurePartitions);
+        if (partitionNames.contains(MAX_PARTITION) && lastMonth != null) {
+            for (YearMonth month = lastMonth.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+                logPartitionMapper.splitMaxPartition(table.getTableName(), LogPartition.of(month));
+                createdPartitions.increment();
+            }
+        }
+
+        // 过期分区逐个归档后删除，归档失败时保留分区等待下次重试
+        for (String name : partitionNames) {
+            YearMonth month = LogPartition.parseMonth(name);
+            if (month == null || !month.isBefore(cutoff)) {
+                continue;
+            }
+            archiveMonth(table, month);
+            logPartitionMapper.dropPartitions(table.getTableName(), Collections.singletonList(name));
+            droppedPartitions.increment();
+            log.info("已删除过期日志分区: table={}, partition={}", table.getTableName(), name);
+        }
+    }
+
+    /**
+     * 未分区的表：逐月归档后按时间分批物理删除
+     */
+    private void purgeUnpartitioned(LogTable table, YearMonth cutoff) throws IOException {
+        LocalDateTime minTime = logPartitionMapper.selectMinTime(table.getTableName(), table.getTimeColumn());
+        if (minTime == null) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(minTime); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            archiveMonth(table, month);
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            int deleted;
+            do {
+                deleted = logPartitionMapper.deleteRowsBefore(table.getTableName(), table.getTimeColumn(), end, batchSize);
+                deletedRows.add(deleted);
+            } while (deleted >= batchSize);
+        }
+    }
+
+    /**
+     * 将一个月的日志导出为 gzip 压缩的 JSON Lines 文件：先写临时文件，完成后改名为带归档时间的文件名，
+     * 不覆盖已有的归档文件
+     */
+    private void archiveMonth(LogTable table, YearMonth month) throws IOException {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        Path dir = archiveDir.resolve(table.getTableName());
+        Files.createDirectories(dir);
+        String baseName = table.getTableName() + "_" + LogPartition.of(month).getName().substring(1)
+                + "_" + LocalDateTime.now().format(ARCHIVE_TIME_FORMATTER);
+        Path tempPath = dir.resolve(baseName + ".jsonl.gz.tmp");
+
+        long rows = 0;
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tempPath)), StandardCharsets.UTF_8))) {
+            long lastId = 0L;
+            while (true) {
+                List<Map<String, Object>> batch = logPartitionMapper.selectRowsInRange(
+                        table.getTableName(), table.getTimeColumn(), start, end, lastId, batchSize);
+                for (Map<String, Object> row : batch) {
+                    writer.write(JSONUtil.toJsonStr(row, ARCHIVE_JSON_CONFIG));
+                    writer.newLine();
+                }
+                rows += batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                lastId = ((Number) batch.get(batch.size() - 1).get("id")).longValue();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        if (rows == 0) {
+            Files.deleteIfExists(tempPath);
+            return;
+        }
+        Path archivePath = dir.resolve(baseName + ".jsonl.gz");
+        for (int seq = 1; Files.exists(archivePath); seq++) {
+            archivePath = dir.resolve(baseName + "_" + seq + ".jsonl.gz");
+        }
+        // 不带 REPLACE_EXISTING，目标已存在时抛出异常而不是覆盖
+        Files.move(tempPath, archivePath);
+        archivedFiles.increment();
+        archivedRows.add(rows);
+        log.info("日志已归档: table={}, month={}, 行数={}, 文件={}", table.getTableName(), month, rows, archivePath);
+    }
+
+    /**
+     * 纳入保留期管理的日志表
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private enum LogTable {
+        OPERATION("operation", "t_user_operation_log", "operation_time"),
+        // 没有对应登录记录的登出日志 login_time 为空，分区列会成为主键的一部分，因此按始终有值的 create_time 分区
+        LOGIN("login", "t_user_login_log", "create_time");
+
+        private final String key;
+
+        private final String tableName;
+
+        private final String timeColumn;
+
+        static LogTable of(String key) {
+            for (LogTable table : values()) {
+                if (table.key.equalsIgnoreCase(key)) {
+                    return table;
+                }
+            }
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "不支持的日志表: " + key);
+        }
+    }
+}
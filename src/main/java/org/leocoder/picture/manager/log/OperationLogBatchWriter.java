@@ -0,0 +1,289 @@
+package org.leocoder.picture.manager.log;
+
+import cn.hutool.json.JSONUtil;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.domain.pojo.OperationLog;
+import org.leocoder.picture.mapper.OperationLogMapper;
+import org.leocoder.picture.utils.SensitiveInfoUtils;
+import org.leocoder.picture.utils.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-04 10:30
+ * @description : 操作日志批量写入器
+ * 切面只把日志放入有界无锁环形缓冲区，参数和结果的JSON序列化、ID分配和入库都在后台写入线程完成：
+ * 攒够一批或等待超过刷新间隔后用一条多行INSERT写入，批量写入失败时逐条重试以隔离异常数据。
+ * 缓冲区写满时按溢出策略处理：丢弃新日志、丢弃最旧日志，或在限定时间内等待写入线程腾出空间
+ */
+@Slf4j
+@Component
+public class OperationLogBatchWriter {
+
+    // 响应结果JSON的最大保存长度
+    private static final int MAX_RESULT_LENGTH = 2000;
+
+    private final OperationLogMapper operationLogMapper;
+
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
+
+    private final BoundedRingBuffer<PendingLog> buffer;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long blockTimeoutNanos;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    // 统计
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushCostMicros = new LongAdder();
+    private final AtomicLong maxFlushCostMicros = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private volatile long lastFlushSize;
+    private volatile long lastFlushCostMicros;
+    private volatile long lastFlushLagMillis;
+
+    public OperationLogBatchWriter(OperationLogMapper operationLogMapper,
+                                   SnowflakeIdGenerator snowflakeIdGenerator,
+                                   @Value("${picture.operation-log.buffer-capacity:8192}") int bufferCapacity,
+                                   @Value("${picture.operation-log.overflow-policy:DROP_NEWEST}") OverflowPolicy overflowPolicy,
+                                   @Value("${picture.operation-log.batch-size:200}") int batchSize,
+                                   @Value("${picture.operation-log.flush-interval-ms:200}") long flushIntervalMillis,
+                                   @Value("${picture.operation-log.block-timeout-ms:5}") long blockTimeoutMillis) {
+        this.operationLogMapper = operationLogMapper;
+        this.snowflakeIdGenerator = snowflakeIdGenerator;
+        this.buffer = new BoundedRingBuffer<>(bufferCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runLoop, "operation-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 停机时停止写入线程，写入线程退出前会清空缓冲区
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * 提交一条操作日志
+     *
+     * @param operationLog  已填充基础字段的日志（ID与参数由写入线程填充）
+     * @param args          方法参数，为null时不保存
+     * @param result        方法返回值，为null时不保存
+     * @param excludeFields 参数中需要过滤的敏感字段
+     * @return 是否进入缓冲区
+     */
+    public boolean submit(OperationLog operationLog, Object[] args, Object result, String[] excludeFields) {
+        PendingLog pending = new PendingLog(operationLog, args, result, excludeFields, System.nanoTime());
+        boolean accepted = buffer.offer(pending) || handleOverflow(pending);
+        if (!accepted) {
+            dropped.increment();
+            return false;
+        }
+        enqueued.increment();
+        int depth = buffer.size();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        if (depth >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    /**
+     * 获取写入统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        long flushCount = flushes.sum();
+        stats.put("queueDepth", (long) buffer.size());
+        stats.put("queueCapacity", (long) buffer.capacity());
+        stats.put("maxQueueDepth", maxQueueDepth.get());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("blocked", blocked.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("flushes", flushCount);
+        stats.put("lastFlushSize", lastFlushSize);
+        stats.put("lastFlushCostMicros", lastFlushCostMicros);
+        stats.put("avgFlushCostMicros", flushCount == 0 ? 0 : flushCostMicros.sum() / flushCount);
+        stats.put("maxFlushCostMicros", maxFlushCostMicros.get());
+        stats.put("lastFlushLagMillis", lastFlushLagMillis);
+        return stats;
+    }
+
+    /**
+     * 缓冲区已满时按溢出策略处理
+     *
+     * @return 是否最终进入缓冲区
+     */
+    private boolean handleOverflow(PendingLog pending) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                // 腾出一个位置给新日志，被挤掉的旧日志计入丢弃数
+                if (buffer.poll() != null) {
+                    dropped.increment();
+                }
+                return buffer.offer(pending);
+            case BLOCK:
+                blocked.increment();
+                LockSupport.unpark(writerThread);
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    if (buffer.offer(pending)) {
+                        return true;
+                    }
+                }
+                return false;
+            case DROP_NEWEST:
+            default:
+                return false;
+        }
+    }
+
+    private void runLoop() {
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0;
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            if (batchStartedAt == 0) {
+                batchStartedAt = System.nanoTime();
+            }
+            if (batch.size() >= batchSize || System.nanoTime() - batchStartedAt >= flushIntervalNanos || !running) {
+                flush(batch);
+                batch.clear();
+                batchStartedAt = 0;
+            } else {
+                LockSupport.parkNanos(Math.min(flushIntervalNanos, TimeUnit.MILLISECONDS.toNanos(10)));
+            }
+        }
+    }
+
+    private void flush(List<PendingLog> batch) {
+        long startTime = System.nanoTime();
+        List<OperationLog> logs = new ArrayList<>(batch.size());
+        long[] ids = snowflakeIdGenerator.nextIds(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OperationLog operationLog = batch.get(i).materialize();
+            operationLog.setId(ids[i]);
+            logs.add(operationLog);
+        }
+
+        try {
+            operationLogMapper.batchInsert(logs);
+            written.add(logs.size());
+        } catch (Exception e) {
+            log.warn("操作日志批量写入失败，改为逐条写入: 条数={}, error={}", logs.size(), e.getMessage());
+            for (OperationLog operationLog : logs) {
+                try {
+                    operationLogMapper.insertWithId(operationLog);
+                    written.increment();
+                } catch (Exception ex) {
+                    failed.increment();
+                    log.error("记录操作日志异常: method={}", operationLog.getMethod(), ex);
+                }
+            }
+        }
+
+        long costMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        flushes.increment();
+        flushCostMicros.add(costMicros);
+        maxFlushCostMicros.accumulateAndGet(costMicros, Math::max);
+        lastFlushSize = logs.size();
+        lastFlushCostMicros = costMicros;
+        lastFlushLagMillis = TimeUnit.NANOSECONDS.toMillis(startTime - batch.get(0).enqueuedAt);
+    }
+
+    /**
+     * 缓冲区写满时的溢出策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 丢弃新提交的日志
+         */
+        DROP_NEWEST,
+        /**
+         * 丢弃缓冲区中最旧的日志
+         */
+        DROP_OLDEST,
+        /**
+         * 在限定时间内等待写入线程腾出空间，超时后丢弃
+         */
+        BLOCK
+    }
+
+    /**
+     * 待写入的日志，参数和结果延迟到写入线程序列化
+     */
+    @AllArgsConstructor
+    private static class PendingLog {
+        private final OperationLog operationLog;
+        private final Object[] args;
+        private final Object result;
+        private final String[] excludeFields;
+        private final long enqueuedAt;
+
+        OperationLog materialize() {
+            try {
+                if (args != null) {
+                    operationLog.setParams(SensitiveInfoUtils.filterSensitiveInfo(JSONUtil.toJsonStr(args), excludeFields));
+                }
+                if (result != null) {
+                    String resultStr = JSONUtil.toJsonStr(result);
+                    if (resultStr.length() > MAX_RESULT_LENGTH) {
+                        resultStr = resultStr.substring(0, MAX_RESULT_LENGTH) + "...";
+                    }
+                    operationLog.setParams(operationLog.getParams() + "\nResponse: " + resultStr);
+                }
+            } catch (Exception e) {
+                // 序列化失败时仍然保留日志的其他字段
+                log.warn("序列化操作日志参数失败: method={}, error={}", operationLog.getMethod(), e.getMessage());
+            }
+            return operationLog;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.leocoder.picture.manager.upload;
+
+import lombok.Getter;
+import org.leocoder.picture.domain.vo.picture.BatchUploadProgressVO;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-01 15:00
+ * @description : 批量抓取图片任务（记录各阶段进度，供进度接口查询）
+ */
+public class BatchUploadJob {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_CRAWLING = "CRAWLING";
+    public static final String STATUS_UPLOADING = "UPLOADING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Getter
+    private final String jobId;
+
+    @Getter
+    private final Long userId;
+
+    private final LocalDateTime createTime = LocalDateTime.now();
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile String status = STATUS_PENDING;
+
+    private volatile int total;
+
+    private volatile int duplicated;
+
+    private final AtomicInteger uploaded = new AtomicInteger();
+
+    private final AtomicInteger saved = new AtomicInteger();
+
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private volatile String errorMessage;
+
+    private volatile LocalDateTime finishTime;
+
+    private volatile long elapsedMillis = -1;
+
+    public BatchUploadJob(String jobId, Long userId) {
+        this.jobId = jobId;
+        this.userId = userId;
+    }
+
+    public void startCrawling() {
+        status = STATUS_CRAWLING;
+    }
+
+    public void startUploading(int total, int duplicated) {
+        this.total = total;
+        this.duplicated = duplicated;
+        status = STATUS_UPLOADING;
+    }
+
+    public void markUploaded() {
+        uploaded.incrementAndGet();
+    }
+
+    public void markSaved() {
+        saved.incrementAndGet();
+    }
+
+    public void markFailed() {
+        failed.incrementAndGet();
+    }
+
+    public int getSavedCount() {
+        return saved.get();
+    }
+
+    public void complete() {
+        finish(STATUS_COMPLETED, null);
+    }
+
+    public void fail(String errorMessage) {
+        finish(STATUS_FAILED, errorMessage);
+    }
+
+    /**
+     * 任务是否已结束
+     */
+    public boolean isFinished() {
+        return finishTime != null;
+    }
+
+    /**
+     * 任务结束后经过的毫秒数，未结束返回0
+     */
+    public long millisSinceFinished() {
+        return isFinished() ? System.nanoTime() / 1_000_000 - (startNanos / 1_000_000 + elapsedMillis) : 0;
+    }
+
+    public BatchUploadProgressVO toProgressVO() {
+        return BatchUploadProgressVO.builder()
+                .jobId(jobId)
+                .status(status)
+                .total(total)
+                .duplicated(duplicated)
+                .uploaded(uploaded.get())
+                .saved(saved.get())
+                .failed(failed.get())
+                .errorMessage(errorMessage)
+                .createTime(createTime)
+                .finishTime(finishTime)
+                .elapsedMillis(isFinished() ? elapsedMillis : (System.nanoTime() - startNanos) / 1_000_000)
+                .build();
+    }
+
+    private void finish(String finalStatus, String message) {
+        elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        errorMessage = message;
+        status = finalStatus;
+        finishTime = LocalDateTime.now();
+    }
+}
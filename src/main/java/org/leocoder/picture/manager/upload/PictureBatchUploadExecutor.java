@@ -0,0 +1,191 @@
+package org.leocoder.picture.manager.upload;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.exception.BusinessException;
+import org.leocoder.picture.exception.ErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-01 15:10
+ * @description : 批量抓取图片执行器
+ * 任务线程池负责抓取、去重和入库，上传线程池并行执行下载与对象存储上传；
+ * 同一图片来源主机的并发下载数受限制，替代原来逐张上传之间的固定休眠；
+ * 超出并发数的任务在该主机的队列中排队，不占用上传线程，主机空闲后即移除其队列
+ */
+@Slf4j
+@Component
+public class PictureBatchUploadExecutor {
+
+    // 已结束任务的进度保留时长
+    private static final long FINISHED_JOB_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final int perHostConcurrency;
+
+    private final ThreadPoolExecutor jobExecutor;
+
+    private final ThreadPoolExecutor uploadExecutor;
+
+    private final Map<String, HostLane> hostLanes = new ConcurrentHashMap<>();
+
+    private final Map<String, BatchUploadJob> jobs = new ConcurrentHashMap<>();
+
+    public PictureBatchUploadExecutor(@Value("${picture.batch-upload.job-threads:2}") int jobThreads,
+                                      @Value("${picture.batch-upload.job-queue-capacity:20}") int jobQueueCapacity,
+                                      @Value("${picture.batch-upload.upload-threads:8}") int uploadThreads,
+                                      @Value("${picture.batch-upload.per-host-concurrency:4}") int perHostConcurrency) {
+        this.perHostConcurrency = perHostConcurrency;
+        // 排队任务数有限，超出时拒绝提交
+        this.jobExecutor = new ThreadPoolExecutor(jobThreads, jobThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity), namedThreadFactory("batch-upload-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // 上传队列满时由任务线程自己执行，形成背压
+        this.uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(uploadThreads * 16), namedThreadFactory("picture-upload-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdown();
+        uploadExecutor.shutdown();
+    }
+
+    /**
+     * 创建任务并登记进度
+     *
+     * @param userId 提交任务的用户ID
+     * @return 任务
+     */
+    public BatchUploadJob createJob(Long userId) {
+        purgeFinishedJobs();
+        BatchUploadJob job = new BatchUploadJob(IdUtil.fastSimpleUUID(), userId);
+        jobs.put(job.getJobId(), job);
+        return job;
+    }
+
+    /**
+     * 提交任务到任务线程池
+     *
+     * @param job  任务
+     * @param task 任务内容
+     */
+    public void submitJob(BatchUploadJob job, Runnable task) {
+        try {
+            jobExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "批量抓取任务过多，请稍后再试");
+        }
+    }
+
+    /**
+     * 获取任务
+     *
+     * @param jobId 任务ID
+     * @return 任务，不存在或已过期返回null
+     */
+    public BatchUploadJob getJob(String jobId) {
+        return StrUtil.isBlank(jobId) ? null : jobs.get(jobId);
+    }
+
+    /**
+     * 在上传线程池中执行，并按URL所属主机限制并发
+     * 主机并发已满时任务进入该主机的队列，待同主机的任务完成后再派发到线程池
+     *
+     * @param url      图片来源地址
+     * @param supplier 下载并上传的操作
+     * @return 异步结果
+     */
+    public <T> CompletableFuture<T> supplyLimited(String url, Supplier<T> supplier) {
+        String host = hostOf(url);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                onTaskFinished(host);
+            }
+        };
+        AtomicReference<Runnable> dispatch = new AtomicReference<>();
+        hostLanes.compute(host, (key, lane) -> {
+            HostLane hostLane = lane == null ? new HostLane() : lane;
+            if (hostLane.running < perHostConcurrency) {
+                hostLane.running++;
+                dispatch.set(task);
+            } else {
+                hostLane.pending.add(task);
+            }
+            return hostLane;
+        });
+        if (dispatch.get() != null) {
+            uploadExecutor.execute(dispatch.get());
+        }
+        return future;
+    }
+
+    /**
+     * 主机任务完成后派发该主机的下一个排队任务，没有排队任务且无运行中任务时移除该主机
+     */
+    private void onTaskFinished(String host) {
+        AtomicReference<Runnable> next = new AtomicReference<>();
+        hostLanes.computeIfPresent(host, (key, lane) -> {
+            Runnable pending = lane.pending.poll();
+            if (pending != null) {
+                next.set(pending);
+                return lane;
+            }
+            lane.running--;
+            return lane.running == 0 ? null : lane;
+        });
+        if (next.get() != null) {
+            uploadExecutor.execute(next.get());
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        jobs.values().removeIf(job -> job.isFinished() && job.millisSinceFinished() > FINISHED_JOB_RETENTION_MILLIS);
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    /**
+     * 单个主机的运行中任务数和排队任务，只在 hostLanes 的 compute 中读写
+     */
+    private static class HostLane {
+        private int running;
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
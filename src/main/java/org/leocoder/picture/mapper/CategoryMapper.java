@@ -7,6 +7,7 @@ import org.leocoder.picture.domain.pojo.Category;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -118,6 +119,18 @@ public interface CategoryMapper {
      */
     List<Category> selectByType(@Param("type") String type);
 
+    /**
+     * 按ID游标升序分页查询未删除的分类（导出用）
+     *
+     * @param ids    限定的分类ID，为空时查询全部
+     * @param lastId 上一页最后一条的ID，首页传null
+     * @param limit  每页数量
+     * @return 分类列表
+     */
+    List<Category> listCategoriesForExport(@Param("ids") Collection<Long> ids,
+                                           @Param("lastId") Long lastId,
+                                           @Param("limit") int limit);
+
     /**
      * 逻辑删除分类
      *
@@ -156,6 +169,22 @@ public interface CategoryMapper {
                            @Param("updateTime") LocalDateTime updateTime,
                            @Param("updateUser") Long updateUser);
 
+    /**
+     * 移动子树：把路径以旧前缀开头的全部后代分类改为新前缀，并调整层级
+     *
+     * @param oldPrefix   旧路径前缀（分类原路径 + 分类ID + "-"）
+     * @param newPrefix   新路径前缀（分类新路径 + 分类ID + "-"）
+     * @param levelOffset 层级差（新层级 - 原层级）
+     * @param updateTime  更新时间
+     * @param updateUser  更新用户
+     * @return 影响行数
+     */
+    int moveSubtree(@Param("oldPrefix") String oldPrefix,
+                    @Param("newPrefix") String newPrefix,
+                    @Param("levelOffset") Integer levelOffset,
+                    @Param("updateTime") LocalDateTime updateTime,
+                    @Param("updateUser") Long updateUser);
+
     /**
      * 统计顶级分类数量
      *
@@ -282,6 +311,14 @@ public interface CategoryMapper {
                            @Param("increment") Integer increment,
                            @Param("updateTime") LocalDateTime updateTime);
 
+    /**
+     * 根据类型查询分类内容数量
+     *
+     * @param type 分类类型，为空时查询全部
+     * @return 只包含ID和内容数量的分类列表
+     */
+    List<Category> selectContentCounts(@Param("type") String type);
+
     /**
      * 使用指定ID插入分类
      *
@@ -6,6 +6,7 @@ import org.leocoder.picture.domain.pojo.CategoryRelation;
 import org.leocoder.picture.domain.vo.category.RelatedItemVO;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -129,6 +130,16 @@ public interface CategoryRelationMapper {
     List<Long> selectCategoryIdsByContent(@Param("contentType") String contentType,
                                           @Param("contentId") Long contentId);
 
+    /**
+     * 根据内容ID列表批量查询分类关系（仅包含content_id与category_id）
+     *
+     * @param contentType 内容类型
+     * @param contentIds  内容ID列表
+     * @return 分类关系列表
+     */
+    List<CategoryRelation> selectCategoryIdsByContents(@Param("contentType") String contentType,
+                                                       @Param("contentIds") Collection<Long> contentIds);
+
     /**
      * 统计分类下内容数量
      *
@@ -2,6 +2,7 @@ package org.leocoder.picture.mapper;
 
 import org.apache.ibatis.annotations.Param;
 import org.leocoder.picture.domain.dto.comment.AdminCommentQueryRequest;
+import org.leocoder.picture.domain.dto.comment.CommentCursor;
 import org.leocoder.picture.domain.pojo.Comment;
 
 import java.time.LocalDateTime;
@@ -48,13 +49,33 @@ public interface CommentMapper {
     );
 
     /**
-     * 查询评论的回复列表
+     * 按游标查询内容的一级评论（置顶优先、按创建时间和ID倒序）
+     *
+     * @param contentType 内容类型
+     * @param contentId   内容ID
+     * @param cursor      上一页最后一条评论，为null时查询第一页
+     * @param limit       查询条数
+     * @return 评论列表
+     */
+    List<Comment> selectContentCommentsByCursor(
+            @Param("contentType") String contentType,
+            @Param("contentId") Long contentId,
+            @Param("cursor") CommentCursor cursor,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 按游标查询根评论下的回复（按创建时间和ID正序）
      *
      * @param rootId 根评论ID
+     * @param cursor 上一页最后一条回复，为null时查询第一页
+     * @param limit  查询条数
      * @return 评论回复列表
      */
-    List<Comment> selectCommentReplies(
-            @Param("rootId") Long rootId
+    List<Comment> selectCommentRepliesByCursor(
+            @Param("rootId") Long rootId,
+            @Param("cursor") CommentCursor cursor,
+            @Param("limit") int limit
     );
 
     /**
@@ -0,0 +1,106 @@
+package org.leocoder.picture.mapper;
+
+import org.apache.ibatis.annotations.Param;
+import org.leocoder.picture.domain.dto.log.LogPartition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-05-07 10:00
+ * @description : 日志表分区与归档Mapper
+ * 表名和时间列由调用方从固定的日志表定义中传入，不接受外部输入
+ */
+public interface LogPartitionMapper {
+
+    /**
+     * 查询表的分区名称（按分区顺序），未分区时返回空列表
+     *
+     * @param tableName 表名
+     * @return 分区名称列表
+     */
+    List<String> selectPartitionNames(@Param("tableName") String tableName);
+
+    /**
+     * 将主键改为（id, 时间列），按时间列分区的前提是所有唯一键都包含该列
+     *
+     * @param tableName  表名
+     * @param timeColumn 时间列
+     */
+    void rebuildPrimaryKeyWithTime(@Param("tableName") String tableName,
+                                   @Param("timeColumn") String timeColumn);
+
+    /**
+     * 按月对表进行范围分区，最后追加 p_max 分区
+     *
+     * @param tableName  表名
+     * @param timeColumn 时间列
+     * @param partitions 月分区（按上界升序）
+     */
+    void partitionByMonth(@Param("tableName") String tableName,
+                          @Param("timeColumn") String timeColumn,
+                          @Param("partitions") List<LogPartition> partitions);
+
+    /**
+     * 从 p_max 中拆出一个月分区
+     *
+     * @param tableName 表名
+     * @param partition 月分区
+     */
+    void splitMaxPartition(@Param("tableName") String tableName,
+                           @Param("partition") LogPartition partition);
+
+    /**
+     * 删除分区（物理删除分区内全部数据）
+     *
+     * @param tableName      表名
+     * @param partitionNames 分区名称
+     */
+    void dropPartitions(@Param("tableName") String tableName,
+                        @Param("partitionNames") List<String> partitionNames);
+
+    /**
+     * 查询最早的日志时间
+     *
+     * @param tableName  表名
+     * @param timeColumn 时间列
+     * @return 最早时间，表为空时返回null
+     */
+    LocalDateTime selectMinTime(@Param("tableName") String tableName,
+                                @Param("timeColumn") String timeColumn);
+
+    /**
+     * 按ID游标查询时间区间[start, end)内的日志（归档用）
+     *
+     * @param tableName  表名
+     * @param timeColumn 时间列
+     * @param start      起始时间（包含）
+     * @param end        结束时间（不包含）
+     * @param lastId     上一批最后一条的ID
+     * @param limit      每批数量
+     * @return 日志行
+     */
+    List<Map<String, Object>> selectRowsInRange(@Param("tableName") String tableName,
+                                                @Param("timeColumn") String timeColumn,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end,
+                                                @Param("lastId") Long lastId,
+                                                @Param("limit") int limit);
+
+    /**
+     * 分批物理删除早于指定时间的日志（未分区时使用）
+     *
+     * @param tableName  表名
+     * @param timeColumn 时间列
+     * @param end        结束时间（不包含）
+     * @param limit      单批删除数量
+     * @return 删除行数
+     */
+    int deleteRowsBefore(@Param("tableName") String tableName,
+                         @Param("timeColumn") String timeColumn,
+                         @Param("end") LocalDateTime end,
+                         @Param("limit") int limit);
+}
@@ -76,12 +76,18 @@ public interface LoginLogMapper {
                                        @Param("pageSize") Integer pageSize);
 
     /**
-     * 查询所有登录日志（导出用）
+     * 按（login_time, id）游标倒序分页查询登录日志（导出用）
      *
      * @param queryRequest 查询条件
+     * @param lastTime     上一页最后一条的时间，首页传null
+     * @param lastId       上一页最后一条的ID，首页传null
+     * @param limit        每页数量
      * @return 日志列表
      */
-    List<LoginLog> listAllLoginLogs(@Param("queryRequest") LoginLogQueryRequest queryRequest);
+    List<LoginLog> listLoginLogsForExport(@Param("queryRequest") LoginLogQueryRequest queryRequest,
+                                          @Param("lastTime") LocalDateTime lastTime,
+                                          @Param("lastId") Long lastId,
+                                          @Param("limit") int limit);
 
     /**
      * 批量逻辑删除登录日志
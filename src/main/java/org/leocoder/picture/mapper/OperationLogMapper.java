@@ -36,6 +36,14 @@ public interface OperationLogMapper {
      */
     int insertWithId(OperationLog record);
 
+    /**
+     * 批量插入操作日志（需已指定id）
+     *
+     * @param logList 操作日志列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("list") List<OperationLog> logList);
+
     /**
      * 根据条件查询操作日志总数
      *
@@ -58,12 +66,18 @@ public interface OperationLogMapper {
             @Param("pageSize") Integer pageSize);
 
     /**
-     * 查询所有操作日志（导出用）
+     * 按（operation_time, id）游标倒序分页查询操作日志（导出用）
      *
      * @param queryRequest 查询条件
+     * @param lastTime     上一页最后一条的时间，首页传null
+     * @param lastId       上一页最后一条的ID，首页传null
+     * @param limit        每页数量
      * @return 日志列表
      */
-    List<OperationLog> listAllOperationLogs(@Param("queryRequest") OperationLogQueryRequest queryRequest);
+    List<OperationLog> listOperationLogsForExport(@Param("queryRequest") OperationLogQueryRequest queryRequest,
+                                          @Param("lastTime") LocalDateTime lastTime,
+                                          @Param("lastId") Long lastId,
+                                          @Param("limit") int limit);
 
     /**
      * 批量逻辑删除操作日志
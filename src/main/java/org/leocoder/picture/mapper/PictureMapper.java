@@ -2,10 +2,14 @@ package org.leocoder.picture.mapper;
 
 import org.apache.ibatis.annotations.Param;
 import org.leocoder.picture.domain.dto.picture.AdminPictureQueryRequest;
+import org.leocoder.picture.domain.dto.picture.PictureCountCorrection;
+import org.leocoder.picture.domain.dto.picture.PictureCountDelta;
 import org.leocoder.picture.domain.pojo.Picture;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author : 程序员Leo
@@ -68,6 +72,14 @@ public interface PictureMapper {
      */
     int incrementViewCount(@Param("id") Long id);
 
+    /**
+     * 批量累加图片浏览量（单条UPDATE ... CASE语句）
+     *
+     * @param deltas 图片ID -> 浏览量增量
+     * @return 影响的行数
+     */
+    int batchIncrementViewCount(@Param("deltas") Map<Long, Long> deltas);
+
 
     /**
      * 查询瀑布流图片列表（初始加载）
@@ -187,6 +199,22 @@ public interface PictureMapper {
      */
     int decrementCollectionCount(Long pictureId);
 
+    /**
+     * 批量更新图片点赞、收藏、浏览计数（单条多行UPDATE，计数不会小于0）
+     *
+     * @param deltas 按图片合并后的计数增量
+     * @return 影响的行数
+     */
+    int batchUpdateReactionCounts(@Param("deltas") List<PictureCountDelta> deltas);
+
+    /**
+     * 批量校准图片点赞、收藏计数，只更新计数仍等于校准时读到的值的图片
+     *
+     * @param corrections 校准项
+     * @return 影响的行数
+     */
+    int batchCorrectReactionCounts(@Param("corrections") List<PictureCountCorrection> corrections);
+
 
     /**
      * 查询批量图片
@@ -198,6 +226,47 @@ public interface PictureMapper {
     List<Picture> selectBatchPictures(@Param("lastId") Long lastId, Integer limit);
 
 
+    /**
+     * 按ID批量查询图片
+     *
+     * @param ids 图片ID集合
+     * @return 图片列表（不保证顺序）
+     */
+    List<Picture> selectByIds(@Param("ids") Collection<Long> ids);
+
+
+    /**
+     * 按ID游标分批查询排行榜所需的图片计数（仅审核通过且未删除的图片）
+     *
+     * @param reviewStatus 审核状态
+     * @param lastId       上一批最后一个图片ID
+     * @param limit        查询数量
+     * @return 图片列表（仅包含ID和各项计数）
+     */
+    List<Picture> selectLeaderboardEntries(@Param("reviewStatus") String reviewStatus,
+                                           @Param("lastId") Long lastId,
+                                           @Param("limit") Integer limit);
+
+
+    /**
+     * 按ID游标分批查询未删除图片的点赞数和收藏数（计数校准使用）
+     *
+     * @param lastId 上一批最后一个图片ID
+     * @param limit  查询数量
+     * @return 图片列表（仅包含ID、点赞数和收藏数）
+     */
+    List<Picture> selectReactionCountEntries(@Param("lastId") Long lastId, @Param("limit") Integer limit);
+
+
+    /**
+     * 按ID批量查询未删除图片的点赞数和收藏数（计数校准使用）
+     *
+     * @param ids 图片ID集合
+     * @return 图片列表（仅包含ID、点赞数和收藏数）
+     */
+    List<Picture> selectReactionCountEntriesByIds(@Param("ids") Collection<Long> ids);
+
+
     /**
      * 更新图片计数器
      * @param pictureId 图片ID
@@ -3,6 +3,7 @@ package org.leocoder.picture.mapper;
 import org.apache.ibatis.annotations.Param;
 import org.leocoder.picture.domain.pojo.TagRelation;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -76,6 +77,16 @@ public interface TagRelationMapper {
     List<Long> selectTagIdsByContent(@Param("contentType") String contentType,
                                      @Param("contentId") Long contentId);
 
+    /**
+     * 根据内容ID列表批量查询标签关系（仅包含content_id与tag_id）
+     *
+     * @param contentType 内容类型
+     * @param contentIds  内容ID列表
+     * @return 标签关系列表
+     */
+    List<TagRelation> selectTagIdsByContents(@Param("contentType") String contentType,
+                                             @Param("contentIds") Collection<Long> contentIds);
+
     /**
      * 根据内容信息删除所有标签关系
      *
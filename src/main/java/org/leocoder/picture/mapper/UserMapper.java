@@ -6,6 +6,7 @@ import org.leocoder.picture.domain.dto.user.AdminUserQueryRequest;
 import org.leocoder.picture.domain.pojo.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,6 +25,14 @@ public interface UserMapper {
 
     User selectById(Long id);
 
+    /**
+     * 根据ID列表批量查询用户
+     *
+     * @param ids 用户ID列表
+     * @return 用户列表
+     */
+    List<User> selectByIds(@Param("ids") Collection<Long> ids);
+
     int updateByPrimaryKeySelective(User record);
 
     int updateByPrimaryKey(User record);
@@ -37,11 +46,21 @@ public interface UserMapper {
     User selectByAccount(@Param("account") String account);
 
     /**
-     * 查询所有用户账号
+     * 按ID游标分批查询用户账号
      *
-     * @return 用户列表
+     * @param lastId 上一批最后一个用户ID
+     * @param limit  查询数量
+     * @return 用户列表（仅包含ID和账号）
+     */
+    List<User> selectAccountsAfter(@Param("lastId") Long lastId, @Param("limit") Integer limit);
+
+
+    /**
+     * 统计未删除的用户数量
+     *
+     * @return 用户数量
      */
-    List<User> selectAllAccounts();
+    long countActiveAccounts();
 
 
     /**
@@ -1,8 +1,12 @@
 package org.leocoder.picture.mapper;
 
 import org.apache.ibatis.annotations.Param;
+import org.leocoder.picture.domain.dto.picture.ReactionBucketCount;
+import org.leocoder.picture.domain.dto.picture.TargetReactionCount;
 import org.leocoder.picture.domain.pojo.UserReaction;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -49,6 +53,20 @@ public interface UserReactionMapper {
                                                     @Param("targetIds") List<Long> targetIds,
                                                     @Param("reactionType") String reactionType);
 
+    // 按目标和互动类型分组统计多个目标的全部互动数量
+    List<TargetReactionCount> countReactionsGroupByTarget(@Param("targetType") String targetType,
+                                                          @Param("targetIds") Collection<Long> targetIds);
+
+    // 查询指定目标中在某时间之后点赞/收藏仍有变化的目标ID
+    List<Long> selectTargetIdsChangedAfter(@Param("targetType") String targetType,
+                                           @Param("targetIds") Collection<Long> targetIds,
+                                           @Param("since") LocalDateTime since);
+
+    // 查询时间区间内点赞/收藏有变化（新增、恢复或取消）的目标ID
+    List<Long> selectChangedTargetIds(@Param("targetType") String targetType,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("until") LocalDateTime until);
+
     // 查询用户所有的点赞/收藏记录（按目标类型和点赞/收藏类型）
     List<UserReaction> selectUserReactions(@Param("createUser") Long userId,
                                            @Param("targetType") String targetType,
@@ -56,8 +74,20 @@ public interface UserReactionMapper {
                                            @Param("limit") Integer limit,
                                            @Param("offset") Integer offset);
 
+    // 查询用户有指定点赞/收藏的全部目标ID
+    List<Long> selectUserReactionTargetIds(@Param("createUser") Long userId,
+                                           @Param("targetType") String targetType,
+                                           @Param("reactionType") String reactionType);
+
     // 获取热门内容ID列表（基于特定点赞/收藏类型）
     List<Long> selectHotTargetIds(@Param("targetType") String targetType,
                                   @Param("reactionType") String reactionType,
                                   @Param("limit") Integer limit);
+
+    // 按目标和时间桶聚合时间窗口内的互动数量（仅统计审核通过且未删除的图片）
+    List<ReactionBucketCount> selectReactionBucketCounts(@Param("targetType") String targetType,
+                                                         @Param("reviewStatus") String reviewStatus,
+                                                         @Param("since") LocalDateTime since,
+                                                         @Param("now") LocalDateTime now,
+                                                         @Param("bucketSeconds") Integer bucketSeconds);
 }
\ No newline at end of file
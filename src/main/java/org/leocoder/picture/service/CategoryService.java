@@ -6,6 +6,9 @@ import org.leocoder.picture.domain.vo.category.CategoryStatisticsVO;
 import org.leocoder.picture.domain.vo.category.CategoryTreeVO;
 import org.leocoder.picture.domain.vo.category.CategoryVO;
 import org.leocoder.picture.domain.vo.category.RelatedItemVO;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
+
+import javax.servlet.http.HttpServletResponse;
 
 import java.util.List;
 
@@ -111,10 +114,34 @@ public interface CategoryService {
      * 导出分类数据
      *
      * @param categoryExportRequest 分类导出请求
-     * @return 导出文件URL
+     * @return 导出任务ID，按任务ID调用下载接口获取文件
      */
     String exportCategories(CategoryExportRequest categoryExportRequest);
 
+    /**
+     * 提交分类异步导出任务
+     *
+     * @param categoryExportRequest 分类导出请求
+     * @return 任务ID
+     */
+    String submitCategoryExport(CategoryExportRequest categoryExportRequest);
+
+    /**
+     * 查询分类导出任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    ExportProgressVO getCategoryExportProgress(String jobId);
+
+    /**
+     * 下载分类导出文件（只能下载自己导出的文件）
+     *
+     * @param jobId    任务ID
+     * @param response 响应
+     */
+    void downloadCategoryExport(String jobId, HttpServletResponse response);
+
     /**
      * 获取分类列表(不分页)
      *
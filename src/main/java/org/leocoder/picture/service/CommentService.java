@@ -5,6 +5,7 @@ import org.leocoder.picture.domain.dto.comment.AdminCommentQueryRequest;
 import org.leocoder.picture.domain.dto.comment.CommentAddRequest;
 import org.leocoder.picture.domain.dto.comment.CommentReplyAddRequest;
 import org.leocoder.picture.domain.pojo.Comment;
+import org.leocoder.picture.domain.vo.comment.CommentCursorPageVO;
 import org.leocoder.picture.domain.vo.comment.CommentVO;
 
 import java.util.List;
@@ -45,25 +46,25 @@ public interface CommentService {
     Boolean deleteComment(Long commentId, Long userId);
 
     /**
-     * 获取内容的评论列表（一级评论）
+     * 按游标分页获取内容的评论列表（一级评论）
      *
      * @param contentType 内容类型
      * @param contentId 内容ID
-     * @param page 页码
+     * @param cursor 上一页返回的游标，第一页为空
      * @param size 每页大小
-     * @return 评论列表
+     * @return 评论列表及下一页游标
      */
-    List<CommentVO> getContentComments(String contentType, Long contentId, Integer page, Integer size);
+    CommentCursorPageVO getContentComments(String contentType, Long contentId, String cursor, Integer size);
 
     /**
-     * 获取评论的回复列表
+     * 按游标分页获取评论的回复列表
      *
      * @param commentId 评论ID
-     * @param page 页码
+     * @param cursor 上一页返回的游标，第一页为空
      * @param size 每页大小
-     * @return 评论回复列表
+     * @return 评论回复列表及下一页游标
      */
-    List<CommentVO> getCommentReplies(Long commentId, Integer page, Integer size);
+    CommentCursorPageVO getCommentReplies(Long commentId, String cursor, Integer size);
 
     /**
      * 根据ID获取评论
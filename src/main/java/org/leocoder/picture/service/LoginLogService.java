@@ -2,10 +2,13 @@ package org.leocoder.picture.service;
 
 import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.domain.dto.log.LoginLogQueryRequest;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
 import org.leocoder.picture.domain.pojo.LoginLog;
 import org.leocoder.picture.domain.vo.log.LoginLogVO;
 import org.leocoder.picture.domain.vo.log.LoginStatisticsVO;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.List;
 
 /**
@@ -59,10 +62,34 @@ public interface LoginLogService {
      * 导出登录日志
      *
      * @param queryRequest 查询参数
-     * @return 导出文件URL
+     * @return 导出任务ID，按任务ID调用下载接口获取文件
      */
     String exportLoginLogs(LoginLogQueryRequest queryRequest);
 
+    /**
+     * 提交登录日志异步导出任务
+     *
+     * @param queryRequest 查询参数
+     * @return 任务ID
+     */
+    String submitLoginLogExport(LoginLogQueryRequest queryRequest);
+
+    /**
+     * 查询登录日志导出任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    ExportProgressVO getLoginLogExportProgress(String jobId);
+
+    /**
+     * 下载登录日志导出文件（只能下载自己导出的文件）
+     *
+     * @param jobId    任务ID
+     * @param response 响应
+     */
+    void downloadLoginLogExport(String jobId, HttpServletResponse response);
+
     /**
      * 保存登录日志
      *
@@ -2,10 +2,13 @@ package org.leocoder.picture.service;
 
 import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.domain.dto.log.OperationLogQueryRequest;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
 import org.leocoder.picture.domain.pojo.OperationLog;
 import org.leocoder.picture.domain.vo.log.OperationLogStatisticsVO;
 import org.leocoder.picture.domain.vo.log.OperationLogVO;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.List;
 
 /**
@@ -59,10 +62,34 @@ public interface OperationLogService {
      * 导出操作日志
      *
      * @param queryRequest 查询参数
-     * @return 导出文件URL
+     * @return 导出任务ID，按任务ID调用下载接口获取文件
      */
     String exportOperationLogs(OperationLogQueryRequest queryRequest);
 
+    /**
+     * 提交操作日志异步导出任务
+     *
+     * @param queryRequest 查询参数
+     * @return 任务ID
+     */
+    String submitOperationLogExport(OperationLogQueryRequest queryRequest);
+
+    /**
+     * 查询操作日志导出任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    ExportProgressVO getOperationLogExportProgress(String jobId);
+
+    /**
+     * 下载操作日志导出文件（只能下载自己导出的文件）
+     *
+     * @param jobId    任务ID
+     * @param response 响应
+     */
+    void downloadOperationLogExport(String jobId, HttpServletResponse response);
+
     /**
      * 保存操作日志
      *
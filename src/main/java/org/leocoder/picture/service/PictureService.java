@@ -4,6 +4,7 @@ import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.domain.dto.picture.*;
 import org.leocoder.picture.domain.pojo.Picture;
 import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.picture.BatchUploadProgressVO;
 import org.leocoder.picture.domain.vo.picture.PictureStatisticsVO;
 import org.leocoder.picture.domain.vo.picture.PictureVO;
 import org.leocoder.picture.domain.vo.picture.PictureWaterfallVO;
@@ -49,6 +50,14 @@ public interface PictureService {
      */
     PictureVO getPictureById(Long id, User loginUser);
 
+    /**
+     * 按ID批量获取图片（只读，不累加浏览量）
+     *
+     * @param pictureIds 图片ID列表
+     * @return 图片列表，按传入顺序排列，已删除或未过审的图片不包含在结果中
+     */
+    List<PictureVO> listPictureVOsByIds(List<Long> pictureIds);
+
     /**
      * 获取上一张图片
      *
@@ -78,6 +87,26 @@ public interface PictureService {
     int uploadPictureByBatch(PictureUploadByBatchRequest requestParam, User loginUser);
 
 
+    /**
+     * 提交批量抓取任务（异步执行）
+     *
+     * @param requestParam 批量抓取参数
+     * @param loginUser    登录用户
+     * @return 任务ID
+     */
+    String submitUploadByBatchJob(PictureUploadByBatchRequest requestParam, User loginUser);
+
+
+    /**
+     * 查询批量抓取任务进度
+     *
+     * @param jobId     任务ID
+     * @param loginUser 登录用户
+     * @return 任务进度
+     */
+    BatchUploadProgressVO getUploadByBatchProgress(String jobId, User loginUser);
+
+
     /**
      * 获取首页瀑布流图片列表
      *
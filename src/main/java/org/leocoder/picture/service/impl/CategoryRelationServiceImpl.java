@@ -313,12 +313,11 @@ public class CategoryRelationServiceImpl implements CategoryRelationService {
         Map<String, List<Long>> result = new HashMap<>();
 
         try {
-            // todo 当前实现使用多次单条查询，后面可优化为一次批量查询
-            for (Long contentId : contentIds) {
-                List<Long> categoryIds = categoryRelationMapper.selectCategoryIdsByContent(contentType, contentId);
-                if (CollUtil.isNotEmpty(categoryIds)) {
-                    result.put(contentId.toString(), categoryIds);
-                }
+            // 一次IN查询取回所有内容的分类关系，再在内存中按内容ID分组
+            List<CategoryRelation> relations = categoryRelationMapper.selectCategoryIdsByContents(contentType, new LinkedHashSet<>(contentIds));
+            for (CategoryRelation relation : relations) {
+                result.computeIfAbsent(relation.getContentId().toString(), k -> new ArrayList<>())
+                        .add(relation.getCategoryId());
             }
         } catch (Exception e) {
             log.error("批量获取内容分类关系失败: contentType={}, contentIds={}", contentType, contentIds, e);
@@ -2,8 +2,17 @@ package org.leocoder.picture.service.impl;
 
 import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.support.ExcelTypeEnum;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.leocoder.picture.common.PageResult;
@@ -11,25 +20,40 @@ import org.leocoder.picture.common.PageUtils;
 import org.leocoder.picture.domain.dto.category.*;
 import org.leocoder.picture.domain.mapstruct.CategoryConvert;
 import org.leocoder.picture.domain.pojo.Category;
+import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.category.CategoryExcelVO;
 import org.leocoder.picture.domain.vo.category.CategoryStatisticsVO;
 import org.leocoder.picture.domain.vo.category.CategoryTreeVO;
 import org.leocoder.picture.domain.vo.category.CategoryVO;
 import org.leocoder.picture.domain.vo.category.RelatedItemVO;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
 import org.leocoder.picture.enums.CategoryStatusEnum;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
+import org.leocoder.picture.exception.ThrowUtils;
+import org.leocoder.picture.manager.category.CategoryTreeManager;
+import org.leocoder.picture.manager.category.CategoryTreeSnapshot;
+import org.leocoder.picture.manager.export.ExportJob;
+import org.leocoder.picture.manager.export.ExportJobExecutor;
 import org.leocoder.picture.mapper.CategoryMapper;
 import org.leocoder.picture.mapper.CategoryRelationMapper;
+import org.leocoder.picture.mapper.UserMapper;
 import org.leocoder.picture.service.CategoryRelationService;
 import org.leocoder.picture.service.CategoryService;
 import org.leocoder.picture.service.UserService;
 import org.leocoder.picture.utils.SnowflakeIdGenerator;
+import org.leocoder.picture.utils.UserContext;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -53,6 +77,24 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRelationMapper categoryRelationMapper;
 
+    private final CategoryTreeManager categoryTreeManager;
+
+    private final UserMapper userMapper;
+
+    private final ExportJobExecutor exportJobExecutor;
+
+    private final ObjectMapper objectMapper;
+
+    // 导出任务类型
+    private static final String EXPORT_TYPE = "CATEGORY";
+
+    // 导出时每页读取的分类数量
+    private static final int EXPORT_PAGE_SIZE = 1000;
+
+    private static final String EXPORT_FORMAT_CSV = "csv";
+
+    private static final String EXPORT_FORMAT_JSON = "json";
+
 
     /**
      * 设置CategoryVO的额外字段（父分类名称、创建者和更新者用户名）
@@ -63,13 +105,9 @@ public class CategoryServiceImpl implements CategoryService {
     private void setAdditionalFields(CategoryVO categoryVO, Category category) {
         // 设置父分类名称
         if (ObjectUtil.isNotNull(category.getParentId()) && category.getParentId() > 0) {
-            try {
-                Category parentCategory = categoryMapper.selectById(category.getParentId());
-                if (ObjectUtil.isNotNull(parentCategory)) {
-                    categoryVO.setParentName(parentCategory.getName());
-                }
-            } catch (Exception e) {
-                log.error("获取父分类信息失败, parentId={}", category.getParentId(), e);
+            String parentName = categoryTreeManager.current().getName(category.getParentId());
+            if (ObjectUtil.isNotNull(parentName)) {
+                categoryVO.setParentName(parentName);
             }
         }
 
@@ -245,6 +283,7 @@ public class CategoryServiceImpl implements CategoryService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建分类失败，请稍后重试");
         }
+        categoryTreeManager.markChanged();
 
         // 6. 返回新分类ID
         return categoryId;
@@ -320,6 +359,7 @@ public class CategoryServiceImpl implements CategoryService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "更新分类失败，请稍后重试");
         }
+        categoryTreeManager.markChanged();
 
         return true;
     }
@@ -364,6 +404,7 @@ public class CategoryServiceImpl implements CategoryService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "删除分类失败，请稍后重试");
         }
+        categoryTreeManager.markChanged();
 
         // 6. 删除分类关系
         categoryRelationService.deleteAllRelationsByCategory(id);
@@ -423,6 +464,7 @@ public class CategoryServiceImpl implements CategoryService {
         if (result < 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "批量删除分类失败，请稍后重试");
         }
+        categoryTreeManager.markChanged();
 
         // 4. 批量删除分类关系
         categoryRelationService.batchDeleteAllRelationsByCategories(validIds);
@@ -452,15 +494,7 @@ public class CategoryServiceImpl implements CategoryService {
         // 3. 使用MapStruct转换基本字段
         CategoryVO categoryVO = CategoryConvert.INSTANCE.toCategoryVO(category);
 
-        // 4. 设置额外字段 - 父分类名称
-        if (category.getParentId() > 0) {
-            Category parentCategory = categoryMapper.selectById(category.getParentId());
-            if (ObjectUtil.isNotNull(parentCategory)) {
-                categoryVO.setParentName(parentCategory.getName());
-            }
-        }
-
-        // 4. 使用辅助方法设置额外字段
+        // 4. 使用辅助方法设置额外字段（父分类名称、创建者和更新者用户名）
         setAdditionalFields(categoryVO, category);
 
         return categoryVO;
@@ -523,19 +557,17 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public List<CategoryTreeVO> getCategoryTree(String type) {
-        // 1. 查询指定类型的所有分类
-        List<Category> allCategories = categoryMapper.selectByType(type);
-
-        // 过滤掉已删除的分类
-        allCategories = allCategories.stream()
-                .filter(category -> !Boolean.TRUE.equals(category.getIsDeleted()))
-                .collect(Collectors.toList());
+        // 1. 从分类树快照中取指定类型的所有分类（快照只包含未删除的分类）
+        List<Category> allCategories = categoryTreeManager.current().listCategories(type);
 
         // 如果没有数据，返回空列表
         if (CollUtil.isEmpty(allCategories)) {
             return Collections.emptyList();
         }
 
+        // 快照不含内容数量，单独批量查询
+        Map<Long, Integer> contentCounts = loadContentCounts(type);
+
         // 2. 转换为树形结构
 
         // 先转换为Map，便于查找
@@ -554,7 +586,7 @@ public class CategoryServiceImpl implements CategoryService {
                     .icon(category.getIcon())
                     .urlName(category.getUrlName())
                     .sortOrder(category.getSortOrder())
-                    .contentCount(category.getContentCount())
+                    .contentCount(contentCounts.getOrDefault(category.getId(), 0))
                     .status(category.getStatus())
                     .children(new ArrayList<>())
                     .build();
@@ -646,8 +678,9 @@ public class CategoryServiceImpl implements CategoryService {
                 throw new BusinessException(ErrorCode.CATEGORY_NOT_FOUND, "父分类不存在");
             }
 
-            // 分类不能移动到自己的子分类下
-            if (isChildCategory(newParentId, categoryId)) {
+            // 分类不能移动到自己的子分类下：子分类的路径以当前分类的子树路径前缀开头
+            String newParentSubtreePrefix = StrUtil.nullToEmpty(parentCategory.getPath()) + newParentId + "-";
+            if (newParentSubtreePrefix.startsWith(subtreePathPrefix(category))) {
                 throw new BusinessException(ErrorCode.OPERATION_ERROR, "不能将分类移动到其子分类下");
             }
 
@@ -678,7 +711,8 @@ public class CategoryServiceImpl implements CategoryService {
             }
 
             // 6. 更新子分类的层级和路径
-            updateChildrenLevelAndPath(categoryId, newLevel, newPath);
+            moveSubtree(category, newLevel, newPath, now, userId);
+            categoryTreeManager.markChanged();
         } else {
             // 移动到顶级目录
 
@@ -707,71 +741,44 @@ public class CategoryServiceImpl implements CategoryService {
             }
 
             // 更新子分类的层级和路径
-            updateChildrenLevelAndPath(categoryId, 1, "");
+            moveSubtree(category, 1, "", now, userId);
+            categoryTreeManager.markChanged();
         }
 
         return true;
     }
 
     /**
-     * 检查是否为子分类
+     * 分类子树的路径前缀，所有后代分类的路径都以此开头
      *
-     * @param categoryId       当前分类ID
-     * @param possibleParentId 可能的父分类ID
-     * @return 是否为子分类
+     * @param category 分类
+     * @return 路径前缀（分类路径 + 分类ID + "-"）
      */
-    private boolean isChildCategory(Long categoryId, Long possibleParentId) {
-        Category category = categoryMapper.selectById(categoryId);
-        if (ObjectUtil.isNull(category)) {
-            return false;
-        }
-
-        if (category.getParentId().equals(possibleParentId)) {
-            return true;
-        }
-
-        if (category.getParentId() > 0) {
-            return isChildCategory(category.getParentId(), possibleParentId);
-        }
-
-        return false;
+    private String subtreePathPrefix(Category category) {
+        return StrUtil.nullToEmpty(category.getPath()) + category.getId() + "-";
     }
 
     /**
      * 更新子分类的层级和路径
+     * 按路径前缀一条语句改写整个子树：路径前缀替换为新前缀，层级加上移动前后的层级差
      *
-     * @param parentId    父分类ID
-     * @param parentLevel 父分类层级
-     * @param parentPath  父分类路径
+     * @param category 移动前的分类
+     * @param newLevel 分类新的层级
+     * @param newPath  分类新的路径
+     * @param now      更新时间
+     * @param userId   更新用户
      */
-    private void updateChildrenLevelAndPath(Long parentId, Integer parentLevel, String parentPath) {
-        // 查询所有子分类
-        List<Category> children = categoryMapper.selectByParentId(parentId);
-        if (CollUtil.isEmpty(children)) {
+    private void moveSubtree(Category category, Integer newLevel, String newPath, LocalDateTime now, Long userId) {
+        String oldPrefix = subtreePathPrefix(category);
+        String newPrefix = newPath + category.getId() + "-";
+        int levelOffset = newLevel - ObjectUtil.defaultIfNull(category.getLevel(), 1);
+        if (oldPrefix.equals(newPrefix) && levelOffset == 0) {
             return;
         }
 
-        Long userId = StpUtil.getLoginIdAsLong();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Category child : children) {
-            // 计算新的层级和路径
-            Integer newLevel = parentLevel + 1;
-            String newPath = parentPath + parentId + "-";
-
-            // 更新子分类
-            Category updateChild = new Category();
-            updateChild.setId(child.getId());
-            updateChild.setLevel(newLevel);
-            updateChild.setPath(newPath);
-            updateChild.setUpdateTime(now);
-            updateChild.setUpdateUser(userId);
-
-            categoryMapper.updateByPrimaryKeySelective(updateChild);
-
-            // 递归更新其子分类
-            updateChildrenLevelAndPath(child.getId(), newLevel, newPath);
-        }
+        int updated = categoryMapper.moveSubtree(oldPrefix, newPrefix, levelOffset, now, userId);
+        log.debug("移动分类子树: categoryId={}, {} -> {}, 层级差={}, 更新后代数={}",
+                category.getId(), oldPrefix, newPrefix, levelOffset, updated);
     }
 
     /**
@@ -1006,57 +1013,189 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     /**
-     * 导出分类数据
+     * 导出分类数据（导出范围和格式已由控制器校验）
      *
      * @param categoryExportRequest 分类导出请求
-     * @return 导出文件URL
+     * @return 导出任务ID
      */
     @Override
     public String exportCategories(CategoryExportRequest categoryExportRequest) {
-        // 本方法需要根据实际项目情况进行实现
-        // 通常涉及到创建Excel文件、保存文件、生成下载链接等步骤
-        // 这里提供一个简单的实现思路
+        String format = categoryExportRequest.getFormat().toLowerCase();
+        String filePath = writeCategoryExportFile(categoryExportRequest, format, rows -> {
+        });
+        return exportJobExecutor.register(EXPORT_TYPE, UserContext.getUserId(), filePath);
+    }
 
-        // 1. 参数校验
-        if (ObjectUtil.isNull(categoryExportRequest)) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "参数不能为空");
-        }
+    /**
+     * 提交分类异步导出任务（导出范围和格式已由控制器校验）
+     *
+     * @param categoryExportRequest 分类导出请求
+     * @return 任务ID
+     */
+    @Override
+    public String submitCategoryExport(CategoryExportRequest categoryExportRequest) {
+        String format = categoryExportRequest.getFormat().toLowerCase();
+        return exportJobExecutor.submit(EXPORT_TYPE, UserContext.getUserId(), job -> {
+            job.start(Boolean.TRUE.equals(categoryExportRequest.getExportAll())
+                    ? categoryTreeManager.current().size()
+                    : distinctExportIds(categoryExportRequest).size());
+            return writeCategoryExportFile(categoryExportRequest, format, job::setExported);
+        });
+    }
 
-        // 2. 确定导出哪些分类
-        List<Category> categoriesToExport = new ArrayList<>();
+    /**
+     * 查询分类导出任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @Override
+    public ExportProgressVO getCategoryExportProgress(String jobId) {
+        ExportJob job = exportJobExecutor.getJob(jobId);
+        ThrowUtils.throwIf(job == null || !EXPORT_TYPE.equals(job.getType()), ErrorCode.NOT_FOUND_ERROR, "导出任务不存在或已过期");
+        return job.toProgressVO();
+    }
 
-        if (Boolean.TRUE.equals(categoryExportRequest.getExportAll())) {
-            // 导出所有分类
-            categoryMapper.selectByType(null).stream()
-                    .filter(category -> !Boolean.TRUE.equals(category.getIsDeleted()))
-                    .forEach(categoriesToExport::add);
-        } else if (CollUtil.isNotEmpty(categoryExportRequest.getIds())) {
-            // 导出指定ID的分类
-            for (Long id : categoryExportRequest.getIds()) {
-                Category category = categoryMapper.selectById(id);
-                if (ObjectUtil.isNotNull(category) && !Boolean.TRUE.equals(category.getIsDeleted())) {
-                    categoriesToExport.add(category);
-                }
+    /**
+     * 下载分类导出文件
+     *
+     * @param jobId    任务ID
+     * @param response 响应
+     */
+    @Override
+    public void downloadCategoryExport(String jobId, HttpServletResponse response) {
+        exportJobExecutor.download(jobId, EXPORT_TYPE, UserContext.getUserId(), response);
+    }
+
+    /**
+     * 流式导出分类：按ID分页读取，每页转换后立即写入文件，内存占用与分类总数无关
+     *
+     * @param categoryExportRequest 分类导出请求
+     * @param format                导出格式
+     * @param progress              已写入行数回调
+     * @return 导出文件路径
+     */
+    private String writeCategoryExportFile(CategoryExportRequest categoryExportRequest, String format, LongConsumer progress) {
+        String filePath = exportJobExecutor.newExportFilePath("分类数据", format);
+
+        long rows;
+        if (EXPORT_FORMAT_JSON.equals(format)) {
+            ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(
+                    new BufferedOutputStream(new FileOutputStream(filePath)))) {
+                generator.writeStartArray();
+                rows = forEachCategoryExportPage(categoryExportRequest, page -> {
+                    try {
+                        for (CategoryExcelVO row : page) {
+                            rowWriter.writeValue(generator, row);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, progress);
+                generator.writeEndArray();
+            } catch (IOException | UncheckedIOException e) {
+                FileUtil.del(filePath);
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "写入导出文件失败: " + e.getMessage());
             }
         } else {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "请选择要导出的分类");
+            ExcelTypeEnum excelType = EXPORT_FORMAT_CSV.equals(format) ? ExcelTypeEnum.CSV : ExcelTypeEnum.XLSX;
+            try (ExcelWriter excelWriter = EasyExcel.write(filePath, CategoryExcelVO.class).excelType(excelType).build()) {
+                WriteSheet writeSheet = EasyExcel.writerSheet("分类数据").build();
+                rows = forEachCategoryExportPage(categoryExportRequest, page -> excelWriter.write(page, writeSheet), progress);
+            } catch (RuntimeException e) {
+                FileUtil.del(filePath);
+                throw e;
+            }
         }
 
-        if (CollUtil.isEmpty(categoriesToExport)) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "没有可导出的分类数据");
+        if (rows == 0) {
+            FileUtil.del(filePath);
+            throw new BusinessException(ErrorCode.DATA_NOT_FOUND, "没有可导出的分类数据");
         }
+        log.info("分类导出完成: 格式={}, 行数={}, 文件={}", format, rows, filePath);
+        return filePath;
+    }
 
-        // 3. 根据导出格式处理数据
-        String format = categoryExportRequest.getFormat();
-        if (StrUtil.isBlank(format)) {
-            format = "xlsx";
+    /**
+     * 按页读取待导出的分类并交给写入方：导出全部时按ID游标翻页，指定ID时按ID分批查询
+     *
+     * @param categoryExportRequest 分类导出请求
+     * @param writer                每页导出行的写入方
+     * @param progress              已写入行数回调
+     * @return 导出行数
+     */
+    private long forEachCategoryExportPage(CategoryExportRequest categoryExportRequest,
+                                           Consumer<List<CategoryExcelVO>> writer, LongConsumer progress) {
+        long rows = 0;
+        if (Boolean.TRUE.equals(categoryExportRequest.getExportAll())) {
+            Long lastId = null;
+            while (true) {
+                List<Category> page = categoryMapper.listCategoriesForExport(null, lastId, EXPORT_PAGE_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+                writer.accept(toCategoryExcelVOList(page));
+                rows += page.size();
+                progress.accept(rows);
+                if (page.size() < EXPORT_PAGE_SIZE) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } else {
+            for (List<Long> batch : CollUtil.split(distinctExportIds(categoryExportRequest), EXPORT_PAGE_SIZE)) {
+                List<Category> page = categoryMapper.listCategoriesForExport(batch, null, batch.size());
+                if (page.isEmpty()) {
+                    continue;
+                }
+                writer.accept(toCategoryExcelVOList(page));
+                rows += page.size();
+                progress.accept(rows);
+            }
         }
+        return rows;
+    }
 
-        // 这里应该调用文件处理服务，将分类数据导出为指定格式的文件
-        // 由于涉及到实际的文件处理逻辑，这里只做模拟
-        String fileUrl = "/api/download/categories_" + System.currentTimeMillis() + "." + format;
+    /**
+     * 去重并排序后的指定导出分类ID
+     */
+    private List<Long> distinctExportIds(CategoryExportRequest categoryExportRequest) {
+        return categoryExportRequest.getIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
 
-        return fileUrl;
+    /**
+     * 转换为导出行，父分类名称从分类树快照读取，用户名按页批量查询
+     */
+    private List<CategoryExcelVO> toCategoryExcelVOList(List<Category> page) {
+        Set<Long> userIds = new HashSet<>();
+        for (Category category : page) {
+            if (category.getCreateUser() != null) {
+                userIds.add(category.getCreateUser());
+            }
+            if (category.getUpdateUser() != null) {
+                userIds.add(category.getUpdateUser());
+            }
+        }
+        Map<Long, String> usernames = userIds.isEmpty() ? Collections.emptyMap()
+                : userMapper.selectByIds(userIds).stream()
+                .filter(user -> user.getUsername() != null)
+                .collect(Collectors.toMap(User::getId, User::getUsername, (a, b) -> a));
+
+        CategoryTreeSnapshot categoryTree = categoryTreeManager.current();
+        List<CategoryExcelVO> rows = new ArrayList<>(page.size());
+        for (Category category : page) {
+            CategoryExcelVO row = CategoryConvert.INSTANCE.toCategoryExcelVO(category);
+            row.setParentName(categoryTree.getName(category.getParentId()));
+            row.setCreateUsername(usernames.get(category.getCreateUser()));
+            row.setUpdateUsername(usernames.get(category.getUpdateUser()));
+            rows.add(row);
+        }
+        return rows;
     }
 
     /**
@@ -1067,13 +1206,9 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public List<CategoryVO> listCategoriesByType(String type) {
-        // 1. 查询指定类型的所有分类
-        List<Category> categories = categoryMapper.selectByType(type);
-
-        // 过滤掉已删除的分类
-        categories = categories.stream()
-                .filter(category -> !Boolean.TRUE.equals(category.getIsDeleted()))
-                .collect(Collectors.toList());
+        // 1. 从分类树快照中取指定类型的所有分类（快照只包含未删除的分类）
+        CategoryTreeSnapshot categoryTree = categoryTreeManager.current();
+        List<Category> categories = categoryTree.listCategories(type);
 
         if (CollUtil.isEmpty(categories)) {
             return Collections.emptyList();
@@ -1097,14 +1232,12 @@ public class CategoryServiceImpl implements CategoryService {
             }
         }
 
-        // 3. 批量查询父分类
+        // 3. 从快照中取父分类名称
         Map<Long, String> parentNameMap = new HashMap<>();
-        if (!parentIds.isEmpty()) {
-            for (Long parentId : parentIds) {
-                Category parentCategory = categoryMapper.selectById(parentId);
-                if (ObjectUtil.isNotNull(parentCategory) && !Boolean.TRUE.equals(parentCategory.getIsDeleted())) {
-                    parentNameMap.put(parentId, parentCategory.getName());
-                }
+        for (Long parentId : parentIds) {
+            String parentName = categoryTree.getName(parentId);
+            if (ObjectUtil.isNotNull(parentName)) {
+                parentNameMap.put(parentId, parentName);
             }
         }
 
@@ -1123,11 +1256,13 @@ public class CategoryServiceImpl implements CategoryService {
 
         // 5. 使用MapStruct进行基本转换
         List<CategoryVO> categoryVOList = CategoryConvert.INSTANCE.toCategoryVOList(categories);
+        Map<Long, Integer> contentCounts = loadContentCounts(type);
 
         // 6. 补充额外信息
         for (int i = 0; i < categories.size(); i++) {
             Category category = categories.get(i);
             CategoryVO categoryVO = categoryVOList.get(i);
+            categoryVO.setContentCount(contentCounts.getOrDefault(category.getId(), 0));
 
             // 设置父分类名称
             if (category.getParentId() != null && category.getParentId() > 0) {
@@ -1194,47 +1329,59 @@ public class CategoryServiceImpl implements CategoryService {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "参数不能为空");
         }
 
-        // 2. 检查分类是否存在
+        // 2. 更新分类及其所有父分类的内容数量（分类树快照不含内容数量，无需刷新）
+        return incrementContentCount(categoryId, increment);
+    }
+
+    /**
+     * 查询分类内容数量
+     *
+     * @param type 分类类型，为空时查询全部
+     * @return 分类ID -> 内容数量
+     */
+    private Map<Long, Integer> loadContentCounts(String type) {
+        Map<Long, Integer> contentCounts = new HashMap<>();
+        for (Category category : categoryMapper.selectContentCounts(type)) {
+            contentCounts.put(category.getId(), category.getContentCount() == null ? 0 : category.getContentCount());
+        }
+        return contentCounts;
+    }
+
+    /**
+     * 更新分类内容数量，并递归更新父分类
+     */
+    private boolean incrementContentCount(Long categoryId, Integer increment) {
+        // 1. 检查分类是否存在
         Category category = categoryMapper.selectById(categoryId);
         if (ObjectUtil.isNull(category) || Boolean.TRUE.equals(category.getIsDeleted())) {
             throw new BusinessException(ErrorCode.CATEGORY_NOT_FOUND, "分类不存在");
         }
 
-        // 3. 更新内容数量
+        // 2. 更新内容数量
         LocalDateTime now = LocalDateTime.now();
         int result = categoryMapper.updateContentCount(categoryId, increment, now);
 
-        // 4. 如果有父分类，递归更新父分类的内容数量
+        // 3. 如果有父分类，递归更新父分类的内容数量
         if (category.getParentId() != null && category.getParentId() > 0) {
-            updateCategoryContentCount(category.getParentId(), increment);
+            incrementContentCount(category.getParentId(), increment);
         }
 
         return result > 0;
     }
 
     /**
-     * 递归获取所有子分类ID
+     * 获取所有子分类ID
      *
      * @param categoryId 分类ID
      * @return 子分类ID列表(包含自身)
      */
     @Override
     public List<Long> getAllChildCategoryIds(Long categoryId) {
-        List<Long> result = new ArrayList<>();
+        Set<Long> descendantIds = categoryTreeManager.current().getDescendantIds(categoryId);
+        List<Long> result = new ArrayList<>(descendantIds.size() + 1);
         // 添加自身
         result.add(categoryId);
-
-        // 查询直接子分类
-        List<Category> children = categoryMapper.selectByParentId(categoryId);
-        if (CollUtil.isNotEmpty(children)) {
-            for (Category child : children) {
-                if (!Boolean.TRUE.equals(child.getIsDeleted())) {
-                    // 递归获取子分类的子分类
-                    result.addAll(getAllChildCategoryIds(child.getId()));
-                }
-            }
-        }
-
+        result.addAll(descendantIds);
         return result;
     }
-}
\ No newline at end of file
+}
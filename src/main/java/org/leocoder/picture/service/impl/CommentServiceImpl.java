@@ -5,16 +5,21 @@ import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.leocoder.picture.common.PageRequest;
+import org.leocoder.picture.cache.CommentTreeCache;
+import org.leocoder.picture.cache.UserProfileCache;
 import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.common.PageUtils;
 import org.leocoder.picture.domain.dto.comment.AdminCommentQueryRequest;
 import org.leocoder.picture.domain.dto.comment.CommentAddRequest;
+import org.leocoder.picture.domain.dto.comment.CommentCursor;
 import org.leocoder.picture.domain.dto.comment.CommentReplyAddRequest;
 import org.leocoder.picture.domain.mapstruct.CommentConvert;
+import org.leocoder.picture.domain.mapstruct.UserConvert;
 import org.leocoder.picture.domain.pojo.Comment;
 import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.comment.CommentCursorPageVO;
 import org.leocoder.picture.domain.vo.comment.CommentVO;
+import org.leocoder.picture.domain.vo.user.UserVO;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
 import org.leocoder.picture.exception.ThrowUtils;
@@ -49,6 +54,10 @@ public class CommentServiceImpl implements CommentService {
 
     private final SnowflakeIdGenerator snowflakeIdGenerator;
 
+    private final UserProfileCache userProfileCache;
+
+    private final CommentTreeCache commentTreeCache;
+
     /**
      * 添加评论
      *
@@ -96,6 +105,7 @@ public class CommentServiceImpl implements CommentService {
             // 插入数据库
             int result = commentMapper.insertWithId(comment);
             ThrowUtils.throwIf(result <= 0, ErrorCode.OPERATION_ERROR, "评论失败");
+            commentTreeCache.invalidate(contentType, contentId);
 
             log.info("用户 {} 添加评论成功, ID: {}", userId, comment.getId());
             return comment.getId();
@@ -173,6 +183,7 @@ public class CommentServiceImpl implements CommentService {
             if (!parentId.equals(rootId)) {
                 commentMapper.incrementReplyCount(rootId);
             }
+            commentTreeCache.invalidate(reply.getContentType(), reply.getContentId());
 
             log.info("用户 {} 添加评论回复成功, ID: {}", userId, reply.getId());
             return reply.getId();
@@ -222,6 +233,7 @@ public class CommentServiceImpl implements CommentService {
                     commentMapper.decrementReplyCount(comment.getRootId());
                 }
             }
+            commentTreeCache.invalidate(comment.getContentType(), comment.getContentId());
 
             log.info("用户 {} 删除评论成功, 评论ID: {}", userId, commentId);
             return true;
@@ -232,38 +244,29 @@ public class CommentServiceImpl implements CommentService {
     }
 
     /**
-     * 获取内容的评论列表（一级评论）
+     * 按游标分页获取内容的评论列表（一级评论）
+     * 以上一页最后一条评论的（是否置顶、创建时间、ID）为起点向后取一页，多取一条判断是否还有下一页，不统计总数
      *
      * @param contentType 内容类型
      * @param contentId 内容ID
-     * @param page 页码
+     * @param cursor 上一页返回的游标，第一页为空
      * @param size 每页大小
-     * @return 评论列表
+     * @return 评论列表及下一页游标
      */
     @Override
-    public List<CommentVO> getContentComments(String contentType, Long contentId, Integer page, Integer size) {
+    public CommentCursorPageVO getContentComments(String contentType, Long contentId, String cursor, Integer size) {
         // 参数校验
         ThrowUtils.throwIf(StrUtil.isBlank(contentType), ErrorCode.PARAMS_ERROR, "内容类型不能为空");
         ThrowUtils.throwIf(ObjectUtil.isNull(contentId) || contentId <= 0, ErrorCode.PARAMS_ERROR, "内容ID不能为空");
+        CommentCursor commentCursor = CommentCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
 
         try {
-            // 创建一个简单的分页请求对象
-            PageRequest pageRequest = new PageRequest();
-            pageRequest.setPageNum(ObjectUtil.isNull(page) || page < 1 ? 1 : page);
-            pageRequest.setPageSize(ObjectUtil.isNull(size) || size < 1 || size > 100 ? 10 : size);
-
-            // 使用PageUtils进行分页查询
-            PageResult<CommentVO> pageResult = PageUtils.doPage(
-                    pageRequest,
-                    () -> commentMapper.selectContentComments(
-                            contentType,
-                            contentId
-                    ),
-                    this::convertToCommentVO
-            );
-
-            log.info("获取内容评论成功: 内容类型={}, 内容ID={}, 评论数={}", contentType, contentId, pageResult.getRecords().size());
-            return pageResult.getRecords();
+            List<Comment> comments = commentMapper.selectContentCommentsByCursor(contentType, contentId, commentCursor, pageSize + 1);
+            CommentCursorPageVO page = toCursorPage(comments, pageSize);
+
+            log.info("获取内容评论成功: 内容类型={}, 内容ID={}, 评论数={}", contentType, contentId, page.getRecords().size());
+            return page;
         } catch (Exception e) {
             log.error("获取内容评论失败", e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "获取评论失败: " + e.getMessage());
@@ -271,12 +274,19 @@ public class CommentServiceImpl implements CommentService {
     }
 
     /**
-     * 获取评论的回复列表
+     * 按游标分页获取评论的回复列表
+     *
+     * @param commentId 评论ID
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param size 每页大小
+     * @return 评论回复列表及下一页游标
      */
     @Override
-    public List<CommentVO> getCommentReplies(Long commentId, Integer page, Integer size) {
+    public CommentCursorPageVO getCommentReplies(Long commentId, String cursor, Integer size) {
         // 参数校验
         ThrowUtils.throwIf(ObjectUtil.isNull(commentId) || commentId <= 0, ErrorCode.PARAMS_ERROR, "评论ID不能为空");
+        CommentCursor commentCursor = CommentCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
 
         // 查询评论是否存在
         Comment comment = commentMapper.selectById(commentId);
@@ -286,25 +296,56 @@ public class CommentServiceImpl implements CommentService {
         Long rootId = ObjectUtil.isNotNull(comment.getRootId()) ? comment.getRootId() : comment.getId();
 
         try {
-            // 创建一个简单的分页请求对象
-            PageRequest pageRequest = new PageRequest();
-            pageRequest.setPageNum(ObjectUtil.isNull(page) || page < 1 ? 1 : page);
-            pageRequest.setPageSize(ObjectUtil.isNull(size) || size < 1 || size > 100 ? 10 : size);
-
-            // 使用PageUtils进行分页查询，PageHelper会自动处理分页
-            PageResult<CommentVO> pageResult = PageUtils.doPage(
-                    pageRequest,
-                    () -> commentMapper.selectCommentReplies(rootId),
-                    this::convertToCommentVO
-            );
-
-            log.info("获取评论回复成功: 评论ID={}, 回复数={}", commentId, pageResult.getRecords().size());
-            return pageResult.getRecords();
+            List<Comment> replies = commentMapper.selectCommentRepliesByCursor(rootId, commentCursor, pageSize + 1);
+            CommentCursorPageVO page = toCursorPage(replies, pageSize);
+
+            log.info("获取评论回复成功: 评论ID={}, 回复数={}", commentId, page.getRecords().size());
+            return page;
         } catch (Exception e) {
             log.error("获取评论回复失败", e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "获取回复失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 规范每页大小，默认10条，最多100条
+     */
+    private int normalizePageSize(Integer size) {
+        return ObjectUtil.isNull(size) || size < 1 || size > 100 ? 10 : size;
+    }
+
+    /**
+     * 将多取一条的查询结果转换为游标分页结果，并批量填充用户信息
+     *
+     * @param comments 查询结果（最多 pageSize + 1 条）
+     * @param pageSize 每页大小
+     * @return 游标分页结果
+     */
+    private CommentCursorPageVO toCursorPage(List<Comment> comments, int pageSize) {
+        boolean hasMore = comments.size() > pageSize;
+        List<Comment> pageComments = hasMore ? comments.subList(0, pageSize) : comments;
+
+        Set<Long> userIds = new HashSet<>();
+        for (Comment comment : pageComments) {
+            if (comment.getCreateUser() != null) {
+                userIds.add(comment.getCreateUser());
+            }
+            if (comment.getReplyUserId() != null) {
+                userIds.add(comment.getReplyUserId());
+            }
+        }
+        Map<Long, UserVO> userMap = batchGetUserVOs(userIds);
+        List<CommentVO> records = pageComments.stream()
+                .map(comment -> toCommentVO(comment, userMap))
+                .collect(Collectors.toList());
+
+        return CommentCursorPageVO.builder()
+                .records(records)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? CommentCursor.of(pageComments.get(pageSize - 1)).encode() : null)
+                .build();
+    }
+
     /**
      * 根据ID获取评论
      *
@@ -349,6 +390,7 @@ public class CommentServiceImpl implements CommentService {
         try {
             int result = commentMapper.updateByPrimaryKeySelective(updateComment);
             ThrowUtils.throwIf(result <= 0, ErrorCode.OPERATION_ERROR, "更新评论状态失败");
+            commentTreeCache.invalidate(comment.getContentType(), comment.getContentId());
 
             log.info("评论状态更新成功: 评论ID={}, 状态={}, 审核人={}", commentId, status, reviewUserId);
             return true;
@@ -358,38 +400,6 @@ public class CommentServiceImpl implements CommentService {
         }
     }
 
-    /**
-     * 将评论实体转换为VO，并填充用户信息
-     *
-     * @param comment 评论实体
-     * @return 评论VO
-     */
-    private CommentVO convertToCommentVO(Comment comment) {
-        if (ObjectUtil.isNull(comment)) {
-            return null;
-        }
-
-        // 使用MapStruct转换为VO
-        CommentVO commentVO = CommentConvert.INSTANCE.toCommentVO(comment);
-
-        try {
-            // 填充评论者信息
-            if (ObjectUtil.isNotNull(comment.getCreateUser())) {
-                commentVO.setUser(userService.getUserById(comment.getCreateUser()));
-            }
-
-            // 填充被回复者信息
-            if (ObjectUtil.isNotNull(comment.getReplyUserId())) {
-                commentVO.setReplyUser(userService.getUserById(comment.getReplyUserId()));
-            }
-        } catch (Exception e) {
-            log.warn("获取评论用户信息失败: commentId={}", comment.getId(), e);
-        }
-
-        return commentVO;
-    }
-
-
     /**
      * 管理员分页查询评论列表
      *
@@ -448,6 +458,8 @@ public class CommentServiceImpl implements CommentService {
         try {
             // 批量逻辑删除评论
             int result = commentMapper.batchLogicDeleteComments(ids, userId);
+            // 批量删除可能涉及多个内容，直接清空评论树缓存
+            commentTreeCache.invalidateAll();
 
             log.info("批量删除评论成功: 用户ID={}, 评论ID列表={}, 影响行数={}", userId, ids, result);
             return true;
@@ -493,6 +505,7 @@ public class CommentServiceImpl implements CommentService {
         try {
             int result = commentMapper.updateByPrimaryKeySelective(updateComment);
             ThrowUtils.throwIf(result <= 0, ErrorCode.OPERATION_ERROR, "更新评论置顶状态失败");
+            commentTreeCache.invalidate(comment.getContentType(), comment.getContentId());
 
             log.info("更新评论置顶状态成功: 评论ID={}, 置顶状态={}, 操作用户={}", commentId, isTop, userId);
             return true;
@@ -532,6 +545,7 @@ public class CommentServiceImpl implements CommentService {
         try {
             int result = commentMapper.updateByPrimaryKeySelective(updateComment);
             ThrowUtils.throwIf(result <= 0, ErrorCode.OPERATION_ERROR, "更新评论热门状态失败");
+            commentTreeCache.invalidate(comment.getContentType(), comment.getContentId());
 
             log.info("更新评论热门状态成功: 评论ID={}, 热门状态={}, 操作用户={}", commentId, isHot, userId);
             return true;
@@ -544,6 +558,7 @@ public class CommentServiceImpl implements CommentService {
 
     /**
      * 获取内容的评论树结构
+     * 整棵树按内容缓存，未命中时一次查询根评论、一次查询全部回复、一次批量加载用户信息后构建
      *
      * @param contentType 内容类型
      * @param contentId 内容ID
@@ -556,76 +571,119 @@ public class CommentServiceImpl implements CommentService {
         ThrowUtils.throwIf(ObjectUtil.isNull(contentId) || contentId <= 0, ErrorCode.PARAMS_ERROR, "内容ID不能为空");
 
         try {
-            // 1. 获取所有根评论（一级评论）
-            List<Comment> rootComments = commentMapper.selectContentComments(contentType, contentId);
-            if (CollUtil.isEmpty(rootComments)) {
-                return new ArrayList<>();
-            }
-
-            // 2. 提取根评论ID
-            Set<Long> rootIds = rootComments.stream()
-                    .map(Comment::getId)
-                    .collect(Collectors.toSet());
-
-            // 3. 获取这些根评论下的所有回复
-            List<Comment> allReplies = new ArrayList<>();
-            if (!rootIds.isEmpty()) {
-                allReplies = commentMapper.selectAllRepliesByRootIds(rootIds);
-            }
-
-            // 4. 构建评论树
-            return buildCommentTree(rootComments, allReplies);
+            return commentTreeCache.get(contentType, contentId, () -> loadCommentTree(contentType, contentId));
         } catch (Exception e) {
             log.error("获取评论树失败", e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "获取评论失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 从数据库加载评论树
+     *
+     * @param contentType 内容类型
+     * @param contentId 内容ID
+     * @return 评论树
+     */
+    private List<CommentVO> loadCommentTree(String contentType, Long contentId) {
+        // 1. 获取所有根评论（一级评论）
+        List<Comment> rootComments = commentMapper.selectContentComments(contentType, contentId);
+        if (CollUtil.isEmpty(rootComments)) {
+            return new ArrayList<>();
+        }
+
+        // 2. 提取根评论ID
+        Set<Long> rootIds = rootComments.stream()
+                .map(Comment::getId)
+                .collect(Collectors.toSet());
+
+        // 3. 获取这些根评论下的所有回复
+        List<Comment> allReplies = commentMapper.selectAllRepliesByRootIds(rootIds);
+
+        // 4. 构建评论树
+        return buildCommentTree(rootComments, allReplies);
+    }
+
     /**
      * 构建评论树
+     * 先批量加载评论者和被回复者信息，再按ID索引一次遍历挂载子评论，父评论已删除的回复不展示
      *
      * @param rootComments 根评论列表
-     * @param allReplies 所有回复
+     * @param allReplies 所有回复（按创建时间升序）
      * @return 评论树
      */
     private List<CommentVO> buildCommentTree(List<Comment> rootComments, List<Comment> allReplies) {
-        // 1. 将所有回复按parentId分组
-        Map<Long, List<Comment>> replyMap = allReplies.stream()
-                .collect(Collectors.groupingBy(Comment::getParentId));
-
-        // 2. 递归构建评论树
-        return rootComments.stream()
-                .map(root -> {
-                    CommentVO rootVO = convertToCommentVO(root);
-                    rootVO.setChildren(buildChildrenTree(root.getId(), replyMap));
-                    return rootVO;
-                })
-                .collect(Collectors.toList());
+        // 1. 批量加载所有评论者和被回复者
+        Set<Long> userIds = new HashSet<>();
+        for (List<Comment> comments : Arrays.asList(rootComments, allReplies)) {
+            for (Comment comment : comments) {
+                if (comment.getCreateUser() != null) {
+                    userIds.add(comment.getCreateUser());
+                }
+                if (comment.getReplyUserId() != null) {
+                    userIds.add(comment.getReplyUserId());
+                }
+            }
+        }
+        Map<Long, UserVO> userMap = batchGetUserVOs(userIds);
+
+        // 2. 按ID索引所有评论节点
+        Map<Long, CommentVO> nodeMap = new HashMap<>(rootComments.size() + allReplies.size());
+        List<CommentVO> tree = new ArrayList<>(rootComments.size());
+        for (Comment root : rootComments) {
+            CommentVO rootVO = toCommentVO(root, userMap);
+            nodeMap.put(root.getId(), rootVO);
+            tree.add(rootVO);
+        }
+        List<CommentVO> replyVOs = new ArrayList<>(allReplies.size());
+        for (Comment reply : allReplies) {
+            CommentVO replyVO = toCommentVO(reply, userMap);
+            nodeMap.put(reply.getId(), replyVO);
+            replyVOs.add(replyVO);
+        }
+
+        // 3. 将回复挂到父评论下，保持创建时间顺序
+        for (CommentVO replyVO : replyVOs) {
+            CommentVO parent = nodeMap.get(replyVO.getParentId());
+            if (parent != null) {
+                parent.getChildren().add(replyVO);
+            }
+        }
+        return tree;
     }
 
     /**
-     * 递归构建子评论树
-     *
-     * @param parentId 父评论ID
-     * @param replyMap 回复映射
-     * @return 子评论树
+     * 批量获取用户信息，已删除的用户不展示
      */
-    private List<CommentVO> buildChildrenTree(Long parentId, Map<Long, List<Comment>> replyMap) {
-        // 获取当前父评论下的直接回复
-        List<Comment> children = replyMap.getOrDefault(parentId, Collections.emptyList());
-
-        // 如果没有直接回复，返回空列表
-        if (children.isEmpty()) {
-            return Collections.emptyList();
+    private Map<Long, UserVO> batchGetUserVOs(Collection<Long> userIds) {
+        Map<Long, UserVO> result = new HashMap<>();
+        if (CollUtil.isEmpty(userIds)) {
+            return result;
+        }
+        try {
+            // 优先读取本地用户缓存，未命中的用户合并为一次批量查询
+            userProfileCache.getAll(userIds).forEach((userId, user) -> {
+                if (user.getIsDeleted() == null || user.getIsDeleted() != 1) {
+                    result.put(userId, UserConvert.INSTANCE.toUserVO(user));
+                }
+            });
+        } catch (Exception e) {
+            log.warn("批量获取评论用户信息失败: {}", e.getMessage());
         }
+        return result;
+    }
 
-        // 递归构建每个子评论的子树
-        return children.stream()
-                .map(child -> {
-                    CommentVO childVO = convertToCommentVO(child);
-                    childVO.setChildren(buildChildrenTree(child.getId(), replyMap));
-                    return childVO;
-                })
-                .collect(Collectors.toList());
+    /**
+     * 将评论实体转换为VO，从预加载的用户信息中填充评论者和被回复者
+     */
+    private CommentVO toCommentVO(Comment comment, Map<Long, UserVO> userMap) {
+        CommentVO commentVO = CommentConvert.INSTANCE.toCommentVO(comment);
+        if (comment.getCreateUser() != null) {
+            commentVO.setUser(userMap.get(comment.getCreateUser()));
+        }
+        if (comment.getReplyUserId() != null) {
+            commentVO.setReplyUser(userMap.get(comment.getReplyUserId()));
+        }
+        return commentVO;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package org.leocoder.picture.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.poi.excel.ExcelUtil;
-import cn.hutool.poi.excel.ExcelWriter;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.leocoder.picture.common.PageResult;
@@ -13,11 +15,17 @@ import org.leocoder.picture.domain.dto.log.LoginLogQueryRequest;
 import org.leocoder.picture.domain.mapstruct.LoginLogConvert;
 import org.leocoder.picture.domain.pojo.LoginLog;
 import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
+import org.leocoder.picture.domain.vo.log.LoginLogExcelVO;
 import org.leocoder.picture.domain.vo.log.LoginLogVO;
 import org.leocoder.picture.domain.vo.log.LoginStatisticsVO;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
+import org.leocoder.picture.exception.ThrowUtils;
+import org.leocoder.picture.manager.export.ExportJob;
+import org.leocoder.picture.manager.export.ExportJobExecutor;
 import org.leocoder.picture.mapper.LoginLogMapper;
+import org.leocoder.picture.mapper.UserMapper;
 import org.leocoder.picture.service.LoginLogService;
 import org.leocoder.picture.service.UserService;
 import org.leocoder.picture.utils.UserContext;
@@ -25,9 +33,12 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.File;
+import javax.servlet.http.HttpServletResponse;
+
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 
 /**
  * @author : 程序员Leo
@@ -44,6 +55,22 @@ public class LoginLogServiceImpl implements LoginLogService {
 
     private final UserService userService;
 
+    private final UserMapper userMapper;
+
+    private final ExportJobExecutor exportJobExecutor;
+
+    // 导出任务类型
+    private static final String EXPORT_TYPE = "LOGIN_LOG";
+
+    // 导出时每页读取的日志数量
+    private static final int EXPORT_PAGE_SIZE = 1000;
+
+    // 每个工作表最多写入的行数（xlsx单表上限为1048576行，含表头）
+    private static final int EXPORT_SHEET_MAX_ROWS = 1_000_000;
+
+    // Excel单元格最大字符数
+    private static final int EXCEL_CELL_MAX_LENGTH = 32767;
+
 
     /**
      * 设置登录日志VO的用户相关信息
@@ -191,69 +218,128 @@ public class LoginLogServiceImpl implements LoginLogService {
      */
     @Override
     public String exportLoginLogs(LoginLogQueryRequest queryRequest) {
-        // 查询数据
-        List<LoginLog> logList;
-        if (ObjectUtil.isNull(queryRequest) || Boolean.TRUE.equals(queryRequest.getExportAll())) {
-            // 导出全部（不分页）
-            logList = loginLogMapper.listAllLoginLogs(queryRequest);
-        } else {
-            // 根据条件查询（不分页）
-            logList = loginLogMapper.listLoginLogsByPage(queryRequest, null, null);
-        }
+        String filePath = writeLoginLogExcel(queryRequest, rows -> {
+        });
+        return exportJobExecutor.register(EXPORT_TYPE, UserContext.getUserId(), filePath);
+    }
 
-        if (CollUtil.isEmpty(logList)) {
-            throw new BusinessException(ErrorCode.DATA_NOT_FOUND, "没有符合条件的日志数据");
-        }
 
-        // 使用MapStruct批量转换
-        List<LoginLogVO> exportList = LoginLogConvert.INSTANCE.toLoginLogVOList(logList);
+    /**
+     * 提交登录日志异步导出任务
+     *
+     * @param queryRequest 查询参数
+     * @return 任务ID
+     */
+    @Override
+    public String submitLoginLogExport(LoginLogQueryRequest queryRequest) {
+        return exportJobExecutor.submit(EXPORT_TYPE, UserContext.getUserId(), job -> {
+            job.start(ObjectUtil.defaultIfNull(loginLogMapper.countLoginLogs(queryRequest), 0L));
+            return writeLoginLogExcel(queryRequest, job::setExported);
+        });
+    }
+
+
+    /**
+     * 查询登录日志导出任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @Override
+    public ExportProgressVO getLoginLogExportProgress(String jobId) {
+        ExportJob job = exportJobExecutor.getJob(jobId);
+        ThrowUtils.throwIf(job == null || !EXPORT_TYPE.equals(job.getType()), ErrorCode.NOT_FOUND_ERROR, "导出任务不存在或已过期");
+        return job.toProgressVO();
+    }
 
-        // 补充用户信息
-        for (int i = 0; i < logList.size(); i++) {
-            setUserInfo(exportList.get(i), logList.get(i));
+
+    /**
+     * 下载登录日志导出文件
+     *
+     * @param jobId    任务ID
+     * @param response 响应
+     */
+    @Override
+    public void downloadLoginLogExport(String jobId, HttpServletResponse response) {
+        exportJobExecutor.download(jobId, EXPORT_TYPE, UserContext.getUserId(), response);
+    }
+
+
+    /**
+     * 流式导出登录日志：按游标分页读取，每页转换后立即写入Excel，内存占用与总行数无关
+     *
+     * @param queryRequest 查询参数
+     * @param progress     已写入行数回调
+     * @return 导出文件路径
+     */
+    private String writeLoginLogExcel(LoginLogQueryRequest queryRequest, LongConsumer progress) {
+        List<LoginLog> page = loginLogMapper.listLoginLogsForExport(queryRequest, null, null, EXPORT_PAGE_SIZE);
+        if (CollUtil.isEmpty(page)) {
+            throw new BusinessException(ErrorCode.DATA_NOT_FOUND, "没有符合条件的日志数据");
         }
 
-        // 生成Excel文件
-        String fileName = "登录日志_" + DateUtil.format(new java.util.Date(), "yyyyMMddHHmmss") + ".xlsx";
-        String filePath = System.getProperty("java.io.tmpdir") + File.separator + fileName;
-
-        // 使用Hutool的ExcelWriter
-        ExcelWriter writer = ExcelUtil.getWriter(filePath);
-
-        // 设置列宽
-        writer.setColumnWidth(0, 20);
-        writer.setColumnWidth(1, 20);
-        writer.setColumnWidth(2, 15);
-        writer.setColumnWidth(3, 20);
-        writer.setColumnWidth(4, 20);
-        writer.setColumnWidth(5, 20);
-        writer.setColumnWidth(6, 20);
-        writer.setColumnWidth(7, 15);
-        writer.setColumnWidth(8, 15);
-
-        // 设置表头
-        writer.addHeaderAlias("id", "日志ID");
-        writer.addHeaderAlias("userId", "用户ID");
-        writer.addHeaderAlias("username", "用户名");
-        writer.addHeaderAlias("loginTime", "登录时间");
-        writer.addHeaderAlias("logoutTime", "登出时间");
-        writer.addHeaderAlias("ip", "登录IP");
-        writer.addHeaderAlias("location", "登录地点");
-        writer.addHeaderAlias("device", "登录设备");
-        writer.addHeaderAlias("browser", "浏览器");
-        writer.addHeaderAlias("os", "操作系统");
-        writer.addHeaderAlias("status", "登录状态");
-        writer.addHeaderAlias("message", "登录消息");
-
-        // 写入数据
-        writer.write(exportList, true);
-        writer.close();
-
-        // 返回文件URL
+        String filePath = exportJobExecutor.newExportFilePath("登录日志", "xlsx");
+
+        long rows = 0;
+        try (ExcelWriter excelWriter = EasyExcel.write(filePath, LoginLogExcelVO.class).build()) {
+            int sheetNo = 0;
+            WriteSheet writeSheet = EasyExcel.writerSheet(sheetNo, "登录日志").build();
+            long sheetRows = 0;
+            while (true) {
+                // 单个工作表行数有上限，写满后换到新的工作表
+                if (sheetRows + page.size() > EXPORT_SHEET_MAX_ROWS) {
+                    sheetNo++;
+                    writeSheet = EasyExcel.writerSheet(sheetNo, "登录日志_" + (sheetNo + 1)).build();
+                    sheetRows = 0;
+                }
+                excelWriter.write(toLoginLogExcelVOList(page), writeSheet);
+                sheetRows += page.size();
+                rows += page.size();
+                progress.accept(rows);
+
+                LoginLog last = page.get(page.size() - 1);
+                // 时间为空的记录排在最后，到达后不再继续翻页
+                if (page.size() < EXPORT_PAGE_SIZE || last.getLoginTime() == null) {
+                    break;
+                }
+                page = loginLogMapper.listLoginLogsForExport(queryRequest, last.getLoginTime(), last.getId(), EXPORT_PAGE_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // 写入失败时删除不完整的文件
+            FileUtil.del(filePath);
+            throw e;
+        }
+        LoginLogServiceImpl.log.info("登录日志导出完成: 行数={}, 文件={}", rows, filePath);
         return filePath;
     }
 
 
+    /**
+     * 转换为导出行，用户名按页批量查询
+     */
+    private List<LoginLogExcelVO> toLoginLogExcelVOList(List<LoginLog> page) {
+        Set<Long> userIds = page.stream()
+                .map(LoginLog::getCreateBy)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> usernames = userIds.isEmpty() ? Collections.emptyMap()
+                : userMapper.selectByIds(userIds).stream()
+                .filter(user -> user.getUsername() != null)
+                .collect(Collectors.toMap(User::getId, User::getUsername, (a, b) -> a));
+
+        List<LoginLogExcelVO> rows = new ArrayList<>(page.size());
+        for (LoginLog item : page) {
+            LoginLogExcelVO row = LoginLogConvert.INSTANCE.toLoginLogExcelVO(item);
+            row.setUsername(usernames.get(item.getCreateBy()));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+
     /**
      * 保存登录日志
      *
@@ -1,10 +1,12 @@
 package org.leocoder.picture.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.poi.excel.ExcelUtil;
-import cn.hutool.poi.excel.ExcelWriter;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.leocoder.picture.common.PageResult;
@@ -13,11 +15,17 @@ import org.leocoder.picture.domain.dto.log.OperationLogQueryRequest;
 import org.leocoder.picture.domain.mapstruct.OperationLogConvert;
 import org.leocoder.picture.domain.pojo.OperationLog;
 import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.export.ExportProgressVO;
 import org.leocoder.picture.domain.vo.log.OperationLogStatisticsVO;
+import org.leocoder.picture.domain.vo.log.OperationLogExcelVO;
 import org.leocoder.picture.domain.vo.log.OperationLogVO;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
+import org.leocoder.picture.exception.ThrowUtils;
+import org.leocoder.picture.manager.export.ExportJob;
+import org.leocoder.picture.manager.export.ExportJobExecutor;
 import org.leocoder.picture.mapper.OperationLogMapper;
+import org.leocoder.picture.mapper.UserMapper;
 import org.leocoder.picture.service.OperationLogService;
 import org.leocoder.picture.service.UserService;
 import org.leocoder.picture.utils.UserContext;
@@ -25,11 +33,14 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.File;
+import javax.servlet.http.HttpServletResponse;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 
 /**
  * @author : 程序员Leo
@@ -46,6 +57,22 @@ public class OperationLogServiceImpl implements OperationLogService {
 
     private final UserService userService;
 
+    private final UserMapper userMapper;
+
+    private final ExportJobExecutor exportJobExecutor;
+
+    // 导出任务类型
+    private static final String EXPORT_TYPE = "OPERATION_LOG";
+
+    // 导出时每页读取的日志数量
+    private static final int EXPORT_PAGE_SIZE = 1000;
+
+    // 每个工作表最多写入的行数（xlsx单表上限为1048576行，含表头）
+    private static final int EXPORT_SHEET_MAX_ROWS = 1_000_000;
+
+    // Excel单元格最大字符数
+    private static final int EXCEL_CELL_MAX_LENGTH = 32767;
+
 
 
     /**
@@ -189,68 +216,130 @@ public class OperationLogServiceImpl implements OperationLogService {
 
     @Override
     public String exportOperationLogs(OperationLogQueryRequest queryRequest) {
-        // 查询数据
-        List<OperationLog> logList;
-        if (ObjectUtil.isNull(queryRequest) || Boolean.TRUE.equals(queryRequest.getExportAll())) {
-            // 导出全部（不分页）
-            logList = operationLogMapper.listAllOperationLogs(queryRequest);
-        } else {
-            // 根据条件查询（不分页）
-            logList = operationLogMapper.listOperationLogsByPage(queryRequest, null, null);
-        }
+        String filePath = writeOperationLogExcel(queryRequest, rows -> {
+        });
+        return exportJobExecutor.register(EXPORT_TYPE, UserContext.getUserId(), filePath);
+    }
 
-        if (CollUtil.isEmpty(logList)) {
-            throw new BusinessException(ErrorCode.DATA_NOT_FOUND, "没有符合条件的日志数据");
-        }
 
-        // 使用MapStruct批量转换
-        List<OperationLogVO> exportList = OperationLogConvert.INSTANCE.toOperationLogVOList(logList);
+    /**
+     * 提交操作日志异步导出任务
+     *
+     * @param queryRequest 查询参数
+     * @return 任务ID
+     */
+    @Override
+    public String submitOperationLogExport(OperationLogQueryRequest queryRequest) {
+        return exportJobExecutor.submit(EXPORT_TYPE, UserContext.getUserId(), job -> {
+            job.start(ObjectUtil.defaultIfNull(operationLogMapper.countOperationLogs(queryRequest), 0L));
+            return writeOperationLogExcel(queryRequest, job::setExported);
+        });
+    }
+
+
+    /**
+     * 查询操作日志导出任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @Override
+    public ExportProgressVO getOperationLogExportProgress(String jobId) {
+        ExportJob job = exportJobExecutor.getJob(jobId);
+        ThrowUtils.throwIf(job == null || !EXPORT_TYPE.equals(job.getType()), ErrorCode.NOT_FOUND_ERROR, "导出任务不存在或已过期");
+        return job.toProgressVO();
+    }
+
+
+    /**
+     * 下载操作日志导出文件
+     *
+     * @param jobId    任务ID
+     * @param response 响应
+     */
+    @Override
+    public void downloadOperationLogExport(String jobId, HttpServletResponse response) {
+        exportJobExecutor.download(jobId, EXPORT_TYPE, UserContext.getUserId(), response);
+    }
+
 
-        // 补充用户信息
-        for (int i = 0; i < logList.size(); i++) {
-            setUserInfo(exportList.get(i), logList.get(i));
+    /**
+     * 流式导出操作日志：按游标分页读取，每页转换后立即写入Excel，内存占用与总行数无关
+     *
+     * @param queryRequest 查询参数
+     * @param progress     已写入行数回调
+     * @return 导出文件路径
+     */
+    private String writeOperationLogExcel(OperationLogQueryRequest queryRequest, LongConsumer progress) {
+        List<OperationLog> page = operationLogMapper.listOperationLogsForExport(queryRequest, null, null, EXPORT_PAGE_SIZE);
+        if (CollUtil.isEmpty(page)) {
+            throw new BusinessException(ErrorCode.DATA_NOT_FOUND, "没有符合条件的日志数据");
         }
 
-        // 生成Excel文件
-        String fileName = "操作日志_" + DateUtil.format(new java.util.Date(), "yyyyMMddHHmmss") + ".xlsx";
-        String filePath = System.getProperty("java.io.tmpdir") + File.separator + fileName;
-
-        // 使用Hutool的ExcelWriter
-        ExcelWriter writer = ExcelUtil.getWriter(filePath);
-
-        // 设置列宽
-        writer.setColumnWidth(0, 20);
-        writer.setColumnWidth(1, 20);
-        writer.setColumnWidth(2, 15);
-        writer.setColumnWidth(3, 15);
-        writer.setColumnWidth(4, 30);
-        writer.setColumnWidth(5, 15);
-        writer.setColumnWidth(6, 15);
-        writer.setColumnWidth(7, 20);
-
-        // 设置表头
-        writer.addHeaderAlias("id", "日志ID");
-        writer.addHeaderAlias("userId", "用户ID");
-        writer.addHeaderAlias("username", "用户名");
-        writer.addHeaderAlias("module", "操作模块");
-        writer.addHeaderAlias("action", "操作类型");
-        writer.addHeaderAlias("method", "请求方法");
-        writer.addHeaderAlias("params", "请求参数");
-        writer.addHeaderAlias("time", "执行时长(ms)");
-        writer.addHeaderAlias("ip", "操作IP");
-        writer.addHeaderAlias("operationTime", "操作时间");
-        writer.addHeaderAlias("status", "操作状态");
-        writer.addHeaderAlias("errorMsg", "错误消息");
-
-        // 写入数据
-        writer.write(exportList, true);
-        writer.close();
-
-        // 返回文件URL（实际项目中可能需要上传到云存储）
+        String filePath = exportJobExecutor.newExportFilePath("操作日志", "xlsx");
+
+        long rows = 0;
+        try (ExcelWriter excelWriter = EasyExcel.write(filePath, OperationLogExcelVO.class).build()) {
+            int sheetNo = 0;
+            WriteSheet writeSheet = EasyExcel.writerSheet(sheetNo, "操作日志").build();
+            long sheetRows = 0;
+            while (true) {
+                // 单个工作表行数有上限，写满后换到新的工作表
+                if (sheetRows + page.size() > EXPORT_SHEET_MAX_ROWS) {
+                    sheetNo++;
+                    writeSheet = EasyExcel.writerSheet(sheetNo, "操作日志_" + (sheetNo + 1)).build();
+                    sheetRows = 0;
+                }
+                excelWriter.write(toOperationLogExcelVOList(page), writeSheet);
+                sheetRows += page.size();
+                rows += page.size();
+                progress.accept(rows);
+
+                OperationLog last = page.get(page.size() - 1);
+                // 时间为空的记录排在最后，到达后不再继续翻页
+                if (page.size() < EXPORT_PAGE_SIZE || last.getOperationTime() == null) {
+                    break;
+                }
+                page = operationLogMapper.listOperationLogsForExport(queryRequest, last.getOperationTime(), last.getId(), EXPORT_PAGE_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // 写入失败时删除不完整的文件
+            FileUtil.del(filePath);
+            throw e;
+        }
+        OperationLogServiceImpl.log.info("操作日志导出完成: 行数={}, 文件={}", rows, filePath);
         return filePath;
     }
 
 
+    /**
+     * 转换为导出行，用户名按页批量查询
+     */
+    private List<OperationLogExcelVO> toOperationLogExcelVOList(List<OperationLog> page) {
+        Set<Long> userIds = page.stream()
+                .map(OperationLog::getCreateBy)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> usernames = userIds.isEmpty() ? Collections.emptyMap()
+                : userMapper.selectByIds(userIds).stream()
+                .filter(user -> user.getUsername() != null)
+                .collect(Collectors.toMap(User::getId, User::getUsername, (a, b) -> a));
+
+        List<OperationLogExcelVO> rows = new ArrayList<>(page.size());
+        for (OperationLog item : page) {
+            OperationLogExcelVO row = OperationLogConvert.INSTANCE.toOperationLogExcelVO(item);
+            row.setUsername(usernames.get(item.getCreateBy()));
+            row.setParams(StrUtil.sub(row.getParams(), 0, EXCEL_CELL_MAX_LENGTH));
+            row.setErrorMsg(StrUtil.sub(row.getErrorMsg(), 0, EXCEL_CELL_MAX_LENGTH));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+
     /**
      * 保存操作日志
      *
@@ -1,6 +1,7 @@
 package org.leocoder.picture.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.ObjUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
@@ -13,6 +14,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.leocoder.picture.cache.PictureCacheManager;
+import org.leocoder.picture.cache.PictureWaterfallNearCache;
+import org.leocoder.picture.cache.UserProfileCache;
 import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.common.PageUtils;
 import org.leocoder.picture.constant.RedisKeyConstants;
@@ -21,11 +24,11 @@ import org.leocoder.picture.domain.dto.picture.*;
 import org.leocoder.picture.domain.dto.upload.UploadPictureResult;
 import org.leocoder.picture.domain.mapstruct.PictureConvert;
 import org.leocoder.picture.domain.mapstruct.UserConvert;
-import org.leocoder.picture.domain.message.PictureReactionMessage;
 import org.leocoder.picture.domain.pojo.Category;
 import org.leocoder.picture.domain.pojo.Picture;
 import org.leocoder.picture.domain.pojo.PictureHash;
 import org.leocoder.picture.domain.pojo.User;
+import org.leocoder.picture.domain.vo.picture.BatchUploadProgressVO;
 import org.leocoder.picture.domain.vo.picture.PictureStatisticsVO;
 import org.leocoder.picture.domain.vo.picture.PictureVO;
 import org.leocoder.picture.domain.vo.picture.PictureWaterfallVO;
@@ -34,14 +37,20 @@ import org.leocoder.picture.enums.PictureReviewStatusEnum;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
 import org.leocoder.picture.exception.ThrowUtils;
+import org.leocoder.picture.manager.category.CategoryTreeManager;
+import org.leocoder.picture.manager.category.CategoryTreeSnapshot;
 import org.leocoder.picture.manager.crawler.PictureCrawler;
+import org.leocoder.picture.manager.ContentRelationLoader;
+import org.leocoder.picture.manager.PictureLeaderboardManager;
+import org.leocoder.picture.manager.PictureViewCountAggregator;
 import org.leocoder.picture.manager.crawler.PictureCrawlerManager;
+import org.leocoder.picture.manager.upload.BatchUploadJob;
 import org.leocoder.picture.manager.upload.FilePictureUpload;
+import org.leocoder.picture.manager.upload.PictureBatchUploadExecutor;
 import org.leocoder.picture.manager.upload.PictureUploadTemplate;
 import org.leocoder.picture.manager.upload.UrlPictureUpload;
 import org.leocoder.picture.mapper.*;
 import org.leocoder.picture.service.*;
-import org.leocoder.picture.service.mq.MessageProducerService;
 import org.leocoder.picture.utils.SnowflakeIdGenerator;
 import org.leocoder.picture.utils.UserContext;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -50,6 +59,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -66,8 +77,6 @@ public class PictureServiceImpl implements PictureService {
 
     private final UserService userService;
 
-    private final UserMapper userMapper;
-
     private final PictureMapper pictureMapper;
 
     private final FilePictureUpload filePictureUpload;
@@ -88,6 +97,8 @@ public class PictureServiceImpl implements PictureService {
 
     private final CategoryService categoryService;
 
+    private final CategoryTreeManager categoryTreeManager;
+
     private final TagService tagService;
 
     private final PictureHashMapper pictureHashMapper;
@@ -96,10 +107,20 @@ public class PictureServiceImpl implements PictureService {
 
     private final RedisTemplate<String, Object> redisTemplate;
 
-    private final MessageProducerService messageProducerService;
+    private final PictureViewCountAggregator viewCountAggregator;
+
+    private final PictureLeaderboardManager leaderboardManager;
+
+    private final PictureBatchUploadExecutor batchUploadExecutor;
 
     private final PictureCacheManager pictureCacheManager;
 
+    private final PictureWaterfallNearCache waterfallNearCache;
+
+    private final ContentRelationLoader contentRelationLoader;
+
+    private final UserProfileCache userProfileCache;
+
     /**
      * 填充审核参数
      *
@@ -195,6 +216,7 @@ public class PictureServiceImpl implements PictureService {
 
             // 上传完成后清除相关缓存
             pictureCacheManager.invalidateAfterPictureUpload(loginUser.getId());
+            leaderboardManager.refreshPictures(Collections.singletonList(picture.getId()));
 
             return pictureVO;
         } catch (Exception e) {
@@ -274,7 +296,7 @@ public class PictureServiceImpl implements PictureService {
 
         try {
             // 获取并设置图片关联的分类信息 - 一张图片只关联一个分类
-            List<Long> categoryIds = categoryRelationService.getCategoryIdsByContent("picture", id);
+            List<Long> categoryIds = contentRelationLoader.loadCategoryIds("picture", id);
             if (CollUtil.isNotEmpty(categoryIds)) {
                 // 我们取列表中的第一个分类ID
                 Long categoryId = categoryIds.get(0);
@@ -292,7 +314,7 @@ public class PictureServiceImpl implements PictureService {
             }
 
             // 获取并设置图片关联的标签信息 - 一张图片可以关联多个标签
-            List<Long> tagIds = tagRelationService.getTagIdsByContent("picture", id);
+            List<Long> tagIds = contentRelationLoader.loadTagIds("picture", id);
             if (CollUtil.isNotEmpty(tagIds)) {
                 // 将所有标签ID转换为字符串列表
                 List<String> tagIdStrings = tagIds.stream()
@@ -335,6 +357,38 @@ public class PictureServiceImpl implements PictureService {
         return pictureVO;
     }
 
+    /**
+     * 按ID批量获取图片（只读，不累加浏览量）
+     *
+     * @param pictureIds 图片ID列表
+     * @return 图片列表，按传入顺序排列
+     */
+    @Override
+    public List<PictureVO> listPictureVOsByIds(List<Long> pictureIds) {
+        if (CollUtil.isEmpty(pictureIds)) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Picture> pictureMap = pictureMapper.selectByIds(pictureIds).stream()
+                .collect(Collectors.toMap(Picture::getId, picture -> picture));
+        List<Picture> pictureList = new ArrayList<>(pictureIds.size());
+        for (Long pictureId : pictureIds) {
+            Picture picture = pictureMap.get(pictureId);
+            if (picture != null && Objects.equals(picture.getReviewStatus(), PictureReviewStatusEnum.PASS.getValue())
+                    && !Objects.equals(picture.getIsDeleted(), 1)) {
+                pictureList.add(picture);
+            }
+        }
+        if (pictureList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 基础转换后统一批量填充分类、标签和作者信息
+        List<PictureVO> pictureVOList = PictureConvert.INSTANCE.toPictureVOList(pictureList);
+        enrichPictureVOList(pictureList, pictureVOList);
+        return pictureVOList;
+    }
+
     /**
      * 获取上一张图片
      *
@@ -525,56 +579,87 @@ public class PictureServiceImpl implements PictureService {
     }
 
     /**
-     * 增加图片浏览量（异步实现）
+     * 增加图片浏览量（内存聚合后批量写回）
      *
      * @param pictureId 图片ID
      */
     private void incrementViewCount(Long pictureId) {
-        try {
-            // 1. 立即更新Redis缓存，确保用户能立即看到最新浏览量
-            String viewCountKey = RedisConstants.getReactionCountKey(
-                    RedisConstants.TARGET_PICTURE, pictureId, RedisConstants.REACTION_VIEW);
-            redisTemplate.opsForValue().increment(viewCountKey, 1);
-            redisTemplate.expire(viewCountKey, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-
-            // 2. 构建消息并发送到RocketMQ进行异步处理
-            PictureReactionMessage message = PictureReactionMessage.builder()
-                    .pictureId(pictureId)
-                    .reactionType(RedisConstants.REACTION_VIEW)
-                    .operationType("add")
-                    .userId(UserContext.getUserId())
-                    .timestamp(System.currentTimeMillis())
-                    .build();
+        // 浏览量先在内存中聚合，由聚合器定时批量写入数据库和Redis
+        viewCountAggregator.record(pictureId);
+    }
 
-            // 3. 发送消息到RocketMQ
-            boolean sendResult = messageProducerService.sendPictureReactionMessage(message);
 
-            // 4. 发送失败则降级为同步更新
-            if (!sendResult) {
-                log.warn("发送浏览量增加消息失败，降级为同步更新: pictureId={}", pictureId);
-                pictureMapper.incrementViewCount(pictureId);
-            }
+
+    /**
+     * 批量抓取图片（同步执行，等待全部完成后返回）
+     *
+     * @param requestParam 批量抓取参数
+     * @param loginUser    登录用户
+     * @return 上传成功的图片数量
+     */
+    @Override
+    public int uploadPictureByBatch(PictureUploadByBatchRequest requestParam, User loginUser) {
+        PictureUploadByBatchRequest normalizedRequest = normalizeBatchRequest(requestParam, loginUser);
+        BatchUploadJob job = batchUploadExecutor.createJob(loginUser.getId());
+        try {
+            return executeUploadByBatch(normalizedRequest, loginUser, job);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("增加图片浏览量失败: pictureId={}, error={}", pictureId, e.getMessage(), e);
-            // 出现异常时，仍然尝试同步更新，确保基本功能可用
-            try {
-                pictureMapper.incrementViewCount(pictureId);
-            } catch (Exception ex) {
-                log.error("同步增加图片浏览量也失败: pictureId={}", pictureId, ex);
-            }
+            log.error("批量抓取图片失败", e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "批量抓取图片失败: " + e.getMessage());
         }
     }
 
-
     /**
-     * 批量抓取图片
+     * 提交批量抓取任务（异步执行）
      *
      * @param requestParam 批量抓取参数
      * @param loginUser    登录用户
-     * @return 上传成功的图片数量
+     * @return 任务ID
      */
     @Override
-    public int uploadPictureByBatch(PictureUploadByBatchRequest requestParam, User loginUser) {
+    public String submitUploadByBatchJob(PictureUploadByBatchRequest requestParam, User loginUser) {
+        PictureUploadByBatchRequest normalizedRequest = normalizeBatchRequest(requestParam, loginUser);
+        BatchUploadJob job = batchUploadExecutor.createJob(loginUser.getId());
+        batchUploadExecutor.submitJob(job, () -> {
+            // 任务线程中没有请求上下文，使用提交者身份执行
+            UserContext.setUser(loginUser);
+            try {
+                executeUploadByBatch(normalizedRequest, loginUser, job);
+            } catch (Exception e) {
+                log.error("批量抓取任务执行失败: jobId={}", job.getJobId(), e);
+            } finally {
+                UserContext.clear();
+            }
+        });
+        log.info("已提交批量抓取任务: jobId={}, searchText={}, count={}",
+                job.getJobId(), normalizedRequest.getSearchText(), normalizedRequest.getCount());
+        return job.getJobId();
+    }
+
+    /**
+     * 查询批量抓取任务进度
+     *
+     * @param jobId     任务ID
+     * @param loginUser 登录用户
+     * @return 任务进度
+     */
+    @Override
+    public BatchUploadProgressVO getUploadByBatchProgress(String jobId, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        BatchUploadJob job = batchUploadExecutor.getJob(jobId);
+        ThrowUtils.throwIf(job == null, ErrorCode.NOT_FOUND_ERROR, "任务不存在或已过期");
+        // 仅任务提交者或管理员可查看
+        ThrowUtils.throwIf(!job.getUserId().equals(loginUser.getId()) && !userService.isAdmin(loginUser),
+                ErrorCode.NO_AUTH_ERROR);
+        return job.toProgressVO();
+    }
+
+    /**
+     * 校验并补全批量抓取参数
+     */
+    private PictureUploadByBatchRequest normalizeBatchRequest(PictureUploadByBatchRequest requestParam, User loginUser) {
         // 基础校验
         ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
         ThrowUtils.throwIf(requestParam == null, ErrorCode.PARAMS_ERROR);
@@ -582,6 +667,9 @@ public class PictureServiceImpl implements PictureService {
         String searchText = requestParam.getSearchText();
         ThrowUtils.throwIf(StrUtil.isBlank(searchText), ErrorCode.PARAMS_ERROR, "搜索词不能为空");
 
+        PictureUploadByBatchRequest normalizedRequest = new PictureUploadByBatchRequest();
+        normalizedRequest.setSearchText(searchText);
+
         Integer count = requestParam.getCount();
         if (count == null || count <= 0) {
             count = 10;
@@ -590,200 +678,105 @@ public class PictureServiceImpl implements PictureService {
         if (count > 50) {
             count = 50;
         }
+        normalizedRequest.setCount(count);
+
+        // 默认随机选择抓取源
+        normalizedRequest.setSource(StrUtil.isBlank(requestParam.getSource()) ? "all" : requestParam.getSource());
+        // 默认使用搜索词作为前缀
+        normalizedRequest.setNamePrefix(StrUtil.isBlank(requestParam.getNamePrefix())
+                ? searchText : requestParam.getNamePrefix());
+        normalizedRequest.setCategoryId(requestParam.getCategoryId());
+        return normalizedRequest;
+    }
 
-        String source = requestParam.getSource();
-        if (StrUtil.isBlank(source)) {
-            // 默认随机选择抓取源
-            source = "all";
-        }
-
-        String namePrefix = requestParam.getNamePrefix();
-        if (StrUtil.isBlank(namePrefix)) {
-            // 默认使用搜索词作为前缀
-            namePrefix = searchText;
-        }
-
-        // 获取分类ID
+    /**
+     * 执行批量抓取：抓取 → 去重 → 并行下载并上传对象存储 → 按完成顺序依次入库
+     * 下载与上传在上传线程池中并行执行（同一来源主机限制并发），当前线程同时按序等待结果并写库，
+     * 先完成的图片不必等待整批下载结束即可入库
+     */
+    private int executeUploadByBatch(PictureUploadByBatchRequest requestParam, User loginUser, BatchUploadJob job) {
+        String searchText = requestParam.getSearchText();
+        int count = requestParam.getCount();
         Long categoryId = requestParam.getCategoryId();
 
         try {
+            job.startCrawling();
             // 获取抓取器
-            PictureCrawler crawler = pictureCrawlerManager.getCrawler(source);
+            PictureCrawler crawler = pictureCrawlerManager.getCrawler(requestParam.getSource());
             log.info("使用 {} 抓取源搜索 '{}', 数量: {}", crawler.getSourceName(), searchText, count);
 
-            // 查询数据库中已存在的URL哈希列表
-            Set<String> existingUrlHashes;
-            try {
-                existingUrlHashes = pictureHashMapper.getExistingUrlHashes(searchText, crawler.getSourceName());
-                log.info("该搜索词 '{}' 在 {} 源已存在 {} 张图片", searchText, crawler.getSourceName(), existingUrlHashes.size());
-            } catch (Exception e) {
-                log.error("查询已存在的URL哈希失败", e);
-                existingUrlHashes = new HashSet<>();
-            }
-
-            // 实际需要抓取的数量可能需要大于请求数量，因为会过滤重复项
-            // 增加一个倍数，确保即使过滤掉重复图片，仍然有足够的图片
-            int crawlCount = count * 3;
-
-            // 执行抓取，获取可能的图片列表
-            List<Map<String, Object>> pictureList = crawler.crawlPictures(searchText, crawlCount);
-            log.info("成功抓取 {} 张图片，开始过滤重复图片", pictureList.size());
-
-            // 如果未抓取到图片，返回0
-            if (pictureList.isEmpty()) {
-                log.warn("未抓取到任何图片");
+            // 1. 抓取并过滤已存在的图片
+            List<String> imageUrls = new ArrayList<>();
+            int duplicated = crawlNewImageUrls(crawler, searchText, count, imageUrls);
+            if (imageUrls.isEmpty()) {
+                log.warn("未抓取到任何可上传的图片");
+                job.startUploading(0, duplicated);
+                job.complete();
                 return 0;
             }
+            job.startUploading(imageUrls.size(), duplicated);
 
-            // 当前会话中已处理的URL哈希集合（防止同一批次内重复）
-            Set<String> sessionProcessedHashes = new HashSet<>(existingUrlHashes);
-
-            // 过滤掉已经存在的图片URL
-            List<Map<String, Object>> filteredList = new ArrayList<>();
-            for (Map<String, Object> pictureData : pictureList) {
-                String imageUrl = (String) pictureData.get("url");
-                if (StrUtil.isBlank(imageUrl)) {
-                    continue;
-                }
-
-                // 计算URL的MD5哈希值
-                String urlHash = DigestUtils.md5Hex(imageUrl);
-
-                // 如果该哈希值不在已存在的列表中，则添加到过滤后的列表
-                if (!sessionProcessedHashes.contains(urlHash)) {
-                    filteredList.add(pictureData);
-                    // 将这个哈希值加入到已处理集合中，防止在本次批量上传中重复使用
-                    sessionProcessedHashes.add(urlHash);
-                } else {
-                    log.debug("跳过已存在的图片URL: {}", imageUrl);
-                }
+            // 2. 并行下载并上传到对象存储
+            String uploadPathPrefix = String.format("gallery-public/%s", loginUser.getId());
+            List<CompletableFuture<UploadPictureResult>> uploadFutures = new ArrayList<>(imageUrls.size());
+            for (String imageUrl : imageUrls) {
+                uploadFutures.add(batchUploadExecutor.supplyLimited(imageUrl, () -> {
+                    UploadPictureResult uploadResult = urlPictureUpload.uploadPicture(imageUrl, uploadPathPrefix);
+                    job.markUploaded();
+                    return uploadResult;
+                }));
             }
 
-            log.info("过滤后剩余 {} 张非重复图片", filteredList.size());
-
-            // 成功上传的图片数量
-            int successCount = 0;
-
-            // 成功关联到分类的图片数量
+            // 3. 依次入库，并记录图片哈希和分类关联
+            List<PictureHash> pictureHashList = new ArrayList<>();
+            List<Long> savedPictureIds = new ArrayList<>();
             int categoryRelatedCount = 0;
-
-            // 如果过滤后的图片数量不足请求数量，尝试再次抓取更多图片
-            if (filteredList.size() < count) {
-                log.info("过滤后的图片数量不足，尝试抓取更多...");
-
-                // 最多尝试两次额外抓取，以获取足够的图片
-                for (int attempt = 0; attempt < 2 && filteredList.size() < count; attempt++) {
-                    log.info("第 {} 次尝试抓取更多图片...", attempt + 1);
-
-                    // 再次抓取更多图片，每次增加原请求数的两倍
-                    List<Map<String, Object>> morePictures = crawler.crawlPictures(searchText, count * (attempt + 2));
-
-                    // 过滤新抓取的图片
-                    for (Map<String, Object> pictureData : morePictures) {
-                        String imageUrl = (String) pictureData.get("url");
-                        if (StrUtil.isBlank(imageUrl)) {
-                            continue;
-                        }
-
-                        // 计算URL的MD5哈希值
-                        String urlHash = DigestUtils.md5Hex(imageUrl);
-
-                        // 检查是否已存在
-                        if (!sessionProcessedHashes.contains(urlHash)) {
-                            filteredList.add(pictureData);
-                            sessionProcessedHashes.add(urlHash);
-
-                            // 如果已经获取到足够的图片，跳出循环
-                            if (filteredList.size() >= count) {
-                                break;
-                            }
-                        }
-                    }
-
-                    log.info("额外抓取后，非重复图片总数: {}", filteredList.size());
-
-                    // 如果已经获取到足够的图片，跳出循环
-                    if (filteredList.size() >= count) {
-                        break;
-                    }
-
-                    // 每次尝试之间稍微等待一下，避免频繁请求
-                    try {
-                        Thread.sleep(500);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
+            for (int i = 0; i < imageUrls.size(); i++) {
+                String imageUrl = imageUrls.get(i);
+                UploadPictureResult uploadResult;
+                try {
+                    uploadResult = uploadFutures.get(i).join();
+                } catch (CompletionException e) {
+                    job.markFailed();
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    log.error("下载或上传第 {} 张图片失败: url={}, error={}", i + 1, imageUrl, cause.getMessage());
+                    continue;
                 }
-            }
-
-            // 限制上传数量，确保不超过请求的数量
-            int uploadCount = Math.min(filteredList.size(), count);
-
-            // 准备批量保存图片哈希信息的列表
-            List<PictureHash> pictureHashList = new ArrayList<>();
-
-            // 批量上传图片
-            for (int i = 0; i < uploadCount; i++) {
-                Map<String, Object> pictureData = filteredList.get(i);
-                String imageUrl = (String) pictureData.get("url");
 
+                Long pictureId;
                 try {
-                    // 构建上传请求参数
-                    PictureUploadRequest uploadRequest = new PictureUploadRequest();
-                    // 设置图片名称: 前缀 + 序号
-                    uploadRequest.setPicName(namePrefix + " " + (i + 1));
-
-                    // 调用URL上传方法
-                    PictureVO pictureVO = uploadPicture(imageUrl, uploadRequest, loginUser);
-
-                    if (pictureVO != null && pictureVO.getId() != null) {
-                        try {
-                            // 将上传成功的图片记录到哈希表中
-                            String urlHash = DigestUtils.md5Hex(imageUrl);
-                            PictureHash pictureHash = PictureHash.builder()
-                                    .pictureId(pictureVO.getId())
-                                    .urlHash(urlHash)
-                                    .url(imageUrl)
-                                    .searchText(searchText)
-                                    .source(crawler.getSourceName())
-                                    .createTime(LocalDateTime.now())
-                                    .createUser(loginUser.getId())
-                                    .isDeleted(0)
-                                    .build();
-                            pictureHashList.add(pictureHash);
-                        } catch (Exception e) {
-                            log.error("创建图片哈希对象失败: {}", e.getMessage());
-                        }
-
-                        // 将图片关联到该分类
-                        if (categoryId != null && categoryId > 0) {
-                            try {
-                                // 创建图片与分类的关联关系
-                                boolean relationResult = categoryRelationService.createCategoryRelation(
-                                        categoryId, "picture", pictureVO.getId());
-
-                                if (relationResult) {
-                                    log.info("成功将图片 {} 关联到分类 {}", pictureVO.getId(), categoryId);
-                                    categoryRelatedCount++;
-                                } else {
-                                    log.warn("将图片 {} 关联到分类 {} 失败", pictureVO.getId(), categoryId);
-                                }
-                            } catch (Exception e) {
-                                log.error("创建图片分类关联关系时出错: {}", e.getMessage(), e);
-                            }
-                        }
-                        successCount++;
-                        log.info("成功上传第 {} 张图片: {}", i + 1, pictureVO.getId());
-                    }
+                    pictureId = saveBatchPicture(uploadResult, requestParam.getNamePrefix() + " " + (i + 1), loginUser);
                 } catch (Exception e) {
-                    log.error("上传第 {} 张图片失败: {}", i + 1, e.getMessage());
+                    job.markFailed();
+                    log.error("保存第 {} 张图片失败: {}", i + 1, e.getMessage());
+                    continue;
                 }
-
-                // 每次上传后稍微等待一下，避免频繁请求
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                savedPictureIds.add(pictureId);
+                job.markSaved();
+
+                // 将上传成功的图片记录到哈希表中
+                pictureHashList.add(PictureHash.builder()
+                        .pictureId(pictureId)
+                        .urlHash(DigestUtils.md5Hex(imageUrl))
+                        .url(imageUrl)
+                        .searchText(searchText)
+                        .source(crawler.getSourceName())
+                        .createTime(LocalDateTime.now())
+                        .createUser(loginUser.getId())
+                        .isDeleted(0)
+                        .build());
+
+                // 将图片关联到该分类
+                if (categoryId != null && categoryId > 0) {
+                    try {
+                        if (categoryRelationService.createCategoryRelation(categoryId, "picture", pictureId)) {
+                            categoryRelatedCount++;
+                        } else {
+                            log.warn("将图片 {} 关联到分类 {} 失败", pictureId, categoryId);
+                        }
+                    } catch (Exception e) {
+                        log.error("创建图片分类关联关系时出错: {}", e.getMessage(), e);
+                    }
                 }
             }
 
@@ -815,15 +808,86 @@ public class PictureServiceImpl implements PictureService {
                 }
             }
 
-            log.info("批量抓取上传完成，成功: {}/{}, 过滤掉重复图片: {}",
-                    successCount, uploadCount, pictureList.size() - filteredList.size());
             // 批量上传完成后清除所有缓存
             pictureCacheManager.invalidateAllCaches();
-            return successCount;
+            leaderboardManager.refreshPictures(savedPictureIds);
+
+            job.complete();
+            log.info("批量抓取上传完成: jobId={}, 成功: {}/{}, 过滤掉重复图片: {}, 耗时={}ms",
+                    job.getJobId(), savedPictureIds.size(), imageUrls.size(), duplicated,
+                    job.toProgressVO().getElapsedMillis());
+            return savedPictureIds.size();
         } catch (Exception e) {
-            log.error("批量抓取图片失败", e);
-            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "批量抓取图片失败: " + e.getMessage());
+            job.fail(e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 抓取图片并过滤掉已上传过的URL，不足时最多再抓取两次
+     *
+     * @param crawler    抓取器
+     * @param searchText 搜索词
+     * @param count      需要的图片数量
+     * @param imageUrls  去重后的图片URL（输出，最多count个）
+     * @return 因重复被过滤的数量
+     */
+    private int crawlNewImageUrls(PictureCrawler crawler, String searchText, int count, List<String> imageUrls) {
+        // 查询数据库中已存在的URL哈希列表
+        Set<String> processedHashes;
+        try {
+            processedHashes = new HashSet<>(pictureHashMapper.getExistingUrlHashes(searchText, crawler.getSourceName()));
+            log.info("该搜索词 '{}' 在 {} 源已存在 {} 张图片", searchText, crawler.getSourceName(), processedHashes.size());
+        } catch (Exception e) {
+            log.error("查询已存在的URL哈希失败", e);
+            processedHashes = new HashSet<>();
+        }
+
+        int duplicated = 0;
+        // 首次抓取请求数量的3倍，确保过滤掉重复图片后仍然足够；不足时再抓取，每次增加原请求数的两倍
+        int[] crawlCounts = {count * 3, count * 2, count * 3};
+        for (int attempt = 0; attempt < crawlCounts.length && imageUrls.size() < count; attempt++) {
+            List<Map<String, Object>> pictureList = crawler.crawlPictures(searchText, crawlCounts[attempt]);
+            log.info("第 {} 次抓取到 {} 张图片", attempt + 1, pictureList.size());
+            if (pictureList.isEmpty()) {
+                break;
+            }
+            for (Map<String, Object> pictureData : pictureList) {
+                String imageUrl = (String) pictureData.get("url");
+                if (StrUtil.isBlank(imageUrl)) {
+                    continue;
+                }
+                // 同时过滤数据库中已存在的和本批次内重复的URL
+                if (!processedHashes.add(DigestUtils.md5Hex(imageUrl))) {
+                    duplicated++;
+                    continue;
+                }
+                imageUrls.add(imageUrl);
+                if (imageUrls.size() >= count) {
+                    break;
+                }
+            }
         }
+        log.info("过滤后剩余 {} 张非重复图片，过滤掉 {} 张", imageUrls.size(), duplicated);
+        return duplicated;
+    }
+
+    /**
+     * 保存批量抓取上传后的图片记录
+     *
+     * @return 图片ID
+     */
+    private Long saveBatchPicture(UploadPictureResult uploadResult, String picName, User loginUser) {
+        PictureUploadRequest uploadRequest = new PictureUploadRequest();
+        uploadRequest.setPicName(picName);
+        Picture picture = buildPicture(loginUser, uploadResult, null, uploadRequest);
+        fillReviewParams(picture, loginUser);
+
+        picture.setId(snowflakeIdGenerator.nextId());
+        picture.setCreateTime(LocalDateTime.now());
+        picture.setIsDeleted(0);
+        ThrowUtils.throwIf(pictureMapper.insertWithId(picture) <= 0, ErrorCode.OPERATION_ERROR, "图片保存失败");
+        return picture.getId();
     }
 
 
@@ -903,6 +967,15 @@ public class PictureServiceImpl implements PictureService {
         PictureWaterfallRequest normalizedRequest = normalizeRequest(requestParam);
 
         try {
+            // 无筛选条件的计数排序直接按排行榜分页，不经过页面缓存
+            PictureWaterfallVO leaderboardResult = getLeaderboardWaterfall(normalizedRequest, null, null);
+            if (leaderboardResult != null) {
+                if (ObjectUtil.isNotNull(loginUser)) {
+                    fillUserReactions(leaderboardResult.getRecords(), loginUser.getId());
+                }
+                return leaderboardResult;
+            }
+
             String reviewStatus = String.valueOf(PictureReviewStatusEnum.PASS.getValue());
             String cacheKey = RedisKeyConstants.buildWaterfallKey(
                     "initial",
@@ -959,14 +1032,14 @@ public class PictureServiceImpl implements PictureService {
             // 构建结果对象
             PictureWaterfallVO result = buildWaterfallResult(pictureList, total, normalizedRequest.getPageSize(), normalizedRequest.getSortBy());
 
+            // 将结果缓存（不包含用户交互状态），需在填充用户交互状态之前写入
+            cacheWaterfallResult(cacheKey, result, RedisKeyConstants.WATERFALL_CACHE_EXPIRE_MINUTES, true, normalizedRequest);
+
             // 填充用户交互状态
             if (ObjectUtil.isNotNull(loginUser)) {
                 fillUserReactions(result.getRecords(), loginUser.getId());
             }
 
-            // 将结果缓存（不包含用户交互状态）
-            cacheWaterfallResult(cacheKey, result, RedisKeyConstants.WATERFALL_CACHE_EXPIRE_MINUTES);
-
             long endTime = System.currentTimeMillis();
             log.info("获取瀑布流图片成功: 返回{}条记录, 排序方式={}, 总数={}, 耗时={}ms",
                     result.getRecords().size(), normalizedRequest.getSortBy(), total, (endTime - startTime));
@@ -999,6 +1072,15 @@ public class PictureServiceImpl implements PictureService {
         PictureWaterfallRequest normalizedRequest = normalizeRequest(requestParam);
 
         try {
+            // 无筛选条件的计数排序直接按排行榜分页，不经过页面缓存
+            PictureWaterfallVO leaderboardResult = getLeaderboardWaterfall(normalizedRequest, lastId, lastValue);
+            if (leaderboardResult != null) {
+                if (ObjectUtil.isNotNull(loginUser)) {
+                    fillUserReactions(leaderboardResult.getRecords(), loginUser.getId());
+                }
+                return leaderboardResult;
+            }
+
             String reviewStatus = String.valueOf(PictureReviewStatusEnum.PASS.getValue());
             String cacheKey = RedisKeyConstants.buildWaterfallKey(
                     "more-" + lastId,
@@ -1057,14 +1139,14 @@ public class PictureServiceImpl implements PictureService {
             // 构建结果对象
             PictureWaterfallVO result = buildWaterfallResult(pictureList, total, normalizedRequest.getPageSize(), normalizedRequest.getSortBy());
 
+            // 将结果缓存（较短时间），需在填充用户交互状态之前写入
+            cacheWaterfallResult(cacheKey, result, RedisKeyConstants.WATERFALL_MORE_CACHE_EXPIRE_MINUTES, false, normalizedRequest);
+
             // 填充用户交互状态
             if (ObjectUtil.isNotNull(loginUser)) {
                 fillUserReactions(result.getRecords(), loginUser.getId());
             }
 
-            // 将结果缓存（较短时间）
-            cacheWaterfallResult(cacheKey, result, RedisKeyConstants.WATERFALL_MORE_CACHE_EXPIRE_MINUTES);
-
             long endTime = System.currentTimeMillis();
             log.info("加载更多瀑布流图片成功: 返回{}条记录, 排序方式={}, 耗时={}ms",
                     result.getRecords().size(), normalizedRequest.getSortBy(), (endTime - startTime));
@@ -1076,6 +1158,67 @@ public class PictureServiceImpl implements PictureService {
         }
     }
 
+    /**
+     * 从计数排行榜读取瀑布流，MySQL只按ID回填图片详情
+     *
+     * @param requestParam 规范化后的请求参数
+     * @param lastId       上一页最后一张图片ID，首页为null
+     * @param lastValue    上一页最后一张图片的排序值，首页为null
+     * @return 瀑布流结果，存在筛选条件、非计数排序或排行榜不可用时返回null
+     */
+    private PictureWaterfallVO getLeaderboardWaterfall(PictureWaterfallRequest requestParam, Long lastId, Object lastValue) {
+        String metric = PictureLeaderboardManager.metricOf(requestParam.getSortBy());
+        boolean filtered = StrUtil.isNotBlank(requestParam.getFormat())
+                || requestParam.getMinWidth() != null
+                || requestParam.getMinHeight() != null
+                || requestParam.getUserId() != null
+                || requestParam.getCategoryId() != null
+                || CollUtil.isNotEmpty(requestParam.getTagIds())
+                || StrUtil.isNotBlank(requestParam.getKeyword());
+        if (metric == null || filtered) {
+            return null;
+        }
+        Long cursorValue = Convert.toLong(lastValue, null);
+        if (lastId != null && cursorValue == null) {
+            return null;
+        }
+
+        PictureLeaderboardManager.LeaderboardPage page =
+                leaderboardManager.getPage(metric, lastId, cursorValue, requestParam.getPageSize());
+        if (page == null) {
+            return null;
+        }
+
+        List<Picture> pictureList = new ArrayList<>(page.getPictureIds().size());
+        if (CollUtil.isNotEmpty(page.getPictureIds())) {
+            Map<Long, Picture> pictureMap = pictureMapper.selectByIds(page.getPictureIds()).stream()
+                    .collect(Collectors.toMap(Picture::getId, picture -> picture));
+            List<Long> staleIds = new ArrayList<>();
+            for (Long pictureId : page.getPictureIds()) {
+                Picture picture = pictureMap.get(pictureId);
+                if (picture == null || !Objects.equals(picture.getReviewStatus(), PictureReviewStatusEnum.PASS.getValue())
+                        || Objects.equals(picture.getIsDeleted(), 1)) {
+                    staleIds.add(pictureId);
+                    continue;
+                }
+                pictureList.add(picture);
+            }
+            // 榜单中残留的已删除或未过审图片，按数据库当前状态移出
+            leaderboardManager.refreshPictures(staleIds);
+        }
+
+        PictureWaterfallVO result = buildWaterfallResult(pictureList, page.getTotal(),
+                requestParam.getPageSize(), requestParam.getSortBy());
+        // 游标使用榜单中的分值，下一页可直接按排名定位
+        if (CollUtil.isNotEmpty(page.getPictureIds())) {
+            Long lastPictureId = page.getPictureIds().get(page.getPictureIds().size() - 1);
+            result.setLastId(lastPictureId);
+            result.setLastValue(page.getScores().get(lastPictureId));
+        }
+        result.setHasMore(page.isHasMore());
+        return result;
+    }
+
     /**
      * 规范化请求参数
      */
@@ -1100,31 +1243,21 @@ public class PictureServiceImpl implements PictureService {
     }
 
     /**
-     * 从缓存获取结果
+     * 从缓存获取结果（先查本地缓存，再查Redis）
      */
     private PictureWaterfallVO getCachedResult(String cacheKey) {
-        try {
-            Object cachedObject = redisTemplate.opsForValue().get(cacheKey);
-            if (cachedObject != null) {
-                log.debug("从缓存获取瀑布流数据: {}", cacheKey);
-                return (PictureWaterfallVO) cachedObject;
-            }
-        } catch (Exception e) {
-            log.warn("从缓存获取瀑布流数据失败: {}", e.getMessage());
-        }
-        return null;
+        return waterfallNearCache.get(cacheKey);
     }
 
     /**
-     * 缓存瀑布流结果
+     * 缓存瀑布流结果，并按排序方式、分类、标签、用户维度登记失效索引
      */
-    private void cacheWaterfallResult(String cacheKey, PictureWaterfallVO result, int expireMinutes) {
-        try {
-            redisTemplate.opsForValue().set(cacheKey, result, expireMinutes, TimeUnit.MINUTES);
-            log.debug("瀑布流数据已缓存: {}, 过期时间: {}分钟", cacheKey, expireMinutes);
-        } catch (Exception e) {
-            log.warn("缓存瀑布流数据失败: {}", e.getMessage());
-        }
+    private void cacheWaterfallResult(String cacheKey, PictureWaterfallVO result, int expireMinutes,
+                                      boolean initialPage, PictureWaterfallRequest requestParam) {
+        pictureCacheManager.cacheWaterfallResult(cacheKey, result, expireMinutes, initialPage,
+                requestParam.getSortBy(), requestParam.getCategoryId(),
+                requestParam.getTagIds(), requestParam.getUserId());
+        waterfallNearCache.putLocal(cacheKey, result);
     }
 
     /**
@@ -1153,12 +1286,9 @@ public class PictureServiceImpl implements PictureService {
                 reviewStatus, format, minWidth, minHeight, userId, categoryId, tagIds, keyword
         );
 
-        try {
-            // 将总数缓存5分钟，避免频繁查询数据库
-            redisTemplate.opsForValue().set(cacheKey, total, RedisKeyConstants.COUNT_CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES);
-        } catch (Exception e) {
-            log.warn("缓存图片总数失败: {}", e.getMessage());
-        }
+        // 将总数缓存5分钟，避免频繁查询数据库
+        pictureCacheManager.cacheCountResult(cacheKey, total, RedisKeyConstants.COUNT_CACHE_EXPIRE_MINUTES,
+                categoryId, tagIds, userId);
 
         return total;
     }
@@ -1347,20 +1477,12 @@ public class PictureServiceImpl implements PictureService {
         }
 
         try {
-            Map<String, List<Long>> contentCategoryMap =
-                    categoryRelationService.batchGetCategoryIdsByContents("picture", pictureIds);
-
-            if (contentCategoryMap != null) {
-                // 转换key类型从String到Long
-                for (Map.Entry<String, List<Long>> entry : contentCategoryMap.entrySet()) {
-                    try {
-                        Long pictureId = Long.valueOf(entry.getKey());
-                        result.put(pictureId, entry.getValue());
-                    } catch (NumberFormatException e) {
-                        log.warn("解析图片ID失败: {}", entry.getKey());
-                    }
+            // 一次IN查询加载整页的分类关系，并在本次请求内复用
+            contentRelationLoader.loadCategoryIds("picture", pictureIds).forEach((pictureId, categoryIds) -> {
+                if (CollUtil.isNotEmpty(categoryIds)) {
+                    result.put(pictureId, categoryIds);
                 }
-            }
+            });
         } catch (Exception e) {
             log.error("批量查询图片分类关系失败", e);
 
@@ -1425,20 +1547,12 @@ public class PictureServiceImpl implements PictureService {
         }
 
         try {
-            Map<String, List<Long>> contentTagMap =
-                    tagRelationService.batchGetTagIdsByContents("picture", pictureIds);
-
-            if (contentTagMap != null) {
-                // 转换key类型从String到Long
-                for (Map.Entry<String, List<Long>> entry : contentTagMap.entrySet()) {
-                    try {
-                        Long pictureId = Long.valueOf(entry.getKey());
-                        result.put(pictureId, entry.getValue());
-                    } catch (NumberFormatException e) {
-                        log.warn("解析图片ID失败: {}", entry.getKey());
-                    }
+            // 一次IN查询加载整页的标签关系，并在本次请求内复用
+            contentRelationLoader.loadTagIds("picture", pictureIds).forEach((pictureId, tagIds) -> {
+                if (CollUtil.isNotEmpty(tagIds)) {
+                    result.put(pictureId, tagIds);
                 }
-            }
+            });
         } catch (Exception e) {
             log.error("批量查询图片标签关系失败", e);
 
@@ -1500,12 +1614,8 @@ public class PictureServiceImpl implements PictureService {
         }
 
         try {
-            for (Long userId : userIds) {
-                User user = userMapper.selectById(userId);
-                if (Objects.nonNull(user)) {
-                    result.put(userId, user);
-                }
-            }
+            // 优先读取本地用户缓存，未命中的用户合并为一次批量查询
+            result.putAll(userProfileCache.getAll(userIds));
         } catch (Exception e) {
             log.error("批量查询用户信息失败", e);
         }
@@ -1595,6 +1705,8 @@ public class PictureServiceImpl implements PictureService {
         // 更新图片基本信息
         boolean updateResult = pictureMapper.updateByPrimaryKeySelective(picture) > 0;
         ThrowUtils.throwIf(!updateResult, ErrorCode.OPERATION_ERROR, "更新图片信息失败");
+        // 非管理员编辑后重新进入待审核，需移出排行榜
+        leaderboardManager.refreshPictures(Collections.singletonList(pictureId));
 
         try {
             List<Long> oldCategoryIds = null;
@@ -1719,7 +1831,7 @@ public class PictureServiceImpl implements PictureService {
         }
 
         // 获取原图片分类
-        List<Long> originalCategoryIds = categoryRelationService.getCategoryIdsByContent("picture", pictureId);
+        List<Long> originalCategoryIds = contentRelationLoader.loadCategoryIds("picture", pictureId);
         if (CollUtil.isEmpty(originalCategoryIds)) {
             log.warn("图片 {} 未关联任何分类", pictureId);
             // 如果原图片没有分类，返回空结果
@@ -1738,7 +1850,7 @@ public class PictureServiceImpl implements PictureService {
         log.info("图片 {} 的相关分类IDs: {}", pictureId, relatedCategoryIds);
 
         // 获取原图片标签
-        final List<Long> tagIds = tagRelationService.getTagIdsByContent("picture", pictureId);
+        final List<Long> tagIds = contentRelationLoader.loadTagIds("picture", pictureId);
 
         // 宽高比
         final Double picScale = originalPicture.getPicScale() != null
@@ -1768,7 +1880,10 @@ public class PictureServiceImpl implements PictureService {
                                 request.getMatchType(),
                                 new ArrayList<>(relatedCategoryIds)
                         ),
-                this::convertAndEnrichPicture
+                this::convertAndEnrichPicture,
+                // 整页图片的标签、分类关系合并为批量查询，逐条转换时直接命中
+                pictures -> contentRelationLoader.prime("picture",
+                        pictures.stream().map(Picture::getId).collect(Collectors.toList()))
         );
     }
 
@@ -1781,41 +1896,26 @@ public class PictureServiceImpl implements PictureService {
      */
     private Set<Long> getRelatedCategoryIds(Long categoryId) {
         Set<Long> relatedCategoryIds = new HashSet<>();
-        try {
-            // 添加当前分类
-            relatedCategoryIds.add(categoryId);
-
-            // 获取当前分类信息
-            Category category = categoryMapper.selectById(categoryId);
-            if (category == null) {
-                return relatedCategoryIds;
-            }
+        // 添加当前分类
+        relatedCategoryIds.add(categoryId);
 
-            // 添加父分类
-            if (category.getParentId() != null && category.getParentId() > 0) {
-                relatedCategoryIds.add(category.getParentId());
+        // 父分类、同级分类和子分类都从分类树快照中读取
+        CategoryTreeSnapshot categoryTree = categoryTreeManager.current();
+        if (!categoryTree.contains(categoryId)) {
+            return relatedCategoryIds;
+        }
 
-                // 获取同级分类（兄弟分类）
-                List<Category> siblingCategories = categoryMapper.selectByParentId(category.getParentId());
-                if (CollUtil.isNotEmpty(siblingCategories)) {
-                    for (Category sibling : siblingCategories) {
-                        relatedCategoryIds.add(sibling.getId());
-                    }
-                }
-            }
+        // 添加父分类和同级分类（兄弟分类）
+        List<Long> ancestorIds = categoryTree.getAncestorIds(categoryId);
+        if (!ancestorIds.isEmpty()) {
+            relatedCategoryIds.add(ancestorIds.get(ancestorIds.size() - 1));
+            relatedCategoryIds.addAll(categoryTree.getSiblingIds(categoryId));
+        }
 
-            // 获取子分类
-            List<Category> childCategories = categoryMapper.selectByParentId(categoryId);
-            if (CollUtil.isNotEmpty(childCategories)) {
-                for (Category child : childCategories) {
-                    relatedCategoryIds.add(child.getId());
-                }
-            }
+        // 添加子分类
+        relatedCategoryIds.addAll(categoryTree.getChildIds(categoryId));
 
-            log.info("分类 {} 的相关分类数量: {}", categoryId, relatedCategoryIds.size());
-        } catch (Exception e) {
-            log.error("获取相关分类失败", e);
-        }
+        log.info("分类 {} 的相关分类数量: {}", categoryId, relatedCategoryIds.size());
         return relatedCategoryIds;
     }
 
@@ -1831,7 +1931,7 @@ public class PictureServiceImpl implements PictureService {
             pictureVO.setUser(userService.getUserById(picture.getCreateUser()));
 
             // 获取并设置图片关联的分类信息
-            List<Long> categoryIds = categoryRelationService.getCategoryIdsByContent("picture", picture.getId());
+            List<Long> categoryIds = contentRelationLoader.loadCategoryIds("picture", picture.getId());
             if (CollUtil.isNotEmpty(categoryIds)) {
                 Long categoryId = categoryIds.get(0);
                 pictureVO.setCategoryId(String.valueOf(categoryId));
@@ -1842,7 +1942,7 @@ public class PictureServiceImpl implements PictureService {
             }
 
             // 获取并设置图片关联的标签信息
-            List<Long> tagIds = tagRelationService.getTagIdsByContent("picture", picture.getId());
+            List<Long> tagIds = contentRelationLoader.loadTagIds("picture", picture.getId());
             if (CollUtil.isNotEmpty(tagIds)) {
                 List<String> tagIdStrings = tagIds.stream()
                         .map(String::valueOf)
@@ -2322,6 +2422,7 @@ public class PictureServiceImpl implements PictureService {
 
             // 4. 清除所有相关缓存
             pictureCacheManager.invalidateAfterPictureDelete(pictureId);
+            leaderboardManager.refreshPictures(Collections.singletonList(pictureId));
 
             // 清除主页瀑布流相关缓存
             pictureCacheManager.invalidateAllCaches();
@@ -2384,6 +2485,7 @@ public class PictureServiceImpl implements PictureService {
             for (Long pictureId : pictureIds) {
                 pictureCacheManager.invalidateAfterPictureDelete(pictureId);
             }
+            leaderboardManager.refreshPictures(pictureIds);
 
             // 清除所有页面缓存（批量操作影响面广）
             pictureCacheManager.invalidateAllCaches();
@@ -2432,6 +2534,7 @@ public class PictureServiceImpl implements PictureService {
             ThrowUtils.throwIf(result <= 0, ErrorCode.OPERATION_ERROR, "审核图片失败");
 
             pictureCacheManager.invalidateAfterReviewStatusChange();
+            leaderboardManager.refreshPictures(Collections.singletonList(pictureId));
 
             log.info("管理员 {} 审核图片成功: pictureId={}, 审核状态={}, 审核意见={}",
                     userId, pictureId, reviewRequest.getReviewStatus(), reviewRequest.getReviewMessage());
@@ -2467,7 +2570,7 @@ public class PictureServiceImpl implements PictureService {
                     LocalDateTime.now()
             );
             pictureCacheManager.invalidateAfterReviewStatusChange();
-
+            leaderboardManager.refreshPictures(pictureIds);
 
             log.info("管理员 {} 批量审核图片成功: 影响行数={}, 图片数量={}, 审核状态={}",
                     userId, result, pictureIds.size(), reviewRequest.getReviewStatus());
@@ -102,10 +102,12 @@ public class TagRelationServiceImpl implements TagRelationService {
             return true;
         }
 
-        // 批量创建关系
-        for (Long tagId : newTagIds) {
+        // 批量创建关系，一次分配全部关系ID
+        long[] relationIds = snowflakeIdGenerator.nextIds(newTagIds.size());
+        for (int i = 0; i < newTagIds.size(); i++) {
+            Long tagId = newTagIds.get(i);
             TagRelation relation = TagRelation.builder()
-                    .id(snowflakeIdGenerator.nextId())
+                    .id(relationIds[i])
                     .tagId(tagId)
                     .contentType(contentType)
                     .contentId(contentId)
@@ -381,12 +383,11 @@ public class TagRelationServiceImpl implements TagRelationService {
         Map<String, List<Long>> result = new HashMap<>();
 
         try {
-            // todo 当前实现使用多次单条查询，后面可优化为一次批量查询
-            for (Long contentId : contentIds) {
-                List<Long> tagIds = tagRelationMapper.selectTagIdsByContent(contentType, contentId);
-                if (CollUtil.isNotEmpty(tagIds)) {
-                    result.put(contentId.toString(), tagIds);
-                }
+            // 一次IN查询取回所有内容的标签关系，再在内存中按内容ID分组
+            List<TagRelation> relations = tagRelationMapper.selectTagIdsByContents(contentType, new LinkedHashSet<>(contentIds));
+            for (TagRelation relation : relations) {
+                result.computeIfAbsent(relation.getContentId().toString(), k -> new ArrayList<>())
+                        .add(relation.getTagId());
             }
         } catch (Exception e) {
             log.error("批量获取内容标签关系失败: contentType={}, contentIds={}", contentType, contentIds, e);
@@ -5,6 +5,7 @@ import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.domain.dto.picture.TargetReactionCount;
 import org.leocoder.picture.domain.message.PictureReactionMessage;
 import org.leocoder.picture.domain.pojo.Picture;
 import org.leocoder.picture.domain.pojo.UserReaction;
@@ -15,6 +16,9 @@ import org.leocoder.picture.domain.vo.userreaction.UserReactionStatusVO;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
 import org.leocoder.picture.exception.ThrowUtils;
+import org.leocoder.picture.manager.PictureHotRankingManager;
+import org.leocoder.picture.manager.PictureLeaderboardManager;
+import org.leocoder.picture.manager.UserReactionSetManager;
 import org.leocoder.picture.mapper.PictureMapper;
 import org.leocoder.picture.mapper.UserReactionMapper;
 import org.leocoder.picture.service.PictureService;
@@ -22,7 +26,10 @@ import org.leocoder.picture.service.UserReactionService;
 import org.leocoder.picture.service.mq.MessageProducerService;
 import org.leocoder.picture.utils.UserContext;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -42,6 +49,14 @@ import java.util.stream.Collectors;
 @Service
 public class UserReactionServiceImpl implements UserReactionService {
 
+    // 点赞/收藏状态查询涉及的反应类型
+    private static final List<String> STATUS_REACTION_TYPES =
+            Arrays.asList(RedisConstants.REACTION_LIKE, RedisConstants.REACTION_FAVORITE);
+
+    // 计数缓存涉及的反应类型（顺序与MGET读取的键顺序一致）
+    private static final List<String> COUNT_REACTION_TYPES =
+            Arrays.asList(RedisConstants.REACTION_LIKE, RedisConstants.REACTION_FAVORITE, RedisConstants.REACTION_VIEW);
+
     private final RedisTemplate<String, Object> redisTemplate;
 
     private final UserReactionMapper userReactionMapper;
@@ -52,18 +67,30 @@ public class UserReactionServiceImpl implements UserReactionService {
 
     private final MessageProducerService messageProducerService;
 
+    private final PictureLeaderboardManager leaderboardManager;
+
+    private final PictureHotRankingManager hotRankingManager;
+
+    private final UserReactionSetManager reactionSetManager;
+
     public UserReactionServiceImpl(
             RedisTemplate<String, Object> redisTemplate,
             UserReactionMapper userReactionMapper,
             PictureMapper pictureMapper,
             @Lazy PictureService pictureService,
-            MessageProducerService messageProducerService) {
+            MessageProducerService messageProducerService,
+            PictureLeaderboardManager leaderboardManager,
+            PictureHotRankingManager hotRankingManager,
+            UserReactionSetManager reactionSetManager) {
 
         this.redisTemplate = redisTemplate;
         this.userReactionMapper = userReactionMapper;
         this.pictureMapper = pictureMapper;
         this.pictureService = pictureService;
         this.messageProducerService = messageProducerService;
+        this.leaderboardManager = leaderboardManager;
+        this.hotRankingManager = hotRankingManager;
+        this.reactionSetManager = reactionSetManager;
     }
 
     /**
@@ -220,31 +247,16 @@ public class UserReactionServiceImpl implements UserReactionService {
         ThrowUtils.throwIf(ObjectUtil.isNull(userId), ErrorCode.NO_AUTH_ERROR, "用户未登录");
 
         try {
-            // 尝试从Redis获取缓存
-            String cacheKey = RedisConstants.getUserReactionKey(targetType, targetId, userId);
-            UserReactionStatusVO statusFromCache = (UserReactionStatusVO) redisTemplate.opsForValue().get(cacheKey);
-
-            if (statusFromCache != null) {
-                return statusFromCache;
-            }
-
-            // 缓存未命中，从数据库查询
-            boolean hasLiked = checkReactionExists(targetType, targetId, RedisConstants.REACTION_LIKE, userId);
-            boolean hasFavorited = checkReactionExists(targetType, targetId, RedisConstants.REACTION_FAVORITE, userId);
+            Map<String, Set<Long>> reacted = reactionSetManager.findReacted(
+                    userId, targetType, STATUS_REACTION_TYPES, Collections.singletonList(targetId));
 
-            // 构建状态对象
-            UserReactionStatusVO status = UserReactionStatusVO.builder()
+            return UserReactionStatusVO.builder()
                     .targetId(targetId)
                     .targetType(targetType)
                     .userId(userId)
-                    .hasLiked(hasLiked)
-                    .hasFavorited(hasFavorited)
+                    .hasLiked(reacted.get(RedisConstants.REACTION_LIKE).contains(targetId))
+                    .hasFavorited(reacted.get(RedisConstants.REACTION_FAVORITE).contains(targetId))
                     .build();
-
-            // 缓存结果
-            redisTemplate.opsForValue().set(cacheKey, status, RedisConstants.USER_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-
-            return status;
         } catch (Exception e) {
             log.error("获取用户点赞/收藏状态失败: userId={}, targetType={}, targetId={}",
                     userId, targetType, targetId, e);
@@ -275,61 +287,21 @@ public class UserReactionServiceImpl implements UserReactionService {
         ThrowUtils.throwIf(ObjectUtil.isNull(userId), ErrorCode.NO_AUTH_ERROR, "用户未登录");
 
         try {
-            Map<Long, UserReactionStatusVO> resultMap = new HashMap<>(targetIds.size());
-            List<Long> uncachedTargetIds = new ArrayList<>();
+            // 一次管道调用判断所有目标是否在用户的点赞、收藏集合中
+            Map<String, Set<Long>> reacted = reactionSetManager.findReacted(
+                    userId, targetType, STATUS_REACTION_TYPES, targetIds);
+            Set<Long> likedTargetIds = reacted.get(RedisConstants.REACTION_LIKE);
+            Set<Long> favoritedTargetIds = reacted.get(RedisConstants.REACTION_FAVORITE);
 
-            // 尝试从Redis批量获取
+            Map<Long, UserReactionStatusVO> resultMap = new HashMap<>(targetIds.size());
             for (Long targetId : targetIds) {
-                String cacheKey = RedisConstants.getUserReactionKey(targetType, targetId, userId);
-                UserReactionStatusVO status = (UserReactionStatusVO) redisTemplate.opsForValue().get(cacheKey);
-
-                if (status != null) {
-                    resultMap.put(targetId, status);
-                } else {
-                    uncachedTargetIds.add(targetId);
-                }
-            }
-
-            // 对于未缓存的目标，从数据库中查询
-            if (!uncachedTargetIds.isEmpty()) {
-                // 一次性查询所有未缓存目标的点赞状态
-                List<UserReaction> likeReactions = userReactionMapper.selectUserReactions(
-                        userId, targetType, RedisConstants.REACTION_LIKE, null, null);
-
-                // 一次性查询所有未缓存目标的收藏状态
-                List<UserReaction> favoriteReactions = userReactionMapper.selectUserReactions(
-                        userId, targetType, RedisConstants.REACTION_FAVORITE, null, null);
-
-                // 构建点赞和收藏状态的集合
-                Set<Long> likedTargetIds = likeReactions.stream()
-                        .filter(r -> r.getIsDeleted() == 0)
-                        .map(UserReaction::getTargetId)
-                        .collect(Collectors.toSet());
-
-                Set<Long> favoritedTargetIds = favoriteReactions.stream()
-                        .filter(r -> r.getIsDeleted() == 0)
-                        .map(UserReaction::getTargetId)
-                        .collect(Collectors.toSet());
-
-                // 填充结果并缓存
-                for (Long targetId : uncachedTargetIds) {
-                    boolean hasLiked = likedTargetIds.contains(targetId);
-                    boolean hasFavorited = favoritedTargetIds.contains(targetId);
-
-                    UserReactionStatusVO status = UserReactionStatusVO.builder()
-                            .targetId(targetId)
-                            .targetType(targetType)
-                            .userId(userId)
-                            .hasLiked(hasLiked)
-                            .hasFavorited(hasFavorited)
-                            .build();
-
-                    resultMap.put(targetId, status);
-
-                    // 缓存结果
-                    String cacheKey = RedisConstants.getUserReactionKey(targetType, targetId, userId);
-                    redisTemplate.opsForValue().set(cacheKey, status, RedisConstants.USER_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-                }
+                resultMap.put(targetId, UserReactionStatusVO.builder()
+                        .targetId(targetId)
+                        .targetType(targetType)
+                        .userId(userId)
+                        .hasLiked(likedTargetIds.contains(targetId))
+                        .hasFavorited(favoritedTargetIds.contains(targetId))
+                        .build());
             }
 
             return resultMap;
@@ -366,52 +338,16 @@ public class UserReactionServiceImpl implements UserReactionService {
         ThrowUtils.throwIf(ObjectUtil.isNull(targetId), ErrorCode.PARAMS_ERROR, "目标ID不能为空");
 
         try {
-            // 构建缓存键
-            String likeCountKey = RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_LIKE);
-            String favoriteCountKey = RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_FAVORITE);
-            String viewCountKey = RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_VIEW);
-
-            // 尝试从Redis获取缓存
-            Long likeCount = getLongFromRedis(likeCountKey);
-            Long favoriteCount = getLongFromRedis(favoriteCountKey);
-            Long viewCount = getLongFromRedis(viewCountKey);
-
-            boolean allCached = likeCount != null && favoriteCount != null && viewCount != null;
-
-            // 如果缓存不完整，从数据库加载
-            if (!allCached) {
-                if (RedisConstants.TARGET_PICTURE.equals(targetType)) {
-                    Picture picture = pictureMapper.selectById(targetId);
-                    if (picture != null) {
-                        likeCount = picture.getLikeCount() != null ? picture.getLikeCount().longValue() : 0L;
-                        favoriteCount = picture.getCollectionCount() != null ? picture.getCollectionCount().longValue() : 0L;
-                        viewCount = picture.getViewCount() != null ? picture.getViewCount() : 0L;
-
-                        // 更新缓存
-                        redisTemplate.opsForValue().set(likeCountKey, likeCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-                        redisTemplate.opsForValue().set(favoriteCountKey, favoriteCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-                        redisTemplate.opsForValue().set(viewCountKey, viewCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-                    }
-                } else {
-                    // 对于非图片类型，从用户点赞/收藏表中统计
-                    likeCount = userReactionMapper.countReactionsByTarget(targetType, targetId, RedisConstants.REACTION_LIKE);
-                    favoriteCount = userReactionMapper.countReactionsByTarget(targetType, targetId, RedisConstants.REACTION_FAVORITE);
-                    viewCount = userReactionMapper.countReactionsByTarget(targetType, targetId, RedisConstants.REACTION_VIEW);
-
-                    // 更新缓存
-                    redisTemplate.opsForValue().set(likeCountKey, likeCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-                    redisTemplate.opsForValue().set(favoriteCountKey, favoriteCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-                    redisTemplate.opsForValue().set(viewCountKey, viewCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-                }
+            UserReactionCountVO countVO = multiGetReactionCounts(targetType, Collections.singletonList(targetId)).get(targetId);
+            if (countVO != null) {
+                return countVO;
             }
-
-            // 构建返回对象
             return UserReactionCountVO.builder()
                     .targetId(targetId)
                     .targetType(targetType)
-                    .likeCount(likeCount != null ? likeCount : 0L)
-                    .favoriteCount(favoriteCount != null ? favoriteCount : 0L)
-                    .viewCount(viewCount != null ? viewCount : 0L)
+                    .likeCount(0L)
+                    .favoriteCount(0L)
+                    .viewCount(0L)
                     .build();
         } catch (Exception e) {
             log.error("获取点赞/收藏计数失败: targetType={}, targetId={}", targetType, targetId, e);
@@ -432,61 +368,7 @@ public class UserReactionServiceImpl implements UserReactionService {
         ThrowUtils.throwIf(CollUtil.isEmpty(targetIds), ErrorCode.PARAMS_ERROR, "目标ID列表不能为空");
 
         try {
-            Map<Long, UserReactionCountVO> resultMap = new HashMap<>(targetIds.size());
-
-            if (RedisConstants.TARGET_PICTURE.equals(targetType)) {
-                // 对于图片类型，直接查询图片表
-                // 这里假设你有一个方法可以批量查询图片
-                List<Picture> pictures = new ArrayList<>();
-                for (Long targetId : targetIds) {
-                    Picture picture = pictureMapper.selectById(targetId);
-                    if (picture != null) {
-                        pictures.add(picture);
-                    }
-                }
-
-                // 处理查询结果
-                for (Picture picture : pictures) {
-                    Long likeCount = picture.getLikeCount() != null ? picture.getLikeCount().longValue() : 0L;
-                    Long favoriteCount = picture.getCollectionCount() != null ? picture.getCollectionCount().longValue() : 0L;
-                    Long viewCount = picture.getViewCount() != null ? picture.getViewCount() : 0L;
-
-                    UserReactionCountVO countVO = UserReactionCountVO.builder()
-                            .targetId(picture.getId())
-                            .targetType(targetType)
-                            .likeCount(likeCount)
-                            .favoriteCount(favoriteCount)
-                            .viewCount(viewCount)
-                            .build();
-
-                    resultMap.put(picture.getId(), countVO);
-
-                    // 更新缓存
-                    updateCountCache(targetType, picture.getId(), likeCount, favoriteCount, viewCount);
-                }
-            } else {
-                // 对于非图片类型，从用户点赞/收藏表中统计
-                for (Long targetId : targetIds) {
-                    Long likeCount = userReactionMapper.countReactionsByTarget(targetType, targetId, RedisConstants.REACTION_LIKE);
-                    Long favoriteCount = userReactionMapper.countReactionsByTarget(targetType, targetId, RedisConstants.REACTION_FAVORITE);
-                    Long viewCount = userReactionMapper.countReactionsByTarget(targetType, targetId, RedisConstants.REACTION_VIEW);
-
-                    UserReactionCountVO countVO = UserReactionCountVO.builder()
-                            .targetId(targetId)
-                            .targetType(targetType)
-                            .likeCount(likeCount != null ? likeCount : 0L)
-                            .favoriteCount(favoriteCount != null ? favoriteCount : 0L)
-                            .viewCount(viewCount != null ? viewCount : 0L)
-                            .build();
-
-                    resultMap.put(targetId, countVO);
-
-                    // 更新缓存
-                    updateCountCache(targetType, targetId, likeCount, favoriteCount, viewCount);
-                }
-            }
-
-            return resultMap;
+            return multiGetReactionCounts(targetType, targetIds);
         } catch (Exception e) {
             log.error("批量获取点赞/收藏计数失败: targetType={}, targetIds={}", targetType, targetIds, e);
 
@@ -511,68 +393,35 @@ public class UserReactionServiceImpl implements UserReactionService {
         if (limit == null || limit <= 0) {
             limit = 10;
         }
-        if (limit > 100) {
-            limit = 100;
-        }
-        if (StrUtil.isBlank(period)) {
-            period = "day";
+        if (limit > PictureHotRankingManager.RANKING_SIZE) {
+            limit = PictureHotRankingManager.RANKING_SIZE;
         }
+        period = PictureHotRankingManager.normalizePeriod(period);
 
         try {
-            // 尝试从缓存获取
+            // 尝试从缓存获取（缓存的是该周期完整的热门列表，不含当前用户的互动状态）
             String cacheKey = RedisConstants.getHotPicturesKey(period);
-            List<PictureVO> cachedList = (List<PictureVO>) redisTemplate.opsForValue().get(cacheKey);
-
-            if (cachedList != null && !cachedList.isEmpty()) {
-                // 返回请求数量的热门图片
-                return cachedList.size() > limit ? cachedList.subList(0, limit) : cachedList;
-            }
-
-            // 缓存未命中，生成热门图片列表
-            // 1. 获取热门图片ID（基于综合点赞和收藏数）
-            List<Long> hotPictureIds = userReactionMapper.selectHotTargetIds(RedisConstants.TARGET_PICTURE, RedisConstants.REACTION_LIKE, limit * 2);
-
-            // 如果点赞热门不足，补充收藏热门
-            if (hotPictureIds.size() < limit) {
-                List<Long> hotFavoriteIds = userReactionMapper.selectHotTargetIds(RedisConstants.TARGET_PICTURE, RedisConstants.REACTION_FAVORITE, limit * 2);
-                // 合并并去重
-                for (Long id : hotFavoriteIds) {
-                    if (!hotPictureIds.contains(id)) {
-                        hotPictureIds.add(id);
-                        if (hotPictureIds.size() >= limit * 2) {
-                            break;
-                        }
-                    }
+            List<PictureVO> hotPictures = (List<PictureVO>) redisTemplate.opsForValue().get(cacheKey);
+
+            if (hotPictures == null) {
+                // 缓存未命中，按热度排行取ID后一次批量回填，不累加浏览量
+                List<Long> hotPictureIds = hotRankingManager.getTopPictureIds(period, PictureHotRankingManager.RANKING_SIZE);
+                hotPictures = pictureService.listPictureVOsByIds(hotPictureIds);
+                // 榜单尚未生成时不缓存空列表，避免榜单生成后仍在缓存有效期内返回空结果
+                if (!hotPictures.isEmpty()) {
+                    redisTemplate.opsForValue().set(cacheKey, hotPictures, RedisConstants.HOT_CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES);
                 }
             }
 
-            if (hotPictureIds.isEmpty()) {
-                return new ArrayList<>();
-            }
-
-            // 2. 查询图片详情
-            List<PictureVO> hotPictures = new ArrayList<>();
-            for (Long pictureId : hotPictureIds) {
-                try {
-                    // 使用现有的图片服务获取详情
-                    PictureVO pictureVO = pictureService.getPictureById(pictureId, UserContext.getUser());
-                    if (pictureVO != null) {
-                        hotPictures.add(pictureVO);
-                        if (hotPictures.size() >= limit) {
-                            break;
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("获取热门图片详情失败: pictureId={}", pictureId, e);
-                }
-            }
+            List<PictureVO> result = hotPictures.size() > limit
+                    ? new ArrayList<>(hotPictures.subList(0, limit)) : hotPictures;
 
-            // 3. 缓存结果
-            if (!hotPictures.isEmpty()) {
-                redisTemplate.opsForValue().set(cacheKey, hotPictures, RedisConstants.HOT_CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES);
+            // 填充当前用户的点赞/收藏状态
+            Long userId = UserContext.getUserId();
+            if (userId != null && !result.isEmpty()) {
+                batchFillPictureUserReactionStatus(result, userId);
             }
-
-            return hotPictures;
+            return result;
         } catch (Exception e) {
             log.error("获取热门图片失败: limit={}, period={}", limit, period, e);
             return new ArrayList<>();
@@ -724,6 +573,7 @@ public class UserReactionServiceImpl implements UserReactionService {
                 } else if (RedisConstants.REACTION_FAVORITE.equals(reactionType)) {
                     pictureMapper.incrementCollectionCount(targetId);
                 }
+                leaderboardManager.refreshPictures(Collections.singletonList(targetId));
             }
         }
     }
@@ -768,6 +618,7 @@ public class UserReactionServiceImpl implements UserReactionService {
                 } else if (RedisConstants.REACTION_FAVORITE.equals(reactionType)) {
                     pictureMapper.decrementCollectionCount(targetId);
                 }
+                leaderboardManager.refreshPictures(Collections.singletonList(targetId));
             }
         }
     }
@@ -776,80 +627,130 @@ public class UserReactionServiceImpl implements UserReactionService {
      * 更新缓存中的点赞/收藏状态
      */
     private void updateReactionInCache(String targetType, Long targetId, String reactionType, Long userId, boolean isAdd) {
-        String userKey = RedisConstants.getUserReactionKey(targetType, targetId, userId);
-        UserReactionStatusVO cachedStatus = (UserReactionStatusVO) redisTemplate.opsForValue().get(userKey);
-
-        if (cachedStatus != null) {
-            // 更新状态
-            if (RedisConstants.REACTION_LIKE.equals(reactionType)) {
-                cachedStatus.setHasLiked(isAdd);
-            } else if (RedisConstants.REACTION_FAVORITE.equals(reactionType)) {
-                cachedStatus.setHasFavorited(isAdd);
-            }
-
-            // 重新设置缓存
-            redisTemplate.opsForValue().set(userKey, cachedStatus, RedisConstants.USER_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-        } else {
-            // 创建新的状态对象
-            UserReactionStatusVO newStatus = UserReactionStatusVO.builder()
-                    .targetId(targetId)
-                    .targetType(targetType)
-                    .userId(userId)
-                    .hasLiked(RedisConstants.REACTION_LIKE.equals(reactionType) && isAdd)
-                    .hasFavorited(RedisConstants.REACTION_FAVORITE.equals(reactionType) && isAdd)
-                    .build();
-
-            redisTemplate.opsForValue().set(userKey, newStatus, RedisConstants.USER_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-        }
+        // 增量维护用户的点赞/收藏集合
+        reactionSetManager.applyReaction(userId, targetType, targetId, reactionType, isAdd);
 
         // 更新计数缓存过期时间
         String countKey = RedisConstants.getReactionCountKey(targetType, targetId, reactionType);
         redisTemplate.expire(countKey, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-
-        // 清除热门图片缓存（让新的热门图片可以及时反映）
-        clearHotPicturesCache();
     }
 
     /**
-     * 更新计数缓存
+     * 批量获取计数：一次MGET读取所有目标的三项计数，未命中的目标一次查询数据库并管道回填缓存
+     * 图片目标的计数以图片表为准，其他目标按目标和互动类型分组统计互动表
+     *
+     * @return 目标ID -> 计数，图片不存在时不包含该目标
      */
-    private void updateCountCache(String targetType, Long targetId, Long likeCount, Long favoriteCount, Long viewCount) {
-        String likeCountKey = RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_LIKE);
-        String favoriteCountKey = RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_FAVORITE);
-        String viewCountKey = RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_VIEW);
-
-        redisTemplate.opsForValue().set(likeCountKey, likeCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-        redisTemplate.opsForValue().set(favoriteCountKey, favoriteCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
-        redisTemplate.opsForValue().set(viewCountKey, viewCount, RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
+    private Map<Long, UserReactionCountVO> multiGetReactionCounts(String targetType, List<Long> targetIds) {
+        List<Long> distinctIds = targetIds.stream().distinct().collect(Collectors.toList());
+        List<String> keys = new ArrayList<>(distinctIds.size() * COUNT_REACTION_TYPES.size());
+        for (Long targetId : distinctIds) {
+            for (String reactionType : COUNT_REACTION_TYPES) {
+                keys.add(RedisConstants.getReactionCountKey(targetType, targetId, reactionType));
+            }
+        }
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+
+        Map<Long, UserReactionCountVO> resultMap = new HashMap<>(distinctIds.size());
+        List<Long> missedIds = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            int offset = i * COUNT_REACTION_TYPES.size();
+            Long likeCount = toLong(values == null ? null : values.get(offset));
+            Long favoriteCount = toLong(values == null ? null : values.get(offset + 1));
+            Long viewCount = toLong(values == null ? null : values.get(offset + 2));
+            if (likeCount == null || favoriteCount == null || viewCount == null) {
+                missedIds.add(distinctIds.get(i));
+                continue;
+            }
+            resultMap.put(distinctIds.get(i), buildCountVO(targetType, distinctIds.get(i), likeCount, favoriteCount, viewCount));
+        }
+        if (missedIds.isEmpty()) {
+            return resultMap;
+        }
+
+        // 未命中的目标从数据库批量加载
+        Map<Long, UserReactionCountVO> loaded = new HashMap<>(missedIds.size());
+        if (RedisConstants.TARGET_PICTURE.equals(targetType)) {
+            for (Picture picture : pictureMapper.selectByIds(missedIds)) {
+                if (picture.getIsDeleted() != null && picture.getIsDeleted() == 1) {
+                    continue;
+                }
+                loaded.put(picture.getId(), buildCountVO(targetType, picture.getId(),
+                        picture.getLikeCount() != null ? picture.getLikeCount().longValue() : 0L,
+                        picture.getCollectionCount() != null ? picture.getCollectionCount().longValue() : 0L,
+                        picture.getViewCount() != null ? picture.getViewCount() : 0L));
+            }
+        } else {
+            Map<Long, Map<String, Long>> grouped = new HashMap<>(missedIds.size());
+            for (TargetReactionCount row : userReactionMapper.countReactionsGroupByTarget(targetType, missedIds)) {
+                grouped.computeIfAbsent(row.getTargetId(), k -> new HashMap<>())
+                        .put(row.getReactionType(), row.getReactionCount());
+            }
+            for (Long targetId : missedIds) {
+                Map<String, Long> counts = grouped.getOrDefault(targetId, Collections.emptyMap());
+                loaded.put(targetId, buildCountVO(targetType, targetId,
+                        counts.getOrDefault(RedisConstants.REACTION_LIKE, 0L),
+                        counts.getOrDefault(RedisConstants.REACTION_FAVORITE, 0L),
+                        counts.getOrDefault(RedisConstants.REACTION_VIEW, 0L)));
+            }
+        }
+
+        backfillCountCache(targetType, loaded.values());
+        resultMap.putAll(loaded);
+        return resultMap;
     }
 
     /**
-     * 清除热门图片缓存
+     * 管道批量回填计数缓存
      */
-    private void clearHotPicturesCache() {
+    private void backfillCountCache(String targetType, Collection<UserReactionCountVO> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
         try {
-            Set<String> keys = redisTemplate.keys(RedisConstants.HOT_PICTURES_PREFIX + "*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    for (UserReactionCountVO count : counts) {
+                        Long targetId = count.getTargetId();
+                        ops.opsForValue().set(RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_LIKE),
+                                count.getLikeCount(), RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
+                        ops.opsForValue().set(RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_FAVORITE),
+                                count.getFavoriteCount(), RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
+                        ops.opsForValue().set(RedisConstants.getReactionCountKey(targetType, targetId, RedisConstants.REACTION_VIEW),
+                                count.getViewCount(), RedisConstants.COUNT_CACHE_EXPIRE_DAYS, TimeUnit.DAYS);
+                    }
+                    return null;
+                }
+            });
         } catch (Exception e) {
-            log.error("清除热门图片缓存失败", e);
+            log.error("回填计数缓存失败: targetType={}, size={}, error={}", targetType, counts.size(), e.getMessage());
         }
     }
 
-    /**
-     * 检查用户是否对目标有特定类型的点赞/收藏
-     */
-    private boolean checkReactionExists(String targetType, Long targetId, String reactionType, Long userId) {
-        UserReaction reaction = userReactionMapper.selectByUserAndTarget(targetType, targetId, reactionType, userId);
-        return reaction != null && reaction.getIsDeleted() == 0;
+    private UserReactionCountVO buildCountVO(String targetType, Long targetId, Long likeCount, Long favoriteCount, Long viewCount) {
+        return UserReactionCountVO.builder()
+                .targetId(targetId)
+                .targetType(targetType)
+                .likeCount(likeCount)
+                .favoriteCount(favoriteCount)
+                .viewCount(viewCount)
+                .build();
     }
 
     /**
      * 从Redis获取Long值
      */
     private Long getLongFromRedis(String key) {
-        Object value = redisTemplate.opsForValue().get(key);
+        return toLong(redisTemplate.opsForValue().get(key));
+    }
+
+    /**
+     * 将Redis中读取的计数值转换为Long
+     */
+    private Long toLong(Object value) {
         if (value instanceof Long) {
             return (Long) value;
         } else if (value instanceof Integer) {
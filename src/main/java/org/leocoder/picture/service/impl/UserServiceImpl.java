@@ -8,9 +8,9 @@ import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.leocoder.picture.cache.UserProfileCache;
 import org.leocoder.picture.common.PageResult;
 import org.leocoder.picture.common.PageUtils;
-import org.leocoder.picture.config.BloomFilterConfig;
 import org.leocoder.picture.domain.dto.user.AdminUserAddRequest;
 import org.leocoder.picture.domain.dto.user.AdminUserQueryRequest;
 import org.leocoder.picture.domain.dto.user.AdminUserUpdateRequest;
@@ -24,6 +24,7 @@ import org.leocoder.picture.enums.UserRoleEnum;
 import org.leocoder.picture.enums.UserStatusEnum;
 import org.leocoder.picture.exception.BusinessException;
 import org.leocoder.picture.exception.ErrorCode;
+import org.leocoder.picture.manager.bloom.AccountBloomFilterManager;
 import org.leocoder.picture.mapper.UserMapper;
 import org.leocoder.picture.service.UserService;
 import org.leocoder.picture.utils.IpUtils;
@@ -53,10 +54,12 @@ public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
 
-    private final BloomFilterConfig bloomFilterConfig;
+    private final AccountBloomFilterManager accountBloomFilter;
 
     private final SnowflakeIdGenerator snowflakeIdGenerator;
 
+    private final UserProfileCache userProfileCache;
+
     // 账号正则：4-16位，字母开头，允许字母、数字、下划线
     private static final Pattern ACCOUNT_PATTERN = Pattern.compile("^[a-zA-Z]\\w{3,15}$");
 
@@ -96,12 +99,13 @@ public class UserServiceImpl implements UserService {
         }
 
         // 5. 布隆过滤器预判是否已存在相同账号(减少数据库查询)
-        if (bloomFilterConfig.mightContain(userAccount)) {
+        if (accountBloomFilter.mightContain(userAccount)) {
             // 布隆过滤器判断可能存在，进一步精确查询数据库
             User existUser = userMapper.selectByAccount(userAccount);
             if (ObjectUtil.isNotNull(existUser)) {
                 throw new BusinessException(ErrorCode.ACCOUNT_EXIST, "账号已存在");
             }
+            accountBloomFilter.recordFalsePositive();
         }
 
         // 6. 密码加密
@@ -140,7 +144,7 @@ public class UserServiceImpl implements UserService {
         }
 
         // 9. 将新账号添加到布隆过滤器
-        bloomFilterConfig.addAccount(userAccount);
+        accountBloomFilter.addAccount(userAccount);
 
         return user.getId();
     }
@@ -161,7 +165,7 @@ public class UserServiceImpl implements UserService {
         }
 
         // 2. 布隆过滤器预判账号是否存在
-        if (!bloomFilterConfig.mightContain(userAccount)) {
+        if (!accountBloomFilter.mightContain(userAccount)) {
             // 布隆过滤器判断一定不存在，直接返回错误
             throw new BusinessException(ErrorCode.ACCOUNT_NOT_FOUND, "账号不存在");
         }
@@ -169,6 +173,7 @@ public class UserServiceImpl implements UserService {
         // 3. 查询用户信息
         User user = userMapper.selectByAccount(userAccount);
         if (ObjectUtil.isNull(user)) {
+            accountBloomFilter.recordFalsePositive();
             throw new BusinessException(ErrorCode.ACCOUNT_NOT_FOUND, "账号不存在");
         }
 
@@ -190,6 +195,7 @@ public class UserServiceImpl implements UserService {
         // 7. 更新登录信息
         LocalDateTime now = LocalDateTime.now();
         userMapper.updateLoginInfo(user.getId(), now, ipAddress);
+        userProfileCache.invalidate(user.getId());
 
         // 8. Sa-Token登录并获取token信息
         StpUtil.login(user.getId());
@@ -335,6 +341,7 @@ public class UserServiceImpl implements UserService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "更新失败，请稍后重试");
         }
+        userProfileCache.invalidate(userId);
 
         // 7. 更新线程上下文中的用户信息
         User contextUser = UserContext.getUser();
@@ -419,6 +426,7 @@ public class UserServiceImpl implements UserService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "密码更新失败，请稍后重试");
         }
+        userProfileCache.invalidate(userId);
 
         // 11. 更新线程上下文中的用户信息
         User contextUser = UserContext.getUser();
@@ -451,11 +459,12 @@ public class UserServiceImpl implements UserService {
         String password = userAddRequest.getPassword();
 
         // 2. 检查账号是否已存在
-        if (bloomFilterConfig.mightContain(account)) {
+        if (accountBloomFilter.mightContain(account)) {
             User existUser = userMapper.selectByAccount(account);
             if (ObjectUtil.isNotNull(existUser)) {
                 throw new BusinessException(ErrorCode.ACCOUNT_EXIST, "账号已存在");
             }
+            accountBloomFilter.recordFalsePositive();
         }
 
         // 3. 密码加密
@@ -515,7 +524,7 @@ public class UserServiceImpl implements UserService {
         }
 
         // 7. 将账号添加到布隆过滤器
-        bloomFilterConfig.addAccount(account);
+        accountBloomFilter.addAccount(account);
 
         return user.getId();
     }
@@ -533,8 +542,8 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户ID不合法");
         }
 
-        // 2. 查询用户信息
-        User user = userMapper.selectById(id);
+        // 2. 查询用户信息（优先读取本地用户缓存）
+        User user = userProfileCache.get(id);
         if (ObjectUtil.isNull(user) || user.getIsDeleted() == 1) {
             throw new BusinessException(ErrorCode.ACCOUNT_NOT_FOUND, "用户不存在");
         }
@@ -556,8 +565,8 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户ID不合法");
         }
 
-        // 2. 查询用户信息
-        User user = userMapper.selectById(id);
+        // 2. 查询用户信息（优先读取本地用户缓存）
+        User user = userProfileCache.get(id);
         if (ObjectUtil.isNull(user) || user.getIsDeleted() == 1) {
             throw new BusinessException(ErrorCode.ACCOUNT_NOT_FOUND, "用户不存在");
         }
@@ -595,6 +604,7 @@ public class UserServiceImpl implements UserService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "删除用户失败，请稍后重试");
         }
+        userProfileCache.invalidate(id);
 
         // 5. 如果用户已登录，强制下线
         if (StpUtil.isLogin(id)) {
@@ -667,6 +677,7 @@ public class UserServiceImpl implements UserService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "更新用户信息失败，请稍后重试");
         }
+        userProfileCache.invalidate(userId);
 
         return true;
     }
@@ -727,6 +738,7 @@ public class UserServiceImpl implements UserService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "禁用用户失败，请稍后重试");
         }
+        userProfileCache.invalidate(id);
 
         // 6. 如果用户已登录，强制下线
         if (StpUtil.isLogin(id)) {
@@ -770,6 +782,7 @@ public class UserServiceImpl implements UserService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "解禁用户失败，请稍后重试");
         }
+        userProfileCache.invalidate(id);
 
         return true;
     }
@@ -912,6 +925,7 @@ public class UserServiceImpl implements UserService {
         if (result != 1) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "密码重置失败，请稍后重试");
         }
+        userProfileCache.invalidate(userId);
 
         // 7. 如果用户已登录，强制下线
         if (StpUtil.isLogin(userId)) {
@@ -942,6 +956,7 @@ public class UserServiceImpl implements UserService {
 
         // 3. 批量逻辑删除用户
         int result = userMapper.batchLogicDeleteUsers(ids, now, adminId);
+        userProfileCache.invalidate(ids);
 
         // 4. 批量登出用户
         for (Long id : ids) {
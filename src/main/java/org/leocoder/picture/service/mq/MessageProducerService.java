@@ -1,50 +1,339 @@
 package org.leocoder.picture.service.mq;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
 import org.leocoder.picture.domain.message.PictureReactionMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * @author : 程序员Leo
- * @version 1.0
+ * @version 2.0
  * @date 2025-04-21 22:49
  * @description : RocketMQ消息生产者服务
- *  负责发送各类业务消息到消息队列
+ *  负责发送各类业务消息到消息队列。
+ *  业务线程只把消息放入有界发件箱即返回，由后台发送线程批量异步发送；
+ *  发送失败的消息写入本地重试日志，定时重放，请求线程不会等待Broker
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class MessageProducerService {
 
-    private final RocketMQTemplate rocketMQTemplate;
-
     /**
      * 图片反应主题
      */
     private static final String PICTURE_REACTION_TOPIC = "PICTURE_REACTION_TOPIC";
 
+    // 批量消息中每条消息除消息体外的编码开销估算（长度字段、属性等）
+    private static final int MESSAGE_OVERHEAD_BYTES = 256;
+
+    private final RocketMQTemplate rocketMQTemplate;
+
+    private final MessageRetryJournal retryJournal;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockingQueue<OutboxEntry> outbox;
+
+    // 单次批量发送的最大消息数
+    private final int batchSize;
+
+    // 单次批量发送的最大字节数（受生产者max-message-size限制）
+    private final int maxBatchBytes;
+
+    private final long sendTimeoutMillis;
+
+    private volatile boolean running = true;
+
+    private Thread senderThread;
+
+    // 发送统计
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder journaled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder sendLatencyMicros = new LongAdder();
+    private final LongAdder queueLatencyMicros = new LongAdder();
+    private final AtomicLong maxSendLatencyMicros = new AtomicLong();
+    private final AtomicLong maxQueueLatencyMicros = new AtomicLong();
+
+    public MessageProducerService(RocketMQTemplate rocketMQTemplate,
+                                  MessageRetryJournal retryJournal,
+                                  @Value("${picture.mq.outbox-capacity:10000}") int outboxCapacity,
+                                  @Value("${picture.mq.batch-size:32}") int batchSize,
+                                  @Value("${rocketmq.producer.max-message-size:4194304}") int maxMessageSize,
+                                  @Value("${rocketmq.producer.send-message-timeout:3000}") long sendTimeoutMillis) {
+        this.rocketMQTemplate = rocketMQTemplate;
+        this.retryJournal = retryJournal;
+        this.outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        this.batchSize = batchSize;
+        this.maxBatchBytes = maxMessageSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        senderThread = new Thread(this::sendLoop, "mq-outbox-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
     /**
-     * 发送图片反应消息
+     * 停机时等待发件箱发送完毕，未发送的消息写入重试日志
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        senderThread.join(TimeUnit.SECONDS.toMillis(5));
+        List<OutboxEntry> remaining = new ArrayList<>();
+        outbox.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            List<String> bodies = new ArrayList<>(remaining.size());
+            for (OutboxEntry entry : remaining) {
+                bodies.add(new String(entry.body, StandardCharsets.UTF_8));
+            }
+            retryJournal.append(bodies);
+            journaled.add(bodies.size());
+            log.info("停机时发件箱剩余消息已写入重试日志: {}", bodies.size());
+        }
+    }
+
+    /**
+     * 发送图片反应消息（放入发件箱后立即返回）
      *
      * @param message 图片反应消息对象
-     * @return 是否成功发送
+     * @return 是否成功放入发件箱，发件箱已满时返回false，由调用方降级处理
      */
     public boolean sendPictureReactionMessage(PictureReactionMessage message) {
         try {
-            log.info("发送图片反应消息: pictureId={}, reactionType={}, operationType={}, userId={}",
-                    message.getPictureId(), message.getReactionType(), message.getOperationType(), message.getUserId());
+            byte[] body = objectMapper.writeValueAsBytes(message);
+            if (outbox.offer(new OutboxEntry(body, System.nanoTime()))) {
+                enqueued.increment();
+                log.debug("图片反应消息已放入发件箱: pictureId={}, reactionType={}, operationType={}",
+                        message.getPictureId(), message.getReactionType(), message.getOperationType());
+                return true;
+            }
+            rejected.increment();
+            log.warn("发件箱已满，图片反应消息未入队: pictureId={}, reactionType={}",
+                    message.getPictureId(), message.getReactionType());
+            return false;
+        } catch (Exception e) {
+            log.error("图片反应消息入队失败: {}", e.getMessage(), e);
+            return false;
+        }
+    }
 
-            rocketMQTemplate.syncSend(PICTURE_REACTION_TOPIC,
-                    MessageBuilder.withPayload(message).build());
+    /**
+     * 定时重放发送失败的消息
+     * 逐个待重放文件同步重发，每段发送成功后才在日志中确认；遇到发送失败即停止，
+     * 未确认的消息留在日志中等待下次重放
+     */
+    @Scheduled(fixedDelayString = "${picture.mq.journal-replay-interval-ms:30000}")
+    public void replayJournal() {
+        for (Path replayFile : retryJournal.prepareReplay()) {
+            try {
+                List<String> bodies = retryJournal.readPending(replayFile);
+                if (!bodies.isEmpty()) {
+                    log.info("开始重放发送失败的消息: 文件={}, 消息数={}", replayFile.getFileName(), bodies.size());
+                }
+                long now = System.nanoTime();
+                for (int from = 0; from < bodies.size(); from += batchSize) {
+                    List<OutboxEntry> entries = new ArrayList<>();
+                    for (String body : bodies.subList(from, Math.min(from + batchSize, bodies.size()))) {
+                        entries.add(new OutboxEntry(body.getBytes(StandardCharsets.UTF_8), now));
+                    }
+                    for (List<OutboxEntry> chunk : splitByBytes(entries)) {
+                        if (!sendChunkSync(chunk)) {
+                            return;
+                        }
+                        retryJournal.acknowledge(replayFile, chunk.size());
+                        replayed.add(chunk.size());
+                    }
+                }
+                retryJournal.complete(replayFile);
+            } catch (IOException e) {
+                log.error("重放消息重试日志失败: 文件={}, error={}", replayFile.getFileName(), e.getMessage(), e);
+                return;
+            }
+        }
+    }
 
-            log.info("图片反应消息发送成功");
-            return true;
+    /**
+     * 获取生产者统计数据
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        long sentCount = sent.sum();
+        stats.put("queueDepth", (long) outbox.size());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("sent", sentCount);
+        stats.put("batches", batches.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("journaled", journaled.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("journalPending", retryJournal.getPendingCount());
+        stats.put("avgQueueLatencyMicros", sentCount == 0 ? 0 : queueLatencyMicros.sum() / sentCount);
+        stats.put("maxQueueLatencyMicros", maxQueueLatencyMicros.get());
+        long batchCount = batches.sum();
+        stats.put("avgSendLatencyMicros", batchCount == 0 ? 0 : sendLatencyMicros.sum() / batchCount);
+        stats.put("maxSendLatencyMicros", maxSendLatencyMicros.get());
+        return stats;
+    }
+
+    /**
+     * 后台发送循环：取出一批消息后按字节上限切分并异步发送
+     */
+    private void sendLoop() {
+        while (running || !outbox.isEmpty()) {
+            try {
+                OutboxEntry first = outbox.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<OutboxEntry> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                outbox.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("发件箱发送循环异常: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 按字节上限切分后逐段异步批量发送
+     */
+    private void sendBatch(List<OutboxEntry> entries) {
+        for (List<OutboxEntry> chunk : splitByBytes(entries)) {
+            sendChunk(chunk);
+        }
+    }
+
+    /**
+     * 按单次批量发送的字节上限切分
+     */
+    private List<List<OutboxEntry>> splitByBytes(List<OutboxEntry> entries) {
+        List<List<OutboxEntry>> chunks = new ArrayList<>();
+        List<OutboxEntry> chunk = new ArrayList<>();
+        int chunkBytes = 0;
+        for (OutboxEntry entry : entries) {
+            int entryBytes = entry.body.length + MESSAGE_OVERHEAD_BYTES;
+            if (!chunk.isEmpty() && chunkBytes + entryBytes > maxBatchBytes) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+            chunk.add(entry);
+            chunkBytes += entryBytes;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * 同步批量发送（重放用），返回是否发送成功
+     */
+    private boolean sendChunkSync(List<OutboxEntry> chunk) {
+        List<Message<byte[]>> messages = new ArrayList<>(chunk.size());
+        for (OutboxEntry entry : chunk) {
+            messages.add(MessageBuilder.withPayload(entry.body).build());
+        }
+        try {
+            SendResult sendResult = rocketMQTemplate.syncSend(PICTURE_REACTION_TOPIC, messages, sendTimeoutMillis);
+            if (sendResult != null && sendResult.getSendStatus() == SendStatus.SEND_OK) {
+                batches.increment();
+                sent.add(chunk.size());
+                return true;
+            }
+            log.warn("重放消息发送未成功，稍后重试: 消息数={}, 状态={}", chunk.size(),
+                    sendResult == null ? null : sendResult.getSendStatus());
         } catch (Exception e) {
-            log.error("图片反应消息发送失败: {}", e.getMessage(), e);
-            return false;
+            log.warn("重放消息发送失败，稍后重试: 消息数={}, error={}", chunk.size(), e.getMessage());
+        }
+        return false;
+    }
+
+    private void sendChunk(List<OutboxEntry> chunk) {
+        long sendStart = System.nanoTime();
+        List<Message<byte[]>> messages = new ArrayList<>(chunk.size());
+        for (OutboxEntry entry : chunk) {
+            messages.add(MessageBuilder.withPayload(entry.body).build());
+            long queueMicros = TimeUnit.NANOSECONDS.toMicros(sendStart - entry.enqueuedAt);
+            queueLatencyMicros.add(queueMicros);
+            maxQueueLatencyMicros.accumulateAndGet(queueMicros, Math::max);
+        }
+
+        try {
+            rocketMQTemplate.asyncSend(PICTURE_REACTION_TOPIC, messages, new SendCallback() {
+                @Override
+                public void onSuccess(SendResult sendResult) {
+                    long sendMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendStart);
+                    batches.increment();
+                    sent.add(chunk.size());
+                    sendLatencyMicros.add(sendMicros);
+                    maxSendLatencyMicros.accumulateAndGet(sendMicros, Math::max);
+                    log.debug("图片反应消息批量发送成功: 消息数={}, 耗时={}μs", chunk.size(), sendMicros);
+                }
+
+                @Override
+                public void onException(Throwable e) {
+                    journal(chunk, e);
+                }
+            }, sendTimeoutMillis);
+        } catch (Exception e) {
+            journal(chunk, e);
+        }
+    }
+
+    private void journal(List<OutboxEntry> chunk, Throwable cause) {
+        List<String> bodies = new ArrayList<>(chunk.size());
+        for (OutboxEntry entry : chunk) {
+            bodies.add(new String(entry.body, StandardCharsets.UTF_8));
+        }
+        retryJournal.append(bodies);
+        journaled.add(bodies.size());
+        log.error("图片反应消息批量发送失败，已写入重试日志: 消息数={}, error={}", bodies.size(), cause.getMessage());
+    }
+
+    /**
+     * 发件箱条目
+     */
+    private static class OutboxEntry {
+        private final byte[] body;
+        private final long enqueuedAt;
+
+        OutboxEntry(byte[] body, long enqueuedAt) {
+            this.body = body;
+            this.enqueuedAt = enqueuedAt;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package org.leocoder.picture.service.mq;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * @author : 程序员Leo
+ * @version 1.0
+ * @date 2025-04-30 10:00
+ * @description : 消息发送失败重试日志（本地磁盘）
+ * 发送失败的消息体按行追加到日志文件，重放时先将日志文件改名为待重放文件再读取；
+ * 待重放文件只在其中的消息全部重发成功后删除，已确认的行数记录在旁边的进度文件中，
+ * 重发失败或进程在重放过程中退出时，未确认的消息会在下次重放时继续处理
+ */
+@Slf4j
+@Component
+public class MessageRetryJournal {
+
+    private static final String JOURNAL_FILE = "retry.journal";
+
+    private static final String REPLAY_SUFFIX = ".replay";
+
+    // 重放进度文件后缀（记录待重放文件中已重发成功的行数）
+    private static final String ACK_SUFFIX = ".ack";
+
+    @Value("${picture.mq.journal-dir:./data/mq-journal}")
+    private String journalDir;
+
+    private Path directory;
+
+    private Path journalFile;
+
+    // 日志中尚未重放的消息数量（启动时按残留文件行数初始化）
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(journalDir).toAbsolutePath();
+        Files.createDirectories(directory);
+        journalFile = directory.resolve(JOURNAL_FILE);
+        long pending = 0;
+        for (Path file : listJournalFiles()) {
+            pending += Files.readAllLines(file, StandardCharsets.UTF_8).size() - readAckedLines(file);
+        }
+        pendingCount.set(pending);
+        log.info("消息重试日志目录: {}, 待重放消息数={}", directory, pending);
+    }
+
+    /**
+     * 追加发送失败的消息体
+     *
+     * @param bodies 消息体（JSON）
+     */
+    public synchronized void append(List<String> bodies) {
+        if (bodies.isEmpty()) {
+            return;
+        }
+        try {
+            Files.write(journalFile, bodies, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+            pendingCount.addAndGet(bodies.size());
+        } catch (IOException e) {
+            log.error("写入消息重试日志失败，丢弃消息数={}, error={}", bodies.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将当前日志文件转为待重放文件，返回所有待重放文件（按创建顺序）
+     * 待重放文件此时不会删除，需在消息重发成功后调用 {@link #acknowledge} 和 {@link #complete}
+     *
+     * @return 待重放文件列表
+     */
+    public synchronized List<Path> prepareReplay() {
+        List<Path> replayFiles = new ArrayList<>();
+        try {
+            if (Files.exists(journalFile)) {
+                Files.move(journalFile, directory.resolve(System.currentTimeMillis() + REPLAY_SUFFIX),
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            for (Path file : listJournalFiles()) {
+                if (file.getFileName().toString().endsWith(REPLAY_SUFFIX)) {
+                    replayFiles.add(file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("准备重放消息重试日志失败: {}", e.getMessage(), e);
+        }
+        return replayFiles;
+    }
+
+    /**
+     * 读取待重放文件中尚未确认的消息体
+     *
+     * @param replayFile 待重放文件
+     * @return 消息体列表
+     */
+    public List<String> readPending(Path replayFile) throws IOException {
+        List<String> lines = Files.readAllLines(replayFile, StandardCharsets.UTF_8);
+        int acked = (int) Math.min(readAckedLines(replayFile), lines.size());
+        return new ArrayList<>(lines.subList(acked, lines.size()));
+    }
+
+    /**
+     * 记录待重放文件中又有若干条消息重发成功
+     *
+     * @param replayFile 待重放文件
+     * @param count      本次重发成功的消息数
+     */
+    public synchronized void acknowledge(Path replayFile, int count) throws IOException {
+        long acked = readAckedLines(replayFile) + count;
+        Path ackFile = ackFileOf(replayFile);
+        Path tempFile = directory.resolve(ackFile.getFileName() + ".tmp");
+        Files.write(tempFile, String.valueOf(acked).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, ackFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        pendingCount.addAndGet(-count);
+    }
+
+    /**
+     * 待重放文件中的消息已全部重发成功，删除文件及其进度文件
+     *
+     * @param replayFile 待重放文件
+     */
+    public synchronized void complete(Path replayFile) throws IOException {
+        Files.deleteIfExists(replayFile);
+        Files.deleteIfExists(ackFileOf(replayFile));
+    }
+
+    /**
+     * 获取待重放的消息数量
+     */
+    public long getPendingCount() {
+        return Math.max(pendingCount.get(), 0);
+    }
+
+    private Path ackFileOf(Path replayFile) {
+        return directory.resolve(replayFile.getFileName() + ACK_SUFFIX);
+    }
+
+    /**
+     * 读取待重放文件已确认的行数，没有进度文件时为0
+     */
+    private long readAckedLines(Path file) throws IOException {
+        Path ackFile = ackFileOf(file);
+        if (!Files.exists(ackFile)) {
+            return 0;
+        }
+        String content = new String(Files.readAllBytes(ackFile), StandardCharsets.UTF_8).trim();
+        return content.isEmpty() ? 0 : Long.parseLong(content);
+    }
+
+    private List<Path> listJournalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> result = new ArrayList<>();
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.equals(JOURNAL_FILE) || name.endsWith(REPLAY_SUFFIX);
+            }).sorted().forEach(result::add);
+            return result;
+        }
+    }
+}
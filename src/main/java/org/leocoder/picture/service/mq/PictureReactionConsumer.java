@@ -1,119 +1,206 @@
 package org.leocoder.picture.service.mq;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
-import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.message.MessageExt;
 import org.leocoder.picture.cache.PictureCacheManager;
 import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.domain.dto.picture.PictureCountDelta;
 import org.leocoder.picture.domain.message.PictureReactionMessage;
+import org.leocoder.picture.manager.PictureLeaderboardManager;
 import org.leocoder.picture.mapper.PictureMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+
 /**
  * @author : 程序员Leo
- * @version 2.0
+ * @version 3.0
  * @date 2025-04-24 14:30
- * @description : 图片反应消息消费者（增强版，支持缓存一致性）
+ * @description : 图片反应消息消费者（批量消费）
+ * 每次拉取一批消息，按图片合并点赞/收藏/浏览的增减操作得到净变化量，
+ * 用一条多行UPDATE写入数据库，并对受影响的排序缓存只做一次去重后的清除
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@RocketMQMessageListener(
-        topic = "${rocketmq.consumer.picture-reaction.topic}",
-        consumerGroup = "${rocketmq.consumer.picture-reaction.group}")
-public class PictureReactionConsumer implements RocketMQListener<PictureReactionMessage> {
+public class PictureReactionConsumer implements MessageListenerConcurrently {
+
+    private static final String OPERATION_ADD = "add";
+
+    private static final String OPERATION_REMOVE = "remove";
 
     private final PictureMapper pictureMapper;
-    private final PictureCacheManager pictureCacheManager; // 添加缓存管理器依赖
+
+    private final PictureCacheManager pictureCacheManager;
+
+    private final PictureLeaderboardManager leaderboardManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Value("${rocketmq.name-server}")
+    private String nameServer;
+
+    @Value("${rocketmq.consumer.picture-reaction.topic}")
+    private String topic;
+
+    @Value("${rocketmq.consumer.picture-reaction.group}")
+    private String consumerGroup;
+
+    @Value("${rocketmq.consumer.picture-reaction.consume-thread-min:5}")
+    private int consumeThreadMin;
+
+    @Value("${rocketmq.consumer.picture-reaction.consume-thread-max:10}")
+    private int consumeThreadMax;
+
+    @Value("${rocketmq.consumer.picture-reaction.batch-size:32}")
+    private int batchSize;
+
+    private DefaultMQPushConsumer consumer;
+
+    public PictureReactionConsumer(PictureMapper pictureMapper, PictureCacheManager pictureCacheManager,
+                                   PictureLeaderboardManager leaderboardManager) {
+        this.pictureMapper = pictureMapper;
+        this.pictureCacheManager = pictureCacheManager;
+        this.leaderboardManager = leaderboardManager;
+    }
+
+    @PostConstruct
+    public void start() throws MQClientException {
+        consumer = new DefaultMQPushConsumer(consumerGroup);
+        consumer.setNamesrvAddr(nameServer);
+        consumer.subscribe(topic, "*");
+        consumer.setConsumeThreadMin(consumeThreadMin);
+        consumer.setConsumeThreadMax(consumeThreadMax);
+        // 每次回调最多交付batchSize条消息，拉取批量不小于消费批量
+        consumer.setConsumeMessageBatchMaxSize(batchSize);
+        consumer.setPullBatchSize(Math.max(batchSize, 32));
+        consumer.registerMessageListener(this);
+        consumer.start();
+        log.info("图片反应消息批量消费者已启动: topic={}, group={}, batchSize={}", topic, consumerGroup, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (consumer != null) {
+            consumer.shutdown();
+        }
+    }
 
     /**
-     * 处理图片反应消息
-     *
-     * @param message 图片反应消息
+     * 批量处理图片反应消息
+     * 整批写入失败时返回稍后重试；单条UPDATE是原子的，重试不会造成部分重复计数
      */
     @Override
-    public void onMessage(PictureReactionMessage message) {
+    public ConsumeConcurrentlyStatus consumeMessage(List<MessageExt> messages, ConsumeConcurrentlyContext context) {
         try {
-            log.info("接收到图片反应消息: pictureId={}, reactionType={}, operationType={}, userId={}",
-                    message.getPictureId(), message.getReactionType(), message.getOperationType(), message.getUserId());
+            Map<Long, PictureCountDelta> deltaMap = new LinkedHashMap<>();
+            for (MessageExt messageExt : messages) {
+                PictureReactionMessage message = parseMessage(messageExt);
+                if (message != null) {
+                    mergeMessage(deltaMap, message);
+                }
+            }
 
-            // 处理消息
-            processReactionMessage(message);
+            List<PictureCountDelta> deltas = new ArrayList<>();
+            Set<String> affectedSorts = new LinkedHashSet<>();
+            for (PictureCountDelta delta : deltaMap.values()) {
+                if (delta.isEmpty()) {
+                    continue;
+                }
+                deltas.add(delta);
+                collectAffectedSorts(delta, affectedSorts);
+            }
 
-            // 根据反应类型执行相应的缓存失效策略
-            invalidateRelatedCaches(message);
+            if (!deltas.isEmpty()) {
+                pictureMapper.batchUpdateReactionCounts(deltas);
+                leaderboardManager.applyCountDeltas(deltas);
+                pictureCacheManager.invalidateAfterReactionBatch(affectedSorts, deltas.size());
+            }
 
-            log.info("图片反应消息处理成功");
+            log.info("图片反应消息批量处理成功: 消息数={}, 净变更图片数={}", messages.size(), deltas.size());
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
         } catch (Exception e) {
-            log.error("图片反应消息处理失败: {}", e.getMessage(), e);
-            // 消费失败，消息会重试
-            throw e;
+            log.error("图片反应消息批量处理失败，稍后重试: 消息数={}, error={}", messages.size(), e.getMessage(), e);
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
         }
     }
 
     /**
-     * 处理图片反应消息
-     *
-     * @param message 图片反应消息
+     * 解析消息体，无法解析的消息直接跳过，避免整批反复重试
      */
-    private void processReactionMessage(PictureReactionMessage message) {
-        Long pictureId = message.getPictureId();
-        String reactionType = message.getReactionType();
-        String operationType = message.getOperationType();
-
-        // 根据操作类型和反应类型更新图片计数
-        if ("add".equals(operationType)) {
-            // 增加计数
-            if (RedisConstants.REACTION_LIKE.equals(reactionType)) {
-                pictureMapper.incrementLikeCount(pictureId);
-                log.info("增加图片点赞计数: pictureId={}", pictureId);
-            } else if (RedisConstants.REACTION_FAVORITE.equals(reactionType)) {
-                pictureMapper.incrementCollectionCount(pictureId);
-                log.info("增加图片收藏计数: pictureId={}", pictureId);
-            } else if (RedisConstants.REACTION_VIEW.equals(reactionType)) {
-                pictureMapper.incrementViewCount(pictureId);
-                log.info("增加图片浏览计数: pictureId={}", pictureId);
-            }
-        } else if ("remove".equals(operationType)) {
-            // 减少计数
-            if (RedisConstants.REACTION_LIKE.equals(reactionType)) {
-                pictureMapper.decrementLikeCount(pictureId);
-                log.info("减少图片点赞计数: pictureId={}", pictureId);
-            } else if (RedisConstants.REACTION_FAVORITE.equals(reactionType)) {
-                pictureMapper.decrementCollectionCount(pictureId);
-                log.info("减少图片收藏计数: pictureId={}", pictureId);
+    private PictureReactionMessage parseMessage(MessageExt messageExt) {
+        try {
+            PictureReactionMessage message = objectMapper.readValue(messageExt.getBody(), PictureReactionMessage.class);
+            if (message.getPictureId() == null || message.getReactionType() == null) {
+                log.warn("图片反应消息缺少必要字段，已跳过: msgId={}", messageExt.getMsgId());
+                return null;
             }
+            return message;
+        } catch (Exception e) {
+            log.error("图片反应消息解析失败，已跳过: msgId={}, error={}", messageExt.getMsgId(), e.getMessage());
+            return null;
         }
     }
 
     /**
-     * 根据反应类型清除相关缓存
-     *
-     * @param message 图片反应消息
+     * 将单条消息合并到对应图片的净变化量中
      */
-    private void invalidateRelatedCaches(PictureReactionMessage message) {
-        Long pictureId = message.getPictureId();
-        String reactionType = message.getReactionType();
-
-        switch (reactionType) {
-            case RedisConstants.REACTION_VIEW:
-                // 浏览量变更，影响"热门"和"浏览最多"排序的缓存
-                pictureCacheManager.invalidateAfterViewCountIncrement(pictureId);
-                break;
+    private void mergeMessage(Map<Long, PictureCountDelta> deltaMap, PictureReactionMessage message) {
+        int sign;
+        if (OPERATION_ADD.equals(message.getOperationType())) {
+            sign = 1;
+        } else if (OPERATION_REMOVE.equals(message.getOperationType())) {
+            sign = -1;
+        } else {
+            log.warn("未知的操作类型: {}, 已跳过", message.getOperationType());
+            return;
+        }
 
+        PictureCountDelta delta = deltaMap.computeIfAbsent(message.getPictureId(), PictureCountDelta::new);
+        switch (message.getReactionType()) {
             case RedisConstants.REACTION_LIKE:
-                // 点赞变更，影响"点赞最多"排序的缓存
-                pictureCacheManager.invalidateAfterLikeCountChange(pictureId);
+                delta.setLikeDelta(delta.getLikeDelta() + sign);
                 break;
-
             case RedisConstants.REACTION_FAVORITE:
-                // 收藏变更，影响"收藏最多"排序的缓存
-                pictureCacheManager.invalidateAfterCollectionCountChange(pictureId);
+                delta.setCollectionDelta(delta.getCollectionDelta() + sign);
+                break;
+            case RedisConstants.REACTION_VIEW:
+                // 浏览量只增不减
+                if (sign > 0) {
+                    delta.setViewDelta(delta.getViewDelta() + 1);
+                }
                 break;
-
             default:
-                log.warn("未知的反应类型: {}, 不执行缓存清除", reactionType);
+                log.warn("未知的反应类型: {}, 已跳过", message.getReactionType());
+        }
+    }
+
+    /**
+     * 根据变化的计数确定需要清除的排序缓存
+     */
+    private void collectAffectedSorts(PictureCountDelta delta, Set<String> affectedSorts) {
+        if (delta.getViewDelta() != 0) {
+            // 浏览量变更，影响"热门"和"浏览最多"排序的缓存
+            affectedSorts.add("popular");
+            affectedSorts.add("mostViewed");
+        }
+        if (delta.getLikeDelta() != 0) {
+            // 点赞变更，影响"点赞最多"排序的缓存
+            affectedSorts.add("mostLiked");
+        }
+        if (delta.getCollectionDelta() != 0) {
+            // 收藏变更，影响"收藏最多"排序的缓存
+            affectedSorts.add("mostCollected");
         }
     }
-}
\ No newline at end of file
+}
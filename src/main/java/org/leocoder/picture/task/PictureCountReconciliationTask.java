@@ -1,108 +1,322 @@
 package org.leocoder.picture.task;
 
-import lombok.RequiredArgsConstructor;
+import cn.hutool.core.collection.CollUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.leocoder.picture.cache.PictureCacheManager;
 import org.leocoder.picture.constants.RedisConstants;
+import org.leocoder.picture.domain.dto.picture.PictureCountCorrection;
+import org.leocoder.picture.domain.dto.picture.TargetReactionCount;
 import org.leocoder.picture.domain.pojo.Picture;
+import org.leocoder.picture.manager.PictureLeaderboardManager;
 import org.leocoder.picture.mapper.PictureMapper;
 import org.leocoder.picture.mapper.UserReactionMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author : 程序员Leo
- * @version 1.0
+ * @version 2.0
  * @date 2025-04-21 22:49
  * @description : 图片计数校准任务
- *  定期同步用户反应表和图片表中的计数数据，保证数据一致性
+ *  定期同步用户反应表和图片表中的计数数据，保证数据一致性。
+ *  每批图片只执行一次按（目标, 反应类型）分组的聚合查询，偏差通过一条批量UPDATE修正；
+ *  全量模式按ID游标遍历所有图片，增量模式只校准水位线之后点赞/收藏有变化的图片。
+ *  区间上界之后仍有互动变化的图片，其计数消息可能尚未消费，本次跳过（下次增量校准会覆盖）；
+ *  修正按读到的计数做比较写入，期间计数被消息消费修改过的图片不会被覆盖
  */
 @Slf4j
 @Component
 @EnableScheduling
-@RequiredArgsConstructor
 public class PictureCountReconciliationTask {
 
+    public static final String MODE_FULL = "full";
+    public static final String MODE_INCREMENTAL = "incremental";
+
+    // 首次增量校准（没有水位线）时回看的时长
+    private static final long INITIAL_LOOKBACK_MILLIS = 24 * 60 * 60 * 1000L;
+
     private final PictureMapper pictureMapper;
 
     private final UserReactionMapper userReactionMapper;
 
     private final PictureCacheManager pictureCacheManager;
-    
+
+    private final PictureLeaderboardManager leaderboardManager;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final int batchSize;
+
+    // 增量区间上界相对当前时间的延后量，留出消息消费和时钟偏差的余量
+    private final long settleMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 校准统计
+    private final LongAdder fullRuns = new LongAdder();
+    private final LongAdder incrementalRuns = new LongAdder();
+    private final LongAdder totalChecked = new LongAdder();
+    private final LongAdder totalCorrected = new LongAdder();
+    private final LongAdder totalLikeDrift = new LongAdder();
+    private final LongAdder totalFavoriteDrift = new LongAdder();
+    private volatile long lastFullDurationMillis;
+    private volatile long lastIncrementalDurationMillis;
+    private volatile long lastChecked;
+    private volatile long lastCorrected;
+    private volatile long lastLikeDrift;
+    private volatile long lastFavoriteDrift;
+    private volatile long lastRunAt;
+
+    public PictureCountReconciliationTask(PictureMapper pictureMapper,
+                                          UserReactionMapper userReactionMapper,
+                                          PictureCacheManager pictureCacheManager,
+                                          PictureLeaderboardManager leaderboardManager,
+                                          RedisTemplate<String, Object> redisTemplate,
+                                          @Value("${picture.reconcile.batch-size:500}") int batchSize,
+                                          @Value("${picture.reconcile.settle-seconds:120}") long settleSeconds) {
+        this.pictureMapper = pictureMapper;
+        this.userReactionMapper = userReactionMapper;
+        this.pictureCacheManager = pictureCacheManager;
+        this.leaderboardManager = leaderboardManager;
+        this.redisTemplate = redisTemplate;
+        this.batchSize = batchSize;
+        this.settleMillis = settleSeconds * 1000;
+    }
+
     /**
-     * 每天凌晨2点执行计数校准任务
+     * 每天执行一次全量计数校准（默认凌晨3点，错开2点的布隆过滤器重建，并在3点半的排行榜重建之前）
      */
-    @Scheduled(cron = "0 0 2 * * ?")
+    @Scheduled(cron = "${picture.reconcile.full-cron:0 0 3 * * ?}")
     public void reconcilePictureCounts() {
-        log.info("开始执行图片计数校准任务");
-        
-        int batchSize = 100;
-        long lastId = 0;
-        int totalProcessed = 0;
-        int totalUpdated = 0;
-        
+        reconcile(MODE_FULL);
+    }
+
+    /**
+     * 定期执行增量计数校准
+     */
+    @Scheduled(cron = "${picture.reconcile.incremental-cron:0 */10 * * * ?}")
+    public void reconcileChangedPictureCounts() {
+        reconcile(MODE_INCREMENTAL);
+    }
+
+    /**
+     * 执行计数校准，同一时间只允许一个校准任务运行
+     *
+     * @param mode 校准模式（full/incremental）
+     * @return 是否已执行，已有校准任务运行时返回false
+     */
+    public boolean reconcile(String mode) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("已有计数校准任务正在执行，跳过本次{}校准", mode);
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        RunResult result = new RunResult();
         try {
-            while (true) {
-                // 分批获取图片数据
-                List<Picture> pictures = pictureMapper.selectBatchPictures(lastId, batchSize);
-                if (pictures.isEmpty()) {
-                    break;
-                }
-                
-                for (Picture picture : pictures) {
-                    try {
-                        // 从用户反应表获取准确的点赞数和收藏数
-                        long actualLikeCount = userReactionMapper.countReactionsByTarget(
-                                RedisConstants.TARGET_PICTURE, picture.getId(), RedisConstants.REACTION_LIKE);
-                        
-                        long actualFavoriteCount = userReactionMapper.countReactionsByTarget(
-                                RedisConstants.TARGET_PICTURE, picture.getId(), RedisConstants.REACTION_FAVORITE);
-                        
-                        // 判断是否需要更新
-                        boolean needUpdate = false;
-                        
-                        // 点赞数不一致
-                        if (picture.getLikeCount() == null || actualLikeCount != picture.getLikeCount()) {
-                            needUpdate = true;
-                        }
-                        
-                        // 收藏数不一致
-                        if (picture.getCollectionCount() == null || actualFavoriteCount != picture.getCollectionCount()) {
-                            needUpdate = true;
-                        }
-                        
-                        // 需要更新
-                        if (needUpdate) {
-                            pictureMapper.updateCounters(picture.getId(), actualLikeCount, actualFavoriteCount);
-                            totalUpdated++;
-                            
-                            log.info("校准图片计数: id={}, 点赞从{}调整到{}, 收藏从{}调整到{}",
-                                    picture.getId(), picture.getLikeCount(), actualLikeCount,
-                                    picture.getCollectionCount(), actualFavoriteCount);
-                        }
-                    } catch (Exception e) {
-                        log.error("校准图片[{}]计数失败: {}", picture.getId(), e.getMessage(), e);
-                    }
-                    
-                    // 更新最后处理的ID
-                    lastId = picture.getId();
-                    totalProcessed++;
-                }
-                
-                log.info("批次处理完成，已处理{}张图片，更新{}张图片", pictures.size(), totalUpdated);
+            if (MODE_INCREMENTAL.equals(mode)) {
+                reconcileIncremental(result);
+            } else {
+                reconcileFull(result);
             }
 
-            if (totalUpdated > 0) {
-                log.info("由于校准了{}张图片的计数，正在清除相关缓存...", totalUpdated);
+            if (result.corrected > 0) {
+                log.info("由于校准了{}张图片的计数，正在清除相关缓存...", result.corrected);
                 pictureCacheManager.invalidateCountRelatedCaches();
             }
+        } catch (Exception e) {
+            log.error("图片计数校准任务执行异常: mode={}, error={}", mode, e.getMessage(), e);
+        } finally {
+            long duration = System.currentTimeMillis() - startTime;
+            recordRun(mode, result, duration);
+            running.set(false);
+            log.info("图片计数校准任务完成: mode={}, 检查{}张图片, 校准{}张图片, 点赞偏差={}, 收藏偏差={}, 耗时={}ms",
+                    mode, result.checked, result.corrected, result.likeDrift, result.favoriteDrift, duration);
+        }
+        return true;
+    }
+
+    /**
+     * 获取校准统计数据
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("fullRuns", fullRuns.sum());
+        stats.put("incrementalRuns", incrementalRuns.sum());
+        stats.put("lastFullDurationMillis", lastFullDurationMillis);
+        stats.put("lastIncrementalDurationMillis", lastIncrementalDurationMillis);
+        stats.put("lastChecked", lastChecked);
+        stats.put("lastCorrected", lastCorrected);
+        stats.put("lastLikeDrift", lastLikeDrift);
+        stats.put("lastFavoriteDrift", lastFavoriteDrift);
+        stats.put("totalChecked", totalChecked.sum());
+        stats.put("totalCorrected", totalCorrected.sum());
+        stats.put("totalLikeDrift", totalLikeDrift.sum());
+        stats.put("totalFavoriteDrift", totalFavoriteDrift.sum());
+        stats.put("lastRunAt", lastRunAt);
+        Long watermark = readWatermark();
+        stats.put("watermark", watermark == null ? 0 : watermark);
+        return stats;
+    }
+
+    /**
+     * 全量校准：按ID游标分批遍历所有未删除图片
+     */
+    private void reconcileFull(RunResult result) {
+        // 全量校准覆盖了开始前的所有变化，完成后水位线推进到开始时间
+        long upperBound = System.currentTimeMillis() - settleMillis;
+        long lastId = 0;
+        while (true) {
+            List<Picture> pictures = pictureMapper.selectReactionCountEntries(lastId, batchSize);
+            if (pictures.isEmpty()) {
+                break;
+            }
+            reconcileBatch(pictures, upperBound, result);
+            lastId = pictures.get(pictures.size() - 1).getId();
+            log.debug("全量校准批次完成: lastId={}, 已检查{}张, 已校准{}张", lastId, result.checked, result.corrected);
+        }
+        advanceWatermark(upperBound);
+    }
+
+    /**
+     * 增量校准：只校准水位线之后点赞/收藏有变化的图片
+     */
+    private void reconcileIncremental(RunResult result) {
+        long upperBound = System.currentTimeMillis() - settleMillis;
+        Long watermark = readWatermark();
+        long since = watermark == null ? upperBound - INITIAL_LOOKBACK_MILLIS : watermark;
+        if (since >= upperBound) {
+            return;
+        }
 
-            log.info("图片计数校准任务完成，共处理{}张图片，更新{}张图片", totalProcessed, totalUpdated);
+        List<Long> changedIds = userReactionMapper.selectChangedTargetIds(
+                RedisConstants.TARGET_PICTURE, toLocalDateTime(since), toLocalDateTime(upperBound));
+        for (int from = 0; from < changedIds.size(); from += batchSize) {
+            List<Long> batchIds = changedIds.subList(from, Math.min(from + batchSize, changedIds.size()));
+            reconcileBatch(pictureMapper.selectReactionCountEntriesByIds(batchIds), upperBound, result);
+        }
+        advanceWatermark(upperBound);
+    }
+
+    /**
+     * 校准一批图片：一次分组聚合得到实际计数，偏差合并为一条批量UPDATE
+     */
+    private void reconcileBatch(List<Picture> pictures, long upperBound, RunResult result) {
+        if (CollUtil.isEmpty(pictures)) {
+            return;
+        }
+        List<Long> pictureIds = new ArrayList<>(pictures.size());
+        for (Picture picture : pictures) {
+            pictureIds.add(picture.getId());
+        }
+
+        // 上界之后仍有互动变化的图片，互动表已包含尚未计入图片表的记录，本次不校准
+        Set<Long> unsettledIds = new HashSet<>(userReactionMapper.selectTargetIdsChangedAfter(
+                RedisConstants.TARGET_PICTURE, pictureIds, toLocalDateTime(upperBound)));
+
+        // 从用户反应表获取准确的点赞数和收藏数
+        Map<Long, long[]> actualCounts = new HashMap<>(pictures.size());
+        for (TargetReactionCount row : userReactionMapper.countReactionsGroupByTarget(RedisConstants.TARGET_PICTURE, pictureIds)) {
+            long[] counts = actualCounts.computeIfAbsent(row.getTargetId(), k -> new long[2]);
+            if (RedisConstants.REACTION_LIKE.equals(row.getReactionType())) {
+                counts[0] = row.getReactionCount();
+            } else if (RedisConstants.REACTION_FAVORITE.equals(row.getReactionType())) {
+                counts[1] = row.getReactionCount();
+            }
+        }
+
+        List<PictureCountCorrection> corrections = new ArrayList<>();
+        for (Picture picture : pictures) {
+            if (unsettledIds.contains(picture.getId())) {
+                continue;
+            }
+            long[] actual = actualCounts.getOrDefault(picture.getId(), new long[2]);
+            long storedLike = picture.getLikeCount() == null ? 0 : picture.getLikeCount();
+            long storedFavorite = picture.getCollectionCount() == null ? 0 : picture.getCollectionCount();
+
+            if (actual[0] != storedLike || actual[1] != storedFavorite) {
+                corrections.add(new PictureCountCorrection(picture.getId(), storedLike, storedFavorite, actual[0], actual[1]));
+                result.likeDrift += Math.abs(actual[0] - storedLike);
+                result.favoriteDrift += Math.abs(actual[1] - storedFavorite);
+                log.info("校准图片计数: id={}, 点赞从{}调整到{}, 收藏从{}调整到{}",
+                        picture.getId(), storedLike, actual[0], storedFavorite, actual[1]);
+            }
+        }
+        result.checked += pictures.size();
+
+        if (corrections.isEmpty()) {
+            return;
+        }
+        try {
+            result.corrected += pictureMapper.batchCorrectReactionCounts(corrections);
+
+            // 校准后的计数同步到排行榜（按数据库当前值刷新，未写入的图片刷新后不变）
+            List<Long> correctedIds = new ArrayList<>(corrections.size());
+            for (PictureCountCorrection correction : corrections) {
+                correctedIds.add(correction.getPictureId());
+            }
+            leaderboardManager.refreshPictures(correctedIds);
+        } catch (Exception e) {
+            log.error("批量校准图片计数失败: 图片数={}, error={}", corrections.size(), e.getMessage(), e);
+        }
+    }
+
+    private void recordRun(String mode, RunResult result, long duration) {
+        if (MODE_INCREMENTAL.equals(mode)) {
+            incrementalRuns.increment();
+            lastIncrementalDurationMillis = duration;
+        } else {
+            fullRuns.increment();
+            lastFullDurationMillis = duration;
+        }
+        lastChecked = result.checked;
+        lastCorrected = result.corrected;
+        lastLikeDrift = result.likeDrift;
+        lastFavoriteDrift = result.favoriteDrift;
+        lastRunAt = System.currentTimeMillis();
+        totalChecked.add(result.checked);
+        totalCorrected.add(result.corrected);
+        totalLikeDrift.add(result.likeDrift);
+        totalFavoriteDrift.add(result.favoriteDrift);
+    }
+
+    private Long readWatermark() {
+        try {
+            Object value = redisTemplate.opsForValue().get(RedisConstants.RECONCILE_WATERMARK_KEY);
+            return value == null ? null : Long.valueOf(String.valueOf(value));
         } catch (Exception e) {
-            log.error("图片计数校准任务执行异常: {}", e.getMessage(), e);
+            log.error("读取计数校准水位线失败: {}", e.getMessage());
+            return null;
         }
     }
-}
\ No newline at end of file
+
+    private void advanceWatermark(long watermark) {
+        Long current = readWatermark();
+        if (current == null || watermark > current) {
+            redisTemplate.opsForValue().set(RedisConstants.RECONCILE_WATERMARK_KEY, watermark);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 单次校准结果
+     */
+    private static class RunResult {
+        private long checked;
+        private long corrected;
+        private long likeDrift;
+        private long favoriteDrift;
+    }
+}
@@ -1,62 +1,62 @@
 package org.leocoder.picture.utils;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 /**
  * @author : 程序员Leo
- * @version 1.0
+ * @version 2.0
  * @date 2025-04-07 15:10
  * @description :  雪花算法ID生成器
+ * ID结构：毫秒时间戳(相对起始时间) | 7位节点ID | 12位毫秒内序列，单节点每毫秒4096个ID。
+ * 时间戳与序列合并为一个状态值，通过CAS推进，不加锁也不忙等；
+ * 序列用尽或时钟小幅回拨时向后借用未来毫秒继续生成，领先实际时间超过容忍范围才等待时钟追上。
+ * 新结构生成的ID始终大于旧结构（时间戳左移17位）生成的ID，保持全局递增。
+ * 节点ID来自租约时，超过租约有效期（续期失败或租约丢失）后拒绝生成ID，避免与重新获得该节点ID的实例重复
  */
-
 @Slf4j
 public class SnowflakeIdGenerator {
 
     // 开始时间戳 (2024-01-01)，使用更近的日期减少位数
-    private final long startEpoch = 1704067200000L;
-
-    // 时间戳占用28位，约8.5年足够使用
-    private final long timestampBits = 28L;
-
-    // 机器ID所占位数
-    private final long workerIdBits = 4L;
+    private static final long START_EPOCH = 1704067200000L;
 
-    // 数据中心ID所占位数
-    private final long dataCenterIdBits = 3L;
+    // 节点ID所占位数（原数据中心ID 3位 + 机器ID 4位）
+    private static final long NODE_ID_BITS = 7L;
 
-    // 支持的最大机器ID，结果是15
-    private final long maxWorkerId = ~(-1L << workerIdBits);
+    // 序列号所占位数
+    private static final long SEQUENCE_BITS = 12L;
 
-    // 支持的最大数据中心ID，结果是7
-    private final long maxDataCenterId = ~(-1L << dataCenterIdBits);
+    // 支持的最大节点ID，结果是127
+    public static final long MAX_NODE_ID = ~(-1L << NODE_ID_BITS);
 
-    // 序列号所占位数，减少到10位
-    private final long sequenceBits = 10L;
+    // 生成序列的掩码，这里为4095
+    private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
 
-    // 机器ID向左移10位
-    private final long workerIdShift = sequenceBits;
+    // 节点ID向左移12位
+    private static final long NODE_ID_SHIFT = SEQUENCE_BITS;
 
-    // 数据中心ID向左移14位
-    private final long dataCenterIdShift = sequenceBits + workerIdBits;
+    // 时间戳向左移19位
+    private static final long TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + NODE_ID_BITS;
 
-    // 时间戳向左移17位
-    private final long timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
+    // 默认允许领先实际时间的时长
+    private static final Duration DEFAULT_MAX_BORROW = Duration.ofSeconds(2);
 
-    // 生成序列的掩码，这里为1023
-    private final long sequenceMask = ~(-1L << sequenceBits);
+    // 节点ID(0~127)
+    private volatile long nodeId;
 
-    // 工作机器ID(0~15)
-    private long workerId;
+    // 允许领先实际时间的毫秒数
+    private final long maxBorrowMillis;
 
-    // 数据中心ID(0~7)
-    private long dataCenterId;
+    // 上次分配的状态：(相对时间戳 << 序列位数) | 序列号
+    private final AtomicLong state = new AtomicLong(-1L);
 
-    // 毫秒内序列(0~1023)
-    private long sequence = 0L;
-
-    // 上次生成ID的时间戳
-    private long lastTimestamp = -1L;
+    // 节点ID租约有效期截止时间（System.nanoTime），为null时节点ID来自配置，不限期
+    private volatile LongSupplier leaseDeadline;
 
     /**
      * 构造函数
@@ -64,52 +64,44 @@ public class SnowflakeIdGenerator {
      * @param dataCenterId 数据中心ID (0~7)
      */
     public SnowflakeIdGenerator(long workerId, long dataCenterId) {
-        if (workerId > maxWorkerId || workerId < 0) {
-            throw new IllegalArgumentException("Worker ID can't be greater than " + maxWorkerId + " or less than 0");
-        }
-        if (dataCenterId > maxDataCenterId || dataCenterId < 0) {
-            throw new IllegalArgumentException("DataCenter ID can't be greater than " + maxDataCenterId + " or less than 0");
-        }
-        this.workerId = workerId;
-        this.dataCenterId = dataCenterId;
-        log.info("ShortIdGenerator initialized with workerId: {}, dataCenterId: {}", workerId, dataCenterId);
+        this(composeNodeId(workerId, dataCenterId), DEFAULT_MAX_BORROW);
     }
 
     /**
-     * 生成短ID
+     * 构造函数
+     * @param nodeId 节点ID (0~127)
+     * @param maxBorrow 允许领先实际时间的时长
+     */
+    public SnowflakeIdGenerator(long nodeId, Duration maxBorrow) {
+        checkNodeId(nodeId);
+        this.nodeId = nodeId;
+        this.maxBorrowMillis = maxBorrow.toMillis();
+        log.info("SnowflakeIdGenerator initialized with nodeId: {}, maxBorrowMillis: {}", nodeId, maxBorrowMillis);
+    }
+
+    /**
+     * 生成ID
      * @return 返回ID
      */
-    public synchronized long nextId() {
-        long timestamp = timeGen();
+    public long nextId() {
+        return toId(reserve(1));
+    }
 
-        // 如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过，抛出异常
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException("Clock moved backwards. Refusing to generate id for "
-                    + (lastTimestamp - timestamp) + " milliseconds");
+    /**
+     * 批量生成ID，一次CAS分配一段连续序列，适用于批量插入
+     * @param count 数量
+     * @return 递增的ID数组
+     */
+    public long[] nextIds(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
         }
-
-        // 如果是同一时间生成的，则进行毫秒内序列
-        if (lastTimestamp == timestamp) {
-            sequence = (sequence + 1) & sequenceMask;
-            // 毫秒内序列溢出
-            if (sequence == 0) {
-                // 阻塞到下一个毫秒，获得新的时间戳
-                timestamp = tilNextMillis(lastTimestamp);
-            }
-        } else {
-            // 时间戳改变，毫秒内序列重置
-            sequence = 0L;
+        long first = reserve(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = toId(first + i);
         }
-
-        // 上次生成ID的时间戳
-        lastTimestamp = timestamp;
-
-        // 组合ID (时间戳部分 | 数据中心部分 | 机器标识部分 | 序列号部分)
-        // 由于位数减少，生成的ID将会更短
-        return ((timestamp - startEpoch) << timestampLeftShift) |
-                (dataCenterId << dataCenterIdShift) |
-                (workerId << workerIdShift) |
-                sequence;
+        return ids;
     }
 
     /**
@@ -121,6 +113,89 @@ public class SnowflakeIdGenerator {
         return toBase62(nextId());
     }
 
+    /**
+     * 当前节点ID
+     */
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 切换节点ID（节点ID租约变更时使用）
+     * @param nodeId 节点ID (0~127)
+     */
+    public void setNodeId(long nodeId) {
+        checkNodeId(nodeId);
+        this.nodeId = nodeId;
+        log.info("SnowflakeIdGenerator nodeId changed to {}", nodeId);
+    }
+
+    /**
+     * 设置节点ID租约有效期（节点ID来自租约时使用）
+     * @param leaseDeadline 返回租约有效期截止时间（System.nanoTime）
+     */
+    public void setLeaseDeadline(LongSupplier leaseDeadline) {
+        this.leaseDeadline = leaseDeadline;
+    }
+
+    /**
+     * 预留一段连续的状态值
+     * @param count 数量
+     * @return 第一个状态值
+     */
+    private long reserve(int count) {
+        LongSupplier deadline = leaseDeadline;
+        if (deadline != null && System.nanoTime() - deadline.getAsLong() > 0) {
+            throw new IllegalStateException("Node ID lease expired. Refusing to generate id with nodeId " + nodeId);
+        }
+        long waitDeadline = 0;
+        while (true) {
+            long now = timeGen() - START_EPOCH;
+            long last = state.get();
+            // 同一毫秒或时钟回拨时在上次状态之后继续，序列用尽时自然进位到下一毫秒
+            long first = Math.max(last + 1, now << SEQUENCE_BITS);
+            long end = first + count - 1;
+            long lead = (end >>> SEQUENCE_BITS) - now;
+            if (lead > maxBorrowMillis) {
+                // 领先实际时间过多，等待时钟追上；等待超过容忍范围说明时钟大幅回拨
+                long current = System.nanoTime();
+                if (waitDeadline == 0) {
+                    waitDeadline = current + TimeUnit.MILLISECONDS.toNanos(maxBorrowMillis);
+                } else if (current > waitDeadline) {
+                    throw new IllegalStateException("Clock moved backwards. Refusing to generate id for "
+                            + (lead - maxBorrowMillis) + " milliseconds");
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            if (state.compareAndSet(last, end)) {
+                return first;
+            }
+        }
+    }
+
+    private long toId(long value) {
+        return ((value >>> SEQUENCE_BITS) << TIMESTAMP_LEFT_SHIFT)
+                | (nodeId << NODE_ID_SHIFT)
+                | (value & SEQUENCE_MASK);
+    }
+
+    private static long composeNodeId(long workerId, long dataCenterId) {
+        if (workerId > 15 || workerId < 0) {
+            throw new IllegalArgumentException("Worker ID can't be greater than 15 or less than 0");
+        }
+        if (dataCenterId > 7 || dataCenterId < 0) {
+            throw new IllegalArgumentException("DataCenter ID can't be greater than 7 or less than 0");
+        }
+        return (dataCenterId << 4) | workerId;
+    }
+
+    private static void checkNodeId(long nodeId) {
+        if (nodeId > MAX_NODE_ID || nodeId < 0) {
+            throw new IllegalArgumentException("Node ID can't be greater than " + MAX_NODE_ID + " or less than 0");
+        }
+    }
+
     /**
      * 将长整型ID转换为Base62字符串
      * @param num 长整型ID
@@ -137,19 +212,6 @@ public class SnowflakeIdGenerator {
         return sb.reverse().toString();
     }
 
-    /**
-     * 阻塞到下一个毫秒，直到获得新的时间戳
-     * @param lastTimestamp 上次生成ID的时间戳
-     * @return 当前时间戳
-     */
-    private long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
-        }
-        return timestamp;
-    }
-
     /**
      * 返回当前时间的毫秒数
      * @return 当前时间的毫秒数
@@ -157,4 +219,4 @@ public class SnowflakeIdGenerator {
     private long timeGen() {
         return System.currentTimeMillis();
     }
-}
\ No newline at end of file
+}
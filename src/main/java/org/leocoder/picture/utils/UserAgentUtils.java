@@ -1,9 +1,13 @@
 package org.leocoder.picture.utils;
 
 import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import eu.bitwalker.useragentutils.Browser;
 import eu.bitwalker.useragentutils.OperatingSystem;
 import eu.bitwalker.useragentutils.UserAgent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -12,9 +16,48 @@ import javax.servlet.http.HttpServletRequest;
  * @version 1.0
  * @date 2025-04-10 14:45
  * @description : User-Agent解析工具类
+ * 一次解析同时得到设备、浏览器和操作系统，结果按User-Agent字符串缓存（实际流量中不同的UA很少）
  */
 public class UserAgentUtils {
-    
+
+    private static final String UNKNOWN_DEVICE = "未知设备";
+
+    private static final String UNKNOWN_BROWSER = "未知浏览器";
+
+    private static final String UNKNOWN_OS = "未知操作系统";
+
+    private static final UserAgentInfo UNKNOWN = new UserAgentInfo(UNKNOWN_DEVICE, UNKNOWN_BROWSER, UNKNOWN_OS);
+
+    /**
+     * 解析结果缓存，按数量淘汰
+     */
+    private static final Cache<String, UserAgentInfo> PARSE_CACHE = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .build();
+
+    /**
+     * 解析请求的User-Agent
+     *
+     * @param request 请求对象
+     * @return 设备、浏览器和操作系统信息
+     */
+    public static UserAgentInfo parse(HttpServletRequest request) {
+        return parse(request.getHeader("User-Agent"));
+    }
+
+    /**
+     * 解析User-Agent字符串
+     *
+     * @param userAgentStr User-Agent字符串
+     * @return 设备、浏览器和操作系统信息
+     */
+    public static UserAgentInfo parse(String userAgentStr) {
+        if (StrUtil.isBlank(userAgentStr)) {
+            return UNKNOWN;
+        }
+        return PARSE_CACHE.get(userAgentStr, UserAgentUtils::doParse);
+    }
+
     /**
      * 获取浏览器信息
      *
@@ -22,17 +65,9 @@ public class UserAgentUtils {
      * @return 浏览器信息
      */
     public static String getBrowserInfo(HttpServletRequest request) {
-        String userAgentStr = request.getHeader("User-Agent");
-        if (StrUtil.isBlank(userAgentStr)) {
-            return "未知浏览器";
-        }
-        
-        UserAgent userAgent = UserAgent.parseUserAgentString(userAgentStr);
-        Browser browser = userAgent.getBrowser();
-        
-        return browser.getName() + " " + browser.getVersion(userAgentStr);
+        return parse(request).getBrowser();
     }
-    
+
     /**
      * 获取操作系统信息
      *
@@ -40,17 +75,9 @@ public class UserAgentUtils {
      * @return 操作系统信息
      */
     public static String getOsInfo(HttpServletRequest request) {
-        String userAgentStr = request.getHeader("User-Agent");
-        if (StrUtil.isBlank(userAgentStr)) {
-            return "未知操作系统";
-        }
-        
-        UserAgent userAgent = UserAgent.parseUserAgentString(userAgentStr);
-        OperatingSystem os = userAgent.getOperatingSystem();
-        
-        return os.getName();
+        return parse(request).getOs();
     }
-    
+
     /**
      * 获取设备信息
      *
@@ -58,18 +85,38 @@ public class UserAgentUtils {
      * @return 设备信息
      */
     public static String getDeviceInfo(HttpServletRequest request) {
-        String userAgentStr = request.getHeader("User-Agent");
-        if (StrUtil.isBlank(userAgentStr)) {
-            return "未知设备";
-        }
-        
+        return parse(request).getDevice();
+    }
+
+    private static UserAgentInfo doParse(String userAgentStr) {
         UserAgent userAgent = UserAgent.parseUserAgentString(userAgentStr);
+        Browser browser = userAgent.getBrowser();
         OperatingSystem os = userAgent.getOperatingSystem();
-        
-        if (os.isMobileDevice()) {
-            return "移动设备";
-        } else {
-            return "PC设备";
-        }
+
+        String device = os.isMobileDevice() ? "移动设备" : "PC设备";
+        return new UserAgentInfo(device, browser.getName() + " " + browser.getVersion(userAgentStr), os.getName());
+    }
+
+    /**
+     * User-Agent解析结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class UserAgentInfo {
+
+        /**
+         * 设备类型
+         */
+        private final String device;
+
+        /**
+         * 浏览器名称及版本
+         */
+        private final String browser;
+
+        /**
+         * 操作系统
+         */
+        private final String os;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+-- ===================================================================
+-- 分类路径索引
+-- 分类路径为祖先ID依次加 "-" 拼接（如 "1-5-"），子树移动按 path like '前缀%' 一条语句改写全部后代，
+-- 前缀匹配可以走该索引的范围扫描，只锁定被移动子树内的行
+-- ===================================================================
+ALTER TABLE t_category
+    ADD INDEX idx_category_path (`path`);
@@ -0,0 +1,9 @@
+-- ===================================================================
+-- 评论游标分页索引
+-- 一级评论：content_type + content_id 定位内容，parent_id is null 与 is_deleted = 0 为等值条件，
+-- 其后的 is_top, create_time, id 与排序及游标条件一致，翻到任意深度都只扫描一页的行数
+-- 回复：root_id 定位根评论，create_time, id 与排序及游标条件一致（评论树批量查询回复也使用该索引）
+-- ===================================================================
+ALTER TABLE t_comment
+    ADD INDEX idx_comment_content_keyset (content_type, content_id, parent_id, is_deleted, is_top, create_time, id),
+    ADD INDEX idx_comment_root_keyset (root_id, is_deleted, create_time, id);